@@ -0,0 +1,158 @@
+package rendimiento;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import persistencia.archivo.ArchivoGarantias;
+import persistencia.entitad.GarantiaExtendidaEntity;
+import persistencia.entitad.ProductoEntity;
+import persistencia.repositorio.RepositorioGarantiaPersistente;
+import persistencia.repositorio.RepositorioProductoPersistente;
+
+/**
+ * Mide las consultas de la venta sobre la tabla de garantias antes y despues
+ * de archivar el 90% de las filas, que estan vencidas: buscar la garantia de
+ * un producto que la tiene vigente, buscar la de un producto que no tiene (que
+ * despues de archivar tambien consulta el archivo), comprobar como la venta si
+ * un producto sin garantia la tiene (una sola consulta sobre ambas tablas),
+ * buscar una garantia archivada y registrar una garantia nueva, deshaciendo la
+ * transaccion. Cada garantia lleva clave de idempotencia para que la carga no
+ * recorra en H2 el indice unico lleno de nulos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class ArchivoGarantiasBenchmark {
+
+	private static final int LOTE = 1000;
+	private static final int VIGENTE_CADA = 10;
+
+	@Param({ "100000", "1000000" })
+	private int garantias;
+
+	@Param({ "false", "true" })
+	private boolean archivado;
+
+	private EntityManagerFactory entityManagerFactory;
+	private EntityManager entityManager;
+	private RepositorioGarantiaPersistente repositorio;
+	private int ventas;
+
+	@Setup
+	public void prepararGarantias() {
+		entityManagerFactory = Persistence.createEntityManagerFactory("tienda",
+				Collections.singletonMap("hibernate.show_sql", "false"));
+		insertar();
+		if (archivado) {
+			new ArchivoGarantias(entityManagerFactory).archivar(LocalDate.now(), resumen -> {
+			});
+		}
+
+		entityManager = entityManagerFactory.createEntityManager();
+		repositorio = new RepositorioGarantiaPersistente(entityManager,
+				new RepositorioProductoPersistente(entityManager));
+	}
+
+	@TearDown
+	public void cerrar() {
+		entityManager.close();
+		entityManagerFactory.close();
+	}
+
+	@Benchmark
+	public GarantiaExtendida obtenerVigente() {
+		int i = ThreadLocalRandom.current().nextInt(garantias / VIGENTE_CADA) * VIGENTE_CADA;
+		return repositorio.obtener("P" + i);
+	}
+
+	@Benchmark
+	public GarantiaExtendida obtenerSinGarantia() {
+		return repositorio.obtener("S" + ThreadLocalRandom.current().nextInt(garantias / VIGENTE_CADA));
+	}
+
+	@Benchmark
+	public Producto consultarSinGarantia() {
+		return repositorio
+				.obtenerProductoConGarantiaPorCodigo("S" + ThreadLocalRandom.current().nextInt(garantias / VIGENTE_CADA));
+	}
+
+	@Benchmark
+	public GarantiaExtendida obtenerVencida() {
+		int i = ThreadLocalRandom.current().nextInt(garantias / VIGENTE_CADA) * VIGENTE_CADA + 1;
+		return repositorio.obtener("P" + i);
+	}
+
+	@Benchmark
+	public void registrar() {
+		String codigo = "S" + (ventas++ % (garantias / VIGENTE_CADA));
+		LocalDate hoy = LocalDate.now();
+		entityManager.getTransaction().begin();
+		repositorio.agregar(GarantiaExtendida.conPrecioEnCentavos(Producto.conPrecioEnCentavos(codigo, null, 0),
+				hoy, hoy.plusDays(200), 15600000L, "Cliente " + codigo, "V" + ventas));
+		entityManager.flush();
+		entityManager.getTransaction().rollback();
+		entityManager.clear();
+	}
+
+	private void insertar() {
+		EntityManager carga = entityManagerFactory.createEntityManager();
+		carga.getTransaction().begin();
+		LocalDate hoy = LocalDate.now();
+		for (int i = 0; i < garantias; i++) {
+			ProductoEntity producto = producto("P" + i);
+			carga.persist(producto);
+
+			LocalDate solicitud = i % VIGENTE_CADA == 0 ? hoy : hoy.minusYears(2);
+			GarantiaExtendidaEntity garantia = new GarantiaExtendidaEntity();
+			garantia.setProducto(producto);
+			garantia.setFechaSolicitudGarantia(solicitud);
+			garantia.setFechaFinGarantia(solicitud.plusDays(200));
+			garantia.setNombreCliente("Cliente " + i);
+			garantia.setClaveIdempotencia("K" + i);
+			garantia.setPrecioCentavos(15600000L);
+			carga.persist(garantia);
+
+			if (i % VIGENTE_CADA == 0) {
+				carga.persist(producto("S" + i / VIGENTE_CADA));
+			}
+			if (i % LOTE == LOTE - 1) {
+				carga.flush();
+				carga.clear();
+			}
+		}
+		carga.getTransaction().commit();
+		carga.close();
+	}
+
+	private static ProductoEntity producto(String codigo) {
+		ProductoEntity producto = new ProductoEntity();
+		producto.setCodigo(codigo);
+		producto.setNombre("Producto " + codigo);
+		producto.setPrecioCentavos(78000000L);
+		return producto;
+	}
+}
@@ -0,0 +1,67 @@
+package rendimiento;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.sistema.SistemaDePersistencia;
+
+/**
+ * Mide el tiempo desde la creacion del sistema de persistencia hasta que se
+ * registra la primera garantia, con y sin el modo de arranque rapido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ArranqueBenchmark {
+
+	private static final String NOMBRE_CLIENTE = "Cliente Benchmark";
+
+	@Param({ "false", "true" })
+	private boolean arranqueRapido;
+
+	private SistemaDePersistencia esquemaExistente;
+	private int secuencia;
+
+	@Setup
+	public void crearEsquema() {
+		// Mantiene viva la base en memoria con el esquema creado, como lo estaria
+		// una base de datos ya desplegada
+		esquemaExistente = new SistemaDePersistencia();
+		esquemaExistente.iniciar();
+		esquemaExistente.terminar();
+	}
+
+	@Benchmark
+	public boolean tiempoHastaPrimeraGarantia() {
+		SistemaDePersistencia sistema = new SistemaDePersistencia(arranqueRapido);
+		RepositorioProducto repositorioProducto = sistema.obtenerRepositorioProductos();
+		RepositorioGarantiaExtendida repositorioGarantia = sistema.obtenerRepositorioGarantia();
+
+		String codigo = "B" + (secuencia++);
+		sistema.iniciar();
+		repositorioProducto.agregar(new Producto(codigo, "Producto " + codigo, 780000));
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+		vendedor.generarGarantia(codigo, NOMBRE_CLIENTE);
+		sistema.terminar();
+
+		return vendedor.tieneGarantia(codigo);
+	}
+}
@@ -0,0 +1,114 @@
+package rendimiento;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import persistencia.entitad.GarantiaExtendidaEntity;
+import persistencia.entitad.ProductoEntity;
+import persistencia.lectura.ModeloLecturaGarantias;
+
+/**
+ * Mide el tiempo hasta tener caliente el modelo de lectura: carga completa
+ * desde H2 contra la instantanea mapeada en memoria mas los cambios
+ * posteriores (500 garantias confirmadas despues de escribirla)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx1g" })
+public class ArranqueCalienteBenchmark {
+
+	private static final int CAMBIOS_POSTERIORES = 500;
+	private static final int LOTE = 1000;
+
+	@Param({ "10000" })
+	private int garantias;
+
+	private EntityManagerFactory entityManagerFactory;
+	private Path instantanea;
+
+	@Setup
+	public void prepararDatos() throws IOException {
+		entityManagerFactory = Persistence.createEntityManagerFactory("tienda",
+				Collections.singletonMap("hibernate.show_sql", "false"));
+		insertar(0, garantias);
+
+		ModeloLecturaGarantias modelo = new ModeloLecturaGarantias();
+		modelo.cargar(entityManagerFactory).join();
+		instantanea = Files.createTempFile("garantias", ".snap");
+		modelo.guardarInstantanea(instantanea);
+
+		insertar(garantias, garantias + CAMBIOS_POSTERIORES);
+	}
+
+	@Benchmark
+	public ModeloLecturaGarantias cargaCompleta() {
+		ModeloLecturaGarantias modelo = new ModeloLecturaGarantias();
+		modelo.cargar(entityManagerFactory).join();
+		return modelo;
+	}
+
+	@Benchmark
+	public ModeloLecturaGarantias cargaDesdeInstantanea() {
+		ModeloLecturaGarantias modelo = new ModeloLecturaGarantias();
+		modelo.cargarDesdeInstantanea(entityManagerFactory, instantanea).join();
+		return modelo;
+	}
+
+	@TearDown
+	public void cerrar() throws IOException {
+		System.out.println("instantanea de " + Files.size(instantanea) / 1024 + " KB");
+		entityManagerFactory.close();
+		Files.deleteIfExists(instantanea);
+	}
+
+	private void insertar(int desde, int hasta) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+		LocalDate hoy = LocalDate.now();
+		for (int i = desde; i < hasta; i++) {
+			ProductoEntity producto = new ProductoEntity();
+			producto.setCodigo("P" + i);
+			producto.setNombre("Producto " + i);
+			producto.setPrecioCentavos(78000000L);
+			entityManager.persist(producto);
+
+			GarantiaExtendidaEntity garantia = new GarantiaExtendidaEntity();
+			garantia.setProducto(producto);
+			garantia.setFechaSolicitudGarantia(hoy);
+			garantia.setFechaFinGarantia(hoy.plusDays(200));
+			garantia.setNombreCliente("Cliente " + i);
+			garantia.setPrecioCentavos(15600000L);
+			entityManager.persist(garantia);
+			if (i % LOTE == LOTE - 1) {
+				entityManager.flush();
+				entityManager.clear();
+			}
+		}
+		entityManager.getTransaction().commit();
+		entityManager.close();
+	}
+}
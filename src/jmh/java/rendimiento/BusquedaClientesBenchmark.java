@@ -0,0 +1,175 @@
+package rendimiento;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.GarantiaExtendida;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import persistencia.entitad.GarantiaExtendidaEntity;
+import persistencia.entitad.ProductoEntity;
+import persistencia.lectura.ModeloLecturaGarantias;
+import persistencia.lectura.RepositorioGarantiaLectura;
+import persistencia.repositorio.RepositorioGarantiaPersistente;
+import persistencia.repositorio.RepositorioProductoPersistente;
+
+/**
+ * Mide la latencia de una pagina de 20 garantias buscando por cliente: la
+ * busqueda anterior con LIKE sobre el nombre sin normalizar ni indexar, la
+ * consulta sobre la clave normalizada indexada en H2 y el indice de clientes
+ * del modelo de lectura, mas las sugerencias mientras se escribe. Los clientes
+ * combinan 20 nombres y 50 x 50 apellidos con tildes, 50.000 clientes
+ * distintos; cada prefijo nombre + 3 letras del primer apellido abarca n/200
+ * garantias y cada nombre completo n/50.000. Cada garantia lleva clave de
+ * idempotencia para que la carga no recorra en H2 el indice unico lleno de
+ * nulos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class BusquedaClientesBenchmark {
+
+	private static final int PAGINA = 20;
+	private static final int SUGERENCIAS = 10;
+	private static final int LOTE = 1000;
+	private static final String[] NOMBRES = { "Adrin", "ngela", "Benjamn", "Camila", "Daro", "Elena", "Fabin",
+			"Gloria", "Hctor", "Ins", "Joaqun", "Luca", "Martn", "Mnica", "Nicols", "Olga", "Ral", "Sofa",
+			"Toms", "Vernica" };
+	private static final String[] APELLIDOS = new String[50];
+	private static final String JPQL_SIN_INDICE = "SELECT garantia from GarantiaExtendida garantia join fetch garantia.producto where lower(garantia.nombreCliente) like :patron order by garantia.nombreCliente";
+
+	static {
+		String[] raices = { "Martnez", "Gmez", "Rodrguez", "Lpez", "Prez", "Snchez", "Ramrez", "Nez",
+				"Jimnez", "Muoz" };
+		for (int i = 0; i < APELLIDOS.length; i++) {
+			APELLIDOS[i] = raices[i % raices.length] + (i < raices.length ? "" : " de " + (char) ('A' + i / raices.length));
+		}
+	}
+
+	@Param({ "100000", "1000000" })
+	private int garantias;
+
+	private EntityManagerFactory entityManagerFactory;
+	private EntityManager entityManager;
+	private RepositorioGarantiaExtendida repositorioBaseDeDatos;
+	private RepositorioGarantiaLectura repositorioIndice;
+
+	@Setup
+	public void prepararGarantias() {
+		entityManagerFactory = Persistence.createEntityManagerFactory("tienda",
+				Collections.singletonMap("hibernate.show_sql", "false"));
+		insertar();
+
+		entityManager = entityManagerFactory.createEntityManager();
+		RepositorioProductoPersistente repositorioProducto = new RepositorioProductoPersistente(entityManager);
+		repositorioBaseDeDatos = new RepositorioGarantiaPersistente(entityManager, repositorioProducto);
+		ModeloLecturaGarantias modelo = new ModeloLecturaGarantias();
+		modelo.cargar(entityManagerFactory).join();
+		repositorioIndice = new RepositorioGarantiaLectura(repositorioBaseDeDatos, entityManager, modelo);
+	}
+
+	@TearDown
+	public void cerrar() {
+		entityManager.close();
+		entityManagerFactory.close();
+	}
+
+	@Benchmark
+	public List<GarantiaExtendidaEntity> prefijoSinIndice() {
+		List<GarantiaExtendidaEntity> pagina = entityManager
+				.createQuery(JPQL_SIN_INDICE, GarantiaExtendidaEntity.class)
+				.setParameter("patron", prefijo().toLowerCase() + "%").setMaxResults(PAGINA).getResultList();
+		entityManager.clear();
+		return pagina;
+	}
+
+	@Benchmark
+	public List<GarantiaExtendida> prefijoBaseDeDatos() {
+		return repositorioBaseDeDatos.buscarPorPrefijoCliente(prefijo(), null, PAGINA);
+	}
+
+	@Benchmark
+	public List<GarantiaExtendida> prefijoIndice() {
+		return repositorioIndice.buscarPorPrefijoCliente(prefijo(), null, PAGINA);
+	}
+
+	@Benchmark
+	public List<GarantiaExtendida> nombreBaseDeDatos() {
+		return repositorioBaseDeDatos.buscarPorNombreCliente(cliente(), null, PAGINA);
+	}
+
+	@Benchmark
+	public List<GarantiaExtendida> nombreIndice() {
+		return repositorioIndice.buscarPorNombreCliente(cliente(), null, PAGINA);
+	}
+
+	@Benchmark
+	public List<String> sugerirIndice() {
+		return repositorioIndice.sugerirClientes(prefijo(), SUGERENCIAS);
+	}
+
+	private void insertar() {
+		EntityManager carga = entityManagerFactory.createEntityManager();
+		carga.getTransaction().begin();
+		LocalDate hoy = LocalDate.now();
+		for (int i = 0; i < garantias; i++) {
+			ProductoEntity producto = new ProductoEntity();
+			producto.setCodigo("P" + i);
+			producto.setNombre("Producto " + i);
+			producto.setPrecioCentavos(78000000L);
+			carga.persist(producto);
+
+			GarantiaExtendidaEntity garantia = new GarantiaExtendidaEntity();
+			garantia.setProducto(producto);
+			garantia.setFechaSolicitudGarantia(hoy);
+			garantia.setFechaFinGarantia(hoy.plusDays(200));
+			garantia.setNombreCliente(cliente(i));
+			garantia.setClaveIdempotencia("K" + i);
+			garantia.setPrecioCentavos(15600000L);
+			carga.persist(garantia);
+			if (i % LOTE == LOTE - 1) {
+				carga.flush();
+				carga.clear();
+			}
+		}
+		carga.getTransaction().commit();
+		carga.close();
+	}
+
+	private static String cliente(int i) {
+		return NOMBRES[i % NOMBRES.length] + " " + APELLIDOS[(i / NOMBRES.length) % APELLIDOS.length] + " "
+				+ APELLIDOS[(i / (NOMBRES.length * APELLIDOS.length)) % APELLIDOS.length];
+	}
+
+	private static String cliente() {
+		return cliente(ThreadLocalRandom.current().nextInt(NOMBRES.length * APELLIDOS.length * APELLIDOS.length));
+	}
+
+	private static String prefijo() {
+		ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+		return NOMBRES[aleatorio.nextInt(NOMBRES.length)] + " "
+				+ APELLIDOS[aleatorio.nextInt(APELLIDOS.length)].substring(0, 3);
+	}
+}
@@ -0,0 +1,136 @@
+package rendimiento;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.Producto;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.importacion.FormatoCatalogo;
+import persistencia.importacion.ImportadorCatalogo;
+import persistencia.lectura.IndiceProductos;
+import persistencia.lectura.RepositorioProductoIndexado;
+import persistencia.repositorio.RepositorioProductoPersistente;
+
+/**
+ * Mide la latencia de una pagina de 20 productos en la busqueda por precio
+ * mayor a un umbral aleatorio y por un prefijo de nombre aleatorio, con las
+ * consultas sobre los indices de H2 contra el indice en memoria, para
+ * catalogos de hasta 1M de productos. Los nombres combinan 20 marcas y 50
+ * tipos, de modo que cada prefijo marca+tipo abarca n/1000 productos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx3g" })
+public class BusquedaProductosBenchmark {
+
+	private static final int PAGINA = 20;
+	private static final long PRECIO_MAXIMO_CENTAVOS = 200000000L;
+	private static final String[] MARCAS = { "Acme", "Bosch", "Casio", "Dell", "Epson", "Fuji", "Genius", "Haier",
+			"Intel", "Jbl", "Kodak", "Lenovo", "Mabe", "Nokia", "Oster", "Philips", "Qualcomm", "Rca", "Samsung",
+			"Toshiba" };
+	private static final String[] TIPOS = new String[50];
+
+	static {
+		for (int i = 0; i < TIPOS.length; i++) {
+			TIPOS[i] = "Tipo" + (char) ('A' + i % 26) + (i / 26);
+		}
+	}
+
+	@Param({ "10000", "100000", "1000000" })
+	private int productos;
+
+	private EntityManagerFactory entityManagerFactory;
+	private EntityManager entityManager;
+	private RepositorioProducto repositorioBaseDeDatos;
+	private RepositorioProducto repositorioIndice;
+
+	@Setup
+	public void prepararCatalogo() throws IOException {
+		entityManagerFactory = Persistence.createEntityManagerFactory("tienda",
+				Collections.singletonMap("hibernate.show_sql", "false"));
+
+		Path archivo = Files.createTempFile("catalogo", ".csv");
+		try {
+			try (BufferedWriter escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+				for (int i = 0; i < productos; i++) {
+					long precio = ThreadLocalRandom.current().nextLong(100, PRECIO_MAXIMO_CENTAVOS);
+					escritor.write("P" + i + "," + MARCAS[i % MARCAS.length] + " " + TIPOS[(i / MARCAS.length) % TIPOS.length]
+							+ " " + i + "," + precio / 100 + "." + String.format("%02d", precio % 100));
+					escritor.newLine();
+				}
+			}
+			new ImportadorCatalogo(entityManagerFactory).importar(archivo, FormatoCatalogo.CSV, resumen -> {
+			});
+		} finally {
+			Files.deleteIfExists(archivo);
+		}
+
+		entityManager = entityManagerFactory.createEntityManager();
+		RepositorioProductoPersistente repositorio = new RepositorioProductoPersistente(entityManager);
+		repositorioBaseDeDatos = repositorio;
+		repositorioIndice = new RepositorioProductoIndexado(repositorio, entityManager,
+				IndiceProductos.cargar(entityManagerFactory));
+	}
+
+	@TearDown
+	public void cerrar() {
+		entityManager.close();
+		entityManagerFactory.close();
+	}
+
+	@Benchmark
+	public List<Producto> precioBaseDeDatos() {
+		return repositorioBaseDeDatos.buscarPorPrecioMayorA(umbral(), null, PAGINA);
+	}
+
+	@Benchmark
+	public List<Producto> precioIndice() {
+		return repositorioIndice.buscarPorPrecioMayorA(umbral(), null, PAGINA);
+	}
+
+	@Benchmark
+	public List<Producto> prefijoBaseDeDatos() {
+		return repositorioBaseDeDatos.buscarPorPrefijoNombre(prefijo(), null, PAGINA);
+	}
+
+	@Benchmark
+	public List<Producto> prefijoIndice() {
+		return repositorioIndice.buscarPorPrefijoNombre(prefijo(), null, PAGINA);
+	}
+
+	private static long umbral() {
+		return ThreadLocalRandom.current().nextLong(PRECIO_MAXIMO_CENTAVOS);
+	}
+
+	private static String prefijo() {
+		ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+		return MARCAS[aleatorio.nextInt(MARCAS.length)] + " " + TIPOS[aleatorio.nextInt(TIPOS.length)];
+	}
+}
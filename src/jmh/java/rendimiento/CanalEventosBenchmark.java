@@ -0,0 +1,69 @@
+package rendimiento;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.evento.CanalEventosGarantia;
+import dominio.evento.EstrategiaEspera;
+import dominio.evento.PoliticaDesborde;
+import dominio.evento.Suscripcion;
+
+/**
+ * Mide el costo de publicar una garantia en el canal con un consumidor lento
+ * (unos microsegundos por evento), segun la politica de desborde y la
+ * estrategia de espera. La publicacion no debe depender del consumidor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CanalEventosBenchmark {
+
+	@Param({ "DESCARTAR_NUEVO", "SOBRESCRIBIR_ANTIGUO" })
+	private PoliticaDesborde politica;
+
+	@Param({ "DORMIR", "BLOQUEAR" })
+	private EstrategiaEspera estrategia;
+
+	private CanalEventosGarantia canal;
+	private Suscripcion suscripcion;
+	private GarantiaExtendida garantia;
+
+	@Setup
+	public void suscribir() {
+		canal = new CanalEventosGarantia(CanalEventosGarantia.CAPACIDAD_POR_DEFECTO, politica);
+		suscripcion = canal.suscribir("lento", (evento, secuencia, finDeLote) -> Blackhole.consumeCPU(2000),
+				estrategia);
+		garantia = new GarantiaExtendida(new Producto("F01TSA0150", "Computador Lenovo", 780000), LocalDate.now(),
+				LocalDate.now(), 156000, "Cliente");
+	}
+
+	@Benchmark
+	public long publicar() {
+		return canal.publicar(garantia);
+	}
+
+	@TearDown
+	public void cancelar() throws InterruptedException {
+		System.out.println(suscripcion + " descartados=" + canal.getDescartados());
+		suscripcion.cancelar(1000);
+	}
+}
@@ -0,0 +1,115 @@
+package rendimiento;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.CatalogoProductos;
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import persistencia.builder.GarantiaExtendidaBuilder;
+import persistencia.entitad.GarantiaExtendidaEntity;
+import persistencia.entitad.ProductoEntity;
+
+/**
+ * Mide la memoria retenida por 1M de garantias sobre 50k productos cuando
+ * cada fila trae su propia copia del producto (como al leer de la base en
+ * sesiones distintas). Compara la conversion sin catalogo, un producto por
+ * garantia, contra el catalogo canonico. El heap retenido se imprime al final
+ * de cada iteracion
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class CatalogoProductosBenchmark {
+
+	private static final int GARANTIAS = 1000000;
+	private static final int PRODUCTOS = 50000;
+	private static final LocalDate FECHA_SOLICITUD = LocalDate.of(2018, 1, 1);
+	private static final LocalDate FECHA_FIN = LocalDate.of(2019, 1, 1);
+
+	@Param({ "sinCatalogo", "catalogo" })
+	private String modo;
+
+	private List<GarantiaExtendida> garantias;
+	private long heapInicial;
+
+	@Setup(Level.Iteration)
+	public void prepararIteracion() {
+		garantias = null;
+		CatalogoProductos.limpiar();
+		heapInicial = heapUsado();
+	}
+
+	@TearDown(Level.Iteration)
+	public void reportarMemoria() {
+		long retenido = heapUsado() - heapInicial;
+		System.out.printf("%s: %d MB retenidos, %d bytes por garantia%n", modo, retenido / (1024 * 1024),
+				retenido / GARANTIAS);
+		garantias = null;
+	}
+
+	@Benchmark
+	public List<GarantiaExtendida> convertirGarantias() {
+		boolean conCatalogo = "catalogo".equals(modo);
+		List<GarantiaExtendida> resultado = new ArrayList<>(GARANTIAS);
+		for (int i = 0; i < GARANTIAS; i++) {
+			GarantiaExtendidaEntity entity = filaLeida(i % PRODUCTOS);
+			resultado.add(conCatalogo ? GarantiaExtendidaBuilder.convertirADominio(entity) : sinCatalogo(entity));
+		}
+		garantias = resultado;
+		return resultado;
+	}
+
+	private static GarantiaExtendidaEntity filaLeida(int producto) {
+		ProductoEntity productoEntity = new ProductoEntity();
+		productoEntity.setCodigo(String.format("F%07dS", producto));
+		productoEntity.setNombre("Producto de la tienda numero " + producto);
+		productoEntity.setPrecioCentavos(78000000);
+
+		GarantiaExtendidaEntity garantiaEntity = new GarantiaExtendidaEntity();
+		garantiaEntity.setProducto(productoEntity);
+		garantiaEntity.setFechaSolicitudGarantia(FECHA_SOLICITUD);
+		garantiaEntity.setFechaFinGarantia(FECHA_FIN);
+		garantiaEntity.setPrecioCentavos(15600000);
+		garantiaEntity.setNombreCliente("Cliente");
+		return garantiaEntity;
+	}
+
+	private static GarantiaExtendida sinCatalogo(GarantiaExtendidaEntity entity) {
+		ProductoEntity productoEntity = entity.getProducto();
+		Producto producto = Producto.conPrecioEnCentavos(productoEntity.getCodigo(), productoEntity.getNombre(),
+				productoEntity.getPrecioCentavos());
+		return GarantiaExtendida.conPrecioEnCentavos(producto, entity.getFechaSolicitudGarantia(),
+				entity.getFechaFinGarantia(), entity.getPrecioCentavos(), entity.getNombreCliente(),
+				entity.getClaveIdempotencia());
+	}
+
+	private static long heapUsado() {
+		MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return memoria.getHeapMemoryUsage().getUsed();
+	}
+}
@@ -0,0 +1,60 @@
+package rendimiento;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.CotizacionGarantia;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.tarifa.ReglaDias;
+
+/**
+ * Mide el rendimiento de cotizarGarantia con la cache de fechas caliente, sin
+ * base de datos, frente al calculo del dia final sin memorizar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CotizacionBenchmark {
+
+	private static final long DIA_SOLICITUD = 17759;
+
+	private final Producto producto = new Producto("F01TSA0150", "Computador Lenovo", 780000);
+	private final RepositorioProductoEnMemoria repositorioProducto = new RepositorioProductoEnMemoria();
+	private final Vendedor vendedor = new Vendedor(repositorioProducto, new RepositorioGarantiaEnMemoria());
+
+	@Setup
+	public void agregarProducto() {
+		repositorioProducto.agregar(producto);
+	}
+
+	@Benchmark
+	public CotizacionGarantia cotizarGarantia() {
+		return vendedor.cotizarGarantia(producto.getCodigo());
+	}
+
+	@Benchmark
+	public long diaFinMemorizado() {
+		return vendedor.calcularDiaFinGarantia(DIA_SOLICITUD, producto.getPrecioCentavos());
+	}
+
+	@Benchmark
+	public long diaFinSinMemorizar() {
+		return ReglaDias.SIN_LUNES.calcularDiaFin(DIA_SOLICITUD, Vendedor.DIAS_GARANTIA_VEINTE_PORCIENTO);
+	}
+}
@@ -0,0 +1,90 @@
+package rendimiento;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.EstadoGarantia;
+import dominio.Producto;
+import dominio.Vendedor;
+import persistencia.sistema.SistemaDePersistencia;
+
+/**
+ * Compara la consulta del estado de la garantia de una pagina de productos,
+ * uno por uno con tieneGarantia y validarVocales, contra la consulta agrupada
+ * sobre H2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EstadoGarantiasBenchmark {
+
+	private static final int PRODUCTOS = 1000;
+
+	@Param({ "1", "100" })
+	private int cantidad;
+
+	private SistemaDePersistencia sistemaPersistencia;
+	private Vendedor vendedor;
+	private List<String> codigos;
+
+	@Setup
+	public void registrarProductos() {
+		sistemaPersistencia = new SistemaDePersistencia();
+		vendedor = new Vendedor(sistemaPersistencia.obtenerRepositorioProductos(),
+				sistemaPersistencia.obtenerRepositorioGarantia());
+		sistemaPersistencia.iniciar();
+		for (int i = 0; i < PRODUCTOS; i++) {
+			sistemaPersistencia.obtenerRepositorioProductos()
+					.agregar(new Producto(String.format("F%05dS", i), "Producto " + i, 780000));
+		}
+		for (int i = 0; i < PRODUCTOS; i += 3) {
+			vendedor.generarGarantia(String.format("F%05dS", i), "Cliente");
+		}
+		sistemaPersistencia.terminar();
+		sistemaPersistencia.iniciar();
+
+		codigos = new ArrayList<>();
+		for (int i = 0; i < cantidad; i++) {
+			codigos.add(String.format("F%05dS", i * (PRODUCTOS / cantidad)));
+		}
+	}
+
+	@Benchmark
+	public int unoPorUno() {
+		int disponibles = 0;
+		for (String codigo : codigos) {
+			if (!vendedor.tieneGarantia(codigo) && !vendedor.validarVocales(codigo)) {
+				disponibles++;
+			}
+		}
+		return disponibles;
+	}
+
+	@Benchmark
+	public Map<String, EstadoGarantia> agrupada() {
+		return vendedor.consultarEstadoGarantias(codigos);
+	}
+
+	@TearDown
+	public void cerrar() {
+		sistemaPersistencia.terminar();
+	}
+}
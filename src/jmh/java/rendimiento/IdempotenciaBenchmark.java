@@ -0,0 +1,84 @@
+package rendimiento;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.Producto;
+import dominio.ResultadoGarantia;
+import dominio.Vendedor;
+import dominio.idempotencia.VentaIdempotente;
+import dominio.idempotencia.VentanaIdempotencia;
+
+/**
+ * Mide la venta idempotente cuando una fraccion de las solicitudes son
+ * reintentos de solicitudes recientes. Al final de cada iteracion imprime la
+ * tasa de aciertos y la cantidad de claves retenidas, que nunca supera la
+ * capacidad de la ventana
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class IdempotenciaBenchmark {
+
+	private static final int PRODUCTOS = 10000;
+	private static final int REINTENTOS_RECIENTES = 64;
+
+	@Param({ "1024", "65536" })
+	private int capacidad;
+
+	@Param({ "0.1", "0.5" })
+	private double fraccionReintentos;
+
+	private final AtomicLong solicitudes = new AtomicLong();
+	private RepositorioGarantiaEnMemoria repositorioGarantia;
+	private VentanaIdempotencia<ResultadoGarantia> ventana;
+	private VentaIdempotente venta;
+
+	@Setup(Level.Iteration)
+	public void crearVenta() {
+		RepositorioProductoEnMemoria repositorioProducto = new RepositorioProductoEnMemoria();
+		for (int i = 0; i < PRODUCTOS; i++) {
+			repositorioProducto.agregar(new Producto("P" + i, "Producto " + i, 780000));
+		}
+		repositorioGarantia = new RepositorioGarantiaEnMemoria();
+		ventana = new VentanaIdempotencia<>(capacidad, Duration.ofMinutes(5));
+		venta = new VentaIdempotente(new Vendedor(repositorioProducto, repositorioGarantia), repositorioGarantia,
+				ventana);
+	}
+
+	@Benchmark
+	public Object solicitarGarantia() {
+		ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+		long solicitud = solicitudes.getAndIncrement();
+		if (solicitud > REINTENTOS_RECIENTES && aleatorio.nextDouble() < fraccionReintentos) {
+			solicitud -= 1 + aleatorio.nextInt(REINTENTOS_RECIENTES);
+		}
+		return venta.intentarGenerarGarantia("K" + solicitud, "P" + solicitud % PRODUCTOS, "Cliente");
+	}
+
+	@TearDown(Level.Iteration)
+	public void reportar() {
+		System.out.println("\n" + ventana);
+	}
+}
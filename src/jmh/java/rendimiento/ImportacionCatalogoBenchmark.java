@@ -0,0 +1,83 @@
+package rendimiento;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import persistencia.importacion.FormatoCatalogo;
+import persistencia.importacion.ImportadorCatalogo;
+import persistencia.importacion.ResumenImportacion;
+import persistencia.sistema.SistemaDePersistencia;
+
+/**
+ * Mide el tiempo de importar un catalogo completo sobre un esquema vacio. El
+ * rendimiento en productos por segundo es productos / tiempo por operacion
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx256m" })
+public class ImportacionCatalogoBenchmark {
+
+	@Param({ "10000", "100000" })
+	private int productos;
+
+	@Param({ "CSV", "NDJSON" })
+	private FormatoCatalogo formato;
+
+	private Path archivo;
+	private ImportadorCatalogo importador;
+
+	@Setup
+	public void generarArchivo() throws IOException {
+		archivo = Files.createTempFile("catalogo", "." + formato.name().toLowerCase());
+		try (BufferedWriter escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < productos; i++) {
+				String codigo = "P" + i;
+				double precio = 1000 + i % 900000;
+				if (formato == FormatoCatalogo.CSV) {
+					escritor.write(codigo + ",Producto " + i + "," + precio);
+				} else {
+					escritor.write("{\"codigo\":\"" + codigo + "\",\"nombre\":\"Producto " + i + "\",\"precio\":" + precio
+							+ "}");
+				}
+				escritor.newLine();
+			}
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void recrearEsquema() {
+		importador = new SistemaDePersistencia().obtenerImportadorCatalogo();
+	}
+
+	@Benchmark
+	public ResumenImportacion importarCatalogo() throws IOException {
+		return importador.importar(archivo, formato, resumen -> {
+		});
+	}
+
+	@TearDown
+	public void borrarArchivo() throws IOException {
+		Files.deleteIfExists(archivo);
+	}
+}
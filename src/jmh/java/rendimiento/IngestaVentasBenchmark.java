@@ -0,0 +1,147 @@
+package rendimiento;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.Vendedor;
+import persistencia.conexion.UnidadDeTrabajo;
+import persistencia.entitad.ProductoEntity;
+import persistencia.importacion.IngestaVentas;
+import persistencia.importacion.ResumenIngesta;
+import persistencia.repositorio.RepositorioGarantiaPersistente;
+import persistencia.repositorio.RepositorioProductoPersistente;
+
+/**
+ * Mide el tiempo de procesar un archivo de ventas registradas sin conexion:
+ * llamando a intentarGenerarGarantia del vendedor por cada linea, con una
+ * transaccion cada 1000 ventas, y con las etapas de {@link IngestaVentas}.
+ * Una de cada 20 ventas es de un codigo con tres vocales y se rechaza. El
+ * ciclo lee las lineas separando los valores por las comillas, sin el lector
+ * de objetos JSON de la ingesta. Las lineas por segundo son ventas / tiempo
+ * por operacion
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class IngestaVentasBenchmark {
+
+	private static final int LOTE = 1000;
+
+	@Param({ "10000", "100000" })
+	private int ventas;
+
+	private EntityManagerFactory entityManagerFactory;
+	private Path archivo;
+	private Path rechazados;
+
+	@Setup(Level.Iteration)
+	public void prepararVentas() throws IOException {
+		entityManagerFactory = Persistence.createEntityManagerFactory("tienda",
+				Collections.singletonMap("hibernate.show_sql", "false"));
+		EntityManager carga = entityManagerFactory.createEntityManager();
+		carga.getTransaction().begin();
+		for (int i = 0; i < ventas; i++) {
+			ProductoEntity producto = new ProductoEntity();
+			producto.setCodigo("P" + i);
+			producto.setNombre("Producto " + i);
+			producto.setPrecioCentavos(40000000L + i % 20000000L);
+			carga.persist(producto);
+			if (i % LOTE == LOTE - 1) {
+				carga.flush();
+				carga.clear();
+			}
+		}
+		carga.getTransaction().commit();
+		carga.close();
+
+		archivo = Files.createTempFile("ventas", ".ndjson");
+		rechazados = Files.createTempFile("rechazados", ".tsv");
+		try (BufferedWriter escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < ventas; i++) {
+				String codigo = i % 20 == 0 ? "AEI" + i : "P" + i;
+				escritor.write("{\"codigo\":\"" + codigo + "\",\"nombreCliente\":\"Cliente " + i
+						+ "\",\"claveIdempotencia\":\"K" + i + "\"}");
+				escritor.newLine();
+			}
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void cerrar() throws IOException {
+		entityManagerFactory.close();
+		Files.delete(archivo);
+		Files.delete(rechazados);
+	}
+
+	@Benchmark
+	public long cicloVendedor() throws IOException {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		UnidadDeTrabajo unidadDeTrabajo = new UnidadDeTrabajo(entityManager, LOTE);
+		RepositorioProductoPersistente repositorioProducto = new RepositorioProductoPersistente(entityManager,
+				unidadDeTrabajo);
+		Vendedor vendedor = new Vendedor(repositorioProducto,
+				new RepositorioGarantiaPersistente(entityManager, repositorioProducto, unidadDeTrabajo));
+		long generadas = 0;
+		try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+			entityManager.getTransaction().begin();
+			String linea;
+			long leidas = 0;
+			while ((linea = lector.readLine()) != null) {
+				String[] valores = linea.split("\"");
+				if (vendedor.intentarGenerarGarantia(valores[3], valores[7], valores[11]).esGenerada()) {
+					generadas++;
+				}
+				if (++leidas % LOTE == 0) {
+					unidadDeTrabajo.confirmar();
+					entityManager.getTransaction().begin();
+				}
+			}
+			unidadDeTrabajo.confirmar();
+		} finally {
+			entityManager.close();
+		}
+		return generadas;
+	}
+
+	@Benchmark
+	public ResumenIngesta etapas() throws IOException {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		RepositorioProductoPersistente repositorioProducto = new RepositorioProductoPersistente(entityManager);
+		Vendedor vendedor = new Vendedor(repositorioProducto,
+				new RepositorioGarantiaPersistente(entityManager, repositorioProducto));
+		try {
+			return new IngestaVentas(entityManagerFactory, vendedor, garantias -> {
+			}).ingerir(archivo, rechazados, resumen -> {
+			});
+		} finally {
+			entityManager.close();
+		}
+	}
+}
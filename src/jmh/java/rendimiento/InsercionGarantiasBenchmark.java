@@ -0,0 +1,105 @@
+package rendimiento;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import persistencia.entitad.GarantiaExtendidaEntity;
+import persistencia.entitad.ProductoEntity;
+
+/**
+ * Mide la insercion de 100.000 garantias segun el tamao de asignacion de la
+ * secuencia. Con tamao 1 cada fila consulta la secuencia, como antes del
+ * generador agrupado. Las garantias por segundo son 100.000 / tiempo por
+ * operacion
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InsercionGarantiasBenchmark {
+
+	private static final int GARANTIAS = 100_000;
+	private static final int LOTE = 1000;
+
+	@Param({ "1", "50", "500" })
+	private int tamanoAsignacion;
+
+	private EntityManagerFactory entityManagerFactory;
+	private ProductoEntity[] productos;
+
+	@Setup(Level.Iteration)
+	public void crearProductos() {
+		Map<String, String> propiedades = new HashMap<>();
+		propiedades.put("hibernate.show_sql", "false");
+		propiedades.put("tienda.id.producto_seq.tamano_asignacion", String.valueOf(tamanoAsignacion));
+		propiedades.put("tienda.id.garantia_extendida_seq.tamano_asignacion", String.valueOf(tamanoAsignacion));
+		entityManagerFactory = Persistence.createEntityManagerFactory("tienda", propiedades);
+
+		productos = new ProductoEntity[GARANTIAS];
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+		for (int i = 0; i < GARANTIAS; i++) {
+			ProductoEntity producto = new ProductoEntity();
+			producto.setCodigo("P" + i);
+			producto.setNombre("Producto " + i);
+			producto.setPrecioCentavos(78000000L);
+			entityManager.persist(producto);
+			productos[i] = producto;
+			if (i % LOTE == LOTE - 1) {
+				entityManager.flush();
+				entityManager.clear();
+			}
+		}
+		entityManager.getTransaction().commit();
+		entityManager.close();
+	}
+
+	@Benchmark
+	public void insertarGarantias() {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+		LocalDate hoy = LocalDate.now();
+		for (int i = 0; i < GARANTIAS; i++) {
+			GarantiaExtendidaEntity garantia = new GarantiaExtendidaEntity();
+			garantia.setProducto(productos[i]);
+			garantia.setFechaSolicitudGarantia(hoy);
+			garantia.setFechaFinGarantia(hoy);
+			garantia.setNombreCliente("Cliente " + i);
+			garantia.setPrecioCentavos(15600000L);
+			entityManager.persist(garantia);
+			if (i % LOTE == LOTE - 1) {
+				entityManager.flush();
+				entityManager.clear();
+			}
+		}
+		entityManager.getTransaction().commit();
+		entityManager.close();
+	}
+
+	@TearDown(Level.Iteration)
+	public void cerrar() {
+		entityManagerFactory.close();
+	}
+}
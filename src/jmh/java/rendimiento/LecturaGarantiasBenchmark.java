@@ -0,0 +1,80 @@
+package rendimiento;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.lectura.RepositorioGarantiaLectura;
+import persistencia.sistema.SistemaDePersistencia;
+
+/**
+ * Compara la consulta tieneGarantia sobre JPA contra el modelo de lectura en
+ * memoria, con 1.000 productos de los cuales un tercio tiene garantia
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LecturaGarantiasBenchmark {
+
+	private static final int PRODUCTOS = 1000;
+
+	private SistemaDePersistencia sistemaPersistencia;
+	private Vendedor vendedorJpa;
+	private Vendedor vendedorModelo;
+	private int siguiente;
+
+	@Setup
+	public void registrarGarantias() {
+		sistemaPersistencia = new SistemaDePersistencia();
+		RepositorioProducto repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		vendedorJpa = new Vendedor(repositorioProducto, sistemaPersistencia.obtenerRepositorioGarantia());
+		sistemaPersistencia.iniciar();
+		for (int i = 0; i < PRODUCTOS; i++) {
+			repositorioProducto.agregar(new Producto(codigo(i), "Producto " + i, 780000));
+		}
+		for (int i = 0; i < PRODUCTOS; i += 3) {
+			vendedorJpa.generarGarantia(codigo(i), "Cliente");
+		}
+		sistemaPersistencia.terminar();
+		sistemaPersistencia.iniciar();
+
+		RepositorioGarantiaLectura repositorioLectura = sistemaPersistencia.obtenerRepositorioGarantiaLectura();
+		repositorioLectura.esperarMarcaAgua(0, TimeUnit.MINUTES.toMillis(1));
+		vendedorModelo = new Vendedor(repositorioProducto, repositorioLectura);
+	}
+
+	@Benchmark
+	public boolean jpa() {
+		return vendedorJpa.tieneGarantia(codigo(siguiente++ % PRODUCTOS));
+	}
+
+	@Benchmark
+	public boolean modeloLectura() {
+		return vendedorModelo.tieneGarantia(codigo(siguiente++ % PRODUCTOS));
+	}
+
+	@TearDown
+	public void cerrar() {
+		sistemaPersistencia.terminar();
+	}
+
+	private static String codigo(int i) {
+		return String.format("F%05dS", i);
+	}
+}
@@ -0,0 +1,77 @@
+package rendimiento;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.Producto;
+import dominio.Vendedor;
+import persistencia.particion.ConexionParticionada;
+import persistencia.particion.SistemaDePersistenciaParticionado;
+
+/**
+ * Mide las ventas por segundo (producto y garantia en una transaccion) con 4
+ * hilos sobre H2 en archivo segun el numero de particiones
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ParticionadoBenchmark {
+
+	@Param({ "1", "2", "4" })
+	private int particiones;
+
+	private final AtomicLong siguienteCodigo = new AtomicLong();
+	private Path carpeta;
+	private ConexionParticionada conexion;
+
+	@Setup
+	public void crearParticiones() throws IOException {
+		carpeta = Files.createTempDirectory("particiones");
+		conexion = new ConexionParticionada(particiones, "jdbc:h2:file:" + carpeta.toAbsolutePath() + "/tienda%d",
+				Collections.singletonMap("hibernate.show_sql", "false"));
+	}
+
+	@Benchmark
+	public void venderGarantia() {
+		String codigo = String.format("F%09dS", siguienteCodigo.getAndIncrement());
+		SistemaDePersistenciaParticionado sistemaPersistencia = new SistemaDePersistenciaParticionado(conexion);
+		try {
+			Vendedor vendedor = new Vendedor(sistemaPersistencia.obtenerRepositorioProductos(),
+					sistemaPersistencia.obtenerRepositorioGarantia());
+			sistemaPersistencia.iniciar();
+			sistemaPersistencia.obtenerRepositorioProductos().agregar(new Producto(codigo, "Producto", 780000));
+			vendedor.generarGarantia(codigo, "Cliente");
+			sistemaPersistencia.terminar();
+		} finally {
+			sistemaPersistencia.cerrar();
+		}
+	}
+
+	@TearDown
+	public void cerrar() throws IOException {
+		conexion.cerrar();
+		Files.walk(carpeta).sorted(Collections.reverseOrder()).forEach(ruta -> ruta.toFile().delete());
+	}
+}
@@ -0,0 +1,62 @@
+package rendimiento;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.Vendedor;
+
+/**
+ * Compara el calculo del precio de la garantia con centavos, con double y con
+ * BigDecimal. Ejecutar con <code>-prof gc</code> para ver la asignacion por
+ * operacion (gc.alloc.rate.norm), que debe ser cero en el camino con centavos
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrecioGarantiaBenchmark {
+
+	private static final BigDecimal CIEN = BigDecimal.valueOf(100);
+
+	private final Vendedor vendedor = new Vendedor(null, null);
+
+	private long precioCentavos = 78000033L;
+	private double precio = 780000.33;
+	private BigDecimal precioDecimal = new BigDecimal("780000.33");
+
+	@Benchmark
+	public long centavos() {
+		int puntosBasicos = precioCentavos > Vendedor.PRECIO_BASE_GARANTIA_CENTAVOS
+				? Vendedor.VEINTE_PORCIENTO_PUNTOS_BASICOS
+				: Vendedor.DIEZ_PORCIENTO_PUNTOS_BASICOS;
+		return vendedor.calcularPrecioGarantia(precioCentavos, puntosBasicos);
+	}
+
+	@Benchmark
+	public double doubleSinRedondeo() {
+		double porcentaje = precio > Vendedor.PRECIO_BASE_GARANTIA ? Vendedor.VEINTE_PORCIENTO
+				: Vendedor.DIEZ_PORCIENTO;
+		return precio * porcentaje;
+	}
+
+	@Benchmark
+	public BigDecimal bigDecimal() {
+		BigDecimal porcentaje = precioDecimal.compareTo(BigDecimal.valueOf(Vendedor.PRECIO_BASE_GARANTIA)) > 0
+				? BigDecimal.valueOf(Vendedor.VEINTE_PORCIENTO)
+				: BigDecimal.valueOf(Vendedor.DIEZ_PORCIENTO);
+		return precioDecimal.multiply(porcentaje).multiply(CIEN).setScale(0, RoundingMode.HALF_UP);
+	}
+}
@@ -0,0 +1,148 @@
+package rendimiento;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.Dinero;
+import dominio.Vendedor;
+import dominio.tarifa.MotorTarifas;
+import dominio.tarifa.TablaTarifas;
+import persistencia.entitad.GarantiaExtendidaEntity;
+import persistencia.entitad.ProductoEntity;
+import persistencia.reajuste.ReajustePrecios;
+import persistencia.reajuste.ResumenReajuste;
+
+/**
+ * Mide el tiempo de subir un 5% el precio de todos los productos y recalcular
+ * sus garantias abiertas: cargando y modificando entidad por entidad con JPA,
+ * un lote de 500 codigos por transaccion, y con las dos sentencias UPDATE por
+ * lote de {@link ReajustePrecios}. La mitad de las garantias es anterior a la
+ * fecha de corte y no cambia. Las filas por segundo son (productos +
+ * garantias / 2) / tiempo por operacion. Cada garantia lleva clave de
+ * idempotencia para que la carga no recorra en H2 el indice unico lleno de
+ * nulos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class ReajustePreciosBenchmark {
+
+	private static final int CINCO_PORCIENTO = 500;
+	private static final int LOTE = 1000;
+	private static final String CODIGOS = "codigos";
+
+	@Param({ "10000", "100000" })
+	private int productos;
+
+	private final MotorTarifas motorTarifas = new MotorTarifas();
+	private final Vendedor vendedor = new Vendedor(null, null);
+	private final LocalDate corte = LocalDate.now();
+	private List<String> codigos;
+	private EntityManagerFactory entityManagerFactory;
+
+	@Setup(Level.Iteration)
+	public void prepararCatalogo() {
+		entityManagerFactory = Persistence.createEntityManagerFactory("tienda",
+				Collections.singletonMap("hibernate.show_sql", "false"));
+		codigos = new ArrayList<>(productos);
+		EntityManager carga = entityManagerFactory.createEntityManager();
+		carga.getTransaction().begin();
+		for (int i = 0; i < productos; i++) {
+			ProductoEntity producto = new ProductoEntity();
+			producto.setCodigo("P" + i);
+			producto.setNombre("Producto " + i);
+			producto.setPrecioCentavos(40000000L + i % 20000000L);
+			carga.persist(producto);
+			codigos.add(producto.getCodigo());
+
+			LocalDate solicitud = i % 2 == 0 ? corte : corte.minusDays(30);
+			GarantiaExtendidaEntity garantia = new GarantiaExtendidaEntity();
+			garantia.setProducto(producto);
+			garantia.setFechaSolicitudGarantia(solicitud);
+			garantia.setFechaFinGarantia(solicitud.plusDays(200));
+			garantia.setNombreCliente("Cliente " + i);
+			garantia.setClaveIdempotencia("K" + i);
+			garantia.setPrecioCentavos(producto.getPrecioCentavos() / 10);
+			carga.persist(garantia);
+			if (i % LOTE == LOTE - 1) {
+				carga.flush();
+				carga.clear();
+			}
+		}
+		carga.getTransaction().commit();
+		carga.close();
+	}
+
+	@TearDown(Level.Iteration)
+	public void cerrar() {
+		entityManagerFactory.close();
+	}
+
+	@Benchmark
+	public long entidadPorEntidad() {
+		TablaTarifas tarifas = motorTarifas.obtenerTabla();
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		long filas = 0;
+		try {
+			for (int desde = 0; desde < codigos.size(); desde += ReajustePrecios.TAMANO_LOTE_POR_DEFECTO) {
+				List<String> lote = codigos.subList(desde,
+						Math.min(desde + ReajustePrecios.TAMANO_LOTE_POR_DEFECTO, codigos.size()));
+				entityManager.getTransaction().begin();
+				for (ProductoEntity producto : entityManager
+						.createNamedQuery("Producto.findByCodigos", ProductoEntity.class).setParameter(CODIGOS, lote)
+						.getResultList()) {
+					producto.setPrecioCentavos(Dinero.porcentaje(producto.getPrecioCentavos(),
+							Dinero.PUNTOS_BASICOS_POR_UNIDAD + CINCO_PORCIENTO, RoundingMode.HALF_UP));
+					filas++;
+				}
+				for (GarantiaExtendidaEntity garantia : entityManager
+						.createNamedQuery("GarantiaExtendida.findByCodigos", GarantiaExtendidaEntity.class)
+						.setParameter(CODIGOS, lote).getResultList()) {
+					if (!garantia.getFechaSolicitudGarantia().isBefore(corte)) {
+						long precioProducto = garantia.getProducto().getPrecioCentavos();
+						garantia.setPrecioCentavos(vendedor.calcularPrecioGarantia(precioProducto,
+								tarifas.getPuntosBasicos(tarifas.buscarNivel(precioProducto))));
+						filas++;
+					}
+				}
+				entityManager.getTransaction().commit();
+				entityManager.clear();
+			}
+		} finally {
+			entityManager.close();
+		}
+		return filas;
+	}
+
+	@Benchmark
+	public ResumenReajuste conjunto() {
+		return new ReajustePrecios(entityManagerFactory, motorTarifas, lote -> {
+		}).reajustar(codigos, CINCO_PORCIENTO, corte, resumen -> {
+		});
+	}
+}
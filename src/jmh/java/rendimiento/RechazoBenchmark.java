@@ -0,0 +1,73 @@
+package rendimiento;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.Producto;
+import dominio.ResultadoGarantia;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+
+/**
+ * Compara el rendimiento de los rechazos (producto que ya tiene garantia)
+ * reportados como resultado, como excepcion sin traza y como excepcion con
+ * traza completa, que era el comportamiento anterior
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RechazoBenchmark {
+
+	private static final String CODIGO = "F01TSA0150";
+
+	private final RepositorioProductoEnMemoria repositorioProducto = new RepositorioProductoEnMemoria();
+	private final RepositorioGarantiaEnMemoria repositorioGarantia = new RepositorioGarantiaEnMemoria();
+	private final Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+
+	@Setup
+	public void registrarGarantia() {
+		repositorioProducto.agregar(new Producto(CODIGO, "Computador Lenovo", 780000));
+		vendedor.generarGarantia(CODIGO, "Cliente");
+	}
+
+	@Benchmark
+	public ResultadoGarantia resultado() {
+		return vendedor.intentarGenerarGarantia(CODIGO, "Cliente", null);
+	}
+
+	@Benchmark
+	public Object excepcionSinTraza() {
+		try {
+			return vendedor.generarGarantia(CODIGO, "Cliente", null);
+		} catch (GarantiaExtendidaException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	public Object excepcionConTraza() {
+		try {
+			ResultadoGarantia resultado = vendedor.intentarGenerarGarantia(CODIGO, "Cliente", null);
+			if (!resultado.esGenerada()) {
+				throw new GarantiaExtendidaException(resultado.getCodigo().getMensaje());
+			}
+			return resultado.getGarantia();
+		} catch (GarantiaExtendidaException e) {
+			return e;
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+package rendimiento;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+
+/**
+ * Mide la latencia y la asignacion de registrarGarantiaExtendida sin base de
+ * datos, junto con el calculo de la fecha final con Calendar (como se hacia
+ * antes) y con dias desde la epoca. Ejecutar con <code>-prof gc</code> para ver
+ * los bytes asignados por operacion
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistroGarantiaBenchmark {
+
+	private final Producto producto = new Producto("F01TSA0150", "Computador Lenovo", 780000);
+	private final RepositorioProductoEnMemoria repositorioProducto = new RepositorioProductoEnMemoria();
+	private final RepositorioGarantiaEnMemoria repositorioGarantia = new RepositorioGarantiaEnMemoria();
+	private final Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+
+	private long diaSolicitud = 17759;
+
+	@Setup
+	public void agregarProducto() {
+		repositorioProducto.agregar(producto);
+	}
+
+	@Benchmark
+	public GarantiaExtendida registrarGarantia() {
+		vendedor.registrarGarantiaExtendida(producto.getCodigo(), "Cliente");
+		return repositorioGarantia.obtener(producto.getCodigo());
+	}
+
+	@Benchmark
+	public Object fechaFinConCalendar() {
+		return vendedor.calcularFechaGaratia(Calendar.getInstance(), producto.getPrecio());
+	}
+
+	@Benchmark
+	public long fechaFinConDiasDesdeEpoca() {
+		return vendedor.calcularDiaFinGarantia(diaSolicitud, producto.getPrecioCentavos());
+	}
+}
@@ -0,0 +1,87 @@
+package rendimiento;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import dominio.GarantiaExtendida;
+import dominio.NombreCliente;
+import dominio.Producto;
+import dominio.repositorio.RecorridoGarantias;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+
+/**
+ * Repositorio de garantas en memoria para medir el dominio sin base de datos
+ */
+public class RepositorioGarantiaEnMemoria implements RepositorioGarantiaExtendida {
+
+	private final Map<String, GarantiaExtendida> porCodigo = new ConcurrentHashMap<>();
+	private final Map<String, GarantiaExtendida> porClave = new ConcurrentHashMap<>();
+
+	@Override
+	public Producto obtenerProductoConGarantiaPorCodigo(String codigo) {
+		GarantiaExtendida garantia = porCodigo.get(codigo);
+		return garantia != null ? garantia.getProducto() : null;
+	}
+
+	@Override
+	public void agregar(GarantiaExtendida garantia) {
+		porCodigo.put(garantia.getProducto().getCodigo(), garantia);
+		if (garantia.getClaveIdempotencia() != null) {
+			porClave.put(garantia.getClaveIdempotencia(), garantia);
+		}
+	}
+
+	@Override
+	public GarantiaExtendida obtener(String codigo) {
+		return porCodigo.get(codigo);
+	}
+
+	@Override
+	public GarantiaExtendida obtenerPorClaveIdempotencia(String claveIdempotencia) {
+		return porClave.get(claveIdempotencia);
+	}
+
+	@Override
+	public Set<String> obtenerCodigosConGarantia(Collection<String> codigos) {
+		Set<String> conGarantia = new HashSet<>();
+		for (String codigo : codigos) {
+			if (porCodigo.containsKey(codigo)) {
+				conGarantia.add(codigo);
+			}
+		}
+		return conGarantia;
+	}
+
+	@Override
+	public List<GarantiaExtendida> buscarPorPrefijoCliente(String prefijo, GarantiaExtendida despuesDe, int limite) {
+		String prefijoNormalizado = NombreCliente.normalizar(prefijo);
+		return buscar(garantia -> NombreCliente.normalizar(garantia.getNombreCliente()).startsWith(prefijoNormalizado),
+				despuesDe, limite);
+	}
+
+	@Override
+	public List<GarantiaExtendida> buscarPorNombreCliente(String nombreCliente, GarantiaExtendida despuesDe,
+			int limite) {
+		String nombre = NombreCliente.normalizar(nombreCliente);
+		return buscar(garantia -> NombreCliente.normalizar(garantia.getNombreCliente()).equals(nombre), despuesDe,
+				limite);
+	}
+
+	private List<GarantiaExtendida> buscar(Predicate<GarantiaExtendida> criterio, GarantiaExtendida despuesDe,
+			int limite) {
+		return porCodigo.values().stream().filter(criterio)
+				.filter(garantia -> despuesDe == null || RecorridoGarantias.POR_CLIENTE.compare(garantia, despuesDe) > 0)
+				.sorted(RecorridoGarantias.POR_CLIENTE).limit(limite).collect(Collectors.toList());
+	}
+
+	public void limpiar() {
+		porCodigo.clear();
+		porClave.clear();
+	}
+}
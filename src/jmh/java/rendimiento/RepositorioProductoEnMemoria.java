@@ -0,0 +1,43 @@
+package rendimiento;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import dominio.Producto;
+import dominio.repositorio.RecorridoProductos;
+import dominio.repositorio.RepositorioProducto;
+
+/**
+ * Repositorio de productos en memoria para medir el dominio sin base de datos
+ */
+public class RepositorioProductoEnMemoria implements RepositorioProducto {
+
+	private final Map<String, Producto> productos = new ConcurrentHashMap<>();
+
+	@Override
+	public Producto obtenerPorCodigo(String codigo) {
+		return productos.get(codigo);
+	}
+
+	@Override
+	public void agregar(Producto producto) {
+		productos.put(producto.getCodigo(), producto);
+	}
+
+	@Override
+	public List<Producto> buscarPorPrecioMayorA(long precioCentavos, Producto despuesDe, int limite) {
+		return productos.values().stream()
+				.filter(producto -> producto.getPrecioCentavos() > precioCentavos)
+				.filter(producto -> despuesDe == null || RecorridoProductos.POR_PRECIO.compare(producto, despuesDe) > 0)
+				.sorted(RecorridoProductos.POR_PRECIO).limit(limite).collect(Collectors.toList());
+	}
+
+	@Override
+	public List<Producto> buscarPorPrefijoNombre(String prefijo, Producto despuesDe, int limite) {
+		return productos.values().stream().filter(producto -> producto.getNombre().startsWith(prefijo))
+				.filter(producto -> despuesDe == null || RecorridoProductos.POR_NOMBRE.compare(producto, despuesDe) > 0)
+				.sorted(RecorridoProductos.POR_NOMBRE).limit(limite).collect(Collectors.toList());
+	}
+}
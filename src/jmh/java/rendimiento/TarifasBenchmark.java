@@ -0,0 +1,65 @@
+package rendimiento;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.tarifa.MotorTarifas;
+import dominio.tarifa.TablaTarifas;
+
+/**
+ * Mide el costo de resolver el nivel de tarifa de un precio segun la cantidad
+ * de niveles de la tabla
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TarifasBenchmark {
+
+	private static final int PRECIOS = 1024;
+
+	@Param({ "2", "16", "256", "4096" })
+	private int niveles;
+
+	private MotorTarifas motor;
+	private long[] precios;
+	private int siguiente;
+
+	@Setup
+	public void crearTabla() throws IOException {
+		StringBuilder tabla = new StringBuilder();
+		for (int i = 0; i < niveles; i++) {
+			tabla.append(i * 1000).append(',').append(10 + i % 20).append(",100,CALENDARIO\n");
+		}
+		motor = new MotorTarifas(TablaTarifas.leer(new StringReader(tabla.toString())));
+
+		Random aleatorio = new Random(7);
+		precios = new long[PRECIOS];
+		for (int i = 0; i < PRECIOS; i++) {
+			precios[i] = (long) (aleatorio.nextDouble() * niveles * 100000L);
+		}
+	}
+
+	@Benchmark
+	public int resolverPuntosBasicos() {
+		long precio = precios[siguiente++ & (PRECIOS - 1)];
+		TablaTarifas tabla = motor.obtenerTabla();
+		return tabla.getPuntosBasicos(tabla.buscarNivel(precio));
+	}
+}
@@ -0,0 +1,154 @@
+package rendimiento.carga;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parmetros del generador de carga, recibidos como argumentos clave=valor.
+ * La mezcla se indica en porcentajes, por ejemplo
+ * {@code mezcla=VENTA:20,DUPLICADO:10,VOCALES:10,LECTURA:60}. Con
+ * {@code tasa=0} los hilos ejecutan operaciones sin pausa, sin lmite de tasa
+ */
+public class ConfiguracionCarga {
+
+	/**
+	 * Base de datos sobre la cual se ejecuta la carga
+	 */
+	public enum Modo {
+		MEMORIA("jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1"),
+		ARCHIVO("jdbc:h2:file:./build/carga/tienda");
+
+		private final String url;
+
+		Modo(String url) {
+			this.url = url;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+	}
+
+	/**
+	 * El generador reparte los productos en vendidos, disponibles y con vocales
+	 * cada 10 productos; con menos no habra productos de cada grupo para
+	 * elegir
+	 */
+	private static final int PRODUCTOS_MINIMOS = 20;
+
+	private final Modo modo;
+	private final int productos;
+	private final int hilos;
+	private final int tasa;
+	private final int calentamientoSegundos;
+	private final int duracionSegundos;
+	private final Map<Operacion, Integer> mezcla;
+	private final String salida;
+
+	private ConfiguracionCarga(Map<String, String> valores) {
+		this.modo = Modo.valueOf(valores.getOrDefault("modo", "MEMORIA").toUpperCase());
+		this.productos = Integer.parseInt(valores.getOrDefault("productos", "10000"));
+		this.hilos = Integer.parseInt(valores.getOrDefault("hilos", "4"));
+		this.tasa = Integer.parseInt(valores.getOrDefault("tasa", "2000"));
+		this.calentamientoSegundos = Integer.parseInt(valores.getOrDefault("calentamiento", "10"));
+		this.duracionSegundos = Integer.parseInt(valores.getOrDefault("duracion", "30"));
+		this.mezcla = leerMezcla(valores.getOrDefault("mezcla", "VENTA:20,DUPLICADO:10,VOCALES:10,LECTURA:60"));
+		this.salida = valores.get("salida");
+		if (productos < PRODUCTOS_MINIMOS) {
+			throw new IllegalArgumentException("Se requieren al menos " + PRODUCTOS_MINIMOS + " productos");
+		}
+		if (hilos < 1 || tasa < 0 || duracionSegundos < 1 || calentamientoSegundos < 0) {
+			throw new IllegalArgumentException(
+					"Los hilos y la duracin deben ser positivos, y la tasa y el calentamiento no negativos");
+		}
+	}
+
+	/**
+	 * @param argumentos argumentos de la forma clave=valor
+	 * @return configuracin con los valores por defecto para las claves ausentes
+	 */
+	public static ConfiguracionCarga leer(String[] argumentos) {
+		Map<String, String> valores = new HashMap<>();
+		for (String argumento : argumentos) {
+			int separador = argumento.indexOf('=');
+			if (separador <= 0) {
+				throw new IllegalArgumentException("Argumento invlido, se espera clave=valor: " + argumento);
+			}
+			valores.put(argumento.substring(0, separador), argumento.substring(separador + 1));
+		}
+		return new ConfiguracionCarga(valores);
+	}
+
+	private static Map<Operacion, Integer> leerMezcla(String texto) {
+		Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+		int suma = 0;
+		for (String parte : texto.split(",")) {
+			String[] operacionYPeso = parte.split(":");
+			int peso = Integer.parseInt(operacionYPeso[1].trim());
+			mezcla.put(Operacion.valueOf(operacionYPeso[0].trim().toUpperCase()), peso);
+			suma += peso;
+		}
+		if (suma <= 0) {
+			throw new IllegalArgumentException("La mezcla debe tener al menos una operacin con peso positivo");
+		}
+		return mezcla;
+	}
+
+	/**
+	 * @param sorteo nmero entre 0 y la suma de los pesos de la mezcla
+	 * @return operacin que corresponde al sorteo
+	 */
+	public Operacion elegir(int sorteo) {
+		int acumulado = 0;
+		Operacion ultima = null;
+		for (Map.Entry<Operacion, Integer> entrada : mezcla.entrySet()) {
+			acumulado += entrada.getValue();
+			ultima = entrada.getKey();
+			if (sorteo < acumulado) {
+				return ultima;
+			}
+		}
+		return ultima;
+	}
+
+	public int getSumaMezcla() {
+		int suma = 0;
+		for (int peso : mezcla.values()) {
+			suma += peso;
+		}
+		return suma;
+	}
+
+	public Modo getModo() {
+		return modo;
+	}
+
+	public int getProductos() {
+		return productos;
+	}
+
+	public int getHilos() {
+		return hilos;
+	}
+
+	public int getTasa() {
+		return tasa;
+	}
+
+	public int getCalentamientoSegundos() {
+		return calentamientoSegundos;
+	}
+
+	public int getDuracionSegundos() {
+		return duracionSegundos;
+	}
+
+	public Map<Operacion, Integer> getMezcla() {
+		return mezcla;
+	}
+
+	public String getSalida() {
+		return salida;
+	}
+}
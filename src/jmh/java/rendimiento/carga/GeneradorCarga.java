@@ -0,0 +1,308 @@
+package rendimiento.carga;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import dominio.Producto;
+import dominio.ResultadoGarantia;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.repositorio.RepositorioGarantiaPersistente;
+import persistencia.repositorio.RepositorioProductoPersistente;
+
+/**
+ * Generador de carga de extremo a extremo sobre H2. Registra los productos por
+ * medio de {@link RepositorioProducto} y luego varios hilos ejecutan la mezcla
+ * de operaciones a la tasa objetivo, cada operacin en su propia transaccin.
+ *
+ * La latencia se mide desde el instante en que la operacin deba empezar
+ * segn la tasa, no desde que empez, para que las esperas por saturacin
+ * aparezcan en los percentiles. Las operaciones atrasadas al terminar la
+ * duracin no se ejecutan, de modo que las operaciones por segundo muestran la
+ * capacidad alcanzada cuando la tasa objetivo la supera. El reporte se imprime
+ * en JSON y opcionalmente se escribe en el archivo indicado con salida=ruta
+ */
+public class GeneradorCarga {
+
+	private static final String CLIENTE = "Cliente de carga";
+	private static final int LOTE = 1000;
+	private static final int CODIGOS_CON_VOCALES_CADA = 10;
+	private static final int VENDIDOS_INICIALES_CADA = 10;
+
+	private final ConfiguracionCarga configuracion;
+	private final List<String> vendidos = new ArrayList<>();
+	private final List<String> disponibles = new ArrayList<>();
+	private final List<String> conVocales = new ArrayList<>();
+	private final AtomicInteger siguienteVenta = new AtomicInteger();
+
+	private EntityManagerFactory entityManagerFactory;
+
+	public GeneradorCarga(ConfiguracionCarga configuracion) {
+		this.configuracion = configuracion;
+	}
+
+	public static void main(String[] args) throws Exception {
+		ConfiguracionCarga configuracion = ConfiguracionCarga.leer(args);
+		String reporte = new GeneradorCarga(configuracion).ejecutar();
+		System.out.println(reporte);
+		if (configuracion.getSalida() != null) {
+			Path salida = Paths.get(configuracion.getSalida());
+			if (salida.getParent() != null) {
+				Files.createDirectories(salida.getParent());
+			}
+			Files.write(salida, reporte.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	public String ejecutar() throws InterruptedException {
+		Map<String, String> propiedades = new HashMap<>();
+		propiedades.put("javax.persistence.jdbc.url", configuracion.getModo().getUrl());
+		propiedades.put("hibernate.show_sql", "false");
+		propiedades.put("hibernate.connection.pool_size", String.valueOf(configuracion.getHilos() + 1));
+		entityManagerFactory = Persistence.createEntityManagerFactory("tienda", propiedades);
+		try {
+			registrarProductos();
+			return ejecutarHilos();
+		} finally {
+			entityManagerFactory.close();
+		}
+	}
+
+	private void registrarProductos() {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		RepositorioProducto repositorioProducto = new RepositorioProductoPersistente(entityManager);
+		Vendedor vendedor = new Vendedor(repositorioProducto,
+				new RepositorioGarantiaPersistente(entityManager, repositorioProducto));
+
+		entityManager.getTransaction().begin();
+		for (int i = 0; i < configuracion.getProductos(); i++) {
+			Producto producto;
+			if (i % CODIGOS_CON_VOCALES_CADA == 0) {
+				producto = new Producto(String.format("AEI%07d", i), "Producto " + i, 780000);
+				conVocales.add(producto.getCodigo());
+			} else {
+				producto = new Producto(String.format("P%07d", i), "Producto " + i, 780000);
+				(i % VENDIDOS_INICIALES_CADA == 1 ? vendidos : disponibles).add(producto.getCodigo());
+			}
+			repositorioProducto.agregar(producto);
+			if (i % LOTE == LOTE - 1) {
+				entityManager.getTransaction().commit();
+				entityManager.clear();
+				entityManager.getTransaction().begin();
+			}
+		}
+		entityManager.getTransaction().commit();
+		entityManager.clear();
+
+		entityManager.getTransaction().begin();
+		for (String codigo : vendidos) {
+			vendedor.generarGarantia(codigo, CLIENTE);
+		}
+		entityManager.getTransaction().commit();
+		entityManager.close();
+	}
+
+	private String ejecutarHilos() throws InterruptedException {
+		long ahora = System.nanoTime();
+		long inicioMedicion = ahora + TimeUnit.SECONDS.toNanos(configuracion.getCalentamientoSegundos());
+		long fin = inicioMedicion + TimeUnit.SECONDS.toNanos(configuracion.getDuracionSegundos());
+		long intervalo = configuracion.getTasa() > 0
+				? TimeUnit.SECONDS.toNanos(configuracion.getHilos()) / configuracion.getTasa()
+				: 0;
+
+		List<Trabajador> trabajadores = new ArrayList<>();
+		List<Thread> hilos = new ArrayList<>();
+		for (int i = 0; i < configuracion.getHilos(); i++) {
+			Trabajador trabajador = new Trabajador(ahora, inicioMedicion, fin, intervalo);
+			Thread hilo = new Thread(trabajador, "carga-" + i);
+			trabajadores.add(trabajador);
+			hilos.add(hilo);
+			hilo.start();
+		}
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+
+		Map<Operacion, HistogramaLatencia> porOperacion = new EnumMap<>(Operacion.class);
+		HistogramaLatencia total = new HistogramaLatencia();
+		long errores = 0;
+		for (Trabajador trabajador : trabajadores) {
+			for (Map.Entry<Operacion, HistogramaLatencia> entrada : trabajador.latencias.entrySet()) {
+				porOperacion.computeIfAbsent(entrada.getKey(), operacion -> new HistogramaLatencia())
+						.combinar(entrada.getValue());
+				total.combinar(entrada.getValue());
+			}
+			errores += trabajador.errores;
+		}
+		return reporte(total, porOperacion, errores);
+	}
+
+	private String reporte(HistogramaLatencia total, Map<Operacion, HistogramaLatencia> porOperacion, long errores) {
+		StringBuilder json = new StringBuilder("{\n");
+		json.append("  \"modo\": \"").append(configuracion.getModo()).append("\",\n");
+		json.append("  \"productos\": ").append(configuracion.getProductos()).append(",\n");
+		json.append("  \"hilos\": ").append(configuracion.getHilos()).append(",\n");
+		json.append("  \"tasaObjetivo\": ").append(configuracion.getTasa()).append(",\n");
+		json.append("  \"duracionSegundos\": ").append(configuracion.getDuracionSegundos()).append(",\n");
+		json.append("  \"mezcla\": {");
+		String separador = "";
+		for (Map.Entry<Operacion, Integer> peso : configuracion.getMezcla().entrySet()) {
+			json.append(separador).append('"').append(peso.getKey()).append("\": ").append(peso.getValue());
+			separador = ", ";
+		}
+		json.append("},\n");
+		json.append("  \"operaciones\": ").append(total.getTotal()).append(",\n");
+		json.append("  \"errores\": ").append(errores).append(",\n");
+		json.append("  \"operacionesPorSegundo\": ")
+				.append(decimal((double) total.getTotal() / configuracion.getDuracionSegundos())).append(",\n");
+		json.append("  \"latenciaMs\": ").append(latencias(total)).append(",\n");
+		json.append("  \"porOperacion\": {\n");
+		separador = "";
+		for (Map.Entry<Operacion, HistogramaLatencia> entrada : porOperacion.entrySet()) {
+			json.append(separador).append("    \"").append(entrada.getKey()).append("\": {\"operaciones\": ")
+					.append(entrada.getValue().getTotal()).append(", \"latenciaMs\": ")
+					.append(latencias(entrada.getValue())).append('}');
+			separador = ",\n";
+		}
+		json.append("\n  }\n}");
+		return json.toString();
+	}
+
+	private static String latencias(HistogramaLatencia histograma) {
+		return "{\"p50\": " + milisegundos(histograma.percentil(50)) + ", \"p99\": "
+				+ milisegundos(histograma.percentil(99)) + ", \"p999\": " + milisegundos(histograma.percentil(99.9))
+				+ ", \"maximo\": " + milisegundos(histograma.getMaximo()) + "}";
+	}
+
+	private static String milisegundos(long nanos) {
+		return decimal(nanos / 1_000_000.0);
+	}
+
+	private static String decimal(double valor) {
+		return String.format(Locale.ROOT, "%.3f", valor);
+	}
+
+	/**
+	 * Hilo de carga con su propio entity manager y sus propios histogramas
+	 */
+	private class Trabajador implements Runnable {
+
+		private final long inicio;
+		private final long inicioMedicion;
+		private final long fin;
+		private final long intervalo;
+		private final Map<Operacion, HistogramaLatencia> latencias = new EnumMap<>(Operacion.class);
+		private long errores;
+
+		private EntityManager entityManager;
+		private RepositorioGarantiaExtendida repositorioGarantia;
+		private Vendedor vendedor;
+
+		Trabajador(long inicio, long inicioMedicion, long fin, long intervalo) {
+			this.inicio = inicio;
+			this.inicioMedicion = inicioMedicion;
+			this.fin = fin;
+			this.intervalo = intervalo;
+		}
+
+		@Override
+		public void run() {
+			entityManager = entityManagerFactory.createEntityManager();
+			RepositorioProducto repositorioProducto = new RepositorioProductoPersistente(entityManager);
+			repositorioGarantia = new RepositorioGarantiaPersistente(entityManager, repositorioProducto);
+			vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+
+			ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+			long programada = inicio + (intervalo > 0 ? aleatorio.nextLong(intervalo) : 0);
+			try {
+				while (programada < fin && System.nanoTime() < fin) {
+					long ahora = System.nanoTime();
+					if (intervalo > 0 && ahora < programada) {
+						LockSupport.parkNanos(programada - ahora);
+					} else if (intervalo == 0) {
+						programada = ahora;
+					}
+
+					Operacion operacion = configuracion.elegir(aleatorio.nextInt(configuracion.getSumaMezcla()));
+					Operacion ejecutada = ejecutar(operacion, aleatorio);
+					long latencia = System.nanoTime() - programada;
+
+					if (programada >= inicioMedicion) {
+						latencias.computeIfAbsent(ejecutada, clave -> new HistogramaLatencia()).registrar(latencia);
+					}
+					programada += intervalo;
+				}
+			} finally {
+				entityManager.close();
+			}
+		}
+
+		private Operacion ejecutar(Operacion operacion, ThreadLocalRandom aleatorio) {
+			Operacion ejecutada = operacion;
+			try {
+				entityManager.getTransaction().begin();
+				boolean esperado;
+				switch (operacion) {
+				case VENTA:
+					int indice = siguienteVenta.getAndIncrement();
+					if (indice < disponibles.size()) {
+						esperado = vendedor.intentarGenerarGarantia(disponibles.get(indice), CLIENTE, null)
+								.esGenerada();
+					} else {
+						// sin productos disponibles la venta se mide como un duplicado
+						ejecutada = Operacion.DUPLICADO;
+						esperado = rechazo(elegir(vendidos, aleatorio),
+								ResultadoGarantia.Codigo.EL_PRODUCTO_TIENE_GARANTIA);
+					}
+					break;
+				case DUPLICADO:
+					esperado = rechazo(elegir(vendidos, aleatorio), ResultadoGarantia.Codigo.EL_PRODUCTO_TIENE_GARANTIA);
+					break;
+				case VOCALES:
+					esperado = rechazo(elegir(conVocales, aleatorio), ResultadoGarantia.Codigo.PRODUCTO_SIN_GARANTIA);
+					break;
+				default:
+					String codigo = elegir(vendidos, aleatorio);
+					esperado = vendedor.tieneGarantia(codigo) && repositorioGarantia.obtener(codigo) != null;
+				}
+				entityManager.getTransaction().commit();
+				if (!esperado) {
+					errores++;
+				}
+			} catch (RuntimeException e) {
+				if (entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				errores++;
+			} finally {
+				entityManager.clear();
+			}
+			return ejecutada;
+		}
+
+		private boolean rechazo(String codigo, ResultadoGarantia.Codigo esperado) {
+			return vendedor.intentarGenerarGarantia(codigo, CLIENTE, null).getCodigo() == esperado;
+		}
+
+		private String elegir(List<String> codigos, ThreadLocalRandom aleatorio) {
+			return codigos.get(aleatorio.nextInt(codigos.size()));
+		}
+	}
+}
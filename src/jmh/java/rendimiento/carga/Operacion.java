@@ -0,0 +1,27 @@
+package rendimiento.carga;
+
+/**
+ * Operaciones que mezcla el generador de carga
+ */
+public enum Operacion {
+
+	/**
+	 * Venta de una garanta a un producto que an no la tiene
+	 */
+	VENTA,
+
+	/**
+	 * Intento de venta a un producto que ya tiene garanta
+	 */
+	DUPLICADO,
+
+	/**
+	 * Intento de venta a un producto cuyo cdigo tiene tres vocales
+	 */
+	VOCALES,
+
+	/**
+	 * Consulta de la garanta de un producto
+	 */
+	LECTURA
+}
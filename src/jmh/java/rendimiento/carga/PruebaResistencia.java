@@ -0,0 +1,107 @@
+package rendimiento.carga;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import dominio.Producto;
+import dominio.Vendedor;
+import persistencia.conexion.UnidadDeTrabajo;
+import persistencia.repositorio.RepositorioGarantiaPersistente;
+import persistencia.repositorio.RepositorioProductoPersistente;
+
+/**
+ * Prueba de resistencia de un entity manager de larga vida: registra un
+ * producto y vende su garantia muchas veces seguidas sobre el mismo entity
+ * manager, confirmando cada cierto numero de ventas. Por cada ventana imprime
+ * el heap usado despues de recolectar, el tamano del contexto de persistencia
+ * y la latencia p50 y p99 por venta, para comprobar que se mantienen
+ * planos. Cada venta lleva su clave de idempotencia, como las que llegan por
+ * la venta idempotente: el indice unico de H2 1.4 recorre todas las claves
+ * nulas en cada insercion, lo que haria crecer la latencia por otra causa.
+ * Con politica=false el contexto nunca se vacia, como antes de la
+ * unidad de trabajo. Argumentos clave=valor, por ejemplo
+ * {@code ventas=1000000 ventana=50000 unidad=1000 transaccion=100 politica=true}
+ */
+public class PruebaResistencia {
+
+	private static final String CLIENTE = "Cliente de resistencia";
+
+	private PruebaResistencia() {}
+
+	public static void main(String[] args) {
+		Map<String, String> valores = new HashMap<>();
+		for (String argumento : args) {
+			int separador = argumento.indexOf('=');
+			if (separador <= 0) {
+				throw new IllegalArgumentException("Argumento invalido, se espera clave=valor: " + argumento);
+			}
+			valores.put(argumento.substring(0, separador), argumento.substring(separador + 1));
+		}
+		int ventas = Integer.parseInt(valores.getOrDefault("ventas", "1000000"));
+		int ventana = Integer.parseInt(valores.getOrDefault("ventana", "50000"));
+		int unidad = Integer.parseInt(valores.getOrDefault("unidad", "1000"));
+		int ventasPorTransaccion = Integer.parseInt(valores.getOrDefault("transaccion", "100"));
+		boolean politica = Boolean.parseBoolean(valores.getOrDefault("politica", "true"));
+
+		Map<String, String> propiedades = new HashMap<>();
+		propiedades.put("javax.persistence.jdbc.url", ConfiguracionCarga.Modo.ARCHIVO.getUrl() + "-resistencia");
+		propiedades.put("hibernate.show_sql", "false");
+		EntityManagerFactory entityManagerFactory = Persistence.createEntityManagerFactory("tienda", propiedades);
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		UnidadDeTrabajo unidadDeTrabajo = politica ? new UnidadDeTrabajo(entityManager, unidad)
+				: new UnidadDeTrabajo(entityManager);
+		RepositorioProductoPersistente repositorioProducto = new RepositorioProductoPersistente(entityManager,
+				unidadDeTrabajo);
+		Vendedor vendedor = new Vendedor(repositorioProducto,
+				new RepositorioGarantiaPersistente(entityManager, repositorioProducto, unidadDeTrabajo));
+
+		System.out.println("ventas,heapMB,contexto,p50Micros,p99Micros");
+		HistogramaLatencia histograma = new HistogramaLatencia();
+		entityManager.getTransaction().begin();
+		try {
+			for (int i = 1; i <= ventas; i++) {
+				long inicio = System.nanoTime();
+				String codigo = String.format("R%08d", i);
+				repositorioProducto.agregar(new Producto(codigo, "Producto " + i, 780000));
+				vendedor.generarGarantia(codigo, CLIENTE, codigo);
+				if (i % ventasPorTransaccion == 0) {
+					confirmar(entityManager, unidadDeTrabajo, politica);
+					entityManager.getTransaction().begin();
+				}
+				histograma.registrar(System.nanoTime() - inicio);
+
+				if (i % ventana == 0) {
+					System.out.println(String.format(Locale.ROOT, "%d,%d,%d,%.1f,%.1f", i, heapUsadoMB(),
+							unidadDeTrabajo.getTamanoContexto(), histograma.percentil(50) / 1000.0,
+							histograma.percentil(99) / 1000.0));
+					histograma = new HistogramaLatencia();
+				}
+			}
+			confirmar(entityManager, unidadDeTrabajo, politica);
+		} finally {
+			entityManager.close();
+			entityManagerFactory.close();
+		}
+	}
+
+	private static void confirmar(EntityManager entityManager, UnidadDeTrabajo unidadDeTrabajo, boolean politica) {
+		if (politica) {
+			unidadDeTrabajo.confirmar();
+		} else {
+			entityManager.getTransaction().commit();
+		}
+	}
+
+	private static long heapUsadoMB() {
+		MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+		System.gc();
+		return memoria.getHeapMemoryUsage().getUsed() / (1024 * 1024);
+	}
+}
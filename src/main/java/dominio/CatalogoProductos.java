@@ -0,0 +1,118 @@
+package dominio;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catlogo que canoniza los productos: mantiene una nica instancia inmutable
+ * por cdigo, de modo que todas las garantas de un mismo producto comparten
+ * el objeto y sus cadenas de cdigo y nombre. Las instancias se guardan con
+ * referencias dbiles, as el catlogo solo retiene los productos que alguna
+ * garanta u otro objeto sigue usando
+ */
+public final class CatalogoProductos {
+
+	private static final Map<String, ReferenciaProducto> PRODUCTOS = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<Producto> LIBERADOS = new ReferenceQueue<>();
+
+	private CatalogoProductos() {}
+
+	/**
+	 * Mtodo que permite obtener la instancia compartida del producto. Si el
+	 * catlogo ya tiene el cdigo con el mismo nombre y precio devuelve esa
+	 * instancia; si el nombre o el precio cambiaron la reemplaza por una nueva
+	 * que reutiliza las cadenas ya guardadas
+	 *
+	 * @param codigo         {@link String} cdigo del producto
+	 * @param nombre         {@link String} nombre del producto
+	 * @param precioCentavos precio del producto en centavos
+	 * @return {@link Producto} instancia compartida del producto
+	 */
+	public static Producto obtener(String codigo, String nombre, long precioCentavos) {
+
+		if (codigo == null) {
+			return Producto.conPrecioEnCentavos(null, nombre, precioCentavos);
+		}
+		purgarLiberados();
+
+		Producto producto = valor(PRODUCTOS.get(codigo));
+		if (coincide(producto, nombre, precioCentavos)) {
+			return producto;
+		}
+
+		Producto[] resultado = new Producto[1];
+		PRODUCTOS.compute(codigo, (clave, referencia) -> {
+			Producto existente = valor(referencia);
+			if (coincide(existente, nombre, precioCentavos)) {
+				resultado[0] = existente;
+				return referencia;
+			}
+			String nombreCompartido = existente != null && Objects.equals(existente.getNombre(), nombre)
+					? existente.getNombre()
+					: nombre;
+			resultado[0] = Producto.conPrecioEnCentavos(clave, nombreCompartido, precioCentavos);
+			return new ReferenciaProducto(resultado[0]);
+		});
+		return resultado[0];
+	}
+
+	/**
+	 * Mtodo que permite saber cuntos productos distintos tiene el catlogo
+	 *
+	 * @return cantidad de cdigos registrados
+	 */
+	public static int tamano() {
+		purgarLiberados();
+		return PRODUCTOS.size();
+	}
+
+	/**
+	 * Mtodo que permite olvidar los productos dados, de modo que la prxima
+	 * llamada a {@link #obtener(String, String, long)} cree una instancia nueva
+	 * con los datos ledos. Los objetos que ya tienen la instancia anterior la
+	 * conservan
+	 *
+	 * @param codigos {@link Collection} cdigos de los productos
+	 */
+	public static void invalidar(Collection<String> codigos) {
+		PRODUCTOS.keySet().removeAll(codigos);
+	}
+
+	/**
+	 * Mtodo que permite vaciar el catlogo, por ejemplo entre pruebas
+	 */
+	public static void limpiar() {
+		PRODUCTOS.clear();
+	}
+
+	private static boolean coincide(Producto producto, String nombre, long precioCentavos) {
+		return producto != null && producto.getPrecioCentavos() == precioCentavos
+				&& Objects.equals(producto.getNombre(), nombre);
+	}
+
+	private static Producto valor(ReferenciaProducto referencia) {
+		return referencia != null ? referencia.get() : null;
+	}
+
+	private static void purgarLiberados() {
+		Reference<? extends Producto> liberada;
+		while ((liberada = LIBERADOS.poll()) != null) {
+			PRODUCTOS.remove(((ReferenciaProducto) liberada).codigo, liberada);
+		}
+	}
+
+	private static final class ReferenciaProducto extends WeakReference<Producto> {
+
+		private final String codigo;
+
+		ReferenciaProducto(Producto producto) {
+			super(producto, LIBERADOS);
+			this.codigo = producto.getCodigo();
+		}
+	}
+}
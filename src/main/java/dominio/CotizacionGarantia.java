@@ -0,0 +1,45 @@
+package dominio;
+
+import java.time.LocalDate;
+
+/**
+ * Precio y vigencia que tendra una garanta extendida si se comprara en la
+ * fecha de solicitud. No se persiste
+ */
+public class CotizacionGarantia {
+
+	private final Producto producto;
+	private final LocalDate fechaSolicitudGarantia;
+	private final LocalDate fechaFinGarantia;
+	private final long precioGarantiaCentavos;
+
+	public CotizacionGarantia(Producto producto, LocalDate fechaSolicitudGarantia, LocalDate fechaFinGarantia,
+			long precioGarantiaCentavos) {
+
+		this.producto = producto;
+		this.fechaSolicitudGarantia = fechaSolicitudGarantia;
+		this.fechaFinGarantia = fechaFinGarantia;
+		this.precioGarantiaCentavos = precioGarantiaCentavos;
+	}
+
+	public Producto getProducto() {
+		return producto;
+	}
+
+	public LocalDate getFechaSolicitudGarantia() {
+		return fechaSolicitudGarantia;
+	}
+
+	public LocalDate getFechaFinGarantia() {
+		return fechaFinGarantia;
+	}
+
+	public double getPrecioGarantia() {
+		return Dinero.aUnidades(precioGarantiaCentavos);
+	}
+
+	public long getPrecioGarantiaCentavos() {
+		return precioGarantiaCentavos;
+	}
+
+}
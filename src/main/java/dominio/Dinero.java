@@ -0,0 +1,121 @@
+package dominio;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Operaciones sobre valores monetarios representados como un long con la
+ * cantidad de centavos. Las operaciones trabajan solo con primitivos, por lo
+ * que no crean objetos intermedios, y el redondeo siempre es explicito
+ */
+public final class Dinero {
+
+	public static final long CENTAVOS_POR_UNIDAD = 100L;
+	public static final int PUNTOS_BASICOS_POR_UNIDAD = 10000;
+
+	private Dinero() {
+	}
+
+	/**
+	 * Permite convertir un valor en unidades a centavos, redondeando al centavo
+	 * mas cercano
+	 * 
+	 * @param valor {@link Double} valor en unidades
+	 * @return {@link Long} valor en centavos
+	 */
+	public static long aCentavos(double valor) {
+		return Math.round(valor * CENTAVOS_POR_UNIDAD);
+	}
+
+	/**
+	 * Permite convertir el texto de un valor en unidades a centavos sin pasar por
+	 * double
+	 * 
+	 * @param valor {@link String} valor en unidades, por ejemplo "1234.56"
+	 * @return {@link Long} valor en centavos redondeado con HALF_UP
+	 */
+	public static long aCentavos(String valor) {
+		return new BigDecimal(valor.trim()).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+	}
+
+	/**
+	 * Permite convertir un valor en centavos a unidades, para presentacion
+	 * 
+	 * @param centavos {@link Long} valor en centavos
+	 * @return {@link Double} valor en unidades
+	 */
+	public static double aUnidades(long centavos) {
+		return (double) centavos / CENTAVOS_POR_UNIDAD;
+	}
+
+	/**
+	 * Permite convertir un porcentaje expresado como fraccion (0.2 para el 20%) a
+	 * puntos basicos
+	 * 
+	 * @param porcentaje {@link Double} fraccion del porcentaje
+	 * @return {@link Integer} puntos basicos, 2000 para el 20%
+	 */
+	public static int aPuntosBasicos(double porcentaje) {
+		return Math.toIntExact(Math.round(porcentaje * PUNTOS_BASICOS_POR_UNIDAD));
+	}
+
+	/**
+	 * Permite aplicar un porcentaje a un valor en centavos
+	 * 
+	 * @param centavos      {@link Long} valor en centavos
+	 * @param puntosBasicos {@link Integer} porcentaje en puntos basicos
+	 * @param redondeo      {@link RoundingMode} redondeo a aplicar al centavo
+	 * @return {@link Long} porcentaje del valor en centavos
+	 */
+	public static long porcentaje(long centavos, int puntosBasicos, RoundingMode redondeo) {
+		return dividir(Math.multiplyExact(centavos, puntosBasicos), PUNTOS_BASICOS_POR_UNIDAD, redondeo);
+	}
+
+	/**
+	 * Permite dividir dos enteros aplicando el redondeo indicado, con la misma
+	 * semantica de {@link BigDecimal#divide(BigDecimal, RoundingMode)}
+	 * 
+	 * @param dividendo {@link Long} dividendo
+	 * @param divisor   {@link Long} divisor diferente de cero
+	 * @param redondeo  {@link RoundingMode} redondeo a aplicar
+	 * @return {@link Long} cociente redondeado
+	 */
+	public static long dividir(long dividendo, long divisor, RoundingMode redondeo) {
+		long cociente = dividendo / divisor;
+		long residuo = dividendo % divisor;
+		if (residuo == 0) {
+			return cociente;
+		}
+
+		int signo = Long.signum(dividendo) * Long.signum(divisor);
+		long doble = Math.abs(residuo) * 2;
+		long absolutoDivisor = Math.abs(divisor);
+		boolean alejarDeCero;
+		switch (redondeo) {
+		case UP:
+			alejarDeCero = true;
+			break;
+		case DOWN:
+			alejarDeCero = false;
+			break;
+		case CEILING:
+			alejarDeCero = signo > 0;
+			break;
+		case FLOOR:
+			alejarDeCero = signo < 0;
+			break;
+		case HALF_UP:
+			alejarDeCero = doble >= absolutoDivisor;
+			break;
+		case HALF_DOWN:
+			alejarDeCero = doble > absolutoDivisor;
+			break;
+		case HALF_EVEN:
+			alejarDeCero = doble > absolutoDivisor || (doble == absolutoDivisor && (cociente & 1) != 0);
+			break;
+		default:
+			throw new ArithmeticException("Se requiere redondeo para dividir " + dividendo + " entre " + divisor);
+		}
+		return alejarDeCero ? cociente + signo : cociente;
+	}
+}
@@ -0,0 +1,23 @@
+package dominio;
+
+/**
+ * Estado de la garanta extendida de un producto, tal como se muestra en el
+ * catlogo y en el carrito de compras
+ */
+public enum EstadoGarantia {
+
+	/**
+	 * El producto puede comprar la garanta extendida
+	 */
+	DISPONIBLE,
+
+	/**
+	 * El producto ya cuenta con una garanta extendida
+	 */
+	TIENE_GARANTIA,
+
+	/**
+	 * El cdigo del producto no aplica para garanta extendida
+	 */
+	NO_APLICA
+}
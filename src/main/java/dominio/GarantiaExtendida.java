@@ -1,48 +1,88 @@
 package dominio;
 
-import java.util.Date;
+import java.time.LocalDate;
 
 public class GarantiaExtendida {
 
     private Producto producto;
-    private Date fechaSolicitudGarantia;
-    private Date fechaFinGarantia;
-    private double precioGarantia;
+    private LocalDate fechaSolicitudGarantia;
+    private LocalDate fechaFinGarantia;
+    private long precioGarantiaCentavos;
     private String nombreCliente;
+    private String claveIdempotencia;
 
     public GarantiaExtendida(Producto producto) {
-        this.fechaSolicitudGarantia = new Date();
+        this.fechaSolicitudGarantia = LocalDate.now();
         this.producto = producto;
     }
 
-    public GarantiaExtendida(Producto producto, Date fechaSolicitudGarantia, Date fechaFinGarantia,
+    public GarantiaExtendida(Producto producto, LocalDate fechaSolicitudGarantia, LocalDate fechaFinGarantia,
             double precioGarantia, String nombreCliente) {
 
+        this(producto, fechaSolicitudGarantia, fechaFinGarantia, nombreCliente);
+        this.precioGarantiaCentavos = Dinero.aCentavos(precioGarantia);
+    }
+
+    private GarantiaExtendida(Producto producto, LocalDate fechaSolicitudGarantia, LocalDate fechaFinGarantia,
+            String nombreCliente) {
+
         this.producto = producto;
         this.fechaSolicitudGarantia = fechaSolicitudGarantia;
         this.fechaFinGarantia = fechaFinGarantia;
-        this.precioGarantia = precioGarantia;
         this.nombreCliente = nombreCliente;
     }
 
+    /**
+     * Permite crear una garanta con el precio expresado en centavos
+     */
+    public static GarantiaExtendida conPrecioEnCentavos(Producto producto, LocalDate fechaSolicitudGarantia,
+            LocalDate fechaFinGarantia, long precioGarantiaCentavos, String nombreCliente) {
+
+        return conPrecioEnCentavos(producto, fechaSolicitudGarantia, fechaFinGarantia, precioGarantiaCentavos,
+                nombreCliente, null);
+    }
+
+    /**
+     * Permite crear una garanta con el precio expresado en centavos y la clave
+     * de idempotencia de la solicitud que la gener
+     */
+    public static GarantiaExtendida conPrecioEnCentavos(Producto producto, LocalDate fechaSolicitudGarantia,
+            LocalDate fechaFinGarantia, long precioGarantiaCentavos, String nombreCliente,
+            String claveIdempotencia) {
+
+        GarantiaExtendida garantia = new GarantiaExtendida(producto, fechaSolicitudGarantia, fechaFinGarantia,
+                nombreCliente);
+        garantia.precioGarantiaCentavos = precioGarantiaCentavos;
+        garantia.claveIdempotencia = claveIdempotencia;
+        return garantia;
+    }
+
     public Producto getProducto() {
         return producto;
     }
 
-    public Date getFechaSolicitudGarantia() {
+    public LocalDate getFechaSolicitudGarantia() {
         return fechaSolicitudGarantia;
     }
 
-    public Date getFechaFinGarantia() {
+    public LocalDate getFechaFinGarantia() {
         return fechaFinGarantia;
     }
 
     public double getPrecioGarantia() {
-        return precioGarantia;
+        return Dinero.aUnidades(precioGarantiaCentavos);
+    }
+
+    public long getPrecioGarantiaCentavos() {
+        return precioGarantiaCentavos;
     }
 
     public String getNombreCliente() {
         return nombreCliente;
     }
 
+    public String getClaveIdempotencia() {
+        return claveIdempotencia;
+    }
+
 }
@@ -0,0 +1,48 @@
+package dominio;
+
+import java.text.Normalizer;
+
+/**
+ * Clave de bsqueda del nombre de un cliente: sin distinguir maysculas ni
+ * tildes, de modo que "Martnez", "MARTINEZ" y "martinez" se encuentran con la
+ * misma bsqueda. Las letras con diacrticos pierden la marca, por lo que la 
+ * se busca como n
+ */
+public final class NombreCliente {
+
+	private NombreCliente() {}
+
+	/**
+	 * Mtodo que permite obtener la clave de bsqueda de un nombre: descompone
+	 * los caracteres, quita las marcas diacrticas, pasa a minsculas y deja un
+	 * solo espacio entre palabras, sin espacios al inicio ni al final
+	 *
+	 * @param nombre {@link String} nombre del cliente tal como se registr
+	 * @return {@link String} clave normalizada, null si el nombre es null
+	 */
+	public static String normalizar(String nombre) {
+
+		if (nombre == null) {
+			return null;
+		}
+		String descompuesto = Normalizer.normalize(nombre, Normalizer.Form.NFD);
+		StringBuilder normalizado = new StringBuilder(descompuesto.length());
+		boolean separar = false;
+		for (int i = 0; i < descompuesto.length(); i++) {
+			char caracter = descompuesto.charAt(i);
+			if (Character.getType(caracter) == Character.NON_SPACING_MARK) {
+				continue;
+			}
+			if (Character.isWhitespace(caracter) || Character.isSpaceChar(caracter)) {
+				separar = normalizado.length() > 0;
+				continue;
+			}
+			if (separar) {
+				normalizado.append(' ');
+				separar = false;
+			}
+			normalizado.append(Character.toLowerCase(caracter));
+		}
+		return normalizado.toString();
+	}
+}
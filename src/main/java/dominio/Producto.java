@@ -2,15 +2,33 @@ package dominio;
 
 public class Producto {
 
-	private String codigo;
-	private String nombre;
-	private double precio;
+	private final String codigo;
+	private final String nombre;
+	private final long precioCentavos;
 
 	public Producto(String codigo, String nombre, double precio) {
 
+		this(codigo, nombre, Dinero.aCentavos(precio));
+	}
+
+	private Producto(String codigo, String nombre, long precioCentavos) {
+
 		this.codigo = codigo;
 		this.nombre = nombre;
-		this.precio = precio;
+		this.precioCentavos = precioCentavos;
+	}
+
+	/**
+	 * Permite crear un producto con el precio expresado en centavos
+	 * 
+	 * @param codigo         {@link String} cdigo del producto
+	 * @param nombre         {@link String} nombre del producto
+	 * @param precioCentavos {@link Long} precio del producto en centavos
+	 * @return {@link Producto} producto creado
+	 */
+	public static Producto conPrecioEnCentavos(String codigo, String nombre, long precioCentavos) {
+
+		return new Producto(codigo, nombre, precioCentavos);
 	}
 
 	public String getCodigo() {
@@ -22,7 +40,11 @@ public class Producto {
 	}
 
 	public double getPrecio() {
-		return precio;
+		return Dinero.aUnidades(precioCentavos);
+	}
+
+	public long getPrecioCentavos() {
+		return precioCentavos;
 	}
 
 }
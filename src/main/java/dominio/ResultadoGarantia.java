@@ -0,0 +1,78 @@
+package dominio;
+
+import dominio.excepcion.GarantiaExtendidaException;
+
+/**
+ * Resultado de una solicitud de garanta extendida. Los rechazos se reportan
+ * con un cdigo en lugar de una excepcin y son instancias compartidas, por lo
+ * que rechazar una solicitud no crea objetos
+ */
+public final class ResultadoGarantia {
+
+	/**
+	 * Cdigos de resultado de una solicitud
+	 */
+	public enum Codigo {
+		GENERADA(null),
+		DATOS_OBLIGATORIOS(Vendedor.DATOS_OBLIGATORIOS),
+		EL_PRODUCTO_TIENE_GARANTIA(Vendedor.EL_PRODUCTO_TIENE_GARANTIA),
+		PRODUCTO_SIN_GARANTIA(Vendedor.PRODUCTO_SIN_GARANTIA),
+		CLAVE_IDEMPOTENCIA_OBLIGATORIA(Vendedor.CLAVE_IDEMPOTENCIA_OBLIGATORIA);
+
+		private final String mensaje;
+		private final ResultadoGarantia rechazo;
+
+		Codigo(String mensaje) {
+			this.mensaje = mensaje;
+			this.rechazo = new ResultadoGarantia(this, null);
+		}
+
+		public String getMensaje() {
+			return mensaje;
+		}
+	}
+
+	private final Codigo codigo;
+	private final GarantiaExtendida garantia;
+
+	private ResultadoGarantia(Codigo codigo, GarantiaExtendida garantia) {
+		this.codigo = codigo;
+		this.garantia = garantia;
+	}
+
+	public static ResultadoGarantia generada(GarantiaExtendida garantia) {
+		return new ResultadoGarantia(Codigo.GENERADA, garantia);
+	}
+
+	public static ResultadoGarantia rechazada(Codigo codigo) {
+		if (codigo == Codigo.GENERADA) {
+			throw new IllegalArgumentException("Una garanta generada requiere la garanta");
+		}
+		return codigo.rechazo;
+	}
+
+	public boolean esGenerada() {
+		return codigo == Codigo.GENERADA;
+	}
+
+	public Codigo getCodigo() {
+		return codigo;
+	}
+
+	public GarantiaExtendida getGarantia() {
+		return garantia;
+	}
+
+	/**
+	 * Permite obtener la garanta generada, o lanzar el rechazo como
+	 * {@link GarantiaExtendidaException} sin traza de la pila
+	 * 
+	 * @return {@link GarantiaExtendida} garanta generada
+	 */
+	public GarantiaExtendida obtenerOLanzar() {
+		if (!esGenerada()) {
+			throw new GarantiaExtendidaException(codigo.getMensaje(), false);
+		}
+		return garantia;
+	}
+}
@@ -1,30 +1,76 @@
 package dominio;
 
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import dominio.excepcion.GarantiaExtendidaException;
+import dominio.repositorio.RecorridoProductos;
 import dominio.repositorio.RepositorioGarantiaExtendida;
 import dominio.repositorio.RepositorioProducto;
+import dominio.tarifa.MotorTarifas;
+import dominio.tarifa.TablaTarifas;
 
 public class Vendedor {
 
 	public static final String DATOS_OBLIGATORIOS = "El cdigo del producto y el nombre del cliente son requeridos para la generacin de la garanta";
 	public static final String EL_PRODUCTO_TIENE_GARANTIA = "El producto ya cuenta con una garantia extendida";
 	public static final String PRODUCTO_SIN_GARANTIA = "Este producto no cuenta con garanta extendida";
-	public static final String VOCALES = "a|A|e|E|i|I|o|O|u|U";
+	public static final String CLAVE_IDEMPOTENCIA_OBLIGATORIA = "La clave de idempotencia es requerida para la generacin idempotente de la garanta";
 	public static final double PRECIO_BASE_GARANTIA = 500000.0;
 	public static final double VEINTE_PORCIENTO = 0.2;
 	public static final double DIEZ_PORCIENTO = 0.1;
 	public static final int DIAS_GARANTIA_VEINTE_PORCIENTO = 200;
 	public static final int DIAS_GARANTIA_DIEZ_PORCIENTO = 100;
+	public static final long PRECIO_BASE_GARANTIA_CENTAVOS = 50000000L;
+	public static final int VEINTE_PORCIENTO_PUNTOS_BASICOS = 2000;
+	public static final int DIEZ_PORCIENTO_PUNTOS_BASICOS = 1000;
+	public static final RoundingMode REDONDEO_PRECIO_GARANTIA = RoundingMode.HALF_UP;
+
+	private static final String LETRAS_VOCALES = "aAeEiIoOuU";
 
 	private RepositorioProducto repositorioProducto;
 	private RepositorioGarantiaExtendida repositorioGarantia;
+	private Clock reloj;
+	private MotorTarifas motorTarifas;
 
 	public Vendedor(RepositorioProducto repositorioProducto, RepositorioGarantiaExtendida repositorioGarantia) {
+		this(repositorioProducto, repositorioGarantia, Clock.systemDefaultZone());
+	}
+
+	/**
+	 * Permite crear el vendedor indicando el reloj del cual se toma la fecha de
+	 * solicitud de las garantas
+	 * 
+	 * @param reloj {@link Clock} reloj con la zona horaria de la tienda
+	 */
+	public Vendedor(RepositorioProducto repositorioProducto, RepositorioGarantiaExtendida repositorioGarantia,
+			Clock reloj) {
+		this(repositorioProducto, repositorioGarantia, reloj, MotorTarifas.compartido());
+	}
+
+	/**
+	 * Permite crear el vendedor indicando adems el motor del cual se toman los
+	 * niveles de tarifa de la garanta
+	 * 
+	 * @param reloj        {@link Clock} reloj con la zona horaria de la tienda
+	 * @param motorTarifas {@link MotorTarifas} motor con la tabla de tarifas
+	 *                     vigente
+	 */
+	public Vendedor(RepositorioProducto repositorioProducto, RepositorioGarantiaExtendida repositorioGarantia,
+			Clock reloj, MotorTarifas motorTarifas) {
 		this.repositorioProducto = repositorioProducto;
 		this.repositorioGarantia = repositorioGarantia;
+		this.reloj = reloj;
+		this.motorTarifas = motorTarifas;
 
 	}
 
@@ -38,15 +84,136 @@ public class Vendedor {
 	 *                      garanta
 	 */
 	public void generarGarantia(String codigo, String nombreCliente) {
+		generarGarantia(codigo, nombreCliente, null);
+	}
+
+	/**
+	 * Mtodo encargado de generar una garanta extendida registrando la clave de
+	 * idempotencia de la solicitud
+	 * 
+	 * @param codigo            {@link String} cdigo del producto al cual se
+	 *                          genera la garanta
+	 * @param nombreCliente     {@link String} nombre del cliente quien compra la
+	 *                          garanta
+	 * @param claveIdempotencia {@link String} clave de la solicitud, puede ser
+	 *                          null
+	 * @return {@link GarantiaExtendida} garanta registrada
+	 */
+	public GarantiaExtendida generarGarantia(String codigo, String nombreCliente, String claveIdempotencia) {
+		return intentarGenerarGarantia(codigo, nombreCliente, claveIdempotencia).obtenerOLanzar();
+	}
+
+	/**
+	 * Mtodo encargado de generar una garanta extendida reportando los rechazos
+	 * de negocio como resultado, sin lanzar excepciones
+	 * 
+	 * @param codigo            {@link String} cdigo del producto al cual se
+	 *                          genera la garanta
+	 * @param nombreCliente     {@link String} nombre del cliente quien compra la
+	 *                          garanta
+	 * @param claveIdempotencia {@link String} clave de la solicitud, puede ser
+	 *                          null
+	 * @return {@link ResultadoGarantia} garanta registrada o cdigo del rechazo
+	 */
+	public ResultadoGarantia intentarGenerarGarantia(String codigo, String nombreCliente,
+			String claveIdempotencia) {
 		if (esNuloOVacio(codigo) || esNuloOVacio(nombreCliente)) {
-			throw new GarantiaExtendidaException(DATOS_OBLIGATORIOS);
-		} else if (tieneGarantia(codigo)) {
-			throw new GarantiaExtendidaException(EL_PRODUCTO_TIENE_GARANTIA);
+			return ResultadoGarantia.rechazada(ResultadoGarantia.Codigo.DATOS_OBLIGATORIOS);
+		}
+		ResultadoGarantia rechazo = validarProducto(codigo);
+		if (rechazo != null) {
+			return rechazo;
+		}
+		return ResultadoGarantia.generada(registrarGarantiaExtendida(codigo, nombreCliente, claveIdempotencia));
+	}
+
+	private ResultadoGarantia validarProducto(String codigo) {
+		if (tieneGarantia(codigo)) {
+			return ResultadoGarantia.rechazada(ResultadoGarantia.Codigo.EL_PRODUCTO_TIENE_GARANTIA);
 		} else if (validarVocales(codigo)) {
-			throw new GarantiaExtendidaException(PRODUCTO_SIN_GARANTIA);
-		} else {
-			registrarGarantiaExtendida(codigo, nombreCliente);
+			return ResultadoGarantia.rechazada(ResultadoGarantia.Codigo.PRODUCTO_SIN_GARANTIA);
+		}
+		return null;
+	}
+
+	/**
+	 * Mtodo que permite cotizar la garanta extendida de un producto con las
+	 * mismas reglas de negocio de la venta, sin registrar nada
+	 * 
+	 * @param codigo {@link String} cdigo del producto a cotizar
+	 * @return {@link CotizacionGarantia} precio y vigencia de la garanta si se
+	 *         comprara hoy
+	 */
+	public CotizacionGarantia cotizarGarantia(String codigo) {
+		ResultadoGarantia rechazo = esNuloOVacio(codigo)
+				? ResultadoGarantia.rechazada(ResultadoGarantia.Codigo.DATOS_OBLIGATORIOS)
+				: validarProducto(codigo);
+		if (rechazo != null) {
+			throw new GarantiaExtendidaException(rechazo.getCodigo().getMensaje(), false);
+		}
+		return cotizar(repositorioProducto.obtenerPorCodigo(codigo));
+	}
+
+	/**
+	 * Mtodo que permite cotizar la garanta de un producto ya validado en una
+	 * fecha de solicitud dada, por ejemplo al procesar ventas registradas sin
+	 * conexin. No consulta los repositorios
+	 * 
+	 * @param producto       {@link Producto} producto vendido
+	 * @param fechaSolicitud {@link LocalDate} fecha de la venta, null para la
+	 *                       fecha actual del reloj
+	 * @return {@link CotizacionGarantia} precio y vigencia de la garanta
+	 */
+	public CotizacionGarantia cotizarGarantia(Producto producto, LocalDate fechaSolicitud) {
+		return cotizar(producto, fechaSolicitud != null ? fechaSolicitud : LocalDate.now(reloj));
+	}
+
+	/**
+	 * Mtodo que permite consultar el estado de la garanta de varios productos,
+	 * por ejemplo los de una pgina del catlogo o un carrito, con una sola
+	 * consulta al repositorio de garantas. Las reglas del cdigo se evalan en
+	 * memoria, en el mismo orden que en la venta
+	 * 
+	 * @param codigos {@link Collection} cdigos de los productos, los nulos o
+	 *                vacos se ignoran
+	 * @return {@link Map} estado de la garanta por cdigo, en el orden recibido
+	 */
+	public Map<String, EstadoGarantia> consultarEstadoGarantias(Collection<String> codigos) {
+		Map<String, EstadoGarantia> estados = new LinkedHashMap<>();
+		for (String codigo : codigos) {
+			if (!esNuloOVacio(codigo)) {
+				estados.put(codigo, null);
+			}
+		}
+		if (estados.isEmpty()) {
+			return estados;
+		}
+
+		Set<String> conGarantia = repositorioGarantia.obtenerCodigosConGarantia(estados.keySet());
+		for (Map.Entry<String, EstadoGarantia> estado : estados.entrySet()) {
+			String codigo = estado.getKey();
+			if (conGarantia.contains(codigo)) {
+				estado.setValue(EstadoGarantia.TIENE_GARANTIA);
+			} else if (validarVocales(codigo)) {
+				estado.setValue(EstadoGarantia.NO_APLICA);
+			} else {
+				estado.setValue(EstadoGarantia.DISPONIBLE);
+			}
 		}
+		return estados;
+	}
+
+	/**
+	 * Mtodo que permite recorrer los productos con precio mayor al precio base
+	 * de la garanta, a los cuales se les ofrece la garanta con la tarifa ms
+	 * alta. Los productos se piden al repositorio por pginas a medida que se
+	 * consumen
+	 * 
+	 * @param tamanoPagina productos por cada consulta al repositorio
+	 * @return {@link Stream} de productos ordenados por precio y cdigo
+	 */
+	public Stream<Producto> productosSobrePrecioBase(int tamanoPagina) {
+		return RecorridoProductos.porPrecioMayorA(repositorioProducto, PRECIO_BASE_GARANTIA_CENTAVOS, tamanoPagina);
 	}
 
 	/**
@@ -59,23 +226,36 @@ public class Vendedor {
 	 *                      garanta
 	 */
 	public void registrarGarantiaExtendida(String codigo, String nombreCliente) {
+		registrarGarantiaExtendida(codigo, nombreCliente, null);
+	}
+
+	private GarantiaExtendida registrarGarantiaExtendida(String codigo, String nombreCliente,
+			String claveIdempotencia) {
 		Producto producto = repositorioProducto.obtenerPorCodigo(codigo);
+		CotizacionGarantia cotizacion = cotizar(producto);
 
-		double precioProducto = producto.getPrecio();
-		double precioGarantia = 0;
-		Calendar fecha = Calendar.getInstance();
-		Date fechaSolicitudGarantia = new Date();
-		fecha.setTime(fechaSolicitudGarantia);
-		if (precioProducto > PRECIO_BASE_GARANTIA) {
-			precioGarantia = calcularPrecioGarantia(precioProducto, VEINTE_PORCIENTO);
-		} else {
-			precioGarantia = calcularPrecioGarantia(precioProducto, DIEZ_PORCIENTO);
-		}
-		Date fechaFinGarantia = calcularFechaGaratia(fecha, precioProducto);
-		
-		GarantiaExtendida garantia = new GarantiaExtendida(producto, fechaSolicitudGarantia, fechaFinGarantia,
-				precioGarantia, nombreCliente);
+		GarantiaExtendida garantia = GarantiaExtendida.conPrecioEnCentavos(producto,
+				cotizacion.getFechaSolicitudGarantia(), cotizacion.getFechaFinGarantia(),
+				cotizacion.getPrecioGarantiaCentavos(), nombreCliente, claveIdempotencia);
 		repositorioGarantia.agregar(garantia);
+		return garantia;
+	}
+
+	private CotizacionGarantia cotizar(Producto producto) {
+		return cotizar(producto, LocalDate.now(reloj));
+	}
+
+	private CotizacionGarantia cotizar(Producto producto, LocalDate fechaSolicitudGarantia) {
+		long precioProducto = producto.getPrecioCentavos();
+
+		// Se toma una sola vez la tabla para que una recarga no mezcle niveles
+		TablaTarifas tarifas = motorTarifas.obtenerTabla();
+		int nivel = tarifas.buscarNivel(precioProducto);
+		long precioGarantia = calcularPrecioGarantia(precioProducto, tarifas.getPuntosBasicos(nivel));
+		LocalDate fechaFinGarantia = LocalDate
+				.ofEpochDay(motorTarifas.calcularDiaFin(fechaSolicitudGarantia.toEpochDay(), tarifas, nivel));
+
+		return new CotizacionGarantia(producto, fechaSolicitudGarantia, fechaFinGarantia, precioGarantia);
 	}
 
 	/**
@@ -88,37 +268,69 @@ public class Vendedor {
 	 * @return {@link Double} precio calculado para la garanta
 	 */
 	public double calcularPrecioGarantia(double precioProducto, double porcentaje) {
-		double precioGarantia = precioProducto * porcentaje;
-		return precioGarantia;
+		long precioGarantia = calcularPrecioGarantia(Dinero.aCentavos(precioProducto),
+				Dinero.aPuntosBasicos(porcentaje));
+		return Dinero.aUnidades(precioGarantia);
 	}
 
 	/**
-	 * Mtodo que permite calcular la fecha de vencimiento de una garantia
+	 * Mtodo que permite calcular el precio de la garanta en centavos, sin
+	 * crear objetos intermedios
+	 * 
+	 * @param precioProductoCentavos {@link Long} precio del producto en centavos
+	 * @param puntosBasicos          {@link Integer} porcentaje a ser aplicado en
+	 *                               puntos bsicos
+	 * @return {@link Long} precio de la garanta en centavos, redondeado con
+	 *         {@link #REDONDEO_PRECIO_GARANTIA}
+	 */
+	public long calcularPrecioGarantia(long precioProductoCentavos, int puntosBasicos) {
+		return Dinero.porcentaje(precioProductoCentavos, puntosBasicos, REDONDEO_PRECIO_GARANTIA);
+	}
+
+	/**
+	 * Mtodo que permite calcular la fecha de vencimiento de una garantia. Se
+	 * conserva por compatibilidad: modifica el calendario recibido, conservando la
+	 * hora, con el resultado de {@link #calcularFechaGarantia(LocalDate, long)}
 	 * 
 	 * @param fechaInicial   {@link Calendar} fecha de inicio de la garanta
 	 * @param precioProducto {@link Double} Precio del producto
 	 * @return {@link Date} fecha de finalizacin de la garanta
 	 */
 	public Date calcularFechaGaratia(Calendar fechaInicial, double precioProducto) {
-		if (precioProducto > PRECIO_BASE_GARANTIA) {
-			int contadorDiasGarantia = 0;
-			do {
-				if (fechaInicial.get(Calendar.DAY_OF_WEEK) != Calendar.MONDAY) {
-					contadorDiasGarantia++;
-				}
-				fechaInicial.add(Calendar.DAY_OF_YEAR, 1);
-			} while (contadorDiasGarantia < DIAS_GARANTIA_VEINTE_PORCIENTO);
-
-			if (fechaInicial.get(Calendar.DAY_OF_WEEK) == Calendar.SUNDAY) {
-				fechaInicial.add(Calendar.DAY_OF_YEAR, 2);
-			}
-		} else {
-			fechaInicial.add(Calendar.DAY_OF_YEAR, DIAS_GARANTIA_DIEZ_PORCIENTO);
-		}
+		ZoneId zona = fechaInicial.getTimeZone().toZoneId();
+		long diaInicial = fechaInicial.toInstant().atZone(zona).toLocalDate().toEpochDay();
+		long diaFinal = calcularDiaFinGarantia(diaInicial, Dinero.aCentavos(precioProducto));
 
+		fechaInicial.add(Calendar.DAY_OF_YEAR, Math.toIntExact(diaFinal - diaInicial));
 		return fechaInicial.getTime();
 	}
 
+	/**
+	 * Mtodo que permite calcular la fecha de vencimiento de una garantia
+	 * 
+	 * @param fechaSolicitud         {@link LocalDate} fecha de inicio de la
+	 *                               garanta
+	 * @param precioProductoCentavos {@link Long} precio del producto en centavos
+	 * @return {@link LocalDate} fecha de finalizacin de la garanta
+	 */
+	public LocalDate calcularFechaGarantia(LocalDate fechaSolicitud, long precioProductoCentavos) {
+		return LocalDate.ofEpochDay(calcularDiaFinGarantia(fechaSolicitud.toEpochDay(), precioProductoCentavos));
+	}
+
+	/**
+	 * Mtodo que permite calcular el da de vencimiento de una garanta sobre
+	 * das desde la poca (1970-01-01), sin crear objetos, segn el nivel de
+	 * tarifa que aplica al precio del producto
+	 * 
+	 * @param diaSolicitud           {@link Long} da de solicitud desde la poca
+	 * @param precioProductoCentavos {@link Long} precio del producto en centavos
+	 * @return {@link Long} da de finalizacin desde la poca
+	 */
+	public long calcularDiaFinGarantia(long diaSolicitud, long precioProductoCentavos) {
+		TablaTarifas tarifas = motorTarifas.obtenerTabla();
+		return motorTarifas.calcularDiaFin(diaSolicitud, tarifas, tarifas.buscarNivel(precioProductoCentavos));
+	}
+
 	/**
 	 * Mtodo que permite validar si un producto cuenta con una garanta
 	 * 
@@ -138,13 +350,13 @@ public class Vendedor {
 	 *         vocales, de lo contrario retorna false
 	 */
 	public boolean validarVocales(String codigo) {
-		int longitudCodigo = codigo.length();
-		String codigoAux = codigo.replaceAll(VOCALES, "");
-		int longitudCodAux = codigoAux.length();
-
-		int diferencia = longitudCodigo - longitudCodAux;
-
-		return diferencia == 3;
+		int vocales = 0;
+		for (int i = 0; i < codigo.length(); i++) {
+			if (LETRAS_VOCALES.indexOf(codigo.charAt(i)) >= 0) {
+				vocales++;
+			}
+		}
+		return vocales == 3;
 	}
 
 	/**
@@ -0,0 +1,160 @@
+package dominio.evento;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import dominio.GarantiaExtendida;
+
+/**
+ * Canal de publicacin y suscripcin de las garantas creadas, sobre un buffer
+ * circular preasignado. La publicacin toma la siguiente secuencia, escribe la
+ * ranura y avanza el cursor bajo un nico candado, por lo que el cursor tiene un
+ * solo escritor a la vez; no crea objetos ni espera a los consumidores.
+ * 
+ * Cada suscripcin lee el buffer en su propio hilo, por lotes, y lleva su
+ * propia secuencia; su retraso es la distancia al cursor
+ */
+public class CanalEventosGarantia {
+
+	public static final int CAPACIDAD_POR_DEFECTO = 1 << 14;
+
+	private final RanuraEvento[] ranuras;
+	private final int mascara;
+	private final PoliticaDesborde politica;
+	private final CopyOnWriteArrayList<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+	private final LongAdder descartados = new LongAdder();
+
+	private volatile long cursor = -1;
+
+	public CanalEventosGarantia() {
+		this(CAPACIDAD_POR_DEFECTO, PoliticaDesborde.DESCARTAR_NUEVO);
+	}
+
+	/**
+	 * @param capacidad nmero de ranuras, potencia de dos
+	 * @param politica  {@link PoliticaDesborde} qu hacer con el buffer lleno
+	 */
+	public CanalEventosGarantia(int capacidad, PoliticaDesborde politica) {
+		if (capacidad < 1 || Integer.bitCount(capacidad) != 1) {
+			throw new IllegalArgumentException("La capacidad debe ser una potencia de dos");
+		}
+		this.ranuras = new RanuraEvento[capacidad];
+		for (int i = 0; i < capacidad; i++) {
+			ranuras[i] = new RanuraEvento();
+		}
+		this.mascara = capacidad - 1;
+		this.politica = politica;
+	}
+
+	/**
+	 * Mtodo que permite publicar una garanta confirmada
+	 * 
+	 * @param garantia {@link GarantiaExtendida} garanta confirmada
+	 * @return secuencia asignada, o -1 si el evento se descart por desborde
+	 */
+	public long publicar(GarantiaExtendida garantia) {
+		long secuencia;
+		synchronized (this) {
+			secuencia = cursor + 1;
+			if (politica == PoliticaDesborde.DESCARTAR_NUEVO && secuencia - ranuras.length > menorSecuenciaLeida()) {
+				descartados.increment();
+				return -1;
+			}
+			ranuras[(int) secuencia & mascara].escribir(garantia, secuencia);
+			cursor = secuencia;
+		}
+		for (Suscripcion suscripcion : suscripciones) {
+			suscripcion.despertar();
+		}
+		return secuencia;
+	}
+
+	/**
+	 * Mtodo que permite suscribir un consumidor a las garantas publicadas a
+	 * partir de este momento. El consumidor se ejecuta en un hilo propio
+	 * 
+	 * @param nombre     nombre del consumidor, usado para el hilo
+	 * @param consumidor {@link ConsumidorEventos} consumidor
+	 * @param estrategia {@link EstrategiaEspera} cmo espera sin eventos nuevos
+	 * @return {@link Suscripcion} para consultar el retraso o cancelarla
+	 */
+	public Suscripcion suscribir(String nombre, ConsumidorEventos consumidor, EstrategiaEspera estrategia) {
+		Suscripcion suscripcion;
+		synchronized (this) {
+			suscripcion = new Suscripcion(this, nombre, consumidor, estrategia, cursor);
+			suscripciones.add(suscripcion);
+		}
+		suscripcion.iniciar();
+		return suscripcion;
+	}
+
+	void retirar(Suscripcion suscripcion) {
+		suscripciones.remove(suscripcion);
+	}
+
+	long getCursor() {
+		return cursor;
+	}
+
+	RanuraEvento ranura(long secuencia) {
+		return ranuras[(int) secuencia & mascara];
+	}
+
+	public int getCapacidad() {
+		return ranuras.length;
+	}
+
+	public PoliticaDesborde getPolitica() {
+		return politica;
+	}
+
+	/**
+	 * @return eventos publicados, sin contar los descartados
+	 */
+	public long getPublicados() {
+		return cursor + 1;
+	}
+
+	public long getDescartados() {
+		return descartados.sum();
+	}
+
+	private long menorSecuenciaLeida() {
+		long menor = cursor;
+		for (Suscripcion suscripcion : suscripciones) {
+			menor = Math.min(menor, suscripcion.getSecuenciaLeida());
+		}
+		return menor;
+	}
+
+	/**
+	 * Ranura preasignada del buffer. La secuencia se invalida antes de escribir la
+	 * garanta y se publica despus, de modo que un lector detecta si la ranura
+	 * fue sobrescrita mientras la lea
+	 */
+	static final class RanuraEvento {
+
+		private static final long ESCRIBIENDO = -1;
+
+		private volatile long secuencia = ESCRIBIENDO;
+		private volatile GarantiaExtendida garantia;
+
+		void escribir(GarantiaExtendida nueva, long nuevaSecuencia) {
+			secuencia = ESCRIBIENDO;
+			garantia = nueva;
+			secuencia = nuevaSecuencia;
+		}
+
+		/**
+		 * @return la garanta si la ranura an contiene la secuencia esperada,
+		 *         null si fue sobrescrita
+		 */
+		GarantiaExtendida leer(long secuenciaEsperada) {
+			if (secuencia != secuenciaEsperada) {
+				return null;
+			}
+			GarantiaExtendida leida = garantia;
+			return secuencia == secuenciaEsperada ? leida : null;
+		}
+	}
+}
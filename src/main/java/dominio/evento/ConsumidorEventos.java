@@ -0,0 +1,18 @@
+package dominio.evento;
+
+import dominio.GarantiaExtendida;
+
+/**
+ * Consumidor de las garantas creadas. Recibe los eventos por lotes, en el
+ * orden de publicacin, en el hilo de su suscripcin
+ */
+public interface ConsumidorEventos {
+
+	/**
+	 * @param garantia   {@link GarantiaExtendida} garanta confirmada
+	 * @param secuencia  nmero de la garanta en el canal
+	 * @param finDeLote  true si es el ltimo evento disponible del lote, til
+	 *                   para confirmar trabajo agrupado
+	 */
+	void alRecibir(GarantiaExtendida garantia, long secuencia, boolean finDeLote);
+}
@@ -0,0 +1,59 @@
+package dominio.evento;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cmo espera un consumidor cuando no hay eventos nuevos, de menor latencia y
+ * mayor consumo de CPU a mayor latencia y menor consumo
+ */
+public enum EstrategiaEspera {
+
+	/**
+	 * Revisa el cursor continuamente, ocupando un ncleo
+	 */
+	OCUPADA {
+		@Override
+		void esperar(int intentos) {
+			// se vuelve a revisar el cursor de inmediato
+		}
+	},
+
+	/**
+	 * Cede el procesador entre revisiones
+	 */
+	CEDER {
+		@Override
+		void esperar(int intentos) {
+			Thread.yield();
+		}
+	},
+
+	/**
+	 * Cede el procesador algunas veces y luego duerme intervalos cortos
+	 */
+	DORMIR {
+		@Override
+		void esperar(int intentos) {
+			if (intentos < INTENTOS_ANTES_DE_DORMIR) {
+				Thread.yield();
+			} else {
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+			}
+		}
+	},
+
+	/**
+	 * Se bloquea hasta que quien publica lo despierta
+	 */
+	BLOQUEAR {
+		@Override
+		void esperar(int intentos) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+	};
+
+	private static final int INTENTOS_ANTES_DE_DORMIR = 100;
+
+	abstract void esperar(int intentos);
+}
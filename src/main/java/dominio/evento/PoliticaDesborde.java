@@ -0,0 +1,20 @@
+package dominio.evento;
+
+/**
+ * Qu hacer al publicar cuando el consumidor ms lento no ha liberado espacio.
+ * Ninguna de las polticas hace esperar a quien publica
+ */
+public enum PoliticaDesborde {
+
+	/**
+	 * Se descarta el evento nuevo y se cuenta en el canal; los consumidores no
+	 * pierden eventos ya publicados
+	 */
+	DESCARTAR_NUEVO,
+
+	/**
+	 * Se sobrescribe el evento ms antiguo; los consumidores atrasados saltan
+	 * hasta el evento ms antiguo disponible y cuentan los perdidos
+	 */
+	SOBRESCRIBIR_ANTIGUO
+}
@@ -0,0 +1,135 @@
+package dominio.evento;
+
+import java.util.concurrent.locks.LockSupport;
+
+import dominio.GarantiaExtendida;
+
+/**
+ * Suscripcin de un consumidor a un {@link CanalEventosGarantia}. Su hilo
+ * toma todos los eventos disponibles hasta el cursor, los entrega como un lote
+ * y luego publica la secuencia leda, que es la que libera espacio en el canal
+ */
+public class Suscripcion {
+
+	private final CanalEventosGarantia canal;
+	private final ConsumidorEventos consumidor;
+	private final EstrategiaEspera estrategia;
+	private final Thread hilo;
+
+	private volatile long secuenciaLeida;
+	private volatile boolean activa = true;
+	private volatile boolean bloqueada;
+	private volatile long perdidos;
+	private volatile long errores;
+
+	Suscripcion(CanalEventosGarantia canal, String nombre, ConsumidorEventos consumidor, EstrategiaEspera estrategia,
+			long secuenciaInicial) {
+		this.canal = canal;
+		this.consumidor = consumidor;
+		this.estrategia = estrategia;
+		this.secuenciaLeida = secuenciaInicial;
+		this.hilo = new Thread(this::consumir, "eventos-" + nombre);
+		this.hilo.setDaemon(true);
+	}
+
+	void iniciar() {
+		hilo.start();
+	}
+
+	void despertar() {
+		if (bloqueada) {
+			LockSupport.unpark(hilo);
+		}
+	}
+
+	/**
+	 * Permite cancelar la suscripcin, esperando a que termine el lote en curso
+	 * 
+	 * @param tiempoMaximoMs tiempo mximo de espera en milisegundos
+	 */
+	public void cancelar(long tiempoMaximoMs) throws InterruptedException {
+		activa = false;
+		LockSupport.unpark(hilo);
+		hilo.join(tiempoMaximoMs);
+		canal.retirar(this);
+	}
+
+	/**
+	 * @return eventos publicados que este consumidor an no ha procesado
+	 */
+	public long getRetraso() {
+		return canal.getCursor() - secuenciaLeida;
+	}
+
+	public long getSecuenciaLeida() {
+		return secuenciaLeida;
+	}
+
+	/**
+	 * @return eventos sobrescritos antes de que este consumidor los leyera
+	 */
+	public long getPerdidos() {
+		return perdidos;
+	}
+
+	/**
+	 * @return eventos en los que el consumidor lanz una excepcin
+	 */
+	public long getErrores() {
+		return errores;
+	}
+
+	private void consumir() {
+		int intentos = 0;
+		while (activa) {
+			long disponible = canal.getCursor();
+			if (disponible <= secuenciaLeida) {
+				esperar(intentos++);
+				continue;
+			}
+			intentos = 0;
+			procesarLote(disponible);
+		}
+	}
+
+	private void procesarLote(long disponible) {
+		long siguiente = secuenciaLeida + 1;
+		long masAntigua = disponible - canal.getCapacidad() + 1;
+		if (siguiente < masAntigua) {
+			perdidos += masAntigua - siguiente;
+			siguiente = masAntigua;
+		}
+
+		for (long secuencia = siguiente; secuencia <= disponible; secuencia++) {
+			GarantiaExtendida garantia = canal.ranura(secuencia).leer(secuencia);
+			if (garantia == null) {
+				perdidos++;
+				continue;
+			}
+			try {
+				consumidor.alRecibir(garantia, secuencia, secuencia == disponible);
+			} catch (RuntimeException e) {
+				errores++;
+			}
+		}
+		secuenciaLeida = disponible;
+	}
+
+	private void esperar(int intentos) {
+		if (estrategia != EstrategiaEspera.BLOQUEAR) {
+			estrategia.esperar(intentos);
+			return;
+		}
+		bloqueada = true;
+		if (canal.getCursor() <= secuenciaLeida && activa) {
+			estrategia.esperar(intentos);
+		}
+		bloqueada = false;
+	}
+
+	@Override
+	public String toString() {
+		return hilo.getName() + " [retraso=" + getRetraso() + ", perdidos=" + perdidos + ", errores=" + errores
+				+ "]";
+	}
+}
@@ -7,4 +7,15 @@ public class GarantiaExtendidaException extends RuntimeException {
 	public GarantiaExtendidaException(String message) {
 		super(message);
 	}
+
+	/**
+	 * Permite crear la excepcin sin llenar la traza de la pila, para los
+	 * rechazos de negocio que no requieren depuracin
+	 * 
+	 * @param message        mensaje del rechazo
+	 * @param registrarTraza false para no capturar la traza de la pila
+	 */
+	public GarantiaExtendidaException(String message, boolean registrarTraza) {
+		super(message, null, false, registrarTraza);
+	}
 }
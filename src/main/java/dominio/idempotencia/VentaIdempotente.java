@@ -0,0 +1,110 @@
+package dominio.idempotencia;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import dominio.GarantiaExtendida;
+import dominio.ResultadoGarantia;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+
+/**
+ * Venta de garantas con clave de idempotencia. Los reintentos de una solicitud
+ * ya atendida devuelven el resultado original desde la ventana de
+ * idempotencia, sin consultar los repositorios. Si la clave ya no est en la
+ * ventana, por ejemplo despus de reiniciar, se busca la garanta guardada con
+ * esa clave, y la columna nica de la clave impide registrar un duplicado. Las
+ * solicitudes simultneas con la misma clave se agrupan: slo la primera
+ * atiende la venta y las dems esperan su resultado
+ */
+public class VentaIdempotente {
+
+	private final Vendedor vendedor;
+	private final RepositorioGarantiaExtendida repositorioGarantia;
+	private final VentanaIdempotencia<ResultadoGarantia> ventana;
+	private final ConcurrentMap<String, CompletableFuture<ResultadoGarantia>> enCurso = new ConcurrentHashMap<>();
+
+	public VentaIdempotente(Vendedor vendedor, RepositorioGarantiaExtendida repositorioGarantia,
+			VentanaIdempotencia<ResultadoGarantia> ventana) {
+		this.vendedor = vendedor;
+		this.repositorioGarantia = repositorioGarantia;
+		this.ventana = ventana;
+	}
+
+	/**
+	 * Mtodo encargado de generar una garanta extendida de forma idempotente
+	 * 
+	 * @param claveIdempotencia {@link String} clave nica de la solicitud
+	 * @param codigo            {@link String} cdigo del producto
+	 * @param nombreCliente     {@link String} nombre del cliente
+	 * @return {@link GarantiaExtendida} garanta generada por la primera
+	 *         solicitud con esta clave
+	 * @throws GarantiaExtendidaException con el mismo mensaje del rechazo
+	 *                                    original, si la solicitud fue rechazada
+	 */
+	public GarantiaExtendida generarGarantia(String claveIdempotencia, String codigo, String nombreCliente) {
+		return intentarGenerarGarantia(claveIdempotencia, codigo, nombreCliente).obtenerOLanzar();
+	}
+
+	/**
+	 * Mtodo encargado de generar una garanta extendida de forma idempotente,
+	 * reportando los rechazos como resultado
+	 * 
+	 * @param claveIdempotencia {@link String} clave nica de la solicitud
+	 * @param codigo            {@link String} cdigo del producto
+	 * @param nombreCliente     {@link String} nombre del cliente
+	 * @return {@link ResultadoGarantia} resultado de la primera solicitud con
+	 *         esta clave
+	 */
+	public ResultadoGarantia intentarGenerarGarantia(String claveIdempotencia, String codigo,
+			String nombreCliente) {
+		if (vendedor.esNuloOVacio(claveIdempotencia)) {
+			return ResultadoGarantia.rechazada(ResultadoGarantia.Codigo.CLAVE_IDEMPOTENCIA_OBLIGATORIA);
+		}
+
+		CompletableFuture<ResultadoGarantia> propia = new CompletableFuture<>();
+		CompletableFuture<ResultadoGarantia> existente = enCurso.putIfAbsent(claveIdempotencia, propia);
+		if (existente != null) {
+			return esperar(existente);
+		}
+
+		// La ventana se consulta despus de reservar la clave para que una
+		// solicitud que termina entre ambos pasos no se atienda dos veces
+		try {
+			ResultadoGarantia resultado = ventana.obtener(claveIdempotencia);
+			if (resultado == null) {
+				resultado = atender(claveIdempotencia, codigo, nombreCliente);
+				ventana.registrar(claveIdempotencia, resultado);
+			}
+			propia.complete(resultado);
+			return resultado;
+		} catch (RuntimeException e) {
+			propia.completeExceptionally(e);
+			throw e;
+		} finally {
+			enCurso.remove(claveIdempotencia, propia);
+		}
+	}
+
+	private ResultadoGarantia esperar(CompletableFuture<ResultadoGarantia> enVuelo) {
+		try {
+			return enVuelo.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	private ResultadoGarantia atender(String claveIdempotencia, String codigo, String nombreCliente) {
+		GarantiaExtendida garantia = repositorioGarantia.obtenerPorClaveIdempotencia(claveIdempotencia);
+		if (garantia != null) {
+			return ResultadoGarantia.generada(garantia);
+		}
+		return vendedor.intentarGenerarGarantia(codigo, nombreCliente, claveIdempotencia);
+	}
+}
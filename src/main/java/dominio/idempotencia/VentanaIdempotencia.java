@@ -0,0 +1,137 @@
+package dominio.idempotencia;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoria acotada de los resultados de las solicitudes recientes, por clave de
+ * idempotencia. Conserva como mximo <code>capacidad</code> claves, descartando
+ * la usada hace ms tiempo, y olvida las claves registradas hace ms de la
+ * duracin de la ventana. El acceso es seguro entre hilos
+ *
+ * @param <V> tipo del resultado memorizado
+ */
+public class VentanaIdempotencia<V> {
+
+	private final int capacidad;
+	private final long duracionMillis;
+	private final Clock reloj;
+	private final LinkedHashMap<String, Registro<V>> registros;
+	private final LongAdder aciertos = new LongAdder();
+	private final LongAdder fallos = new LongAdder();
+
+	public VentanaIdempotencia(int capacidad, Duration duracion) {
+		this(capacidad, duracion, Clock.systemUTC());
+	}
+
+	public VentanaIdempotencia(int capacidad, Duration duracion, Clock reloj) {
+		this.capacidad = capacidad;
+		this.duracionMillis = duracion.toMillis();
+		this.reloj = reloj;
+		this.registros = new LinkedHashMap<String, Registro<V>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Registro<V>> masAntigua) {
+				return size() > VentanaIdempotencia.this.capacidad;
+			}
+		};
+	}
+
+	/**
+	 * Permite obtener el resultado memorizado para una clave
+	 * 
+	 * @param clave {@link String} clave de idempotencia
+	 * @return el resultado, o null si la clave no est o ya venci
+	 */
+	public V obtener(String clave) {
+		long ahora = reloj.millis();
+		synchronized (registros) {
+			Registro<V> registro = registros.get(clave);
+			if (registro != null && ahora - registro.registradoMillis > duracionMillis) {
+				registros.remove(clave);
+				registro = null;
+			}
+			if (registro == null) {
+				fallos.increment();
+				return null;
+			}
+			aciertos.increment();
+			return registro.valor;
+		}
+	}
+
+	/**
+	 * Permite memorizar el resultado de una solicitud
+	 * 
+	 * @param clave     {@link String} clave de idempotencia
+	 * @param resultado resultado de la solicitud
+	 */
+	public void registrar(String clave, V resultado) {
+		long ahora = reloj.millis();
+		synchronized (registros) {
+			registros.put(clave, new Registro<>(resultado, ahora));
+			purgarVencidos(ahora);
+		}
+	}
+
+	// Las claves ms antiguas en uso quedan al inicio, se descartan hasta hallar
+	// una vigente
+	private void purgarVencidos(long ahora) {
+		Iterator<Registro<V>> iterador = registros.values().iterator();
+		while (iterador.hasNext()) {
+			if (ahora - iterador.next().registradoMillis <= duracionMillis) {
+				return;
+			}
+			iterador.remove();
+		}
+	}
+
+	public int getCapacidad() {
+		return capacidad;
+	}
+
+	public int getTamano() {
+		synchronized (registros) {
+			return registros.size();
+		}
+	}
+
+	public long getAciertos() {
+		return aciertos.sum();
+	}
+
+	public long getFallos() {
+		return fallos.sum();
+	}
+
+	/**
+	 * @return {@link Double} fraccin de consultas que encontraron la clave
+	 */
+	public double getTasaAciertos() {
+		long consultas = getAciertos() + getFallos();
+		return consultas == 0 ? 0 : (double) getAciertos() / consultas;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("claves=%d/%d aciertos=%d fallos=%d tasaAciertos=%.3f", getTamano(), capacidad,
+				getAciertos(), getFallos(), getTasaAciertos());
+	}
+
+	private static final class Registro<V> {
+
+		private final V valor;
+		private final long registradoMillis;
+
+		private Registro(V valor, long registradoMillis) {
+			this.valor = valor;
+			this.registradoMillis = registradoMillis;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package dominio.repositorio;
+
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import dominio.GarantiaExtendida;
+import dominio.NombreCliente;
+
+/**
+ * Permite recorrer como {@link Stream} las bsquedas paginadas por cliente de
+ * {@link RepositorioGarantiaExtendida}. Cada pgina se pide al repositorio solo
+ * cuando el stream consume la anterior
+ */
+public final class RecorridoGarantias {
+
+	/**
+	 * Orden de las bsquedas por cliente: nombre normalizado y cdigo del
+	 * producto
+	 */
+	public static final Comparator<GarantiaExtendida> POR_CLIENTE = Comparator
+			.comparing((GarantiaExtendida garantia) -> NombreCliente.normalizar(garantia.getNombreCliente()))
+			.thenComparing(garantia -> garantia.getProducto().getCodigo());
+
+	private RecorridoGarantias() {}
+
+	/**
+	 * Mtodo que permite recorrer las garantas cuyo cliente tiene un nombre que
+	 * empieza por el prefijo dado, sin distinguir maysculas ni tildes
+	 *
+	 * @param repositorio  {@link RepositorioGarantiaExtendida} en el cual se busca
+	 * @param prefijo      {@link String} prefijo del nombre del cliente
+	 * @param tamanoPagina garantas por cada consulta al repositorio
+	 * @return {@link Stream} de garantas en el orden {@link #POR_CLIENTE}
+	 */
+	public static Stream<GarantiaExtendida> porPrefijoCliente(RepositorioGarantiaExtendida repositorio,
+			String prefijo, int tamanoPagina) {
+		return RecorridoProductos.recorrer(
+				(despuesDe, limite) -> repositorio.buscarPorPrefijoCliente(prefijo, despuesDe, limite), tamanoPagina);
+	}
+
+	/**
+	 * Mtodo que permite recorrer las garantas del cliente con el nombre dado,
+	 * sin distinguir maysculas ni tildes
+	 *
+	 * @param repositorio   {@link RepositorioGarantiaExtendida} en el cual se
+	 *                      busca
+	 * @param nombreCliente {@link String} nombre completo del cliente
+	 * @param tamanoPagina  garantas por cada consulta al repositorio
+	 * @return {@link Stream} de garantas ordenadas por cdigo del producto
+	 */
+	public static Stream<GarantiaExtendida> porNombreCliente(RepositorioGarantiaExtendida repositorio,
+			String nombreCliente, int tamanoPagina) {
+		return RecorridoProductos.recorrer(
+				(despuesDe, limite) -> repositorio.buscarPorNombreCliente(nombreCliente, despuesDe, limite),
+				tamanoPagina);
+	}
+}
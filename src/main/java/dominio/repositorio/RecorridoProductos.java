@@ -0,0 +1,96 @@
+package dominio.repositorio;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import dominio.Producto;
+
+/**
+ * Permite recorrer como {@link Stream} las bsquedas paginadas de
+ * {@link RepositorioProducto}. Cada pgina se pide al repositorio solo cuando
+ * el stream consume la anterior, continuando despus de su ltimo producto
+ */
+public final class RecorridoProductos {
+
+	/**
+	 * Orden de las bsquedas por precio
+	 */
+	public static final Comparator<Producto> POR_PRECIO = Comparator.comparingLong(Producto::getPrecioCentavos)
+			.thenComparing(Producto::getCodigo);
+
+	/**
+	 * Orden de las bsquedas por nombre
+	 */
+	public static final Comparator<Producto> POR_NOMBRE = Comparator.comparing(Producto::getNombre)
+			.thenComparing(Producto::getCodigo);
+
+	private RecorridoProductos() {}
+
+	/**
+	 * Mtodo que permite recorrer los productos con precio mayor al dado
+	 *
+	 * @param repositorio    {@link RepositorioProducto} en el cual se busca
+	 * @param precioCentavos precio que deben superar, en centavos
+	 * @param tamanoPagina   productos por cada consulta al repositorio
+	 * @return {@link Stream} de productos ordenados por precio y cdigo
+	 */
+	public static Stream<Producto> porPrecioMayorA(RepositorioProducto repositorio, long precioCentavos,
+			int tamanoPagina) {
+		return recorrer((despuesDe, limite) -> repositorio.buscarPorPrecioMayorA(precioCentavos, despuesDe, limite),
+				tamanoPagina);
+	}
+
+	/**
+	 * Mtodo que permite recorrer los productos cuyo nombre empieza por el
+	 * prefijo dado
+	 *
+	 * @param repositorio  {@link RepositorioProducto} en el cual se busca
+	 * @param prefijo      {@link String} prefijo del nombre
+	 * @param tamanoPagina productos por cada consulta al repositorio
+	 * @return {@link Stream} de productos ordenados por nombre y cdigo
+	 */
+	public static Stream<Producto> porPrefijoNombre(RepositorioProducto repositorio, String prefijo,
+			int tamanoPagina) {
+		return recorrer((despuesDe, limite) -> repositorio.buscarPorPrefijoNombre(prefijo, despuesDe, limite),
+				tamanoPagina);
+	}
+
+	static <T> Stream<T> recorrer(BiFunction<T, Integer, List<T>> buscarPagina, int tamanoPagina) {
+		if (tamanoPagina <= 0) {
+			throw new IllegalArgumentException("El tamao de pgina debe ser positivo");
+		}
+		Iterator<T> elementos = new Iterator<T>() {
+
+			private List<T> pagina;
+			private int posicion;
+
+			@Override
+			public boolean hasNext() {
+				if (pagina == null) {
+					pagina = buscarPagina.apply(null, tamanoPagina);
+				} else if (posicion == pagina.size() && pagina.size() == tamanoPagina) {
+					pagina = buscarPagina.apply(pagina.get(posicion - 1), tamanoPagina);
+					posicion = 0;
+				}
+				return posicion < pagina.size();
+			}
+
+			@Override
+			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return pagina.get(posicion++);
+			}
+		};
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(elementos,
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+}
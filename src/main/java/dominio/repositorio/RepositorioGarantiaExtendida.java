@@ -1,5 +1,9 @@
 package dominio.repositorio;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 import dominio.Producto;
 import dominio.GarantiaExtendida;
 
@@ -24,4 +28,41 @@ public interface RepositorioGarantiaExtendida {
 	 */
 	GarantiaExtendida obtener(String codigo);
 
+	/**
+	 * Permite obtener la garantia extendida generada por la solicitud con la
+	 * clave de idempotencia dada
+	 * @param claveIdempotencia
+	 * @return la garantia, o null si ninguna solicitud con esa clave la genero
+	 */
+	GarantiaExtendida obtenerPorClaveIdempotencia(String claveIdempotencia);
+
+	/**
+	 * Permite obtener, con una sola consulta, cuales de los codigos dados ya
+	 * cuentan con garantia extendida
+	 * @param codigos
+	 * @return los codigos que tienen garantia
+	 */
+	Set<String> obtenerCodigosConGarantia(Collection<String> codigos);
+
+	/**
+	 * Permite buscar por paginas las garantias cuyo cliente tiene un nombre que
+	 * empieza por el prefijo dado, sin distinguir mayusculas ni tildes, ordenadas
+	 * por nombre normalizado del cliente y codigo del producto
+	 * @param prefijo
+	 * @param despuesDe ultima garantia de la pagina anterior, null para la primera
+	 * @param limite cantidad maxima de garantias de la pagina
+	 * @return la pagina de garantias, con menos de limite garantias si es la ultima
+	 */
+	List<GarantiaExtendida> buscarPorPrefijoCliente(String prefijo, GarantiaExtendida despuesDe, int limite);
+
+	/**
+	 * Permite buscar por paginas las garantias del cliente con el nombre dado,
+	 * sin distinguir mayusculas ni tildes, ordenadas por codigo del producto
+	 * @param nombreCliente
+	 * @param despuesDe ultima garantia de la pagina anterior, null para la primera
+	 * @param limite cantidad maxima de garantias de la pagina
+	 * @return la pagina de garantias, con menos de limite garantias si es la ultima
+	 */
+	List<GarantiaExtendida> buscarPorNombreCliente(String nombreCliente, GarantiaExtendida despuesDe, int limite);
+
 }
@@ -1,5 +1,7 @@
 package dominio.repositorio;
 
+import java.util.List;
+
 import dominio.Producto;
 
 public interface RepositorioProducto {
@@ -17,4 +19,24 @@ public interface RepositorioProducto {
 	 */
 	void agregar(Producto producto);
 
+	/**
+	 * Permite buscar por paginas los productos con precio mayor al dado,
+	 * ordenados por precio y codigo
+	 * @param precioCentavos precio que deben superar, en centavos
+	 * @param despuesDe ultimo producto de la pagina anterior, null para la primera
+	 * @param limite cantidad maxima de productos de la pagina
+	 * @return la pagina de productos, con menos de limite productos si es la ultima
+	 */
+	List<Producto> buscarPorPrecioMayorA(long precioCentavos, Producto despuesDe, int limite);
+
+	/**
+	 * Permite buscar por paginas los productos cuyo nombre empieza por el prefijo
+	 * dado, distinguiendo mayusculas, ordenados por nombre y codigo
+	 * @param prefijo
+	 * @param despuesDe ultimo producto de la pagina anterior, null para la primera
+	 * @param limite cantidad maxima de productos de la pagina
+	 * @return la pagina de productos, con menos de limite productos si es la ultima
+	 */
+	List<Producto> buscarPorPrefijoNombre(String prefijo, Producto despuesDe, int limite);
+
 }
\ No newline at end of file
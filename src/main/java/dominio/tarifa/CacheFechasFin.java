@@ -0,0 +1,77 @@
+package dominio.tarifa;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cache acotada de los das de finalizacin de las garantas. El da final
+ * solo depende del da de solicitud, de la regla y de los das del nivel, por
+ * lo que se memoriza con esa llave. Es de mapeo directo: cada llave tiene una
+ * nica posicin y una entrada nueva reemplaza a la anterior. Las entradas son
+ * inmutables y se publican con una sola escritura, de modo que la cache se
+ * puede compartir entre hilos sin bloqueos
+ */
+public class CacheFechasFin {
+
+	public static final int CAPACIDAD_POR_DEFECTO = 256;
+
+	private final AtomicReferenceArray<Entrada> entradas;
+	private final int mascara;
+
+	public CacheFechasFin() {
+		this(CAPACIDAD_POR_DEFECTO);
+	}
+
+	/**
+	 * @param capacidad {@link Integer} cantidad de entradas, se redondea a la
+	 *                  siguiente potencia de dos
+	 */
+	public CacheFechasFin(int capacidad) {
+		int tamano = Integer.highestOneBit(Math.max(capacidad - 1, 1)) << 1;
+		this.entradas = new AtomicReferenceArray<>(tamano);
+		this.mascara = tamano - 1;
+	}
+
+	/**
+	 * Permite obtener el da de finalizacin, calculndolo solo si no est en
+	 * la cache
+	 * 
+	 * @param diaSolicitud {@link Long} da de solicitud desde la poca
+	 * @param regla        {@link ReglaDias} regla del nivel
+	 * @param dias         {@link Integer} das de vigencia del nivel
+	 * @return {@link Long} da de finalizacin desde la poca
+	 */
+	public long obtenerDiaFin(long diaSolicitud, ReglaDias regla, int dias) {
+		int posicion = posicion(diaSolicitud, regla, dias);
+		Entrada entrada = entradas.get(posicion);
+		if (entrada != null && entrada.diaSolicitud == diaSolicitud && entrada.regla == regla
+				&& entrada.dias == dias) {
+			return entrada.diaFin;
+		}
+
+		long diaFin = regla.calcularDiaFin(diaSolicitud, dias);
+		entradas.lazySet(posicion, new Entrada(diaSolicitud, regla, dias, diaFin));
+		return diaFin;
+	}
+
+	private int posicion(long diaSolicitud, ReglaDias regla, int dias) {
+		long hash = diaSolicitud * 31 + dias;
+		hash = hash * 31 + regla.ordinal();
+		hash ^= hash >>> 17;
+		return (int) (hash * 0x9E3779B97F4A7C15L >>> 32) & mascara;
+	}
+
+	private static final class Entrada {
+
+		private final long diaSolicitud;
+		private final ReglaDias regla;
+		private final int dias;
+		private final long diaFin;
+
+		private Entrada(long diaSolicitud, ReglaDias regla, int dias, long diaFin) {
+			this.diaSolicitud = diaSolicitud;
+			this.regla = regla;
+			this.dias = dias;
+			this.diaFin = diaFin;
+		}
+	}
+}
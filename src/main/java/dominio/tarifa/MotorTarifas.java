@@ -0,0 +1,115 @@
+package dominio.tarifa;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publica la tabla de tarifas vigente. Cada recarga construye una tabla nueva
+ * y la reemplaza de forma atmica, por lo que las ventas en curso nunca se
+ * bloquean ni ven una tabla a medio actualizar: cada venta toma la tabla una
+ * sola vez y la usa completa
+ */
+public class MotorTarifas {
+
+	public static final String RECURSO_TARIFAS = "/tarifas.csv";
+
+	private final AtomicReference<TablaTarifas> tablaVigente;
+	private final CacheFechasFin cacheFechasFin = new CacheFechasFin();
+
+	/**
+	 * Crea el motor con la tabla del recurso {@value #RECURSO_TARIFAS} del
+	 * classpath, o con {@link TablaTarifas#porDefecto()} si el recurso no existe.
+	 * El recurso se lee una sola vez y su tabla se comparte entre los motores
+	 */
+	public MotorTarifas() {
+		this(TablaInicial.TABLA);
+	}
+
+	public MotorTarifas(TablaTarifas tablaInicial) {
+		this.tablaVigente = new AtomicReference<>(tablaInicial);
+	}
+
+	/**
+	 * Permite obtener el motor que comparten los vendedores creados sin un motor
+	 * propio, de modo que usan la misma cache de das y ven las mismas
+	 * recargas
+	 * 
+	 * @return {@link MotorTarifas} motor creado con la tabla inicial
+	 */
+	public static MotorTarifas compartido() {
+		return Compartido.MOTOR;
+	}
+
+	/**
+	 * Permite obtener la tabla vigente
+	 * 
+	 * @return {@link TablaTarifas} tabla publicada en la ltima recarga
+	 */
+	public TablaTarifas obtenerTabla() {
+		return tablaVigente.get();
+	}
+
+	/**
+	 * Permite calcular el da de finalizacin de una garanta para un nivel de
+	 * la tabla, usando la cache de das compartida por cotizaciones y ventas
+	 * 
+	 * @param diaSolicitud {@link Long} da de solicitud desde la poca
+	 * @param tabla        {@link TablaTarifas} tabla de la cual se tom el nivel
+	 * @param nivel        {@link Integer} ndice del nivel
+	 * @return {@link Long} da de finalizacin desde la poca
+	 */
+	public long calcularDiaFin(long diaSolicitud, TablaTarifas tabla, int nivel) {
+		return cacheFechasFin.obtenerDiaFin(diaSolicitud, tabla.getRegla(nivel), tabla.getDias(nivel));
+	}
+
+	/**
+	 * Permite publicar una nueva tabla de tarifas
+	 * 
+	 * @param tabla {@link TablaTarifas} tabla a publicar
+	 */
+	public void publicar(TablaTarifas tabla) {
+		tablaVigente.set(tabla);
+	}
+
+	/**
+	 * Permite recargar la tabla desde un archivo. Si el archivo no es vlido se
+	 * conserva la tabla vigente
+	 * 
+	 * @param archivo {@link Path} archivo de tarifas codificado en UTF-8
+	 * @throws IOException en caso de error leyendo el archivo
+	 */
+	public void recargar(Path archivo) throws IOException {
+		try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+			publicar(TablaTarifas.leer(lector));
+		}
+	}
+
+	private static TablaTarifas cargarTablaInicial() {
+		InputStream recurso = MotorTarifas.class.getResourceAsStream(RECURSO_TARIFAS);
+		if (recurso == null) {
+			return TablaTarifas.porDefecto();
+		}
+		try (Reader lector = new InputStreamReader(recurso, StandardCharsets.UTF_8)) {
+			return TablaTarifas.leer(lector);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static final class TablaInicial {
+
+		private static final TablaTarifas TABLA = cargarTablaInicial();
+	}
+
+	private static final class Compartido {
+
+		private static final MotorTarifas MOTOR = new MotorTarifas();
+	}
+}
@@ -0,0 +1,61 @@
+package dominio.tarifa;
+
+/**
+ * Reglas para contar los das de vigencia de una garanta. Trabajan sobre das
+ * desde la poca (1970-01-01) para no crear objetos por venta
+ */
+public enum ReglaDias {
+
+	/**
+	 * Se suman los das calendario a la fecha de solicitud
+	 */
+	CALENDARIO {
+		@Override
+		public long calcularDiaFin(long diaSolicitud, int dias) {
+			return diaSolicitud + dias;
+		}
+	},
+
+	/**
+	 * Se cuentan los das sin incluir los lunes y, si la fecha final cae domingo,
+	 * se pasa al siguiente da hbil
+	 */
+	SIN_LUNES {
+		@Override
+		public long calcularDiaFin(long diaSolicitud, int dias) {
+			// Cada semana completa aporta seis das sin lunes, el resto se recorre
+			int semanasCompletas = dias <= 0 ? 0 : (dias - 1) / (DIAS_SEMANA - 1);
+			int diasPendientes = dias - semanasCompletas * (DIAS_SEMANA - 1);
+			long dia = diaSolicitud + (long) semanasCompletas * DIAS_SEMANA;
+			do {
+				if (diaSemana(dia) != LUNES) {
+					diasPendientes--;
+				}
+				dia++;
+			} while (diasPendientes > 0);
+
+			if (diaSemana(dia) == DOMINGO) {
+				dia += 2;
+			}
+			return dia;
+		}
+	};
+
+	private static final int DIAS_SEMANA = 7;
+	private static final int LUNES = 0;
+	private static final int DOMINGO = 6;
+	private static final int DIA_SEMANA_EPOCA = 3;
+
+	/**
+	 * Permite calcular el da de finalizacin de la garanta
+	 * 
+	 * @param diaSolicitud {@link Long} da de solicitud desde la poca
+	 * @param dias         {@link Integer} das de vigencia de la garanta
+	 * @return {@link Long} da de finalizacin desde la poca
+	 */
+	public abstract long calcularDiaFin(long diaSolicitud, int dias);
+
+	private static int diaSemana(long diaEpoca) {
+		return (int) Math.floorMod(diaEpoca + DIA_SEMANA_EPOCA, (long) DIAS_SEMANA);
+	}
+}
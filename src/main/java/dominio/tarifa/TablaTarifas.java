@@ -0,0 +1,142 @@
+package dominio.tarifa;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import dominio.Dinero;
+import dominio.Vendedor;
+
+/**
+ * Tabla inmutable de niveles de tarifa de la garanta. Cada nivel aplica a los
+ * productos cuyo precio supera su umbral, y se elige el nivel con el mayor
+ * umbral que el precio supera. Los niveles se guardan en arreglos primitivos
+ * ordenados por umbral para buscarlos con bsqueda binaria
+ */
+public final class TablaTarifas {
+
+	private static final String SEPARADOR = ",";
+	private static final String COMENTARIO = "#";
+	private static final int CAMPOS = 4;
+
+	private final long[] umbralesCentavos;
+	private final int[] puntosBasicos;
+	private final int[] dias;
+	private final ReglaDias[] reglas;
+
+	private TablaTarifas(long[] umbralesCentavos, int[] puntosBasicos, int[] dias, ReglaDias[] reglas) {
+		this.umbralesCentavos = umbralesCentavos;
+		this.puntosBasicos = puntosBasicos;
+		this.dias = dias;
+		this.reglas = reglas;
+	}
+
+	/**
+	 * Permite obtener la tabla con las reglas originales del {@link Vendedor}:
+	 * 10% y 100 das calendario hasta el precio base, 20% y 200 das sin lunes
+	 * por encima de l
+	 * 
+	 * @return {@link TablaTarifas} tabla por defecto
+	 */
+	public static TablaTarifas porDefecto() {
+		return new TablaTarifas(new long[] { 0L, Vendedor.PRECIO_BASE_GARANTIA_CENTAVOS },
+				new int[] { Vendedor.DIEZ_PORCIENTO_PUNTOS_BASICOS, Vendedor.VEINTE_PORCIENTO_PUNTOS_BASICOS },
+				new int[] { Vendedor.DIAS_GARANTIA_DIEZ_PORCIENTO, Vendedor.DIAS_GARANTIA_VEINTE_PORCIENTO },
+				new ReglaDias[] { ReglaDias.CALENDARIO, ReglaDias.SIN_LUNES });
+	}
+
+	/**
+	 * Permite leer una tabla de niveles. Cada lnea tiene el formato
+	 * <code>umbral,porcentaje,dias,regla</code>, donde el umbral est en unidades,
+	 * el porcentaje en puntos porcentuales (20 para el 20%) y la regla es un valor
+	 * de {@link ReglaDias}. Las lneas vacas o que inician con # se ignoran. El
+	 * nivel de menor umbral aplica tambin a los precios que no lo superan. El
+	 * umbral y el porcentaje no pueden ser negativos y los das deben ser
+	 * positivos
+	 * 
+	 * @param lector {@link Reader} origen de la tabla
+	 * @return {@link TablaTarifas} tabla leda
+	 * @throws IOException en caso de error leyendo el origen
+	 */
+	public static TablaTarifas leer(Reader lector) throws IOException {
+		List<String[]> niveles = new ArrayList<>();
+		BufferedReader lineas = new BufferedReader(lector);
+		String linea;
+		while ((linea = lineas.readLine()) != null) {
+			linea = linea.trim();
+			if (linea.isEmpty() || linea.startsWith(COMENTARIO)) {
+				continue;
+			}
+			String[] campos = linea.split(SEPARADOR);
+			if (campos.length != CAMPOS) {
+				throw new IllegalArgumentException("Nivel de tarifa invlido: " + linea);
+			}
+			niveles.add(campos);
+		}
+		if (niveles.isEmpty()) {
+			throw new IllegalArgumentException("La tabla de tarifas no tiene niveles");
+		}
+
+		niveles.sort((a, b) -> Long.compare(Dinero.aCentavos(a[0]), Dinero.aCentavos(b[0])));
+
+		int cantidad = niveles.size();
+		long[] umbrales = new long[cantidad];
+		int[] puntos = new int[cantidad];
+		int[] diasNivel = new int[cantidad];
+		ReglaDias[] reglasNivel = new ReglaDias[cantidad];
+		for (int i = 0; i < cantidad; i++) {
+			String[] campos = niveles.get(i);
+			umbrales[i] = Dinero.aCentavos(campos[0]);
+			puntos[i] = new BigDecimal(campos[1].trim()).movePointRight(2).intValueExact();
+			diasNivel[i] = Integer.parseInt(campos[2].trim());
+			reglasNivel[i] = ReglaDias.valueOf(campos[3].trim());
+			if (umbrales[i] < 0) {
+				throw new IllegalArgumentException("Umbral de tarifa negativo: " + campos[0]);
+			} else if (puntos[i] < 0) {
+				throw new IllegalArgumentException("Porcentaje de tarifa negativo: " + campos[1]);
+			} else if (diasNivel[i] <= 0) {
+				throw new IllegalArgumentException("Das de tarifa no positivos: " + campos[2]);
+			} else if (i > 0 && umbrales[i] == umbrales[i - 1]) {
+				throw new IllegalArgumentException("Umbral de tarifa repetido: " + campos[0]);
+			}
+		}
+		return new TablaTarifas(umbrales, puntos, diasNivel, reglasNivel);
+	}
+
+	/**
+	 * Permite obtener el nivel que aplica a un precio
+	 * 
+	 * @param precioCentavos {@link Long} precio del producto en centavos
+	 * @return {@link Integer} ndice del nivel
+	 */
+	public int buscarNivel(long precioCentavos) {
+		// Primer umbral mayor o igual al precio: el nivel es el anterior a l
+		int posicion = Arrays.binarySearch(umbralesCentavos, precioCentavos);
+		int primerMayorOIgual = posicion >= 0 ? posicion : -posicion - 1;
+		return Math.max(primerMayorOIgual - 1, 0);
+	}
+
+	public int getCantidadNiveles() {
+		return umbralesCentavos.length;
+	}
+
+	public long getUmbralCentavos(int nivel) {
+		return umbralesCentavos[nivel];
+	}
+
+	public int getPuntosBasicos(int nivel) {
+		return puntosBasicos[nivel];
+	}
+
+	public int getDias(int nivel) {
+		return dias[nivel];
+	}
+
+	public ReglaDias getRegla(int nivel) {
+		return reglas[nivel];
+	}
+}
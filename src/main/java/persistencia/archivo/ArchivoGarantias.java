@@ -0,0 +1,108 @@
+package persistencia.archivo;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+/**
+ * Mueve las garantas vencidas de la tabla de garantas vigentes a la tabla
+ * de garantas archivadas, para que la primera, que recorre la venta, no
+ * crezca sin lmite. Las garantas se recorren por id en lotes; cada lote es
+ * una transaccin que copia las filas al archivo con el mismo id y las borra
+ * de la tabla de origen, de modo que una garanta siempre est en una sola de
+ * las dos tablas. La copia se marca como modificada al archivarla. El
+ * repositorio de garantas busca en el archivo lo que no encuentra en la tabla
+ * de vigentes
+ */
+public class ArchivoGarantias {
+
+	public static final int TAMANO_LOTE_POR_DEFECTO = 1000;
+
+	private static final String IDS = "ids";
+	private static final String DESDE = "desde";
+	private static final String VENCIDAS_ANTES_DE = "vencidasAntesDe";
+	private static final String MODIFICADA = "modificada";
+	private static final String COLUMNAS = "id, ID_PRODUCTO, fechaSolicitudGarantia, fechaFinGarantia, nombreCliente, nombreClienteNormalizado, codigoProducto, claveIdempotencia, precio";
+
+	private static final String IDS_VENCIDAS = "SELECT id FROM GarantiaExtendida WHERE id > :desde AND fechaFinGarantia < :vencidasAntesDe ORDER BY id";
+	private static final String COPIAR = "INSERT INTO GarantiaArchivada (" + COLUMNAS + ", modificada) SELECT "
+			+ COLUMNAS + ", :modificada FROM GarantiaExtendida WHERE id IN (:ids)";
+	private static final String BORRAR = "DELETE FROM GarantiaExtendida WHERE id IN (:ids)";
+
+	private final SessionFactory sessionFactory;
+	private final int tamanoLote;
+
+	public ArchivoGarantias(EntityManagerFactory entityManagerFactory) {
+		this(entityManagerFactory, TAMANO_LOTE_POR_DEFECTO);
+	}
+
+	/**
+	 * @param entityManagerFactory {@link EntityManagerFactory} de la base de
+	 *                             datos
+	 * @param tamanoLote           garantas por transaccin
+	 */
+	public ArchivoGarantias(EntityManagerFactory entityManagerFactory, int tamanoLote) {
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		this.tamanoLote = tamanoLote;
+	}
+
+	/**
+	 * Permite archivar las garantas cuya fecha de fin es anterior a la fecha
+	 * dada
+	 * 
+	 * @param vencidasAntesDe {@link LocalDate} primer da que no se archiva,
+	 *                        normalmente hoy
+	 * @param progreso        {@link Consumer} notificado al confirmar cada lote
+	 *                        con garantas
+	 * @return {@link ResumenArchivo} resumen final del archivo; las
+	 *         transacciones cuentan solo los lotes con garantas
+	 */
+	public ResumenArchivo archivar(LocalDate vencidasAntesDe, Consumer<ResumenArchivo> progreso) {
+		long inicio = System.nanoTime();
+		long garantias = 0;
+		long transacciones = 0;
+		long ultimoId = 0;
+
+		try (StatelessSession session = sessionFactory.openStatelessSession()) {
+			boolean hayMas;
+			do {
+				List<?> ids;
+				Transaction transaccion = session.beginTransaction();
+				try {
+					// Se pide un id ms que el lote para saber, sin otra transaccin, si
+					// quedan garantas por archivar
+					ids = session.createNativeQuery(IDS_VENCIDAS).setParameter(DESDE, ultimoId)
+							.setParameter(VENCIDAS_ANTES_DE, Date.valueOf(vencidasAntesDe))
+							.setMaxResults(tamanoLote + 1).getResultList();
+					hayMas = ids.size() > tamanoLote;
+					if (hayMas) {
+						ids = ids.subList(0, tamanoLote);
+					}
+					if (!ids.isEmpty()) {
+						session.createNativeQuery(COPIAR).setParameterList(IDS, ids)
+								.setParameter(MODIFICADA, System.currentTimeMillis()).executeUpdate();
+						garantias += session.createNativeQuery(BORRAR).setParameterList(IDS, ids).executeUpdate();
+						ultimoId = ((Number) ids.get(ids.size() - 1)).longValue();
+					}
+					transaccion.commit();
+				} catch (RuntimeException e) {
+					transaccion.rollback();
+					throw e;
+				}
+				if (!ids.isEmpty()) {
+					transacciones++;
+					progreso.accept(new ResumenArchivo(garantias, transacciones, System.nanoTime() - inicio));
+				}
+			} while (hayMas);
+		}
+
+		return new ResumenArchivo(garantias, transacciones, System.nanoTime() - inicio);
+	}
+}
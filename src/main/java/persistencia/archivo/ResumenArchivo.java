@@ -0,0 +1,46 @@
+package persistencia.archivo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resumen inmutable del avance de un archivo de garantas vencidas
+ */
+public class ResumenArchivo {
+
+	private final long garantias;
+	private final long transacciones;
+	private final long duracionNanos;
+
+	public ResumenArchivo(long garantias, long transacciones, long duracionNanos) {
+		this.garantias = garantias;
+		this.transacciones = transacciones;
+		this.duracionNanos = duracionNanos;
+	}
+
+	public long getGarantias() {
+		return garantias;
+	}
+
+	public long getTransacciones() {
+		return transacciones;
+	}
+
+	public long getDuracionNanos() {
+		return duracionNanos;
+	}
+
+	/**
+	 * Permite obtener el rendimiento del archivo
+	 * 
+	 * @return {@link Double} garantas movidas por segundo
+	 */
+	public double getGarantiasPorSegundo() {
+		return duracionNanos == 0 ? 0 : garantias * (double) TimeUnit.SECONDS.toNanos(1) / duracionNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("garantias=%d transacciones=%d garantias/s=%.1f", garantias, transacciones,
+				getGarantiasPorSegundo());
+	}
+}
@@ -0,0 +1,24 @@
+package persistencia.builder;
+
+import dominio.GarantiaExtendida;
+import persistencia.entitad.GarantiaBaseEntity;
+
+public class GarantiaExtendidaBuilder {
+
+	private GarantiaExtendidaBuilder() {}
+
+	public static GarantiaExtendida convertirADominio(GarantiaBaseEntity garantiaEntity) {
+
+		GarantiaExtendida garantia = null;
+
+		if (garantiaEntity != null) {
+			garantia = GarantiaExtendida.conPrecioEnCentavos(
+					ProductoBuilder.convertirADominio(garantiaEntity.getProducto()),
+					garantiaEntity.getFechaSolicitudGarantia(), garantiaEntity.getFechaFinGarantia(),
+					garantiaEntity.getPrecioCentavos(), garantiaEntity.getNombreCliente(),
+					garantiaEntity.getClaveIdempotencia());
+		}
+
+		return garantia;
+	}
+}
@@ -1,5 +1,6 @@
 package persistencia.builder;
 
+import dominio.CatalogoProductos;
 import dominio.Producto;
 import persistencia.entitad.ProductoEntity;
 
@@ -12,7 +13,8 @@ public class ProductoBuilder {
 		Producto producto = null;
 		
 		if(productoEntity != null) {
-			producto = new Producto(productoEntity.getCodigo(), productoEntity.getNombre(), productoEntity.getPrecio());
+			producto = CatalogoProductos.obtener(productoEntity.getCodigo(), productoEntity.getNombre(),
+					productoEntity.getPrecioCentavos());
 		}
 		
 		return producto;
@@ -24,7 +26,7 @@ public class ProductoBuilder {
 		
 		productoEntity.setCodigo(producto.getCodigo());
 		productoEntity.setNombre(producto.getNombre());
-		productoEntity.setPrecio(producto.getPrecio());
+		productoEntity.setPrecioCentavos(producto.getPrecioCentavos());
 		
 		return productoEntity;
 	}
@@ -0,0 +1,46 @@
+package persistencia.conexion;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.hibernate.Session;
+
+/**
+ * Permite ejecutar una accin solo cuando la transaccin en curso del entity
+ * manager se confirma
+ */
+public class AlConfirmar {
+
+	private AlConfirmar() {}
+
+	/**
+	 * @param entityManager {@link EntityManager} con la transaccin en curso
+	 * @param accion        accin a ejecutar despus de confirmar
+	 * @param alTerminar    accin a ejecutar al terminar la transaccin, tanto
+	 *                      si se confirma, despus de la accin, como si se
+	 *                      revierte
+	 */
+	public static void registrar(EntityManager entityManager, Runnable accion, Runnable alTerminar) {
+		entityManager.unwrap(Session.class).getTransaction().registerSynchronization(new Synchronization() {
+
+			@Override
+			public void beforeCompletion() {
+				// la accin solo se ejecuta si la transaccin se confirma
+			}
+
+			@Override
+			public void afterCompletion(int estado) {
+				if (estado == Status.STATUS_COMMITTED) {
+					accion.run();
+				}
+				alTerminar.run();
+			}
+		});
+	}
+
+	public static void registrar(EntityManager entityManager, Runnable accion) {
+		registrar(entityManager, accion, () -> {
+		});
+	}
+}
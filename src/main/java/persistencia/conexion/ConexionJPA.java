@@ -1,19 +1,99 @@
 package persistencia.conexion;
 
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import javax.persistence.PersistenceException;
+
+import persistencia.entitad.GeneradorSecuenciaAgrupada;
 
 public class ConexionJPA {
-	
+
 	private static final String TIENDA = "tienda";
-	private static EntityManagerFactory entityManagerFactory;
+	private static final String HBM2DDL_AUTO = "hibernate.hbm2ddl.auto";
+	private static final String VALIDAR_ESQUEMA = "validate";
+	private static final String CODIGO = "codigo";
+	private static final String[] CONSULTAS_PRECALENTAR = { "Producto.findByCodigo", "GarantiaExtendida.findByCodigo" };
+
+	private final CompletableFuture<EntityManagerFactory> entityManagerFactory;
 
 	public ConexionJPA() {
-		entityManagerFactory = Persistence.createEntityManagerFactory(TIENDA);
+		this(false);
+	}
+
+	/**
+	 * Permite crear la conexion indicando si se usa el modo de arranque rapido.
+	 * En este modo se valida el esquema existente en lugar de recrearlo, junto
+	 * con el incremento de sus secuencias, y la fabrica se construye en segundo
+	 * plano, precalentando las consultas con nombre, para no bloquear el inicio
+	 * del servicio
+	 *
+	 * @param arranqueRapido true para construir la fabrica en segundo plano
+	 */
+	public ConexionJPA(boolean arranqueRapido) {
+		if (arranqueRapido) {
+			entityManagerFactory = CompletableFuture.supplyAsync(ConexionJPA::construirArranqueRapido,
+					runnable -> {
+						Thread hilo = new Thread(runnable, "arranque-jpa");
+						hilo.setDaemon(true);
+						hilo.start();
+					});
+		} else {
+			entityManagerFactory = CompletableFuture.completedFuture(Persistence.createEntityManagerFactory(TIENDA));
+		}
+	}
+
+	/**
+	 * Permite saber si la fabrica de entity managers ya se encuentra construida,
+	 * sin bloquear al llamador. Si la construccion en segundo plano fallo la
+	 * conexion no se reporta disponible
+	 *
+	 * @return true en caso de que la conexion este lista para ser usada
+	 */
+	public boolean estaDisponible() {
+		return entityManagerFactory.isDone() && !entityManagerFactory.isCompletedExceptionally();
 	}
-	
+
 	public EntityManager createEntityManager() {
-		return entityManagerFactory.createEntityManager();
+		return obtenerEntityManagerFactory().createEntityManager();
+	}
+
+	private EntityManagerFactory obtenerEntityManagerFactory() {
+		try {
+			return entityManagerFactory.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PersistenceException(e);
+		} catch (ExecutionException e) {
+			throw new PersistenceException(e.getCause());
+		}
+	}
+
+	private static EntityManagerFactory construirArranqueRapido() {
+		EntityManagerFactory factory = Persistence.createEntityManagerFactory(TIENDA,
+				Collections.singletonMap(HBM2DDL_AUTO, VALIDAR_ESQUEMA));
+		try {
+			GeneradorSecuenciaAgrupada.verificarSecuencias(factory);
+		} catch (RuntimeException e) {
+			factory.close();
+			throw e;
+		}
+		precalentarConsultas(factory);
+		return factory;
+	}
+
+	private static void precalentarConsultas(EntityManagerFactory factory) {
+		EntityManager entityManager = factory.createEntityManager();
+		try {
+			for (String consulta : CONSULTAS_PRECALENTAR) {
+				entityManager.createNamedQuery(consulta).setParameter(CODIGO, "").getResultList();
+			}
+		} finally {
+			entityManager.close();
+		}
 	}
 }
@@ -0,0 +1,106 @@
+package persistencia.conexion;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+
+/**
+ * Poltica de unidad de trabajo que mantiene acotado el contexto de
+ * persistencia de un entity manager de larga vida. Cada cierto nmero de
+ * operaciones sincroniza los cambios pendientes y vaca el contexto, y lo
+ * vaca tambin al confirmar cada transaccin, de modo que ni la memoria ni
+ * la revisin de cambios al confirmar crecen con el nmero de ventas
+ */
+public class UnidadDeTrabajo {
+
+	public static final int SIN_LIMITE = Integer.MAX_VALUE;
+
+	private final EntityManager entityManager;
+	private final int operacionesPorUnidad;
+	private int operaciones;
+	private long vaciados;
+
+	/**
+	 * Permite crear la unidad de trabajo sin lmite de operaciones; el contexto
+	 * solo se vaca al confirmar
+	 *
+	 * @param entityManager {@link EntityManager} cuyo contexto se acota
+	 */
+	public UnidadDeTrabajo(EntityManager entityManager) {
+		this(entityManager, SIN_LIMITE);
+	}
+
+	/**
+	 * @param entityManager        {@link EntityManager} cuyo contexto se acota
+	 * @param operacionesPorUnidad operaciones de escritura tras las cuales se
+	 *                             sincroniza y vaca el contexto
+	 */
+	public UnidadDeTrabajo(EntityManager entityManager, int operacionesPorUnidad) {
+		if (operacionesPorUnidad <= 0) {
+			throw new IllegalArgumentException("Las operaciones por unidad deben ser positivas");
+		}
+		this.entityManager = entityManager;
+		this.operacionesPorUnidad = operacionesPorUnidad;
+	}
+
+	/**
+	 * Mtodo que permite registrar una operacin de escritura; al llegar al
+	 * lmite sincroniza y vaca el contexto de persistencia
+	 */
+	public void registrarOperacion() {
+		if (++operaciones >= operacionesPorUnidad) {
+			vaciar();
+		}
+	}
+
+	/**
+	 * Mtodo que permite confirmar la transaccin en curso y vaciar el contexto
+	 * de persistencia
+	 */
+	public void confirmar() {
+		entityManager.getTransaction().commit();
+		vaciar();
+	}
+
+	/**
+	 * Mtodo que permite sincronizar los cambios pendientes, si hay una
+	 * transaccin en curso, y vaciar el contexto de persistencia
+	 */
+	public void vaciar() {
+		if (entityManager.getTransaction().isActive()) {
+			entityManager.flush();
+		}
+		entityManager.clear();
+		operaciones = 0;
+		vaciados++;
+	}
+
+	/**
+	 * Mtodo que permite desasociar del contexto una entidad leda, una vez
+	 * convertida a dominio
+	 *
+	 * @param entidad entidad administrada, puede ser null
+	 */
+	public void desasociar(Object entidad) {
+		if (entidad != null && entityManager.contains(entidad)) {
+			entityManager.detach(entidad);
+		}
+	}
+
+	/**
+	 * Mtodo que permite conocer el nmero de entidades administradas por el
+	 * contexto de persistencia
+	 *
+	 * @return entidades en el contexto
+	 */
+	public int getTamanoContexto() {
+		return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+	}
+
+	/**
+	 * @return veces que se ha vaciado el contexto
+	 */
+	public long getVaciados() {
+		return vaciados;
+	}
+}
@@ -0,0 +1,26 @@
+package persistencia.conversor;
+
+import java.math.BigDecimal;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Convierte los valores monetarios en centavos a una columna decimal exacta
+ * con dos cifras decimales
+ */
+@Converter
+public class DineroConverter implements AttributeConverter<Long, BigDecimal> {
+
+	private static final int DECIMALES = 2;
+
+	@Override
+	public BigDecimal convertToDatabaseColumn(Long centavos) {
+		return centavos == null ? null : BigDecimal.valueOf(centavos, DECIMALES);
+	}
+
+	@Override
+	public Long convertToEntityAttribute(BigDecimal valor) {
+		return valor == null ? null : valor.movePointRight(DECIMALES).longValueExact();
+	}
+}
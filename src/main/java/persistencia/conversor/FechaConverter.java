@@ -0,0 +1,24 @@
+package persistencia.conversor;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Convierte las fechas del dominio a columnas DATE, que solo guardan el dia
+ */
+@Converter
+public class FechaConverter implements AttributeConverter<LocalDate, Date> {
+
+	@Override
+	public Date convertToDatabaseColumn(LocalDate fecha) {
+		return fecha == null ? null : Date.valueOf(fecha);
+	}
+
+	@Override
+	public LocalDate convertToEntityAttribute(Date fecha) {
+		return fecha == null ? null : fecha.toLocalDate();
+	}
+}
@@ -0,0 +1,40 @@
+package persistencia.entitad;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ * Garanta vencida que se movi de la tabla de garantas vigentes al archivo.
+ * Conserva el id que tena en la tabla de origen
+ */
+@Entity(name = "GarantiaArchivada")
+@Table(indexes = { @Index(name = "IDX_ARCHIVADA_CLIENTE", columnList = "nombreClienteNormalizado, codigoProducto"),
+		@Index(name = "IDX_ARCHIVADA_MODIFICADA", columnList = "modificada") })
+@NamedQueries({
+		@NamedQuery(name = "GarantiaArchivada.findByCodigo", query = "SELECT garantia from GarantiaArchivada garantia join fetch garantia.producto where garantia.producto.codigo = :codigo"),
+		@NamedQuery(name = "GarantiaArchivada.findByClaveIdempotencia", query = "SELECT garantia from GarantiaArchivada garantia join fetch garantia.producto where garantia.claveIdempotencia = :claveIdempotencia"),
+		@NamedQuery(name = "GarantiaArchivada.findCodigosConGarantia", query = "SELECT garantia.producto.codigo from GarantiaArchivada garantia where garantia.producto.codigo in :codigos"),
+		@NamedQuery(name = "GarantiaArchivada.findClavesIdempotencia", query = "SELECT garantia.claveIdempotencia from GarantiaArchivada garantia where garantia.claveIdempotencia in :claves"),
+		@NamedQuery(name = "GarantiaArchivada.rangoIds", query = "SELECT min(garantia.id), max(garantia.id) from GarantiaArchivada garantia"),
+		@NamedQuery(name = "GarantiaArchivada.findByRangoIds", query = "SELECT garantia from GarantiaArchivada garantia join fetch garantia.producto where garantia.id between :desde and :hasta"),
+		@NamedQuery(name = "GarantiaArchivada.findModificadasDesde", query = "SELECT garantia from GarantiaArchivada garantia join fetch garantia.producto where garantia.modificada >= :desde"),
+		@NamedQuery(name = "GarantiaArchivada.findByPrefijoClienteDesde", query = "SELECT garantia from GarantiaArchivada garantia join fetch garantia.producto where garantia.nombreClienteNormalizado like :patron escape '!' and garantia.nombreClienteNormalizado >= :nombreDesde and (garantia.nombreClienteNormalizado > :nombreDesde or garantia.codigoProducto > :codigoDesde) order by garantia.nombreClienteNormalizado, garantia.codigoProducto"),
+		@NamedQuery(name = "GarantiaArchivada.findByNombreClienteDesde", query = "SELECT garantia from GarantiaArchivada garantia join fetch garantia.producto where garantia.nombreClienteNormalizado = :nombre and garantia.codigoProducto > :codigoDesde order by garantia.nombreClienteNormalizado, garantia.codigoProducto"),
+		@NamedQuery(name = "GarantiaArchivada.contar", query = "SELECT count(garantia) from GarantiaArchivada garantia") })
+public class GarantiaArchivadaEntity extends GarantiaBaseEntity {
+
+	@Id
+	private Long id;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+}
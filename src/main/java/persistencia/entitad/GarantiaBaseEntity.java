@@ -0,0 +1,136 @@
+package persistencia.entitad;
+
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.JoinColumn;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.OneToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+import dominio.NombreCliente;
+import persistencia.conversor.DineroConverter;
+import persistencia.conversor.FechaConverter;
+
+/**
+ * Columnas comunes a las garantas vigentes y a las archivadas, de modo que
+ * una garanta pasa de una tabla a la otra con los mismos datos
+ */
+@MappedSuperclass
+public abstract class GarantiaBaseEntity {
+
+	@OneToOne
+	@JoinColumn(name = "ID_PRODUCTO", referencedColumnName = "id")
+	private ProductoEntity producto;
+
+	@Column(nullable = false)
+	@Convert(converter = FechaConverter.class)
+	private LocalDate fechaSolicitudGarantia;
+
+	@Column(nullable = false)
+	@Convert(converter = FechaConverter.class)
+	private LocalDate fechaFinGarantia;
+
+	@Column(nullable = false)
+	private String nombreCliente;
+
+	/**
+	 * Clave de bsqueda del cliente, derivada de {@link #nombreCliente}
+	 */
+	@Column(nullable = false)
+	private String nombreClienteNormalizado;
+
+	/**
+	 * Copia del cdigo del producto para que el ndice por cliente cubra el
+	 * orden de la paginacin sin unir la tabla de productos
+	 */
+	@Column(nullable = false)
+	private String codigoProducto;
+
+	@Column(unique = true)
+	private String claveIdempotencia;
+
+	@Column(nullable = false, precision = 19, scale = 2)
+	@Convert(converter = DineroConverter.class)
+	private long precio;
+
+	/**
+	 * Instante de la ltima escritura de la fila, en milisegundos desde la
+	 * poca. Las sentencias masivas que cambian garantas tambin lo actualizan,
+	 * de modo que sirve de cursor para repetir los cambios posteriores a una
+	 * instantnea del modelo de lectura. Se inicializa al crear la entidad
+	 * porque las inserciones sin estado no invocan {@link #marcarModificada()}
+	 */
+	@Column(nullable = false)
+	private long modificada = System.currentTimeMillis();
+
+	@PrePersist
+	@PreUpdate
+	protected void marcarModificada() {
+		this.modificada = System.currentTimeMillis();
+	}
+
+	public ProductoEntity getProducto() {
+		return producto;
+	}
+
+	public void setProducto(ProductoEntity producto) {
+		this.producto = producto;
+		this.codigoProducto = producto != null ? producto.getCodigo() : null;
+	}
+
+	public LocalDate getFechaSolicitudGarantia() {
+		return fechaSolicitudGarantia;
+	}
+
+	public void setFechaSolicitudGarantia(LocalDate fechaSolicitudGarantia) {
+		this.fechaSolicitudGarantia = fechaSolicitudGarantia;
+	}
+
+	public LocalDate getFechaFinGarantia() {
+		return fechaFinGarantia;
+	}
+
+	public void setFechaFinGarantia(LocalDate fechaFinGarantia) {
+		this.fechaFinGarantia = fechaFinGarantia;
+	}
+
+	public String getNombreCliente() {
+		return nombreCliente;
+	}
+
+	public void setNombreCliente(String nombreCliente) {
+		this.nombreCliente = nombreCliente;
+		this.nombreClienteNormalizado = NombreCliente.normalizar(nombreCliente);
+	}
+
+	public String getNombreClienteNormalizado() {
+		return nombreClienteNormalizado;
+	}
+
+	public String getCodigoProducto() {
+		return codigoProducto;
+	}
+
+	public String getClaveIdempotencia() {
+		return claveIdempotencia;
+	}
+
+	public void setClaveIdempotencia(String claveIdempotencia) {
+		this.claveIdempotencia = claveIdempotencia;
+	}
+
+	public long getPrecioCentavos() {
+		return precio;
+	}
+
+	public void setPrecioCentavos(long precioCentavos) {
+		this.precio = precioCentavos;
+	}
+
+	public long getModificada() {
+		return modificada;
+	}
+}
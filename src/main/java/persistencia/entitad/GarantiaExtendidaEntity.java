@@ -1,40 +1,46 @@
 package persistencia.entitad;
 
-import java.util.Date;
-
-import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.JoinColumn;
+import javax.persistence.Index;
+import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
-import javax.persistence.OneToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 @Entity(name = "GarantiaExtendida")
-@NamedQuery(name = "GarantiaExtendida.findByCodigo", query = "SELECT garantia from GarantiaExtendida garantia where garantia.producto.codigo = :codigo")
-public class GarantiaExtendidaEntity {
+@Table(indexes = { @Index(name = "IDX_GARANTIA_CLIENTE", columnList = "nombreClienteNormalizado, codigoProducto"),
+		@Index(name = "IDX_GARANTIA_MODIFICADA", columnList = "modificada") }, uniqueConstraints = @UniqueConstraint(name = "UK_GARANTIA_PRODUCTO", columnNames = "ID_PRODUCTO"))
+@NamedQueries({
+		@NamedQuery(name = "GarantiaExtendida.findByCodigo", query = "SELECT garantia from GarantiaExtendida garantia where garantia.producto.codigo = :codigo"),
+		@NamedQuery(name = "GarantiaExtendida.findByClaveIdempotencia", query = "SELECT garantia from GarantiaExtendida garantia where garantia.claveIdempotencia = :claveIdempotencia"),
+		@NamedQuery(name = "GarantiaExtendida.findByCodigos", query = "SELECT garantia from GarantiaExtendida garantia join fetch garantia.producto where garantia.producto.codigo in :codigos"),
+		@NamedQuery(name = "GarantiaExtendida.findCodigosConGarantia", query = "SELECT garantia.producto.codigo from GarantiaExtendida garantia where garantia.producto.codigo in :codigos"),
+		@NamedQuery(name = "GarantiaExtendida.findClavesIdempotencia", query = "SELECT garantia.claveIdempotencia from GarantiaExtendida garantia where garantia.claveIdempotencia in :claves"),
+		@NamedQuery(name = "GarantiaExtendida.rangoIds", query = "SELECT min(garantia.id), max(garantia.id) from GarantiaExtendida garantia"),
+		@NamedQuery(name = "GarantiaExtendida.findByRangoIds", query = "SELECT garantia from GarantiaExtendida garantia join fetch garantia.producto where garantia.id between :desde and :hasta"),
+		@NamedQuery(name = "GarantiaExtendida.findModificadasDesde", query = "SELECT garantia from GarantiaExtendida garantia join fetch garantia.producto where garantia.modificada >= :desde"),
+		@NamedQuery(name = "GarantiaExtendida.findByPrefijoClienteDesde", query = "SELECT garantia from GarantiaExtendida garantia join fetch garantia.producto where garantia.nombreClienteNormalizado like :patron escape '!' and garantia.nombreClienteNormalizado >= :nombreDesde and (garantia.nombreClienteNormalizado > :nombreDesde or garantia.codigoProducto > :codigoDesde) order by garantia.nombreClienteNormalizado, garantia.codigoProducto"),
+		@NamedQuery(name = "GarantiaExtendida.findByNombreClienteDesde", query = "SELECT garantia from GarantiaExtendida garantia join fetch garantia.producto where garantia.nombreClienteNormalizado = :nombre and garantia.codigoProducto > :codigoDesde order by garantia.nombreClienteNormalizado, garantia.codigoProducto"),
+		@NamedQuery(name = "GarantiaExtendida.contar", query = "SELECT count(garantia) from GarantiaExtendida garantia"),
+		@NamedQuery(name = "GarantiaExtendida.findAll", query = "SELECT garantia from GarantiaExtendida garantia join fetch garantia.producto order by garantia.producto.codigo") })
+public class GarantiaExtendidaEntity extends GarantiaBaseEntity {
+
+	private static final String SECUENCIA = "garantia_extendida_seq";
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SECUENCIA)
+	@GenericGenerator(name = SECUENCIA, strategy = GeneradorSecuenciaAgrupada.NOMBRE, parameters = {
+			@Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = SECUENCIA),
+			@Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = GeneradorSecuenciaAgrupada.OPTIMIZADOR) })
 	private Long id;
 
-	@OneToOne
-	@JoinColumn(name = "ID_PRODUCTO", referencedColumnName = "id")
-	private ProductoEntity producto;
-
-	@Column(nullable = false)
-	private Date fechaSolicitudGarantia;
-
-	@Column(nullable = false)
-	private Date fechaFinGarantia;
-
-	@Column(nullable = false)
-	private String nombreCliente;
-
-	@Column(nullable = false)
-	private double precio;
-
 	public Long getId() {
 		return id;
 	}
@@ -42,45 +48,4 @@ public class GarantiaExtendidaEntity {
 	public void setId(Long id) {
 		this.id = id;
 	}
-
-	public ProductoEntity getProducto() {
-		return producto;
-	}
-
-	public void setProducto(ProductoEntity producto) {
-		this.producto = producto;
-	}
-
-	public Date getFechaSolicitudGarantia() {
-		return fechaSolicitudGarantia;
-	}
-
-	public void setFechaSolicitudGarantia(Date fechaSolicitudGarantia) {
-		this.fechaSolicitudGarantia = fechaSolicitudGarantia;
-	}
-
-	public Date getFechaFinGarantia() {
-		return fechaFinGarantia;
-	}
-
-	public void setFechaFinGarantia(Date fechaFinGarantia) {
-		this.fechaFinGarantia = fechaFinGarantia;
-	}
-
-	public String getNombreCliente() {
-		return nombreCliente;
-	}
-
-	public void setNombreCliente(String nombreCliente) {
-		this.nombreCliente = nombreCliente;
-	}
-
-	public double getPrecio() {
-		return precio;
-	}
-
-	public void setPrecio(double precio) {
-		this.precio = precio;
-	}
-
 }
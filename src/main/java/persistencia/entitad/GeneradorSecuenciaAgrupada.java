@@ -0,0 +1,80 @@
+package persistencia.entitad;
+
+import java.util.Map;
+import java.util.Properties;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Generador de ids basado en secuencias con optimizador agrupado. Asigna los
+ * ids en bloques de {@link #TAMANO_ASIGNACION_POR_DEFECTO}, que se pueden
+ * sobreescribir por entidad desde las propiedades de la unidad de persistencia
+ * con la llave <code>tienda.id.&lt;secuencia&gt;.tamano_asignacion</code>, sin
+ * modificar el mapeo. El tamao debe coincidir con el incremento de la
+ * secuencia en la base de datos; {@link #verificarSecuencias} lo comprueba
+ * cuando el esquema ya existe
+ */
+public class GeneradorSecuenciaAgrupada extends SequenceStyleGenerator {
+
+	public static final String NOMBRE = "persistencia.entitad.GeneradorSecuenciaAgrupada";
+	public static final String OPTIMIZADOR = "pooled-lo";
+	public static final int TAMANO_ASIGNACION_POR_DEFECTO = 50;
+
+	private static final String PREFIJO_PROPIEDAD = "tienda.id.";
+	private static final String SUFIJO_PROPIEDAD = ".tamano_asignacion";
+	private static final String INCREMENTO_SECUENCIA = "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = UPPER(?1)";
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		Map<?, ?> configuracion = serviceRegistry.getService(ConfigurationService.class).getSettings();
+		Object tamanoAsignacion = configuracion
+				.get(PREFIJO_PROPIEDAD + params.getProperty(SEQUENCE_PARAM) + SUFIJO_PROPIEDAD);
+		params.setProperty(INCREMENT_PARAM,
+				tamanoAsignacion != null ? tamanoAsignacion.toString() : String.valueOf(TAMANO_ASIGNACION_POR_DEFECTO));
+		super.configure(type, params, serviceRegistry);
+	}
+
+	/**
+	 * Permite comprobar que cada secuencia de la base de datos tiene el mismo
+	 * incremento que el tamao de asignacin configurado. Con el optimizador
+	 * agrupado un tamao distinto hara que dos procesos recibieran bloques de
+	 * ids superpuestos
+	 *
+	 * @param factory {@link EntityManagerFactory} fbrica sobre el esquema
+	 *                existente
+	 * @throws PersistenceException si algn incremento no coincide
+	 */
+	public static void verificarSecuencias(EntityManagerFactory factory) {
+		SessionFactoryImplementor sessionFactory = factory.unwrap(SessionFactoryImplementor.class);
+		EntityManager entityManager = factory.createEntityManager();
+		try {
+			for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+				IdentifierGenerator generador = persister.getIdentifierGenerator();
+				if (generador instanceof GeneradorSecuenciaAgrupada) {
+					DatabaseStructure secuencia = ((GeneradorSecuenciaAgrupada) generador).getDatabaseStructure();
+					Number incremento = (Number) entityManager.createNativeQuery(INCREMENTO_SECUENCIA)
+							.setParameter(1, secuencia.getName()).getSingleResult();
+					if (incremento.intValue() != secuencia.getIncrementSize()) {
+						throw new PersistenceException(String.format(
+								"La secuencia %s incrementa de a %d pero el tamao de asignacin configurado es %d",
+								secuencia.getName(), incremento.intValue(), secuencia.getIncrementSize()));
+					}
+				}
+			}
+		} finally {
+			entityManager.close();
+		}
+	}
+}
@@ -1,18 +1,43 @@
 package persistencia.entitad;
 
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import persistencia.conversor.DineroConverter;
 
 @Entity(name = "Producto")
-@NamedQuery(name = "Producto.findByCodigo", query = "SELECT producto FROM Producto producto WHERE producto.codigo = :codigo")
+@Table(indexes = { @Index(name = "IDX_PRODUCTO_CODIGO", columnList = "codigo"),
+		@Index(name = "IDX_PRODUCTO_PRECIO", columnList = "precio, codigo"),
+		@Index(name = "IDX_PRODUCTO_NOMBRE", columnList = "nombre, codigo") })
+@NamedQueries({
+		@NamedQuery(name = "Producto.findByCodigo", query = "SELECT producto FROM Producto producto WHERE producto.codigo = :codigo"),
+		@NamedQuery(name = "Producto.findByCodigos", query = "SELECT producto FROM Producto producto WHERE producto.codigo in :codigos"),
+		@NamedQuery(name = "Producto.findConGarantiaByCodigo", query = "SELECT producto FROM Producto producto WHERE producto.codigo = :codigo and (exists (SELECT garantia.id FROM GarantiaExtendida garantia WHERE garantia.producto = producto) or exists (SELECT archivada.id FROM GarantiaArchivada archivada WHERE archivada.producto = producto))"),
+		@NamedQuery(name = "Producto.findCodigosConGarantia", query = "SELECT producto.codigo FROM Producto producto WHERE producto.codigo in :codigos and (exists (SELECT garantia.id FROM GarantiaExtendida garantia WHERE garantia.producto = producto) or exists (SELECT archivada.id FROM GarantiaArchivada archivada WHERE archivada.producto = producto))"),
+		@NamedQuery(name = "Producto.findByPrecioDesde", query = "SELECT producto FROM Producto producto WHERE producto.precio >= :precioDesde and (producto.precio > :precioDesde or producto.codigo > :codigoDesde) order by producto.precio, producto.codigo"),
+		@NamedQuery(name = "Producto.findByPrefijoNombreDesde", query = "SELECT producto FROM Producto producto WHERE producto.nombre like :patron escape '!' and producto.nombre >= :nombreDesde and (producto.nombre > :nombreDesde or producto.codigo > :codigoDesde) order by producto.nombre, producto.codigo"),
+		@NamedQuery(name = "Producto.findDesdeId", query = "SELECT producto FROM Producto producto WHERE producto.id > :desde order by producto.id") })
 public class ProductoEntity {
 
+	private static final String SECUENCIA = "producto_seq";
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SECUENCIA)
+	@GenericGenerator(name = SECUENCIA, strategy = GeneradorSecuenciaAgrupada.NOMBRE, parameters = {
+			@Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = SECUENCIA),
+			@Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = GeneradorSecuenciaAgrupada.OPTIMIZADOR) })
 	private Long id;
 
 	@Column(nullable = false)
@@ -21,8 +46,9 @@ public class ProductoEntity {
 	@Column(nullable = false)
 	private String nombre;
 
-	@Column(nullable = false)
-	private double precio;
+	@Column(nullable = false, precision = 19, scale = 2)
+	@Convert(converter = DineroConverter.class)
+	private long precio;
 
 	public Long getId() {
 		return id;
@@ -48,12 +74,12 @@ public class ProductoEntity {
 		this.nombre = nombre;
 	}
 
-	public double getPrecio() {
+	public long getPrecioCentavos() {
 		return precio;
 	}
 
-	public void setPrecio(double precio) {
-		this.precio = precio;
+	public void setPrecioCentavos(long precioCentavos) {
+		this.precio = precioCentavos;
 	}
 	
 }
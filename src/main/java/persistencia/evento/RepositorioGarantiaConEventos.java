@@ -0,0 +1,69 @@
+package persistencia.evento;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.evento.CanalEventosGarantia;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import persistencia.conexion.AlConfirmar;
+
+/**
+ * Repositorio de garantas que publica cada garanta agregada en un
+ * {@link CanalEventosGarantia} cuando la transaccin se confirma. Si la
+ * transaccin se revierte no se publica nada
+ */
+public class RepositorioGarantiaConEventos implements RepositorioGarantiaExtendida {
+
+	private final RepositorioGarantiaExtendida repositorioGarantia;
+	private final EntityManager entityManager;
+	private final CanalEventosGarantia canal;
+
+	public RepositorioGarantiaConEventos(RepositorioGarantiaExtendida repositorioGarantia,
+			EntityManager entityManager, CanalEventosGarantia canal) {
+		this.repositorioGarantia = repositorioGarantia;
+		this.entityManager = entityManager;
+		this.canal = canal;
+	}
+
+	@Override
+	public void agregar(GarantiaExtendida garantia) {
+		repositorioGarantia.agregar(garantia);
+		AlConfirmar.registrar(entityManager, () -> canal.publicar(garantia));
+	}
+
+	@Override
+	public Producto obtenerProductoConGarantiaPorCodigo(String codigo) {
+		return repositorioGarantia.obtenerProductoConGarantiaPorCodigo(codigo);
+	}
+
+	@Override
+	public GarantiaExtendida obtener(String codigo) {
+		return repositorioGarantia.obtener(codigo);
+	}
+
+	@Override
+	public GarantiaExtendida obtenerPorClaveIdempotencia(String claveIdempotencia) {
+		return repositorioGarantia.obtenerPorClaveIdempotencia(claveIdempotencia);
+	}
+
+	@Override
+	public Set<String> obtenerCodigosConGarantia(Collection<String> codigos) {
+		return repositorioGarantia.obtenerCodigosConGarantia(codigos);
+	}
+
+	@Override
+	public List<GarantiaExtendida> buscarPorPrefijoCliente(String prefijo, GarantiaExtendida despuesDe, int limite) {
+		return repositorioGarantia.buscarPorPrefijoCliente(prefijo, despuesDe, limite);
+	}
+
+	@Override
+	public List<GarantiaExtendida> buscarPorNombreCliente(String nombreCliente, GarantiaExtendida despuesDe,
+			int limite) {
+		return repositorioGarantia.buscarPorNombreCliente(nombreCliente, despuesDe, limite);
+	}
+}
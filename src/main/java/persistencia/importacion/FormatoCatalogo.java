@@ -0,0 +1,158 @@
+package persistencia.importacion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dominio.Dinero;
+import dominio.Producto;
+
+/**
+ * Formatos de archivo soportados para la importacin del catlogo de
+ * productos. Cada lnea del archivo corresponde a un producto
+ */
+public enum FormatoCatalogo {
+
+	/**
+	 * Lneas con los campos codigo,nombre,precio. Los campos pueden ir entre
+	 * comillas dobles y la primera lnea puede ser el encabezado
+	 */
+	CSV {
+		@Override
+		Producto leer(String linea) {
+			List<String> campos = separarCampos(linea);
+			if (campos.size() != 3) {
+				throw new IllegalArgumentException(LINEA_INVALIDA + linea);
+			}
+			if (CODIGO.equalsIgnoreCase(campos.get(0))) {
+				return null;
+			}
+			return Producto.conPrecioEnCentavos(campos.get(0), campos.get(1), Dinero.aCentavos(campos.get(2)));
+		}
+	},
+
+	/**
+	 * Un objeto JSON plano por lnea con los atributos codigo, nombre y precio
+	 */
+	NDJSON {
+		@Override
+		Producto leer(String linea) {
+			Map<String, String> atributos = leerObjetoPlano(linea);
+			String codigo = atributos.get(CODIGO);
+			String nombre = atributos.get(NOMBRE);
+			String precio = atributos.get(PRECIO);
+			if (codigo == null || nombre == null || precio == null) {
+				throw new IllegalArgumentException(LINEA_INVALIDA + linea);
+			}
+			return Producto.conPrecioEnCentavos(codigo, nombre, Dinero.aCentavos(precio));
+		}
+	};
+
+	private static final String LINEA_INVALIDA = "Lnea invlida en el catlogo: ";
+	private static final String CODIGO = "codigo";
+	private static final String NOMBRE = "nombre";
+	private static final String PRECIO = "precio";
+
+	/**
+	 * Permite convertir una lnea del archivo en un producto
+	 * 
+	 * @param linea {@link String} lnea no vaca del archivo
+	 * @return {@link Producto} ledo, o null si la lnea es un encabezado
+	 */
+	abstract Producto leer(String linea);
+
+	private static List<String> separarCampos(String linea) {
+		List<String> campos = new ArrayList<>(3);
+		StringBuilder campo = new StringBuilder();
+		boolean entreComillas = false;
+		for (int i = 0; i < linea.length(); i++) {
+			char caracter = linea.charAt(i);
+			if (entreComillas) {
+				if (caracter == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+					campo.append('"');
+					i++;
+				} else if (caracter == '"') {
+					entreComillas = false;
+				} else {
+					campo.append(caracter);
+				}
+			} else if (caracter == '"') {
+				entreComillas = true;
+			} else if (caracter == ',') {
+				campos.add(campo.toString().trim());
+				campo.setLength(0);
+			} else {
+				campo.append(caracter);
+			}
+		}
+		campos.add(campo.toString().trim());
+		return campos;
+	}
+
+	static Map<String, String> leerObjetoPlano(String linea) {
+		Map<String, String> atributos = new HashMap<>();
+		int posicion = saltarEspacios(linea, 0);
+		if (posicion >= linea.length() || linea.charAt(posicion) != '{') {
+			throw new IllegalArgumentException(LINEA_INVALIDA + linea);
+		}
+		posicion = saltarEspacios(linea, posicion + 1);
+		while (posicion < linea.length() && linea.charAt(posicion) != '}') {
+			StringBuilder nombre = new StringBuilder();
+			posicion = leerCadena(linea, posicion, nombre);
+			posicion = saltarEspacios(linea, posicion);
+			if (posicion >= linea.length() || linea.charAt(posicion) != ':') {
+				throw new IllegalArgumentException(LINEA_INVALIDA + linea);
+			}
+			posicion = saltarEspacios(linea, posicion + 1);
+
+			StringBuilder valor = new StringBuilder();
+			if (posicion < linea.length() && linea.charAt(posicion) == '"') {
+				posicion = leerCadena(linea, posicion, valor);
+			} else {
+				while (posicion < linea.length() && ",} \t".indexOf(linea.charAt(posicion)) < 0) {
+					valor.append(linea.charAt(posicion++));
+				}
+			}
+			atributos.put(nombre.toString(), valor.toString());
+
+			posicion = saltarEspacios(linea, posicion);
+			if (posicion < linea.length() && linea.charAt(posicion) == ',') {
+				posicion = saltarEspacios(linea, posicion + 1);
+			}
+		}
+		return atributos;
+	}
+
+	private static int leerCadena(String linea, int inicio, StringBuilder destino) {
+		if (inicio >= linea.length() || linea.charAt(inicio) != '"') {
+			throw new IllegalArgumentException(LINEA_INVALIDA + linea);
+		}
+		int posicion = inicio + 1;
+		while (posicion < linea.length() && linea.charAt(posicion) != '"') {
+			char caracter = linea.charAt(posicion);
+			if (caracter == '\\' && posicion + 1 < linea.length()) {
+				posicion++;
+				caracter = linea.charAt(posicion);
+				if (caracter == 'u' && posicion + 4 < linea.length()) {
+					caracter = (char) Integer.parseInt(linea.substring(posicion + 1, posicion + 5), 16);
+					posicion += 4;
+				} else if (caracter == 'n') {
+					caracter = '\n';
+				} else if (caracter == 't') {
+					caracter = '\t';
+				}
+			}
+			destino.append(caracter);
+			posicion++;
+		}
+		return posicion + 1;
+	}
+
+	private static int saltarEspacios(String linea, int posicion) {
+		while (posicion < linea.length() && Character.isWhitespace(linea.charAt(posicion))) {
+			posicion++;
+		}
+		return posicion;
+	}
+}
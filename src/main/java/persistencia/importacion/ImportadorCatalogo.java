@@ -0,0 +1,137 @@
+package persistencia.importacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import dominio.Producto;
+import persistencia.builder.ProductoBuilder;
+import persistencia.entitad.ProductoEntity;
+
+/**
+ * Importa el catlogo de productos desde un archivo leyndolo lnea a lnea.
+ * Los productos se procesan en lotes: por cada lote se consultan los ids de
+ * los cdigos existentes, se insertan los nuevos y se actualizan los dems
+ * sobre una sesin sin estado, y se confirma la transaccin. As no se
+ * acumulan entidades administradas y la memoria no depende del tamao del
+ * archivo
+ */
+public class ImportadorCatalogo {
+
+	public static final int TAMANO_LOTE_POR_DEFECTO = 1000;
+
+	private static final String CODIGOS = "codigos";
+	private static final String IDS_POR_CODIGO = "SELECT producto.codigo, producto.id FROM Producto producto WHERE producto.codigo IN :codigos";
+
+	private final SessionFactory sessionFactory;
+	private final int tamanoLote;
+
+	public ImportadorCatalogo(EntityManagerFactory entityManagerFactory) {
+		this(entityManagerFactory, TAMANO_LOTE_POR_DEFECTO);
+	}
+
+	public ImportadorCatalogo(EntityManagerFactory entityManagerFactory, int tamanoLote) {
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		this.tamanoLote = tamanoLote;
+	}
+
+	/**
+	 * Permite importar un archivo del catlogo, insertando los productos nuevos
+	 * y actualizando los que ya existen con el mismo cdigo
+	 * 
+	 * @param archivo  {@link Path} archivo a importar, codificado en UTF-8
+	 * @param formato  {@link FormatoCatalogo} formato de las lneas del archivo
+	 * @param progreso {@link Consumer} notificado una vez por cada lote
+	 *                 confirmado, o una sola vez si el archivo no tiene
+	 *                 productos
+	 * @return {@link ResumenImportacion} resumen final de la importacin
+	 * @throws IOException en caso de error leyendo el archivo
+	 */
+	public ResumenImportacion importar(Path archivo, FormatoCatalogo formato, Consumer<ResumenImportacion> progreso)
+			throws IOException {
+
+		long inicio = System.nanoTime();
+		long[] totales = new long[2];
+		Map<String, Producto> lote = new LinkedHashMap<>();
+		boolean notificado = false;
+
+		try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8);
+				StatelessSession session = sessionFactory.openStatelessSession()) {
+
+			String linea;
+			while ((linea = lector.readLine()) != null) {
+				if (linea.trim().isEmpty()) {
+					continue;
+				}
+				Producto producto = formato.leer(linea);
+				if (producto != null) {
+					lote.put(producto.getCodigo(), producto);
+					notificado = false;
+				}
+				if (lote.size() >= tamanoLote) {
+					guardarLote(session, lote, totales);
+					progreso.accept(new ResumenImportacion(totales[0], totales[1], System.nanoTime() - inicio));
+					notificado = true;
+				}
+			}
+			if (!lote.isEmpty()) {
+				guardarLote(session, lote, totales);
+			}
+		}
+
+		ResumenImportacion resumen = new ResumenImportacion(totales[0], totales[1], System.nanoTime() - inicio);
+		// Si el archivo termina en un lote completo su avance ya fue notificado
+		if (!notificado) {
+			progreso.accept(resumen);
+		}
+		return resumen;
+	}
+
+	private void guardarLote(StatelessSession session, Map<String, Producto> lote, long[] totales) {
+		Transaction transaccion = session.beginTransaction();
+		try {
+			Map<String, Long> existentes = obtenerIdsExistentes(session, lote);
+			for (Producto producto : lote.values()) {
+				ProductoEntity productoEntity = ProductoBuilder.convertirAEntity(producto);
+				Long id = existentes.get(producto.getCodigo());
+				if (id == null) {
+					session.insert(productoEntity);
+					totales[0]++;
+				} else {
+					productoEntity.setId(id);
+					session.update(productoEntity);
+					totales[1]++;
+				}
+			}
+			transaccion.commit();
+		} catch (RuntimeException e) {
+			transaccion.rollback();
+			throw e;
+		}
+		lote.clear();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Long> obtenerIdsExistentes(StatelessSession session, Map<String, Producto> lote) {
+		List<Object[]> filas = session.createQuery(IDS_POR_CODIGO).setParameterList(CODIGOS, lote.keySet()).list();
+
+		Map<String, Long> existentes = new HashMap<>();
+		for (Object[] fila : filas) {
+			existentes.put((String) fila[0], (Long) fila[1]);
+		}
+		return existentes;
+	}
+}
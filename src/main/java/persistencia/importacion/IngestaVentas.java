@@ -0,0 +1,638 @@
+package persistencia.importacion;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.exception.ConstraintViolationException;
+
+import dominio.CotizacionGarantia;
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.ResultadoGarantia;
+import dominio.Vendedor;
+import persistencia.builder.ProductoBuilder;
+import persistencia.entitad.GarantiaExtendidaEntity;
+import persistencia.entitad.ProductoEntity;
+
+/**
+ * Ingesta los archivos de ventas que las tiendas registraron sin conexin.
+ * Cada lnea es un objeto JSON plano con los atributos codigo y nombreCliente
+ * y, opcionalmente, claveIdempotencia y fecha (AAAA-MM-DD) de la venta. Las
+ * lneas pasan por etapas que corren en hilos separados, unidas por colas
+ * acotadas de bloques, de modo que una etapa lenta detiene a las anteriores
+ * en lugar de acumular registros en memoria:
+ * <ol>
+ * <li>lectura del archivo en bloques de lneas</li>
+ * <li>validacin de los datos obligatorios y de las vocales del cdigo con las
+ * reglas del vendedor, en paralelo</li>
+ * <li>resolucin de las garantas existentes, las claves ya registradas y los
+ * productos, con una consulta por bloque para cada una</li>
+ * <li>tarificacin de la garanta con las reglas del vendedor</li>
+ * <li>persistencia del bloque en una transaccin sobre una sesin sin
+ * estado, que vuelve a verificar las garantas y las claves registradas desde
+ * la resolucin por ventas en lnea u otras ingestas</li>
+ * </ol>
+ * La resolucin atiende los bloques en el orden del archivo, as entre dos
+ * ventas del mismo producto siempre gana la primera. Las lneas rechazadas se
+ * escriben en un archivo con el nmero de lnea, el motivo y la lnea original
+ * separados por tabuladores
+ */
+public class IngestaVentas {
+
+	public static final int TAMANO_LOTE_POR_DEFECTO = 1000;
+	public static final int CAPACIDAD_COLA_POR_DEFECTO = 4;
+	public static final String LINEA_INVALIDA = "LINEA_INVALIDA";
+	public static final String PRODUCTO_INEXISTENTE = "PRODUCTO_INEXISTENTE";
+
+	private static final String CODIGO = "codigo";
+	private static final String NOMBRE_CLIENTE = "nombreCliente";
+	private static final String CLAVE_IDEMPOTENCIA = "claveIdempotencia";
+	private static final String FECHA = "fecha";
+	private static final String CODIGOS = "codigos";
+	private static final String CLAVES = "claves";
+	private static final String PRODUCTO_FIND_BY_CODIGOS = "Producto.findByCodigos";
+	private static final String[] CODIGOS_CON_GARANTIA = { "Producto.findCodigosConGarantia" };
+	private static final String[] CLAVES_IDEMPOTENCIA = { "GarantiaExtendida.findClavesIdempotencia",
+			"GarantiaArchivada.findClavesIdempotencia" };
+	private static final char SEPARADOR = '\t';
+	private static final Bloque FIN = new Bloque(-1, Collections.emptyList());
+	private static final AtomicInteger HILOS_CREADOS = new AtomicInteger();
+
+	private final SessionFactory sessionFactory;
+	private final Vendedor vendedor;
+	private final Consumer<List<GarantiaExtendida>> confirmadas;
+	private final int tamanoLote;
+	private final int capacidadCola;
+	private final int hilosValidacion;
+
+	public IngestaVentas(EntityManagerFactory entityManagerFactory, Vendedor vendedor,
+			Consumer<List<GarantiaExtendida>> confirmadas) {
+		this(entityManagerFactory, vendedor, confirmadas, TAMANO_LOTE_POR_DEFECTO, CAPACIDAD_COLA_POR_DEFECTO,
+				Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Permite crear la ingesta indicando el tamao de los bloques y de las colas
+	 * entre etapas. La lectura no adelanta a la resolucin en ms de (2 *
+	 * capacidadCola + hilosValidacion) bloques, as los bloques que esperan su
+	 * turno para la resolucin tambin quedan acotados y en memoria hay a lo
+	 * sumo (4 * capacidadCola + hilosValidacion + 3) bloques de tamanoLote
+	 * ventas
+	 *
+	 * @param vendedor        {@link Vendedor} del cual se toman las reglas de
+	 *                        validacin y de tarifa
+	 * @param confirmadas     {@link Consumer} notificado con las garantas de
+	 *                        cada bloque confirmado
+	 * @param tamanoLote      lneas por bloque
+	 * @param capacidadCola   bloques en espera entre dos etapas
+	 * @param hilosValidacion hilos de la etapa de validacin
+	 */
+	public IngestaVentas(EntityManagerFactory entityManagerFactory, Vendedor vendedor,
+			Consumer<List<GarantiaExtendida>> confirmadas, int tamanoLote, int capacidadCola, int hilosValidacion) {
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		this.vendedor = vendedor;
+		this.confirmadas = confirmadas;
+		this.tamanoLote = tamanoLote;
+		this.capacidadCola = capacidadCola;
+		this.hilosValidacion = hilosValidacion;
+	}
+
+	/**
+	 * Permite ingerir un archivo de ventas, registrando una garanta por cada
+	 * venta que cumple las reglas de negocio. Las ventas cuya clave de
+	 * idempotencia ya fue registrada se cuentan como repetidas, de modo que
+	 * volver a ingerir el mismo archivo no genera garantas nuevas
+	 *
+	 * @param archivo    {@link Path} archivo de ventas, codificado en UTF-8
+	 * @param rechazados {@link Path} archivo donde se escriben las lneas
+	 *                   rechazadas
+	 * @param progreso   {@link Consumer} notificado desde el hilo de
+	 *                   persistencia al confirmar cada bloque, y al terminar
+	 *                   solo si el ltimo bloque no report los totales finales
+	 * @return {@link ResumenIngesta} resumen final con las mtricas de cada
+	 *         etapa
+	 * @throws IOException en caso de error leyendo o escribiendo los archivos
+	 */
+	public ResumenIngesta ingerir(Path archivo, Path rechazados, Consumer<ResumenIngesta> progreso)
+			throws IOException {
+
+		ResumenIngesta resumen;
+		try (BufferedWriter salida = Files.newBufferedWriter(rechazados, StandardCharsets.UTF_8)) {
+			Ejecucion ejecucion = new Ejecucion(salida, progreso);
+			ejecucion.ejecutar(archivo);
+			resumen = ejecucion.resumir();
+			if (ejecucion.notificoTotales(resumen)) {
+				return resumen;
+			}
+		}
+		progreso.accept(resumen);
+		return resumen;
+	}
+
+	private static Thread crearHilo(Runnable tarea) {
+		Thread hilo = new Thread(tarea, "ingesta-ventas-" + HILOS_CREADOS.incrementAndGet());
+		hilo.setDaemon(true);
+		return hilo;
+	}
+
+	/**
+	 * Estado de una ingesta: las colas entre etapas, los contadores y las ventas
+	 * enviadas a persistir que an no se confirman
+	 */
+	private final class Ejecucion {
+
+		private final BlockingQueue<Bloque> lineas = new ArrayBlockingQueue<>(capacidadCola);
+		private final BlockingQueue<Bloque> validadas = new ArrayBlockingQueue<>(capacidadCola);
+		private final BlockingQueue<Bloque> resueltas = new ArrayBlockingQueue<>(capacidadCola);
+		private final BlockingQueue<Bloque> tarificadas = new ArrayBlockingQueue<>(capacidadCola);
+		private final Etapa lectura = new Etapa("lectura");
+		private final Etapa validacion = new Etapa("validacion");
+		private final Etapa resolucion = new Etapa("resolucion");
+		private final Etapa tarificacion = new Etapa("tarificacion");
+		private final Etapa persistencia = new Etapa("persistencia");
+		private final AtomicLong generadas = new AtomicLong();
+		private final AtomicLong repetidas = new AtomicLong();
+		private final AtomicLong rechazadas = new AtomicLong();
+		private final Set<String> codigosEnVuelo = ConcurrentHashMap.newKeySet();
+		private final Set<String> clavesEnVuelo = ConcurrentHashMap.newKeySet();
+		// Bloques ledos que an no se resuelven: la resolucin los libera en el
+		// orden del archivo
+		private final Semaphore sinResolver = new Semaphore(2 * capacidadCola + hilosValidacion);
+		private final BufferedWriter salida;
+		private final Consumer<ResumenIngesta> progreso;
+		private volatile ResumenIngesta notificado;
+		private final long inicio = System.nanoTime();
+
+		Ejecucion(BufferedWriter salida, Consumer<ResumenIngesta> progreso) {
+			this.salida = salida;
+			this.progreso = progreso;
+		}
+
+		void ejecutar(Path archivo) throws IOException {
+			ExecutorService hilos = Executors.newFixedThreadPool(hilosValidacion + 4, IngestaVentas::crearHilo);
+			CompletionService<Void> etapas = new ExecutorCompletionService<>(hilos);
+			etapas.submit(() -> leer(archivo));
+			for (int i = 0; i < hilosValidacion; i++) {
+				etapas.submit(this::validar);
+			}
+			etapas.submit(this::resolver);
+			etapas.submit(this::tarificar);
+			etapas.submit(this::persistir);
+
+			try {
+				for (int i = 0; i < hilosValidacion + 4; i++) {
+					etapas.take().get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Ingesta de ventas interrumpida");
+			} catch (ExecutionException e) {
+				Throwable causa = e.getCause();
+				if (causa instanceof IOException) {
+					throw (IOException) causa;
+				} else if (causa instanceof RuntimeException) {
+					throw (RuntimeException) causa;
+				} else if (causa instanceof Error) {
+					throw (Error) causa;
+				}
+				throw new IllegalStateException(causa);
+			} finally {
+				// Ante un error las dems etapas quedan bloqueadas en las colas
+				hilos.shutdownNow();
+			}
+		}
+
+		ResumenIngesta resumir() {
+			return new ResumenIngesta(lectura.registros.get(), generadas.get(), repetidas.get(), rechazadas.get(),
+					System.nanoTime() - inicio, Arrays.asList(lectura.medir(), validacion.medir(),
+							resolucion.medir(), tarificacion.medir(), persistencia.medir()));
+		}
+
+		boolean notificoTotales(ResumenIngesta resumen) {
+			ResumenIngesta ultimo = notificado;
+			return ultimo != null && ultimo.getLeidas() == resumen.getLeidas()
+					&& ultimo.getGeneradas() == resumen.getGeneradas()
+					&& ultimo.getRepetidas() == resumen.getRepetidas()
+					&& ultimo.getRechazadas() == resumen.getRechazadas();
+		}
+
+		private Void leer(Path archivo) throws IOException, InterruptedException {
+			try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+				long numero = 0;
+				long secuencia = 0;
+				List<EventoVenta> eventos = new ArrayList<>(tamanoLote);
+				long desde = System.nanoTime();
+				String linea;
+				while ((linea = lector.readLine()) != null) {
+					numero++;
+					if (linea.trim().isEmpty()) {
+						continue;
+					}
+					eventos.add(new EventoVenta(numero, linea));
+					if (eventos.size() >= tamanoLote) {
+						lectura.registrar(eventos.size(), desde);
+						lectura.reservar(sinResolver);
+						lectura.entregar(lineas, new Bloque(secuencia++, eventos));
+						eventos = new ArrayList<>(tamanoLote);
+						desde = System.nanoTime();
+					}
+				}
+				if (!eventos.isEmpty()) {
+					lectura.registrar(eventos.size(), desde);
+					lectura.reservar(sinResolver);
+					lectura.entregar(lineas, new Bloque(secuencia, eventos));
+				}
+			}
+			for (int i = 0; i < hilosValidacion; i++) {
+				lectura.entregar(lineas, FIN);
+			}
+			return null;
+		}
+
+		private Void validar() throws IOException, InterruptedException {
+			Bloque bloque;
+			while ((bloque = validacion.tomar(lineas)) != FIN) {
+				long desde = System.nanoTime();
+				List<EventoVenta> validos = new ArrayList<>(bloque.eventos.size());
+				for (EventoVenta evento : bloque.eventos) {
+					String motivo = validar(evento);
+					if (motivo == null) {
+						validos.add(evento);
+					} else {
+						rechazar(evento, motivo);
+					}
+				}
+				validacion.registrar(bloque.eventos.size(), desde);
+				validacion.entregar(validadas, new Bloque(bloque.secuencia, validos));
+			}
+			validacion.entregar(validadas, FIN);
+			return null;
+		}
+
+		private String validar(EventoVenta evento) {
+			try {
+				Map<String, String> atributos = FormatoCatalogo.leerObjetoPlano(evento.linea);
+				evento.codigo = atributos.get(CODIGO);
+				evento.nombreCliente = atributos.get(NOMBRE_CLIENTE);
+				String clave = atributos.get(CLAVE_IDEMPOTENCIA);
+				evento.claveIdempotencia = vendedor.esNuloOVacio(clave) ? null : clave;
+				String fecha = atributos.get(FECHA);
+				evento.fecha = vendedor.esNuloOVacio(fecha) ? null : LocalDate.parse(fecha);
+			} catch (IllegalArgumentException | DateTimeParseException e) {
+				return LINEA_INVALIDA;
+			}
+
+			if (vendedor.esNuloOVacio(evento.codigo) || vendedor.esNuloOVacio(evento.nombreCliente)) {
+				return ResultadoGarantia.Codigo.DATOS_OBLIGATORIOS.name();
+			} else if (vendedor.validarVocales(evento.codigo)) {
+				return ResultadoGarantia.Codigo.PRODUCTO_SIN_GARANTIA.name();
+			}
+			return null;
+		}
+
+		private Void resolver() throws IOException, InterruptedException {
+			Map<Long, Bloque> pendientes = new HashMap<>();
+			long siguiente = 0;
+			int terminadas = 0;
+			try (StatelessSession session = sessionFactory.openStatelessSession()) {
+				while (terminadas < hilosValidacion) {
+					Bloque bloque = resolucion.tomar(validadas);
+					if (bloque == FIN) {
+						terminadas++;
+						continue;
+					}
+					pendientes.put(bloque.secuencia, bloque);
+					while ((bloque = pendientes.remove(siguiente)) != null) {
+						siguiente++;
+						long desde = System.nanoTime();
+						List<EventoVenta> resueltos = resolver(session, bloque.eventos);
+						resolucion.registrar(bloque.eventos.size(), desde);
+						if (!resueltos.isEmpty()) {
+							resolucion.entregar(resueltas, new Bloque(bloque.secuencia, resueltos));
+						}
+						sinResolver.release();
+					}
+				}
+			}
+			resolucion.entregar(resueltas, FIN);
+			return null;
+		}
+
+		private List<EventoVenta> resolver(StatelessSession session, List<EventoVenta> eventos) throws IOException {
+			if (eventos.isEmpty()) {
+				return eventos;
+			}
+			Set<String> codigos = new HashSet<>();
+			Set<String> claves = new HashSet<>();
+			Set<String> codigosTomados = new HashSet<>();
+			Set<String> clavesTomadas = new HashSet<>();
+			// Las ventas en vuelo se revisan antes de consultar: si se confirman en
+			// medio, la consulta ya las encuentra
+			for (EventoVenta evento : eventos) {
+				codigos.add(evento.codigo);
+				if (codigosEnVuelo.contains(evento.codigo)) {
+					codigosTomados.add(evento.codigo);
+				}
+				if (evento.claveIdempotencia != null) {
+					claves.add(evento.claveIdempotencia);
+					if (clavesEnVuelo.contains(evento.claveIdempotencia)) {
+						clavesTomadas.add(evento.claveIdempotencia);
+					}
+				}
+			}
+
+			Map<String, ProductoEntity> productos = new HashMap<>();
+			Transaction transaccion = session.beginTransaction();
+			try {
+				consultar(session, CODIGOS_CON_GARANTIA, CODIGOS, codigos, codigosTomados);
+				if (!claves.isEmpty()) {
+					consultar(session, CLAVES_IDEMPOTENCIA, CLAVES, claves, clavesTomadas);
+				}
+				for (Object producto : session.getNamedQuery(PRODUCTO_FIND_BY_CODIGOS)
+						.setParameterList(CODIGOS, codigos).list()) {
+					ProductoEntity productoEntity = (ProductoEntity) producto;
+					productos.put(productoEntity.getCodigo(), productoEntity);
+				}
+				transaccion.commit();
+			} catch (RuntimeException e) {
+				transaccion.rollback();
+				throw e;
+			}
+
+			List<EventoVenta> resueltos = new ArrayList<>(eventos.size());
+			for (EventoVenta evento : eventos) {
+				if (tomada(evento, codigosTomados, clavesTomadas)) {
+					descartar(evento, clavesTomadas);
+				} else if (!productos.containsKey(evento.codigo)) {
+					rechazar(evento, PRODUCTO_INEXISTENTE);
+				} else {
+					evento.productoEntity = productos.get(evento.codigo);
+					codigosTomados.add(evento.codigo);
+					codigosEnVuelo.add(evento.codigo);
+					if (evento.claveIdempotencia != null) {
+						clavesTomadas.add(evento.claveIdempotencia);
+						clavesEnVuelo.add(evento.claveIdempotencia);
+					}
+					resueltos.add(evento);
+				}
+			}
+			return resueltos;
+		}
+
+		private void consultar(StatelessSession session, String[] consultas, String parametro,
+				Collection<String> valores, Set<String> encontrados) {
+			for (String consulta : consultas) {
+				for (Object valor : session.getNamedQuery(consulta).setParameterList(parametro, valores).list()) {
+					encontrados.add((String) valor);
+				}
+			}
+		}
+
+		private Void tarificar() throws InterruptedException {
+			Bloque bloque;
+			while ((bloque = tarificacion.tomar(resueltas)) != FIN) {
+				long desde = System.nanoTime();
+				for (EventoVenta evento : bloque.eventos) {
+					Producto producto = ProductoBuilder.convertirADominio(evento.productoEntity);
+					CotizacionGarantia cotizacion = vendedor.cotizarGarantia(producto, evento.fecha);
+					evento.garantia = GarantiaExtendida.conPrecioEnCentavos(producto,
+							cotizacion.getFechaSolicitudGarantia(), cotizacion.getFechaFinGarantia(),
+							cotizacion.getPrecioGarantiaCentavos(), evento.nombreCliente, evento.claveIdempotencia);
+				}
+				tarificacion.registrar(bloque.eventos.size(), desde);
+				tarificacion.entregar(tarificadas, bloque);
+			}
+			tarificacion.entregar(tarificadas, FIN);
+			return null;
+		}
+
+		private Void persistir() throws IOException, InterruptedException {
+			try (StatelessSession session = sessionFactory.openStatelessSession()) {
+				Bloque bloque;
+				while ((bloque = persistencia.tomar(tarificadas)) != FIN) {
+					long desde = System.nanoTime();
+					List<GarantiaExtendida> garantias = new ArrayList<>(bloque.eventos.size());
+					try {
+						insertar(session, bloque.eventos, garantias);
+					} catch (ConstraintViolationException e) {
+						// Otra transaccin confirm una de las ventas despus de la
+						// verificacin: se reintenta venta por venta para rechazar solo esa
+						for (EventoVenta evento : bloque.eventos) {
+							insertarVenta(session, evento, garantias);
+						}
+					}
+					for (EventoVenta evento : bloque.eventos) {
+						codigosEnVuelo.remove(evento.codigo);
+						if (evento.claveIdempotencia != null) {
+							clavesEnVuelo.remove(evento.claveIdempotencia);
+						}
+					}
+					generadas.addAndGet(garantias.size());
+					persistencia.registrar(garantias.size(), desde);
+					confirmadas.accept(garantias);
+					notificado = resumir();
+					progreso.accept(notificado);
+				}
+			}
+			return null;
+		}
+
+		private void insertarVenta(StatelessSession session, EventoVenta evento, List<GarantiaExtendida> garantias)
+				throws IOException {
+			List<EventoVenta> venta = Collections.singletonList(evento);
+			try {
+				insertar(session, venta, garantias);
+			} catch (ConstraintViolationException e) {
+				// La venta que provoc el conflicto ya est confirmada, as la nueva
+				// verificacin la encuentra
+				insertar(session, venta, garantias);
+			}
+		}
+
+		/**
+		 * Inserta en una transaccin las ventas cuyo producto y clave siguen libres,
+		 * consultando ambos dentro de la misma transaccin. Las dems se cuentan
+		 * como repetidas o se rechazan una vez confirmada la transaccin, para que
+		 * un reintento no las cuente dos veces
+		 */
+		private void insertar(StatelessSession session, List<EventoVenta> eventos, List<GarantiaExtendida> garantias)
+				throws IOException {
+			Set<String> codigos = new HashSet<>();
+			Set<String> claves = new HashSet<>();
+			for (EventoVenta evento : eventos) {
+				codigos.add(evento.codigo);
+				if (evento.claveIdempotencia != null) {
+					claves.add(evento.claveIdempotencia);
+				}
+			}
+			Set<String> codigosTomados = new HashSet<>();
+			Set<String> clavesTomadas = new HashSet<>();
+			List<GarantiaExtendida> insertadas = new ArrayList<>(eventos.size());
+			Transaction transaccion = session.beginTransaction();
+			try {
+				consultar(session, CODIGOS_CON_GARANTIA, CODIGOS, codigos, codigosTomados);
+				if (!claves.isEmpty()) {
+					consultar(session, CLAVES_IDEMPOTENCIA, CLAVES, claves, clavesTomadas);
+				}
+				for (EventoVenta evento : eventos) {
+					if (!tomada(evento, codigosTomados, clavesTomadas)) {
+						session.insert(convertirAEntity(evento));
+						insertadas.add(evento.garantia);
+					}
+				}
+				transaccion.commit();
+			} catch (RuntimeException e) {
+				transaccion.rollback();
+				throw e;
+			}
+			garantias.addAll(insertadas);
+			for (EventoVenta evento : eventos) {
+				if (tomada(evento, codigosTomados, clavesTomadas)) {
+					descartar(evento, clavesTomadas);
+				}
+			}
+		}
+
+		private boolean tomada(EventoVenta evento, Set<String> codigosTomados, Set<String> clavesTomadas) {
+			return codigosTomados.contains(evento.codigo)
+					|| evento.claveIdempotencia != null && clavesTomadas.contains(evento.claveIdempotencia);
+		}
+
+		private void descartar(EventoVenta evento, Set<String> clavesTomadas) throws IOException {
+			if (evento.claveIdempotencia != null && clavesTomadas.contains(evento.claveIdempotencia)) {
+				repetidas.incrementAndGet();
+			} else {
+				rechazar(evento, ResultadoGarantia.Codigo.EL_PRODUCTO_TIENE_GARANTIA.name());
+			}
+		}
+
+		private GarantiaExtendidaEntity convertirAEntity(EventoVenta evento) {
+			GarantiaExtendida garantia = evento.garantia;
+			GarantiaExtendidaEntity garantiaEntity = new GarantiaExtendidaEntity();
+			garantiaEntity.setProducto(evento.productoEntity);
+			garantiaEntity.setFechaSolicitudGarantia(garantia.getFechaSolicitudGarantia());
+			garantiaEntity.setFechaFinGarantia(garantia.getFechaFinGarantia());
+			garantiaEntity.setNombreCliente(garantia.getNombreCliente());
+			garantiaEntity.setPrecioCentavos(garantia.getPrecioGarantiaCentavos());
+			garantiaEntity.setClaveIdempotencia(garantia.getClaveIdempotencia());
+			return garantiaEntity;
+		}
+
+		private void rechazar(EventoVenta evento, String motivo) throws IOException {
+			rechazadas.incrementAndGet();
+			String registro = new StringBuilder().append(evento.numero).append(SEPARADOR).append(motivo)
+					.append(SEPARADOR).append(evento.linea).append(System.lineSeparator()).toString();
+			synchronized (salida) {
+				salida.write(registro);
+			}
+		}
+	}
+
+	/**
+	 * Contadores de una etapa, compartidos entre sus hilos
+	 */
+	private static final class Etapa {
+
+		private final String nombre;
+		private final AtomicLong registros = new AtomicLong();
+		private final AtomicLong nanosActivo = new AtomicLong();
+		private final AtomicLong nanosEspera = new AtomicLong();
+
+		Etapa(String nombre) {
+			this.nombre = nombre;
+		}
+
+		Bloque tomar(BlockingQueue<Bloque> cola) throws InterruptedException {
+			long desde = System.nanoTime();
+			Bloque bloque = cola.take();
+			nanosEspera.addAndGet(System.nanoTime() - desde);
+			return bloque;
+		}
+
+		void reservar(Semaphore permisos) throws InterruptedException {
+			long desde = System.nanoTime();
+			permisos.acquire();
+			nanosEspera.addAndGet(System.nanoTime() - desde);
+		}
+
+		void entregar(BlockingQueue<Bloque> cola, Bloque bloque) throws InterruptedException {
+			long desde = System.nanoTime();
+			cola.put(bloque);
+			nanosEspera.addAndGet(System.nanoTime() - desde);
+		}
+
+		void registrar(long cantidad, long desde) {
+			registros.addAndGet(cantidad);
+			nanosActivo.addAndGet(System.nanoTime() - desde);
+		}
+
+		MetricaEtapa medir() {
+			return new MetricaEtapa(nombre, registros.get(), nanosActivo.get(), nanosEspera.get());
+		}
+	}
+
+	private static final class Bloque {
+
+		private final long secuencia;
+		private final List<EventoVenta> eventos;
+
+		Bloque(long secuencia, List<EventoVenta> eventos) {
+			this.secuencia = secuencia;
+			this.eventos = eventos;
+		}
+	}
+
+	/**
+	 * Venta leda del archivo. Cada etapa completa sus datos antes de pasarla a
+	 * la siguiente por la cola, que publica los cambios al hilo que la toma
+	 */
+	private static final class EventoVenta {
+
+		private final long numero;
+		private final String linea;
+		private String codigo;
+		private String nombreCliente;
+		private String claveIdempotencia;
+		private LocalDate fecha;
+		private ProductoEntity productoEntity;
+		private GarantiaExtendida garantia;
+
+		EventoVenta(long numero, String linea) {
+			this.numero = numero;
+			this.linea = linea;
+		}
+	}
+}
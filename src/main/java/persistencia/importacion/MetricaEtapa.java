@@ -0,0 +1,57 @@
+package persistencia.importacion;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mtrica inmutable de una etapa de la ingesta de ventas. El tiempo activo es
+ * el que la etapa pas procesando registros y el tiempo de espera el que pas
+ * bloqueada en las colas, esperando registros de la etapa anterior o espacio
+ * en la siguiente
+ */
+public class MetricaEtapa {
+
+	private final String nombre;
+	private final long registros;
+	private final long nanosActivo;
+	private final long nanosEspera;
+
+	public MetricaEtapa(String nombre, long registros, long nanosActivo, long nanosEspera) {
+		this.nombre = nombre;
+		this.registros = registros;
+		this.nanosActivo = nanosActivo;
+		this.nanosEspera = nanosEspera;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public long getRegistros() {
+		return registros;
+	}
+
+	public long getNanosActivo() {
+		return nanosActivo;
+	}
+
+	public long getNanosEspera() {
+		return nanosEspera;
+	}
+
+	/**
+	 * Permite obtener el rendimiento de la etapa sobre su tiempo activo, sumado
+	 * entre sus hilos
+	 *
+	 * @return {@link Double} registros procesados por segundo activo
+	 */
+	public double getRegistrosPorSegundo() {
+		return nanosActivo == 0 ? 0 : registros * (double) TimeUnit.SECONDS.toNanos(1) / nanosActivo;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: registros=%d registros/s=%.1f activo=%dms espera=%dms", nombre, registros,
+				getRegistrosPorSegundo(), TimeUnit.NANOSECONDS.toMillis(nanosActivo),
+				TimeUnit.NANOSECONDS.toMillis(nanosEspera));
+	}
+}
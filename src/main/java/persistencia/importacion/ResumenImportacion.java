@@ -0,0 +1,50 @@
+package persistencia.importacion;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resumen inmutable del avance de una importacin del catlogo
+ */
+public class ResumenImportacion {
+
+	private final long insertados;
+	private final long actualizados;
+	private final long duracionNanos;
+
+	public ResumenImportacion(long insertados, long actualizados, long duracionNanos) {
+		this.insertados = insertados;
+		this.actualizados = actualizados;
+		this.duracionNanos = duracionNanos;
+	}
+
+	public long getInsertados() {
+		return insertados;
+	}
+
+	public long getActualizados() {
+		return actualizados;
+	}
+
+	public long getProcesados() {
+		return insertados + actualizados;
+	}
+
+	public long getDuracionNanos() {
+		return duracionNanos;
+	}
+
+	/**
+	 * Permite obtener el rendimiento de la importacin
+	 * 
+	 * @return {@link Double} productos procesados por segundo
+	 */
+	public double getProductosPorSegundo() {
+		return duracionNanos == 0 ? 0 : getProcesados() * (double) TimeUnit.SECONDS.toNanos(1) / duracionNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("procesados=%d insertados=%d actualizados=%d productos/s=%.1f", getProcesados(),
+				insertados, actualizados, getProductosPorSegundo());
+	}
+}
@@ -0,0 +1,74 @@
+package persistencia.importacion;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resumen inmutable del avance de una ingesta de ventas. Cada lnea leda
+ * termina como garanta generada, como repetida, si su clave de idempotencia
+ * ya estaba registrada, o como rechazada
+ */
+public class ResumenIngesta {
+
+	private final long leidas;
+	private final long generadas;
+	private final long repetidas;
+	private final long rechazadas;
+	private final long duracionNanos;
+	private final List<MetricaEtapa> etapas;
+
+	public ResumenIngesta(long leidas, long generadas, long repetidas, long rechazadas, long duracionNanos,
+			List<MetricaEtapa> etapas) {
+		this.leidas = leidas;
+		this.generadas = generadas;
+		this.repetidas = repetidas;
+		this.rechazadas = rechazadas;
+		this.duracionNanos = duracionNanos;
+		this.etapas = Collections.unmodifiableList(etapas);
+	}
+
+	public long getLeidas() {
+		return leidas;
+	}
+
+	public long getGeneradas() {
+		return generadas;
+	}
+
+	public long getRepetidas() {
+		return repetidas;
+	}
+
+	public long getRechazadas() {
+		return rechazadas;
+	}
+
+	public long getDuracionNanos() {
+		return duracionNanos;
+	}
+
+	public List<MetricaEtapa> getEtapas() {
+		return etapas;
+	}
+
+	/**
+	 * Permite obtener el rendimiento de punta a punta de la ingesta
+	 *
+	 * @return {@link Double} lneas ledas por segundo
+	 */
+	public double getLineasPorSegundo() {
+		return duracionNanos == 0 ? 0 : leidas * (double) TimeUnit.SECONDS.toNanos(1) / duracionNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder texto = new StringBuilder(String.format(
+				"leidas=%d generadas=%d repetidas=%d rechazadas=%d lineas/s=%.1f", leidas, generadas, repetidas,
+				rechazadas, getLineasPorSegundo()));
+		for (MetricaEtapa etapa : etapas) {
+			texto.append(System.lineSeparator()).append(etapa);
+		}
+		return texto.toString();
+	}
+}
@@ -0,0 +1,267 @@
+package persistencia.lectura;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import dominio.GarantiaExtendida;
+import dominio.NombreCliente;
+import dominio.repositorio.RecorridoGarantias;
+
+/**
+ * ndice inmutable en memoria de las garantas por cliente, para las bsquedas
+ * por nombre y las sugerencias mientras se escribe. Guarda las claves
+ * normalizadas de los clientes en un arreglo ordenado, paralelo a las
+ * garantas, con un {@link IndicePrefijos} que entrega el rango de cada
+ * prefijo. Cada cliente distinto guarda su clave una sola vez. Para incorporar
+ * garantas se construye un ndice nuevo con {@link #con(Collection)}, que
+ * mezcla las nuevas con el arreglo ya ordenado
+ */
+public final class IndiceClientes {
+
+	private static final Comparator<Entrada> ORDEN = Comparator.<Entrada, String>comparing(entrada -> entrada.clave)
+			.thenComparing(entrada -> entrada.garantia.getProducto().getCodigo());
+
+	private final String[] claves;
+	private final GarantiaExtendida[] garantias;
+	private final IndicePrefijos prefijos;
+
+	private IndiceClientes(String[] claves, GarantiaExtendida[] garantias) {
+		this.claves = claves;
+		this.garantias = garantias;
+		this.prefijos = new IndicePrefijos(claves);
+	}
+
+	/**
+	 * Mtodo que permite construir el ndice; si un cdigo de producto se
+	 * repite queda la ltima garanta
+	 *
+	 * @param garantias {@link Collection} garantas a indexar
+	 * @return {@link IndiceClientes} ndice de las garantas
+	 */
+	public static IndiceClientes construir(Collection<GarantiaExtendida> garantias) {
+		Map<String, String> clavesCompartidas = new HashMap<>();
+		return desdeEntradas(entradas(garantias, clave -> clavesCompartidas.computeIfAbsent(clave, c -> c)));
+	}
+
+	/**
+	 * Mtodo que permite obtener un ndice nuevo con las garantas dadas
+	 * agregadas; las garantas de un cdigo ya indexado lo reemplazan. Solo se
+	 * ordenan las nuevas, que luego se mezclan con las existentes
+	 *
+	 * @param nuevas {@link Collection} garantas a incorporar
+	 * @return {@link IndiceClientes} ndice nuevo, este no se modifica
+	 */
+	public IndiceClientes con(Collection<GarantiaExtendida> nuevas) {
+		Entrada[] agregadas = entradas(nuevas, clave -> {
+			int[] rango = prefijos.rangoExacto(clave);
+			return rango[0] < rango[1] ? claves[rango[0]] : clave;
+		});
+		Set<String> reemplazados = new HashSet<>();
+		for (Entrada entrada : agregadas) {
+			reemplazados.add(entrada.garantia.getProducto().getCodigo());
+		}
+
+		int total = garantias.length + agregadas.length;
+		String[] nuevasClaves = new String[total];
+		GarantiaExtendida[] nuevasGarantias = new GarantiaExtendida[total];
+		int tamano = 0;
+		int siguiente = 0;
+		for (int i = 0; i < garantias.length; i++) {
+			if (reemplazados.contains(garantias[i].getProducto().getCodigo())) {
+				continue;
+			}
+			while (siguiente < agregadas.length && comparar(agregadas[siguiente], claves[i], garantias[i]) < 0) {
+				nuevasClaves[tamano] = agregadas[siguiente].clave;
+				nuevasGarantias[tamano++] = agregadas[siguiente++].garantia;
+			}
+			nuevasClaves[tamano] = claves[i];
+			nuevasGarantias[tamano++] = garantias[i];
+		}
+		for (; siguiente < agregadas.length; siguiente++) {
+			nuevasClaves[tamano] = agregadas[siguiente].clave;
+			nuevasGarantias[tamano++] = agregadas[siguiente].garantia;
+		}
+		return new IndiceClientes(Arrays.copyOf(nuevasClaves, tamano), Arrays.copyOf(nuevasGarantias, tamano));
+	}
+
+	public int tamano() {
+		return garantias.length;
+	}
+
+	/**
+	 * @see dominio.repositorio.RepositorioGarantiaExtendida#buscarPorPrefijoCliente(String,
+	 *      GarantiaExtendida, int)
+	 */
+	public List<GarantiaExtendida> buscarPorPrefijoCliente(String prefijo, GarantiaExtendida despuesDe,
+			int limite) {
+		return copiar(prefijos.rango(NombreCliente.normalizar(prefijo)), despuesDe, limite);
+	}
+
+	/**
+	 * @see dominio.repositorio.RepositorioGarantiaExtendida#buscarPorNombreCliente(String,
+	 *      GarantiaExtendida, int)
+	 */
+	public List<GarantiaExtendida> buscarPorNombreCliente(String nombreCliente, GarantiaExtendida despuesDe,
+			int limite) {
+		return copiar(prefijos.rangoExacto(NombreCliente.normalizar(nombreCliente)), despuesDe, limite);
+	}
+
+	/**
+	 * Mtodo que permite sugerir clientes mientras se escribe su nombre: un
+	 * nombre por cada cliente distinto cuya clave empieza por el prefijo, en
+	 * orden de clave, tal como se registr en su primera garanta del ndice
+	 *
+	 * @param prefijo {@link String} lo escrito hasta el momento
+	 * @param limite  cantidad mxima de sugerencias
+	 * @return {@link List} nombres de los clientes
+	 */
+	public List<String> sugerirClientes(String prefijo, int limite) {
+		int[] rango = prefijos.rango(NombreCliente.normalizar(prefijo));
+		List<String> nombres = new ArrayList<>();
+		for (int i = rango[0]; i < rango[1] && nombres.size() < limite; i = prefijos.posteriorA(claves[i], i,
+				rango[1])) {
+			nombres.add(garantias[i].getNombreCliente());
+		}
+		return nombres;
+	}
+
+	/**
+	 * Mtodo que permite combinar una pgina del ndice con garantas que an
+	 * no estn en l. Las adicionales que cumplen el criterio se agregan y
+	 * reemplazan a las de la pgina con el mismo cdigo de producto
+	 *
+	 * @param pagina      {@link List} pgina obtenida del ndice
+	 * @param adicionales {@link Collection} garantas fuera del ndice
+	 * @param criterio    {@link Predicate} condicin de la bsqueda
+	 * @param limite      cantidad mxima de garantas de la pgina
+	 * @return {@link List} pgina combinada en el orden de la bsqueda
+	 */
+	static List<GarantiaExtendida> mezclar(List<GarantiaExtendida> pagina, Collection<GarantiaExtendida> adicionales,
+			Predicate<GarantiaExtendida> criterio, int limite) {
+		if (adicionales.isEmpty()) {
+			return pagina.size() > limite ? new ArrayList<>(pagina.subList(0, limite)) : pagina;
+		}
+
+		Map<String, GarantiaExtendida> ultimas = new LinkedHashMap<>();
+		for (GarantiaExtendida adicional : adicionales) {
+			ultimas.put(adicional.getProducto().getCodigo(), adicional);
+		}
+		List<GarantiaExtendida> resultado = new ArrayList<>();
+		for (GarantiaExtendida adicional : ultimas.values()) {
+			if (criterio.test(adicional)) {
+				resultado.add(adicional);
+			}
+		}
+		for (GarantiaExtendida garantia : pagina) {
+			if (!ultimas.containsKey(garantia.getProducto().getCodigo())) {
+				resultado.add(garantia);
+			}
+		}
+		resultado.sort(RecorridoGarantias.POR_CLIENTE);
+		return resultado.size() > limite ? new ArrayList<>(resultado.subList(0, limite)) : resultado;
+	}
+
+	/**
+	 * @return criterio de la bsqueda por prefijo del cliente
+	 */
+	static Predicate<GarantiaExtendida> criterioPrefijo(String prefijo, GarantiaExtendida despuesDe) {
+		String prefijoNormalizado = NombreCliente.normalizar(prefijo);
+		return garantia -> NombreCliente.normalizar(garantia.getNombreCliente()).startsWith(prefijoNormalizado)
+				&& (despuesDe == null || RecorridoGarantias.POR_CLIENTE.compare(garantia, despuesDe) > 0);
+	}
+
+	/**
+	 * @return criterio de la bsqueda por nombre del cliente
+	 */
+	static Predicate<GarantiaExtendida> criterioNombre(String nombreCliente, GarantiaExtendida despuesDe) {
+		String nombre = NombreCliente.normalizar(nombreCliente);
+		return garantia -> NombreCliente.normalizar(garantia.getNombreCliente()).equals(nombre)
+				&& (despuesDe == null || RecorridoGarantias.POR_CLIENTE.compare(garantia, despuesDe) > 0);
+	}
+
+	private List<GarantiaExtendida> copiar(int[] rango, GarantiaExtendida despuesDe, int limite) {
+		int inicio = rango[0];
+		if (despuesDe != null && despuesDe.getNombreCliente() != null) {
+			inicio = Math.max(inicio, posterior(NombreCliente.normalizar(despuesDe.getNombreCliente()),
+					despuesDe.getProducto().getCodigo(), inicio, rango[1]));
+		}
+		int fin = (int) Math.min(rango[1], (long) inicio + limite);
+		return new ArrayList<>(Arrays.asList(garantias).subList(Math.min(inicio, fin), fin));
+	}
+
+	private int posterior(String clave, String codigo, int desde, int hasta) {
+		int bajo = desde;
+		int alto = hasta;
+		while (bajo < alto) {
+			int medio = (bajo + alto) >>> 1;
+			int comparacion = claves[medio].compareTo(clave);
+			if (comparacion == 0) {
+				comparacion = garantias[medio].getProducto().getCodigo().compareTo(codigo);
+			}
+			if (comparacion <= 0) {
+				bajo = medio + 1;
+			} else {
+				alto = medio;
+			}
+		}
+		return bajo;
+	}
+
+	private static int comparar(Entrada entrada, String clave, GarantiaExtendida garantia) {
+		int comparacion = entrada.clave.compareTo(clave);
+		return comparacion != 0 ? comparacion
+				: entrada.garantia.getProducto().getCodigo().compareTo(garantia.getProducto().getCodigo());
+	}
+
+	private static Entrada[] entradas(Collection<GarantiaExtendida> garantias,
+			UnaryOperator<String> compartir) {
+		Map<String, GarantiaExtendida> porCodigo = new LinkedHashMap<>(2 * garantias.size());
+		for (GarantiaExtendida garantia : garantias) {
+			if (garantia.getNombreCliente() != null) {
+				porCodigo.put(garantia.getProducto().getCodigo(), garantia);
+			}
+		}
+		Entrada[] entradas = new Entrada[porCodigo.size()];
+		int i = 0;
+		for (GarantiaExtendida garantia : porCodigo.values()) {
+			entradas[i++] = new Entrada(compartir.apply(NombreCliente.normalizar(garantia.getNombreCliente())),
+					garantia);
+		}
+		Arrays.sort(entradas, ORDEN);
+		return entradas;
+	}
+
+	private static IndiceClientes desdeEntradas(Entrada[] entradas) {
+		String[] claves = new String[entradas.length];
+		GarantiaExtendida[] garantias = new GarantiaExtendida[entradas.length];
+		for (int i = 0; i < entradas.length; i++) {
+			claves[i] = entradas[i].clave;
+			garantias[i] = entradas[i].garantia;
+		}
+		return new IndiceClientes(claves, garantias);
+	}
+
+	/**
+	 * Garanta con la clave normalizada de su cliente, para ordenar
+	 */
+	private static final class Entrada {
+
+		private final String clave;
+		private final GarantiaExtendida garantia;
+
+		private Entrada(String clave, GarantiaExtendida garantia) {
+			this.clave = clave;
+			this.garantia = garantia;
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package persistencia.lectura;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trie de prefijos sobre un arreglo de claves ordenadas: cada nodo guarda el
+ * rango de las claves que comparten el prefijo del camino, con los hijos
+ * ordenados por la letra siguiente. El trie no baja ms all de cierta
+ * profundidad ni divide los rangos pequeos; desde ah el rango se termina con
+ * bsqueda binaria sobre el arreglo
+ */
+final class IndicePrefijos {
+
+	private static final int PROFUNDIDAD_TRIE = 8;
+	private static final int MINIMO_POR_NODO = 32;
+
+	private final String[] claves;
+	private final NodoTrie raiz;
+
+	/**
+	 * @param claves {@link String} claves ordenadas, sin null; el arreglo no se
+	 *               copia
+	 */
+	IndicePrefijos(String[] claves) {
+		this.claves = claves;
+		this.raiz = construirNodo(0, claves.length, 0);
+	}
+
+	/**
+	 * Mtodo que permite obtener el rango de las claves que empiezan por el
+	 * prefijo
+	 *
+	 * @param prefijo {@link String} prefijo buscado
+	 * @return posicin inicial y final, exclusiva, del rango; vaco si ninguna
+	 *         clave tiene el prefijo
+	 */
+	int[] rango(String prefijo) {
+		NodoTrie nodo = raiz;
+		int nivel = 0;
+		while (nivel < prefijo.length() && nodo.hijos != null) {
+			int hijo = Arrays.binarySearch(nodo.letras, prefijo.charAt(nivel));
+			if (hijo < 0) {
+				return new int[] { 0, 0 };
+			}
+			nodo = nodo.hijos[hijo];
+			nivel++;
+		}
+
+		if (nivel == prefijo.length()) {
+			return new int[] { nodo.inicio, nodo.fin };
+		}
+		int inicio = limitePrefijo(prefijo, nodo.inicio, nodo.fin, false);
+		return new int[] { inicio, limitePrefijo(prefijo, inicio, nodo.fin, true) };
+	}
+
+	/**
+	 * Mtodo que permite obtener el rango de las claves iguales a la dada
+	 *
+	 * @param clave {@link String} clave buscada
+	 * @return posicin inicial y final, exclusiva, del rango; vaco si la clave
+	 *         no est
+	 */
+	int[] rangoExacto(String clave) {
+		int[] rango = rango(clave);
+		if (rango[0] == rango[1] || !claves[rango[0]].equals(clave)) {
+			return new int[] { 0, 0 };
+		}
+		return new int[] { rango[0], posteriorA(clave, rango[0], rango[1]) };
+	}
+
+	/**
+	 * Mtodo que permite obtener la primera posicin del rango dado con una
+	 * clave mayor a la indicada
+	 *
+	 * @param clave {@link String} clave de referencia
+	 * @param desde posicin inicial del rango
+	 * @param hasta posicin final, exclusiva, del rango
+	 * @return posicin de la primera clave mayor, hasta si no hay ninguna
+	 */
+	int posteriorA(String clave, int desde, int hasta) {
+		int bajo = desde;
+		int alto = hasta;
+		while (bajo < alto) {
+			int medio = (bajo + alto) >>> 1;
+			if (claves[medio].compareTo(clave) <= 0) {
+				bajo = medio + 1;
+			} else {
+				alto = medio;
+			}
+		}
+		return bajo;
+	}
+
+	private int limitePrefijo(String prefijo, int desde, int hasta, boolean superior) {
+		int bajo = desde;
+		int alto = hasta;
+		while (bajo < alto) {
+			int medio = (bajo + alto) >>> 1;
+			int comparacion = compararPrefijo(claves[medio], prefijo);
+			if (comparacion < 0 || (superior && comparacion == 0)) {
+				bajo = medio + 1;
+			} else {
+				alto = medio;
+			}
+		}
+		return bajo;
+	}
+
+	private static int compararPrefijo(String clave, String prefijo) {
+		int comunes = Math.min(clave.length(), prefijo.length());
+		for (int i = 0; i < comunes; i++) {
+			int diferencia = clave.charAt(i) - prefijo.charAt(i);
+			if (diferencia != 0) {
+				return diferencia;
+			}
+		}
+		return clave.length() >= prefijo.length() ? 0 : -1;
+	}
+
+	private NodoTrie construirNodo(int inicio, int fin, int nivel) {
+		NodoTrie nodo = new NodoTrie(inicio, fin);
+		if (fin - inicio <= MINIMO_POR_NODO || nivel == PROFUNDIDAD_TRIE) {
+			return nodo;
+		}
+
+		int actual = inicio;
+		while (actual < fin && claves[actual].length() <= nivel) {
+			actual++;
+		}
+		StringBuilder letras = new StringBuilder();
+		List<NodoTrie> hijos = new ArrayList<>();
+		while (actual < fin) {
+			char letra = claves[actual].charAt(nivel);
+			int siguiente = actual + 1;
+			while (siguiente < fin && claves[siguiente].charAt(nivel) == letra) {
+				siguiente++;
+			}
+			letras.append(letra);
+			hijos.add(construirNodo(actual, siguiente, nivel + 1));
+			actual = siguiente;
+		}
+		nodo.letras = letras.toString().toCharArray();
+		nodo.hijos = hijos.toArray(new NodoTrie[hijos.size()]);
+		return nodo;
+	}
+
+	/**
+	 * Nodo del trie: rango de las claves que comparten el prefijo del camino.
+	 * Los nodos pequeos o en la profundidad mxima no tienen hijos
+	 */
+	private static final class NodoTrie {
+
+		private final int inicio;
+		private final int fin;
+		private char[] letras;
+		private NodoTrie[] hijos;
+
+		private NodoTrie(int inicio, int fin) {
+			this.inicio = inicio;
+			this.fin = fin;
+		}
+	}
+}
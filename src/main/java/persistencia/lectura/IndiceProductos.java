@@ -0,0 +1,214 @@
+package persistencia.lectura;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import dominio.Producto;
+import dominio.repositorio.RecorridoProductos;
+import persistencia.builder.ProductoBuilder;
+import persistencia.entitad.ProductoEntity;
+
+/**
+ * ndice inmutable del catlogo en memoria para la navegacin por precio y
+ * por prefijo del nombre. Los precios se guardan en un arreglo primitivo
+ * ordenado, paralelo a los productos, y los nombres en un arreglo ordenado
+ * con un {@link IndicePrefijos} que entrega el rango de cada prefijo. Para
+ * incorporar productos se construye un ndice nuevo con
+ * {@link #con(Collection)}, que mezcla los nuevos con los arreglos ya
+ * ordenados
+ */
+public final class IndiceProductos {
+
+	private static final String PRODUCTO_FIND_DESDE_ID = "Producto.findDesdeId";
+	private static final String DESDE = "desde";
+	private static final int LOTE_CARGA = 10000;
+
+	private final long[] precios;
+	private final Producto[] porPrecio;
+	private final Producto[] porNombre;
+	private final IndicePrefijos nombres;
+
+	private IndiceProductos(Producto[] porPrecio, Producto[] porNombre) {
+		this.porPrecio = porPrecio;
+		this.porNombre = porNombre;
+		precios = new long[porPrecio.length];
+		for (int i = 0; i < porPrecio.length; i++) {
+			precios[i] = porPrecio[i].getPrecioCentavos();
+		}
+		nombres = new IndicePrefijos(Arrays.stream(porNombre).map(Producto::getNombre).toArray(String[]::new));
+	}
+
+	/**
+	 * Mtodo que permite construir el ndice; si un cdigo se repite queda el
+	 * ltimo producto
+	 *
+	 * @param productos {@link Collection} productos del catlogo
+	 * @return {@link IndiceProductos} ndice de los productos
+	 */
+	public static IndiceProductos construir(Collection<Producto> productos) {
+		Collection<Producto> unicos = porCodigo(productos).values();
+		return new IndiceProductos(ordenarPorPrecio(unicos), ordenarPorNombre(unicos));
+	}
+
+	/**
+	 * Mtodo que permite cargar el ndice con todos los productos de la base de
+	 * datos, por lotes de identificador con un entity manager propio
+	 *
+	 * @param entityManagerFactory {@link EntityManagerFactory} de la base de
+	 *                             datos
+	 * @return {@link IndiceProductos} ndice del catlogo
+	 */
+	public static IndiceProductos cargar(EntityManagerFactory entityManagerFactory) {
+		List<Producto> productos = new ArrayList<>();
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		try {
+			long desde = 0;
+			List<ProductoEntity> lote;
+			do {
+				lote = entityManager.createNamedQuery(PRODUCTO_FIND_DESDE_ID, ProductoEntity.class)
+						.setParameter(DESDE, desde).setMaxResults(LOTE_CARGA).getResultList();
+				for (ProductoEntity productoEntity : lote) {
+					productos.add(ProductoBuilder.convertirADominio(productoEntity));
+					desde = productoEntity.getId();
+				}
+				entityManager.clear();
+			} while (lote.size() == LOTE_CARGA);
+		} finally {
+			entityManager.close();
+		}
+		return construir(productos);
+	}
+
+	/**
+	 * Mtodo que permite obtener un ndice nuevo con los productos dados
+	 * agregados; los productos con un cdigo ya indexado lo reemplazan. Solo se
+	 * ordenan los nuevos, que luego se mezclan con los arreglos existentes
+	 *
+	 * @param nuevos {@link Collection} productos a incorporar
+	 * @return {@link IndiceProductos} ndice nuevo, este no se modifica
+	 */
+	public IndiceProductos con(Collection<Producto> nuevos) {
+		Map<String, Producto> agregados = porCodigo(nuevos);
+		Set<String> reemplazados = agregados.keySet();
+		return new IndiceProductos(
+				mezclar(porPrecio, ordenarPorPrecio(agregados.values()), reemplazados, RecorridoProductos.POR_PRECIO),
+				mezclar(porNombre, ordenarPorNombre(agregados.values()), reemplazados, RecorridoProductos.POR_NOMBRE));
+	}
+
+	public int tamano() {
+		return porPrecio.length;
+	}
+
+	/**
+	 * @see dominio.repositorio.RepositorioProducto#buscarPorPrecioMayorA(long,
+	 *      Producto, int)
+	 */
+	public List<Producto> buscarPorPrecioMayorA(long precioCentavos, Producto despuesDe, int limite) {
+		int inicio = primerPrecioDesde(precioCentavos + 1);
+		if (despuesDe != null && despuesDe.getPrecioCentavos() > precioCentavos) {
+			int desde = primerPrecioDesde(despuesDe.getPrecioCentavos());
+			int hasta = primerPrecioDesde(despuesDe.getPrecioCentavos() + 1);
+			inicio = Math.max(inicio, posterior(porPrecio, despuesDe, desde, hasta, false));
+		}
+		return copiar(porPrecio, inicio, porPrecio.length, limite);
+	}
+
+	/**
+	 * @see dominio.repositorio.RepositorioProducto#buscarPorPrefijoNombre(String,
+	 *      Producto, int)
+	 */
+	public List<Producto> buscarPorPrefijoNombre(String prefijo, Producto despuesDe, int limite) {
+		int[] rango = nombres.rango(prefijo);
+		int inicio = rango[0];
+		int fin = rango[1];
+		if (despuesDe != null && despuesDe.getNombre() != null) {
+			inicio = Math.max(inicio, posterior(porNombre, despuesDe, inicio, fin, true));
+		}
+		return copiar(porNombre, inicio, fin, limite);
+	}
+
+	private int primerPrecioDesde(long precio) {
+		int bajo = 0;
+		int alto = precios.length;
+		while (bajo < alto) {
+			int medio = (bajo + alto) >>> 1;
+			if (precios[medio] < precio) {
+				bajo = medio + 1;
+			} else {
+				alto = medio;
+			}
+		}
+		return bajo;
+	}
+
+	private static int posterior(Producto[] productos, Producto despuesDe, int desde, int hasta, boolean porNombre) {
+		int bajo = desde;
+		int alto = hasta;
+		while (bajo < alto) {
+			int medio = (bajo + alto) >>> 1;
+			int comparacion = porNombre ? RecorridoProductos.POR_NOMBRE.compare(productos[medio], despuesDe)
+					: RecorridoProductos.POR_PRECIO.compare(productos[medio], despuesDe);
+			if (comparacion <= 0) {
+				bajo = medio + 1;
+			} else {
+				alto = medio;
+			}
+		}
+		return bajo;
+	}
+
+	private static List<Producto> copiar(Producto[] productos, int desde, int hasta, int limite) {
+		int fin = (int) Math.min(hasta, (long) desde + limite);
+		return new ArrayList<>(Arrays.asList(productos).subList(Math.min(desde, fin), fin));
+	}
+
+	private static Producto[] ordenarPorPrecio(Collection<Producto> productos) {
+		Producto[] porPrecio = productos.toArray(new Producto[productos.size()]);
+		Arrays.sort(porPrecio, RecorridoProductos.POR_PRECIO);
+		return porPrecio;
+	}
+
+	private static Producto[] ordenarPorNombre(Collection<Producto> productos) {
+		Producto[] porNombre = productos.stream().filter(producto -> producto.getNombre() != null)
+				.toArray(Producto[]::new);
+		Arrays.sort(porNombre, RecorridoProductos.POR_NOMBRE);
+		return porNombre;
+	}
+
+	private static Producto[] mezclar(Producto[] existentes, Producto[] agregados, Set<String> reemplazados,
+			Comparator<Producto> orden) {
+		Producto[] mezcla = new Producto[existentes.length + agregados.length];
+		int tamano = 0;
+		int siguiente = 0;
+		for (Producto existente : existentes) {
+			if (reemplazados.contains(existente.getCodigo())) {
+				continue;
+			}
+			while (siguiente < agregados.length && orden.compare(agregados[siguiente], existente) < 0) {
+				mezcla[tamano++] = agregados[siguiente++];
+			}
+			mezcla[tamano++] = existente;
+		}
+		for (; siguiente < agregados.length; siguiente++) {
+			mezcla[tamano++] = agregados[siguiente];
+		}
+		return Arrays.copyOf(mezcla, tamano);
+	}
+
+	private static Map<String, Producto> porCodigo(Collection<Producto> productos) {
+		Map<String, Producto> porCodigo = new LinkedHashMap<>(2 * productos.size());
+		for (Producto producto : productos) {
+			porCodigo.put(producto.getCodigo(), producto);
+		}
+		return porCodigo;
+	}
+}
@@ -0,0 +1,199 @@
+package persistencia.lectura;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import dominio.CatalogoProductos;
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+
+/**
+ * Formato binario de la instantnea del modelo de lectura de garantas.
+ * 
+ * <pre>
+ * encabezado: magia "GTSN" (int), versin (short), marca de cambios (long),
+ *             fecha de creacin en milisegundos (long), garantas (int)
+ * garanta:   cdigo, nombre del producto (texto), precio del producto (long),
+ *             fecha de solicitud y fecha fin en das desde la poca (int),
+ *             precio de la garanta (long), nombre del cliente (texto),
+ *             clave de idempotencia (texto, longitud -1 si es nula)
+ * cierre:     CRC32 de todo lo anterior (long)
+ * </pre>
+ * 
+ * Los textos se guardan como longitud (short) y bytes UTF-8. Los precios en
+ * centavos. La marca de cambios es el instante, en milisegundos desde la
+ * poca, en que se empez a recorrer el modelo; al arrancar se repiten las
+ * garantas modificadas desde ella
+ */
+public class InstantaneaGarantias {
+
+	public static final int MAGIA = 0x4754534E;
+	public static final short VERSION = 2;
+
+	private static final int TAMANO_BUFFER = 1 << 16;
+	private static final int TAMANO_ENCABEZADO = 4 + 2 + 8 + 8 + 4;
+	private static final int TAMANO_CIERRE = 8;
+	private static final short TEXTO_NULO = -1;
+
+	private InstantaneaGarantias() {}
+
+	/**
+	 * Permite escribir la instantnea en un archivo temporal que luego reemplaza
+	 * al destino, de modo que un lector nunca ve un archivo a medio escribir
+	 * 
+	 * @param garantias    garantas a guardar
+	 * @param marcaCambios instante desde el cual se deben repetir los cambios
+	 * @param destino      {@link Path} archivo de la instantnea
+	 */
+	public static void escribir(Collection<GarantiaExtendida> garantias, long marcaCambios, Path destino)
+			throws IOException {
+		Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+		CRC32 crc = new CRC32();
+		try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+			buffer.putInt(MAGIA).putShort(VERSION).putLong(marcaCambios).putLong(System.currentTimeMillis())
+					.putInt(garantias.size());
+
+			for (GarantiaExtendida garantia : garantias) {
+				byte[] codigo = bytes(garantia.getProducto().getCodigo());
+				byte[] nombre = bytes(garantia.getProducto().getNombre());
+				byte[] cliente = bytes(garantia.getNombreCliente());
+				byte[] clave = bytes(garantia.getClaveIdempotencia());
+				int tamano = 8 + 4 + 4 + 8 + 4 * 2 + codigo.length + nombre.length + cliente.length
+						+ (clave != null ? clave.length : 0);
+				if (buffer.remaining() < tamano) {
+					vaciar(canal, buffer, crc);
+				}
+				if (buffer.remaining() < tamano) {
+					throw new IOException("La garanta de " + garantia.getProducto().getCodigo()
+							+ " no cabe en el buffer de escritura");
+				}
+				ponerTexto(buffer, codigo);
+				ponerTexto(buffer, nombre);
+				buffer.putLong(garantia.getProducto().getPrecioCentavos());
+				buffer.putInt((int) garantia.getFechaSolicitudGarantia().toEpochDay());
+				buffer.putInt((int) garantia.getFechaFinGarantia().toEpochDay());
+				buffer.putLong(garantia.getPrecioGarantiaCentavos());
+				ponerTexto(buffer, cliente);
+				ponerTexto(buffer, clave);
+			}
+			vaciar(canal, buffer, crc);
+
+			buffer.putLong(crc.getValue());
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				canal.write(buffer);
+			}
+			canal.force(true);
+		}
+		Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Permite leer la instantnea mapeando el archivo en memoria. La versin y
+	 * el CRC se validan antes de entregar la primera garanta, por lo que una
+	 * instantnea daada no entrega ninguna
+	 * 
+	 * @param origen   {@link Path} archivo de la instantnea
+	 * @param receptor recibe cada garanta leda
+	 * @return marca de cambios registrada en la instantnea
+	 * @throws IOException si el archivo no existe, es de otra versin o est
+	 *                     daado
+	 */
+	public static long leer(Path origen, Consumer<GarantiaExtendida> receptor) throws IOException {
+		try (FileChannel canal = FileChannel.open(origen, StandardOpenOption.READ)) {
+			if (canal.size() < TAMANO_ENCABEZADO + TAMANO_CIERRE || canal.size() > Integer.MAX_VALUE) {
+				throw new IOException("Tamao de instantnea invlido: " + canal.size());
+			}
+			MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+
+			int finDatos = (int) canal.size() - TAMANO_CIERRE;
+			ByteBuffer datos = mapa.duplicate();
+			datos.limit(finDatos);
+			CRC32 crc = new CRC32();
+			crc.update(datos);
+			if (crc.getValue() != mapa.getLong(finDatos)) {
+				throw new IOException("El CRC de la instantnea no coincide");
+			}
+
+			ByteBuffer lector = mapa.duplicate();
+			lector.limit(finDatos);
+			if (lector.getInt() != MAGIA) {
+				throw new IOException("El archivo no es una instantnea de garantas");
+			}
+			short version = lector.getShort();
+			if (version != VERSION) {
+				throw new IOException("Versin de instantnea no soportada: " + version);
+			}
+			long marcaCambios = lector.getLong();
+			lector.getLong();
+			int cantidad = lector.getInt();
+
+			try {
+				for (int i = 0; i < cantidad; i++) {
+					String codigo = leerTexto(lector);
+					String nombre = leerTexto(lector);
+					Producto producto = CatalogoProductos.obtener(codigo, nombre, lector.getLong());
+					LocalDate fechaSolicitud = LocalDate.ofEpochDay(lector.getInt());
+					LocalDate fechaFin = LocalDate.ofEpochDay(lector.getInt());
+					long precioGarantia = lector.getLong();
+					String cliente = leerTexto(lector);
+					String clave = leerTexto(lector);
+					receptor.accept(GarantiaExtendida.conPrecioEnCentavos(producto, fechaSolicitud, fechaFin,
+							precioGarantia, cliente, clave));
+				}
+			} catch (BufferUnderflowException e) {
+				throw new IOException("La instantnea termina antes de la ltima garanta", e);
+			}
+			return marcaCambios;
+		}
+	}
+
+	private static void vaciar(FileChannel canal, ByteBuffer buffer, CRC32 crc) throws IOException {
+		buffer.flip();
+		crc.update(buffer.duplicate());
+		while (buffer.hasRemaining()) {
+			canal.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private static byte[] bytes(String texto) {
+		return texto != null ? texto.getBytes(StandardCharsets.UTF_8) : null;
+	}
+
+	private static void ponerTexto(ByteBuffer buffer, byte[] texto) throws IOException {
+		if (texto == null) {
+			buffer.putShort(TEXTO_NULO);
+			return;
+		}
+		if (texto.length > Short.MAX_VALUE) {
+			throw new IOException("Texto demasiado largo para la instantnea: " + texto.length + " bytes");
+		}
+		buffer.putShort((short) texto.length);
+		buffer.put(texto);
+	}
+
+	private static String leerTexto(ByteBuffer buffer) {
+		short longitud = buffer.getShort();
+		if (longitud == TEXTO_NULO) {
+			return null;
+		}
+		byte[] texto = new byte[longitud];
+		buffer.get(texto);
+		return new String(texto, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,425 @@
+package persistencia.lectura;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import dominio.GarantiaExtendida;
+import dominio.NombreCliente;
+import persistencia.builder.GarantiaExtendidaBuilder;
+import persistencia.entitad.GarantiaBaseEntity;
+import persistencia.entitad.GarantiaExtendidaEntity;
+
+/**
+ * Modelo de lectura de las garantas extendidas, materializado en memoria por
+ * cdigo de producto, por clave de idempotencia y, en un {@link IndiceClientes},
+ * por nombre del cliente. Se carga en paralelo desde la base de datos, primero
+ * las garantas vigentes y despus las archivadas, y luego se actualiza con
+ * cada garanta confirmada. Una garanta que se archiva durante la carga ya fue
+ * leda entre las vigentes o se lee en el archivo.
+ * 
+ * La marca de agua cuenta las garantas aplicadas despus de la carga; un
+ * llamador que conoce la marca de su escritura puede esperar a que el modelo la
+ * alcance antes de leer
+ */
+public class ModeloLecturaGarantias {
+
+	private static final String RANGO_IDS = "GarantiaExtendida.rangoIds";
+	private static final String FIND_BY_RANGO_IDS = "GarantiaExtendida.findByRangoIds";
+	private static final String DESDE = "desde";
+	private static final String HASTA = "hasta";
+	private static final String FIND_MODIFICADAS_DESDE = "GarantiaExtendida.findModificadasDesde";
+	private static final String RANGO_IDS_ARCHIVADAS = "GarantiaArchivada.rangoIds";
+	private static final String FIND_BY_RANGO_IDS_ARCHIVADAS = "GarantiaArchivada.findByRangoIds";
+	private static final String FIND_MODIFICADAS_DESDE_ARCHIVADAS = "GarantiaArchivada.findModificadasDesde";
+	private static final String FIND_BY_CODIGOS = "GarantiaExtendida.findByCodigos";
+	private static final String CODIGOS = "codigos";
+
+	/**
+	 * Tiempo mximo entre que una transaccin escribe una garanta y la
+	 * confirma. Una garanta escrita antes de la marca de cambios de la
+	 * instantnea puede confirmarse despus de recorrer el modelo, as que al
+	 * arrancar se repiten tambin las modificadas en este margen anterior a la
+	 * marca
+	 */
+	public static final long MARGEN_CONFIRMACION_MS = TimeUnit.MINUTES.toMillis(1);
+
+	private static final int MAXIMO_RECIENTES = 1024;
+
+	private final Map<String, GarantiaExtendida> porCodigo = new ConcurrentHashMap<>();
+	private final Map<String, GarantiaExtendida> porClave = new ConcurrentHashMap<>();
+	private final List<GarantiaExtendida> recientes = new ArrayList<>();
+	private final int particiones;
+
+	private volatile IndiceClientes indiceClientes = IndiceClientes.construir(Collections.emptyList());
+	private volatile boolean indexando;
+	private volatile boolean cargado;
+	private long marcaAgua;
+
+	public ModeloLecturaGarantias() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param particiones nmero de rangos de ids que se cargan en paralelo
+	 */
+	public ModeloLecturaGarantias(int particiones) {
+		this.particiones = Math.max(1, particiones);
+	}
+
+	/**
+	 * Permite cargar el modelo desde la base de datos, dividiendo la tabla de
+	 * garantas en rangos de ids que se consultan en paralelo, cada uno con su
+	 * propio entity manager. Las garantas aplicadas durante la carga no son
+	 * reemplazadas por la copia leda. Si la carga falla se puede volver a
+	 * iniciar; las garantas ya ledas se conservan
+	 * 
+	 * @param factory {@link EntityManagerFactory} fbrica de la conexin
+	 * @return {@link CompletableFuture} que termina cuando el modelo est cargado
+	 */
+	public CompletableFuture<Void> cargar(EntityManagerFactory factory) {
+		AtomicInteger numeroHilo = new AtomicInteger();
+		ExecutorService ejecutor = Executors.newFixedThreadPool(particiones, runnable -> {
+			Thread hilo = new Thread(runnable, "carga-modelo-lectura-" + numeroHilo.incrementAndGet());
+			hilo.setDaemon(true);
+			return hilo;
+		});
+
+		return CompletableFuture.supplyAsync(() -> consultarRangoIds(factory, RANGO_IDS), ejecutor)
+				.thenCompose(rango -> cargarRangos(factory, rango, FIND_BY_RANGO_IDS, ejecutor))
+				.thenApplyAsync(vigentes -> consultarRangoIds(factory, RANGO_IDS_ARCHIVADAS), ejecutor)
+				.thenCompose(rango -> cargarRangos(factory, rango, FIND_BY_RANGO_IDS_ARCHIVADAS, ejecutor))
+				.whenComplete((resultado, error) -> {
+					ejecutor.shutdown();
+					if (error == null) {
+						marcarCargado();
+					}
+				});
+	}
+
+	/**
+	 * Permite cargar el modelo desde una instantnea mapeada en memoria y luego
+	 * repetir desde la base de datos solo las garantas modificadas desde la
+	 * marca de cambios de la instantnea, que reemplazan a las ledas de ella.
+	 * Si la instantnea no existe o est daada se hace la carga completa con
+	 * {@link #cargar(EntityManagerFactory)}
+	 * 
+	 * @param factory     {@link EntityManagerFactory} fbrica de la conexin
+	 * @param instantanea {@link Path} archivo de la instantnea
+	 * @return {@link CompletableFuture} que termina cuando el modelo est cargado
+	 */
+	public CompletableFuture<Void> cargarDesdeInstantanea(EntityManagerFactory factory, Path instantanea) {
+		CompletableFuture<Void> carga = new CompletableFuture<>();
+		Thread hilo = new Thread(() -> {
+			try {
+				long marcaCambios;
+				try {
+					marcaCambios = InstantaneaGarantias.leer(instantanea, this::cargarGarantia);
+				} catch (IOException e) {
+					cargar(factory).whenComplete((resultado, error) -> completar(carga, error));
+					return;
+				}
+				repetirCambios(factory, marcaCambios);
+				marcarCargado();
+				carga.complete(null);
+			} catch (RuntimeException e) {
+				carga.completeExceptionally(e);
+			}
+		}, "carga-instantanea");
+		hilo.setDaemon(true);
+		hilo.start();
+		return carga;
+	}
+
+	/**
+	 * Permite guardar el estado actual del modelo en una instantnea. La marca
+	 * de cambios se toma antes de recorrer el modelo, de modo que todo cambio
+	 * confirmado despus de ella se repite al arrancar
+	 * 
+	 * @param instantanea {@link Path} archivo de la instantnea
+	 */
+	public void guardarInstantanea(Path instantanea) throws IOException {
+		if (!cargado) {
+			throw new IllegalStateException("El modelo de lectura an no est cargado");
+		}
+		long marcaCambios = System.currentTimeMillis();
+		InstantaneaGarantias.escribir(new ArrayList<>(porCodigo.values()), marcaCambios, instantanea);
+	}
+
+	/**
+	 * Permite aplicar una garanta confirmada en la base de datos
+	 * 
+	 * @param garantia {@link GarantiaExtendida} garanta confirmada
+	 * @return marca de agua que incluye esta garanta
+	 */
+	public long aplicar(GarantiaExtendida garantia) {
+		porCodigo.put(garantia.getProducto().getCodigo(), garantia);
+		if (garantia.getClaveIdempotencia() != null) {
+			porClave.put(garantia.getClaveIdempotencia(), garantia);
+		}
+		if (indexando) {
+			incorporar(garantia);
+		}
+		synchronized (this) {
+			marcaAgua++;
+			notifyAll();
+			return marcaAgua;
+		}
+	}
+
+	/**
+	 * Permite volver a leer de la base de datos las garantas de los productos
+	 * dados, despus de un cambio que no pas por {@link #aplicar}, como un
+	 * reajuste de precios. Las garantas reledas reemplazan a las del modelo
+	 * sin mover la marca de agua
+	 * 
+	 * @param factory {@link EntityManagerFactory} fbrica de la conexin
+	 * @param codigos {@link Collection} cdigos de los productos
+	 */
+	public void refrescar(EntityManagerFactory factory, Collection<String> codigos) {
+		if (codigos.isEmpty()) {
+			return;
+		}
+		EntityManager entityManager = factory.createEntityManager();
+		try {
+			List<GarantiaExtendidaEntity> garantias = entityManager
+					.createNamedQuery(FIND_BY_CODIGOS, GarantiaExtendidaEntity.class).setParameter(CODIGOS, codigos)
+					.getResultList();
+			for (GarantiaExtendidaEntity garantiaEntity : garantias) {
+				reemplazarGarantia(GarantiaExtendidaBuilder.convertirADominio(garantiaEntity));
+			}
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	public GarantiaExtendida obtener(String codigo) {
+		return codigo != null ? porCodigo.get(codigo) : null;
+	}
+
+	public GarantiaExtendida obtenerPorClaveIdempotencia(String claveIdempotencia) {
+		return claveIdempotencia != null ? porClave.get(claveIdempotencia) : null;
+	}
+
+	public Set<String> obtenerCodigosConGarantia(Collection<String> codigos) {
+		Set<String> conGarantia = new HashSet<>();
+		for (String codigo : codigos) {
+			if (obtener(codigo) != null) {
+				conGarantia.add(codigo);
+			}
+		}
+		return conGarantia;
+	}
+
+	/**
+	 * @see dominio.repositorio.RepositorioGarantiaExtendida#buscarPorPrefijoCliente(String,
+	 *      GarantiaExtendida, int)
+	 */
+	public List<GarantiaExtendida> buscarPorPrefijoCliente(String prefijo, GarantiaExtendida despuesDe,
+			int limite) {
+		List<GarantiaExtendida> pendientes = obtenerRecientes();
+		return IndiceClientes.mezclar(
+				indiceClientes.buscarPorPrefijoCliente(prefijo, despuesDe, limite + pendientes.size()), pendientes,
+				IndiceClientes.criterioPrefijo(prefijo, despuesDe), limite);
+	}
+
+	/**
+	 * @see dominio.repositorio.RepositorioGarantiaExtendida#buscarPorNombreCliente(String,
+	 *      GarantiaExtendida, int)
+	 */
+	public List<GarantiaExtendida> buscarPorNombreCliente(String nombreCliente, GarantiaExtendida despuesDe,
+			int limite) {
+		List<GarantiaExtendida> pendientes = obtenerRecientes();
+		return IndiceClientes.mezclar(
+				indiceClientes.buscarPorNombreCliente(nombreCliente, despuesDe, limite + pendientes.size()),
+				pendientes, IndiceClientes.criterioNombre(nombreCliente, despuesDe), limite);
+	}
+
+	/**
+	 * @see IndiceClientes#sugerirClientes(String, int)
+	 */
+	public List<String> sugerirClientes(String prefijo, int limite) {
+		Map<String, String> porClave = new TreeMap<>();
+		for (String nombre : indiceClientes.sugerirClientes(prefijo, limite)) {
+			porClave.put(NombreCliente.normalizar(nombre), nombre);
+		}
+		String prefijoNormalizado = NombreCliente.normalizar(prefijo);
+		for (GarantiaExtendida reciente : obtenerRecientes()) {
+			String clave = NombreCliente.normalizar(reciente.getNombreCliente());
+			if (clave.startsWith(prefijoNormalizado)) {
+				porClave.putIfAbsent(clave, reciente.getNombreCliente());
+			}
+		}
+		List<String> nombres = new ArrayList<>(porClave.values());
+		return nombres.size() > limite ? new ArrayList<>(nombres.subList(0, limite)) : nombres;
+	}
+
+	public boolean estaCargado() {
+		return cargado;
+	}
+
+	public synchronized long getMarcaAgua() {
+		return marcaAgua;
+	}
+
+	/**
+	 * Permite esperar a que el modelo est cargado y haya aplicado al menos la
+	 * marca de agua dada
+	 * 
+	 * @param marca          marca de agua requerida, 0 para esperar solo la carga
+	 * @param tiempoMaximoMs tiempo mximo de espera en milisegundos
+	 * @return true si el modelo alcanz la marca dentro del tiempo
+	 */
+	public synchronized boolean esperarMarcaAgua(long marca, long tiempoMaximoMs) {
+		long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(tiempoMaximoMs);
+		try {
+			while (!cargado || marcaAgua < marca) {
+				long restante = TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime());
+				if (restante <= 0) {
+					return false;
+				}
+				wait(restante);
+			}
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private static void completar(CompletableFuture<Void> carga, Throwable error) {
+		if (error == null) {
+			carga.complete(null);
+		} else {
+			carga.completeExceptionally(error);
+		}
+	}
+
+	private synchronized void marcarCargado() {
+		indexarClientes();
+		cargado = true;
+		notifyAll();
+	}
+
+	/**
+	 * Las garantas aplicadas desde que se activa el ndice van a la lista de
+	 * recientes, que no se incorpora al ndice hasta que termina la carga; una
+	 * garanta aplicada mientras se construye puede quedar en ambos y las
+	 * bsquedas la cuentan una vez
+	 */
+	private void indexarClientes() {
+		indexando = true;
+		indiceClientes = IndiceClientes.construir(porCodigo.values());
+	}
+
+	private void incorporar(GarantiaExtendida garantia) {
+		synchronized (recientes) {
+			recientes.add(garantia);
+			if (cargado && recientes.size() >= MAXIMO_RECIENTES) {
+				indiceClientes = indiceClientes.con(recientes);
+				recientes.clear();
+			}
+		}
+	}
+
+	private List<GarantiaExtendida> obtenerRecientes() {
+		synchronized (recientes) {
+			return new ArrayList<>(recientes);
+		}
+	}
+
+	private static Object[] consultarRangoIds(EntityManagerFactory factory, String consulta) {
+		EntityManager entityManager = factory.createEntityManager();
+		try {
+			return (Object[]) entityManager.createNamedQuery(consulta).getSingleResult();
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	private CompletableFuture<Void> cargarRangos(EntityManagerFactory factory, Object[] rango, String consulta,
+			ExecutorService ejecutor) {
+		if (rango[0] == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		long minimo = ((Number) rango[0]).longValue();
+		long maximo = ((Number) rango[1]).longValue();
+		long tamano = (maximo - minimo) / particiones + 1;
+
+		List<CompletableFuture<Void>> cargas = new ArrayList<>();
+		for (long desde = minimo; desde <= maximo; desde += tamano) {
+			long hasta = Math.min(desde + tamano - 1, maximo);
+			long inicio = desde;
+			cargas.add(CompletableFuture.runAsync(() -> cargarRango(factory, consulta, inicio, hasta), ejecutor));
+		}
+		return CompletableFuture.allOf(cargas.toArray(new CompletableFuture<?>[cargas.size()]));
+	}
+
+	private void cargarRango(EntityManagerFactory factory, String consulta, long desde, long hasta) {
+		EntityManager entityManager = factory.createEntityManager();
+		try {
+			List<GarantiaBaseEntity> garantias = entityManager.createNamedQuery(consulta, GarantiaBaseEntity.class)
+					.setParameter(DESDE, desde).setParameter(HASTA, hasta).getResultList();
+			for (GarantiaBaseEntity garantiaEntity : garantias) {
+				cargarGarantia(GarantiaExtendidaBuilder.convertirADominio(garantiaEntity));
+			}
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	/**
+	 * Las garantas modificadas despus de la instantnea pueden haberse
+	 * archivado desde entonces, as que se repiten de ambas tablas, primero de
+	 * las vigentes. Reemplazan a las de la instantnea, que pueden tener un
+	 * precio anterior a un reajuste
+	 */
+	private void repetirCambios(EntityManagerFactory factory, long marcaCambios) {
+		EntityManager entityManager = factory.createEntityManager();
+		try {
+			for (String consulta : new String[] { FIND_MODIFICADAS_DESDE, FIND_MODIFICADAS_DESDE_ARCHIVADAS }) {
+				List<GarantiaBaseEntity> garantias = entityManager
+						.createNamedQuery(consulta, GarantiaBaseEntity.class)
+						.setParameter(DESDE, marcaCambios - MARGEN_CONFIRMACION_MS).getResultList();
+				for (GarantiaBaseEntity garantiaEntity : garantias) {
+					reemplazarGarantia(GarantiaExtendidaBuilder.convertirADominio(garantiaEntity));
+				}
+			}
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	private void reemplazarGarantia(GarantiaExtendida garantia) {
+		porCodigo.put(garantia.getProducto().getCodigo(), garantia);
+		if (garantia.getClaveIdempotencia() != null) {
+			porClave.put(garantia.getClaveIdempotencia(), garantia);
+		}
+		if (indexando) {
+			incorporar(garantia);
+		}
+	}
+
+	private void cargarGarantia(GarantiaExtendida garantia) {
+		porCodigo.putIfAbsent(garantia.getProducto().getCodigo(), garantia);
+		if (garantia.getClaveIdempotencia() != null) {
+			porClave.putIfAbsent(garantia.getClaveIdempotencia(), garantia);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package persistencia.lectura;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManager;
+
+import dominio.GarantiaExtendida;
+import dominio.NombreCliente;
+import dominio.Producto;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import persistencia.conexion.AlConfirmar;
+
+/**
+ * Repositorio de garantas que separa lecturas y escrituras. Las escrituras
+ * van a la base de datos y se aplican al {@link ModeloLecturaGarantias} cuando
+ * la transaccin se confirma; las lecturas se atienden desde el modelo, sin
+ * consultar la base de datos.
+ * 
+ * Las garantas agregadas en la transaccin en curso se leen de este mismo
+ * repositorio, de modo que quien escribe siempre lee su escritura. Mientras el
+ * modelo no termina de cargarse las lecturas se delegan a la base de datos
+ */
+public class RepositorioGarantiaLectura implements RepositorioGarantiaExtendida {
+
+	private final RepositorioGarantiaExtendida repositorioEscritura;
+	private final EntityManager entityManager;
+	private final ModeloLecturaGarantias modelo;
+	private final Map<String, GarantiaExtendida> pendientes = new ConcurrentHashMap<>();
+
+	private volatile long ultimaEscritura;
+
+	public RepositorioGarantiaLectura(RepositorioGarantiaExtendida repositorioEscritura, EntityManager entityManager,
+			ModeloLecturaGarantias modelo) {
+		this.repositorioEscritura = repositorioEscritura;
+		this.entityManager = entityManager;
+		this.modelo = modelo;
+	}
+
+	@Override
+	public void agregar(GarantiaExtendida garantia) {
+		repositorioEscritura.agregar(garantia);
+
+		String codigo = garantia.getProducto().getCodigo();
+		pendientes.put(codigo, garantia);
+		AlConfirmar.registrar(entityManager, () -> ultimaEscritura = modelo.aplicar(garantia),
+				() -> pendientes.remove(codigo, garantia));
+	}
+
+	@Override
+	public Producto obtenerProductoConGarantiaPorCodigo(String codigo) {
+		GarantiaExtendida garantia = obtener(codigo);
+		return garantia != null ? garantia.getProducto() : null;
+	}
+
+	@Override
+	public GarantiaExtendida obtener(String codigo) {
+		GarantiaExtendida pendiente = codigo != null ? pendientes.get(codigo) : null;
+		if (pendiente != null) {
+			return pendiente;
+		}
+		return modelo.estaCargado() ? modelo.obtener(codigo) : repositorioEscritura.obtener(codigo);
+	}
+
+	@Override
+	public GarantiaExtendida obtenerPorClaveIdempotencia(String claveIdempotencia) {
+		for (GarantiaExtendida pendiente : pendientes.values()) {
+			if (pendiente.getClaveIdempotencia() != null
+					&& pendiente.getClaveIdempotencia().equals(claveIdempotencia)) {
+				return pendiente;
+			}
+		}
+		return modelo.estaCargado() ? modelo.obtenerPorClaveIdempotencia(claveIdempotencia)
+				: repositorioEscritura.obtenerPorClaveIdempotencia(claveIdempotencia);
+	}
+
+	@Override
+	public Set<String> obtenerCodigosConGarantia(Collection<String> codigos) {
+		Set<String> conGarantia = modelo.estaCargado() ? modelo.obtenerCodigosConGarantia(codigos)
+				: repositorioEscritura.obtenerCodigosConGarantia(codigos);
+		for (String codigo : codigos) {
+			if (codigo != null && pendientes.containsKey(codigo)) {
+				conGarantia.add(codigo);
+			}
+		}
+		return conGarantia;
+	}
+
+	@Override
+	public List<GarantiaExtendida> buscarPorPrefijoCliente(String prefijo, GarantiaExtendida despuesDe, int limite) {
+		if (!modelo.estaCargado()) {
+			return repositorioEscritura.buscarPorPrefijoCliente(prefijo, despuesDe, limite);
+		}
+		return IndiceClientes.mezclar(modelo.buscarPorPrefijoCliente(prefijo, despuesDe, limite + pendientes.size()),
+				pendientes.values(), IndiceClientes.criterioPrefijo(prefijo, despuesDe), limite);
+	}
+
+	@Override
+	public List<GarantiaExtendida> buscarPorNombreCliente(String nombreCliente, GarantiaExtendida despuesDe,
+			int limite) {
+		if (!modelo.estaCargado()) {
+			return repositorioEscritura.buscarPorNombreCliente(nombreCliente, despuesDe, limite);
+		}
+		return IndiceClientes.mezclar(
+				modelo.buscarPorNombreCliente(nombreCliente, despuesDe, limite + pendientes.size()),
+				pendientes.values(), IndiceClientes.criterioNombre(nombreCliente, despuesDe), limite);
+	}
+
+	/**
+	 * Permite sugerir clientes mientras se escribe su nombre, un nombre por cada
+	 * cliente distinto. Mientras el modelo no termina de cargarse las
+	 * sugerencias salen de la primera pgina de la bsqueda en la base de datos
+	 * 
+	 * @param prefijo lo escrito hasta el momento
+	 * @param limite  cantidad mxima de sugerencias
+	 * @return nombres de los clientes en orden de nombre normalizado
+	 */
+	public List<String> sugerirClientes(String prefijo, int limite) {
+		if (modelo.estaCargado()) {
+			return modelo.sugerirClientes(prefijo, limite);
+		}
+		Map<String, String> porClave = new LinkedHashMap<>();
+		for (GarantiaExtendida garantia : repositorioEscritura.buscarPorPrefijoCliente(prefijo, null, limite)) {
+			porClave.putIfAbsent(NombreCliente.normalizar(garantia.getNombreCliente()), garantia.getNombreCliente());
+		}
+		return new ArrayList<>(porClave.values());
+	}
+
+	/**
+	 * @return marca de agua del modelo que incluye la ltima garanta confirmada
+	 *         por este repositorio, 0 si an no ha confirmado ninguna
+	 */
+	public long getUltimaEscritura() {
+		return ultimaEscritura;
+	}
+
+	/**
+	 * Permite exigir lectura de las propias escrituras a un lector que recibe la
+	 * marca de agua de otra sesin, esperando a que el modelo la alcance
+	 * 
+	 * @param marca          marca de agua de la escritura que se debe leer
+	 * @param tiempoMaximoMs tiempo mximo de espera en milisegundos
+	 * @return true si el modelo alcanz la marca dentro del tiempo
+	 */
+	public boolean esperarMarcaAgua(long marca, long tiempoMaximoMs) {
+		return modelo.esperarMarcaAgua(marca, tiempoMaximoMs);
+	}
+
+	public long getMarcaAgua() {
+		return modelo.getMarcaAgua();
+	}
+}
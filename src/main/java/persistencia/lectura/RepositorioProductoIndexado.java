@@ -0,0 +1,180 @@
+package persistencia.lectura;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import javax.persistence.EntityManager;
+
+import dominio.Producto;
+import dominio.repositorio.RecorridoProductos;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.builder.ProductoBuilder;
+import persistencia.conexion.AlConfirmar;
+import persistencia.entitad.ProductoEntity;
+
+/**
+ * Repositorio de productos que atiende las bsquedas de navegacin desde un
+ * {@link IndiceProductos} en memoria. Las escrituras y la consulta por cdigo
+ * van al repositorio persistente; los productos agregados se incorporan a las
+ * bsquedas cuando la transaccin se confirma, primero en una lista de
+ * recientes y, al juntar suficientes, en un ndice nuevo que se construye en
+ * segundo plano, para no demorar la confirmacin que completa el lote. Los
+ * recientes siguen en la lista hasta que el ndice nuevo se publica
+ */
+public class RepositorioProductoIndexado implements RepositorioProducto {
+
+	private static final int MAXIMO_RECIENTES = 1024;
+	private static final String FIND_BY_CODIGOS = "Producto.findByCodigos";
+	private static final String CODIGOS = "codigos";
+
+	private final RepositorioProducto repositorioEscritura;
+	private final EntityManager entityManager;
+	private final List<Producto> recientes = new ArrayList<>();
+
+	private volatile IndiceProductos indice;
+	private boolean reconstruyendo;
+
+	public RepositorioProductoIndexado(RepositorioProducto repositorioEscritura, EntityManager entityManager,
+			IndiceProductos indice) {
+		this.repositorioEscritura = repositorioEscritura;
+		this.entityManager = entityManager;
+		this.indice = indice;
+	}
+
+	@Override
+	public Producto obtenerPorCodigo(String codigo) {
+		return repositorioEscritura.obtenerPorCodigo(codigo);
+	}
+
+	@Override
+	public void agregar(Producto producto) {
+		repositorioEscritura.agregar(producto);
+		AlConfirmar.registrar(entityManager, () -> incorporar(producto));
+	}
+
+	@Override
+	public List<Producto> buscarPorPrecioMayorA(long precioCentavos, Producto despuesDe, int limite) {
+		List<Producto> pendientes = obtenerRecientes();
+		List<Producto> pagina = indice.buscarPorPrecioMayorA(precioCentavos, despuesDe, limite + pendientes.size());
+		return mezclar(pagina, pendientes,
+				producto -> producto.getPrecioCentavos() > precioCentavos
+						&& (despuesDe == null || RecorridoProductos.POR_PRECIO.compare(producto, despuesDe) > 0),
+				RecorridoProductos.POR_PRECIO, limite);
+	}
+
+	@Override
+	public List<Producto> buscarPorPrefijoNombre(String prefijo, Producto despuesDe, int limite) {
+		List<Producto> pendientes = obtenerRecientes();
+		List<Producto> pagina = indice.buscarPorPrefijoNombre(prefijo, despuesDe, limite + pendientes.size());
+		return mezclar(pagina, pendientes,
+				producto -> producto.getNombre() != null && producto.getNombre().startsWith(prefijo)
+						&& (despuesDe == null || RecorridoProductos.POR_NOMBRE.compare(producto, despuesDe) > 0),
+				RecorridoProductos.POR_NOMBRE, limite);
+	}
+
+	/**
+	 * Permite volver a leer de la base de datos los productos dados, despus de
+	 * un cambio que no pas por este repositorio, como un reajuste de precios. La
+	 * lectura usa un entity manager propio para no depender del contexto de
+	 * persistencia compartido
+	 *
+	 * @param codigos {@link Collection} cdigos de los productos
+	 */
+	public void refrescar(Collection<String> codigos) {
+		if (codigos.isEmpty()) {
+			return;
+		}
+		EntityManager lectura = entityManager.getEntityManagerFactory().createEntityManager();
+		try {
+			for (ProductoEntity productoEntity : lectura.createNamedQuery(FIND_BY_CODIGOS, ProductoEntity.class)
+					.setParameter(CODIGOS, codigos).getResultList()) {
+				incorporar(ProductoBuilder.convertirADominio(productoEntity));
+			}
+		} finally {
+			lectura.close();
+		}
+	}
+
+	/**
+	 * @return productos confirmados que las bsquedas incluyen
+	 */
+	public int getTamanoIndice() {
+		synchronized (recientes) {
+			return indice.tamano() + recientes.size();
+		}
+	}
+
+	private void incorporar(Producto producto) {
+		List<Producto> lote = null;
+		synchronized (recientes) {
+			recientes.add(producto);
+			if (recientes.size() >= MAXIMO_RECIENTES && !reconstruyendo) {
+				reconstruyendo = true;
+				lote = new ArrayList<>(recientes);
+			}
+		}
+		if (lote != null) {
+			reconstruir(indice, lote);
+		}
+	}
+
+	private void reconstruir(IndiceProductos actual, List<Producto> lote) {
+		Thread hilo = new Thread(() -> {
+			IndiceProductos nuevo = null;
+			try {
+				nuevo = actual.con(lote);
+			} finally {
+				publicar(nuevo, lote.size());
+			}
+		}, "indice-productos");
+		hilo.setDaemon(true);
+		hilo.start();
+	}
+
+	private void publicar(IndiceProductos nuevo, int incorporados) {
+		synchronized (recientes) {
+			// Los recientes llegados durante la reconstruccin quedan en la lista
+			if (nuevo != null) {
+				indice = nuevo;
+				recientes.subList(0, incorporados).clear();
+			}
+			reconstruyendo = false;
+		}
+	}
+
+	private List<Producto> obtenerRecientes() {
+		synchronized (recientes) {
+			return new ArrayList<>(recientes);
+		}
+	}
+
+	private static List<Producto> mezclar(List<Producto> pagina, List<Producto> pendientes,
+			Predicate<Producto> criterio, Comparator<Producto> orden, int limite) {
+		if (pendientes.isEmpty()) {
+			return pagina.size() > limite ? new ArrayList<>(pagina.subList(0, limite)) : pagina;
+		}
+
+		Map<String, Producto> ultimos = new LinkedHashMap<>();
+		for (Producto pendiente : pendientes) {
+			ultimos.put(pendiente.getCodigo(), pendiente);
+		}
+		List<Producto> productos = new ArrayList<>();
+		for (Producto pendiente : ultimos.values()) {
+			if (criterio.test(pendiente)) {
+				productos.add(pendiente);
+			}
+		}
+		for (Producto producto : pagina) {
+			if (!ultimos.containsKey(producto.getCodigo())) {
+				productos.add(producto);
+			}
+		}
+		productos.sort(orden);
+		return productos.size() > limite ? new ArrayList<>(productos.subList(0, limite)) : productos;
+	}
+}
@@ -0,0 +1,67 @@
+package persistencia.particion;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Anillo de hash consistente que asigna cada cdigo de producto a una
+ * particin. Cada particin ocupa varios nodos virtuales del anillo, de modo
+ * que los cdigos se reparten de forma pareja y al agregar una particin solo
+ * se mueve la fraccin de cdigos que le corresponde
+ */
+public class AnilloConsistente {
+
+	public static final int NODOS_VIRTUALES = 160;
+
+	private static final long FNV_BASE = 0xcbf29ce484222325L;
+	private static final long FNV_PRIMO = 0x100000001b3L;
+
+	private final TreeMap<Long, Integer> anillo = new TreeMap<>();
+	private final int particiones;
+
+	public AnilloConsistente(int particiones) {
+		if (particiones < 1) {
+			throw new IllegalArgumentException("Se requiere al menos una particin");
+		}
+		this.particiones = particiones;
+		for (int particion = 0; particion < particiones; particion++) {
+			for (int nodo = 0; nodo < NODOS_VIRTUALES; nodo++) {
+				anillo.put(hash("particion-" + particion + "#" + nodo), particion);
+			}
+		}
+	}
+
+	/**
+	 * Permite obtener la particin de un cdigo, la del primer nodo del anillo
+	 * cuyo hash es mayor o igual al del cdigo
+	 * 
+	 * @param codigo {@link String} cdigo del producto
+	 * @return nmero de la particin, entre 0 y el nmero de particiones
+	 */
+	public int particion(String codigo) {
+		Map.Entry<Long, Integer> nodo = anillo.ceilingEntry(hash(codigo));
+		return nodo != null ? nodo.getValue() : anillo.firstEntry().getValue();
+	}
+
+	public int getParticiones() {
+		return particiones;
+	}
+
+	/**
+	 * FNV-1a de 64 bits sobre los caracteres, con la mezcla final de MurmurHash3
+	 * para repartir mejor los cdigos que solo difieren en los ltimos dgitos
+	 */
+	static long hash(String texto) {
+		long hash = FNV_BASE;
+		for (int i = 0; i < texto.length(); i++) {
+			hash ^= texto.charAt(i);
+			hash *= FNV_PRIMO;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
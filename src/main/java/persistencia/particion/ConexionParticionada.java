@@ -0,0 +1,107 @@
+package persistencia.particion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+/**
+ * Conexin a varias bases de datos H2, una por particin, cada una con su
+ * propia fbrica de entity managers construida desde la unidad de persistencia
+ * tienda. Las consultas que cruzan particiones se ejecutan en paralelo, un
+ * hilo por particin
+ */
+public class ConexionParticionada {
+
+	public static final String URL_MEMORIA = "jdbc:h2:mem:particion%d";
+
+	private static final String TIENDA = "tienda";
+	private static final String URL = "javax.persistence.jdbc.url";
+
+	private final AnilloConsistente anillo;
+	private final List<EntityManagerFactory> fabricas = new ArrayList<>();
+	private final ExecutorService ejecutor;
+
+	public ConexionParticionada(int particiones) {
+		this(particiones, URL_MEMORIA, new HashMap<>());
+	}
+
+	/**
+	 * @param particiones nmero de bases de datos
+	 * @param plantillaUrl url JDBC con %d en lugar del nmero de la particin,
+	 *                     por ejemplo jdbc:h2:file:./datos/particion%d
+	 * @param propiedades  propiedades que reemplazan las de persistence.xml
+	 */
+	public ConexionParticionada(int particiones, String plantillaUrl, Map<String, String> propiedades) {
+		this.anillo = new AnilloConsistente(particiones);
+		for (int particion = 0; particion < particiones; particion++) {
+			Map<String, String> propiedadesParticion = new HashMap<>(propiedades);
+			propiedadesParticion.put(URL, String.format(plantillaUrl, particion));
+			fabricas.add(Persistence.createEntityManagerFactory(TIENDA, propiedadesParticion));
+		}
+
+		AtomicInteger numeroHilo = new AtomicInteger();
+		this.ejecutor = Executors.newFixedThreadPool(particiones, runnable -> {
+			Thread hilo = new Thread(runnable, "consulta-particion-" + numeroHilo.getAndIncrement());
+			hilo.setDaemon(true);
+			return hilo;
+		});
+	}
+
+	public int particion(String codigo) {
+		return anillo.particion(codigo);
+	}
+
+	public int getParticiones() {
+		return fabricas.size();
+	}
+
+	public EntityManager createEntityManager(int particion) {
+		return fabricas.get(particion).createEntityManager();
+	}
+
+	/**
+	 * Permite ejecutar una consulta en cada particin en paralelo y esperar los
+	 * resultados
+	 * 
+	 * @param consulta funcin que recibe el nmero de la particin
+	 * @return resultados en el orden de las particiones
+	 */
+	public <T> List<T> paraCadaParticion(IntFunction<T> consulta) {
+		List<CompletableFuture<T>> pendientes = new ArrayList<>();
+		for (int particion = 0; particion < fabricas.size(); particion++) {
+			int numero = particion;
+			pendientes.add(CompletableFuture.supplyAsync(() -> consulta.apply(numero), ejecutor));
+		}
+
+		List<T> resultados = new ArrayList<>();
+		try {
+			for (CompletableFuture<T> pendiente : pendientes) {
+				resultados.add(pendiente.join());
+			}
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+		return resultados;
+	}
+
+	public void cerrar() {
+		ejecutor.shutdown();
+		for (EntityManagerFactory fabrica : fabricas) {
+			fabrica.close();
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package persistencia.particion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.repositorio.RecorridoGarantias;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import persistencia.builder.GarantiaExtendidaBuilder;
+import persistencia.entitad.GarantiaExtendidaEntity;
+
+/**
+ * Repositorio de garantas que enva cada operacin sobre un cdigo a la
+ * particin del cdigo; la garanta y su producto quedan siempre en la misma
+ * particin. Las consultas que no dependen de un cdigo se ejecutan en todas
+ * las particiones en paralelo y se combinan
+ */
+public class RepositorioGarantiaParticionado implements RepositorioGarantiaExtendida {
+
+	private static final String GARANTIA_EXTENDIDA_CONTAR = "GarantiaExtendida.contar";
+	private static final String GARANTIA_EXTENDIDA_FIND_ALL = "GarantiaExtendida.findAll";
+
+	private final SistemaDePersistenciaParticionado sistema;
+
+	public RepositorioGarantiaParticionado(SistemaDePersistenciaParticionado sistema) {
+		this.sistema = sistema;
+	}
+
+	@Override
+	public Producto obtenerProductoConGarantiaPorCodigo(String codigo) {
+		return sistema.repositorioGarantia(particion(codigo)).obtenerProductoConGarantiaPorCodigo(codigo);
+	}
+
+	@Override
+	public void agregar(GarantiaExtendida garantia) {
+		sistema.repositorioGarantia(particion(garantia.getProducto().getCodigo())).agregar(garantia);
+	}
+
+	@Override
+	public GarantiaExtendida obtener(String codigo) {
+		return sistema.repositorioGarantia(particion(codigo)).obtener(codigo);
+	}
+
+	/**
+	 * La clave de idempotencia no determina la particin, por lo que se busca
+	 * en todas en paralelo. Las particiones que la unidad de trabajo no ha
+	 * tocado se leen sin abrirles una transaccin
+	 */
+	@Override
+	public GarantiaExtendida obtenerPorClaveIdempotencia(String claveIdempotencia) {
+		for (GarantiaExtendida garantia : sistema.getConexion().paraCadaParticion(particion -> sistema
+				.leerGarantias(particion, repositorio -> repositorio.obtenerPorClaveIdempotencia(claveIdempotencia)))) {
+			if (garantia != null) {
+				return garantia;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Set<String> obtenerCodigosConGarantia(Collection<String> codigos) {
+		List<List<String>> porParticion = new ArrayList<>();
+		for (int particion = 0; particion < sistema.getConexion().getParticiones(); particion++) {
+			porParticion.add(new ArrayList<>());
+		}
+		for (String codigo : codigos) {
+			porParticion.get(particion(codigo)).add(codigo);
+		}
+
+		Set<String> conGarantia = new HashSet<>();
+		for (Set<String> codigosParticion : sistema.getConexion().paraCadaParticion(
+				particion -> porParticion.get(particion).isEmpty() ? Collections.<String>emptySet()
+						: sistema.repositorioGarantia(particion).obtenerCodigosConGarantia(porParticion.get(particion)))) {
+			conGarantia.addAll(codigosParticion);
+		}
+		return conGarantia;
+	}
+
+	/**
+	 * Pide la pgina a todas las particiones en paralelo, igual que
+	 * {@link #obtenerPorClaveIdempotencia(String)}, y mezcla los resultados en
+	 * orden de cliente y cdigo
+	 */
+	@Override
+	public List<GarantiaExtendida> buscarPorPrefijoCliente(String prefijo, GarantiaExtendida despuesDe, int limite) {
+		return mezclar(sistema.getConexion().paraCadaParticion(particion -> sistema.leerGarantias(particion,
+				repositorio -> repositorio.buscarPorPrefijoCliente(prefijo, despuesDe, limite))), limite);
+	}
+
+	/**
+	 * Pide la pgina a todas las particiones en paralelo, igual que
+	 * {@link #obtenerPorClaveIdempotencia(String)}, y mezcla los resultados en
+	 * orden de cdigo
+	 */
+	@Override
+	public List<GarantiaExtendida> buscarPorNombreCliente(String nombreCliente, GarantiaExtendida despuesDe,
+			int limite) {
+		return mezclar(sistema.getConexion().paraCadaParticion(particion -> sistema.leerGarantias(particion,
+				repositorio -> repositorio.buscarPorNombreCliente(nombreCliente, despuesDe, limite))), limite);
+	}
+
+	/**
+	 * Permite contar las garantas de todas las particiones. Como las dems
+	 * consultas sobre todas las particiones, no les abre una transaccin
+	 * 
+	 * @return nmero total de garantas
+	 */
+	public long contarGarantias() {
+		long total = 0;
+		for (Long cantidad : sistema.getConexion()
+				.paraCadaParticion(particion -> sistema.leer(particion, entityManager -> entityManager
+						.createNamedQuery(GARANTIA_EXTENDIDA_CONTAR, Long.class).getSingleResult()))) {
+			total += cantidad;
+		}
+		return total;
+	}
+
+	/**
+	 * Permite exportar las garantas de todas las particiones, ordenadas por
+	 * cdigo de producto
+	 * 
+	 * @return {@link List} garantas de todas las particiones
+	 */
+	public List<GarantiaExtendida> exportarGarantias() {
+		List<GarantiaExtendida> garantias = new ArrayList<>();
+		for (List<GarantiaExtendida> particion : sistema.getConexion()
+				.paraCadaParticion(particion -> sistema.leer(particion, this::exportarParticion))) {
+			garantias.addAll(particion);
+		}
+		garantias.sort(Comparator.comparing(garantia -> garantia.getProducto().getCodigo()));
+		return garantias;
+	}
+
+	private List<GarantiaExtendida> exportarParticion(EntityManager entityManager) {
+		List<GarantiaExtendida> garantias = new ArrayList<>();
+		for (GarantiaExtendidaEntity entity : entityManager
+				.createNamedQuery(GARANTIA_EXTENDIDA_FIND_ALL, GarantiaExtendidaEntity.class).getResultList()) {
+			garantias.add(GarantiaExtendidaBuilder.convertirADominio(entity));
+		}
+		return garantias;
+	}
+
+	private static List<GarantiaExtendida> mezclar(List<List<GarantiaExtendida>> paginas, int limite) {
+		List<GarantiaExtendida> garantias = new ArrayList<>();
+		for (List<GarantiaExtendida> pagina : paginas) {
+			garantias.addAll(pagina);
+		}
+		garantias.sort(RecorridoGarantias.POR_CLIENTE);
+		return garantias.size() > limite ? new ArrayList<>(garantias.subList(0, limite)) : garantias;
+	}
+
+	private int particion(String codigo) {
+		return sistema.getConexion().particion(codigo);
+	}
+}
@@ -0,0 +1,65 @@
+package persistencia.particion;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import dominio.Producto;
+import dominio.repositorio.RecorridoProductos;
+import dominio.repositorio.RepositorioProducto;
+
+/**
+ * Repositorio de productos que enva cada operacin a la particin de su
+ * cdigo
+ */
+public class RepositorioProductoParticionado implements RepositorioProducto {
+
+	private final SistemaDePersistenciaParticionado sistema;
+
+	public RepositorioProductoParticionado(SistemaDePersistenciaParticionado sistema) {
+		this.sistema = sistema;
+	}
+
+	@Override
+	public Producto obtenerPorCodigo(String codigo) {
+		return sistema.repositorioProducto(sistema.getConexion().particion(codigo)).obtenerPorCodigo(codigo);
+	}
+
+	@Override
+	public void agregar(Producto producto) {
+		sistema.repositorioProducto(sistema.getConexion().particion(producto.getCodigo())).agregar(producto);
+	}
+
+	/**
+	 * Pide la pgina a todas las particiones en paralelo, sin abrirles una
+	 * transaccin si la unidad de trabajo no las ha tocado, y mezcla los
+	 * resultados en orden de precio y cdigo
+	 */
+	@Override
+	public List<Producto> buscarPorPrecioMayorA(long precioCentavos, Producto despuesDe, int limite) {
+		return mezclar(sistema.getConexion().paraCadaParticion(particion -> sistema.leerProductos(particion,
+				repositorio -> repositorio.buscarPorPrecioMayorA(precioCentavos, despuesDe, limite))),
+				RecorridoProductos.POR_PRECIO, limite);
+	}
+
+	/**
+	 * Pide la pgina a todas las particiones en paralelo, igual que
+	 * {@link #buscarPorPrecioMayorA(long, Producto, int)}, y mezcla los
+	 * resultados en orden de nombre y cdigo
+	 */
+	@Override
+	public List<Producto> buscarPorPrefijoNombre(String prefijo, Producto despuesDe, int limite) {
+		return mezclar(sistema.getConexion().paraCadaParticion(particion -> sistema.leerProductos(particion,
+				repositorio -> repositorio.buscarPorPrefijoNombre(prefijo, despuesDe, limite))),
+				RecorridoProductos.POR_NOMBRE, limite);
+	}
+
+	private static List<Producto> mezclar(List<List<Producto>> paginas, Comparator<Producto> orden, int limite) {
+		List<Producto> productos = new ArrayList<>();
+		for (List<Producto> pagina : paginas) {
+			productos.addAll(pagina);
+		}
+		productos.sort(orden);
+		return productos.size() > limite ? new ArrayList<>(productos.subList(0, limite)) : productos;
+	}
+}
@@ -0,0 +1,173 @@
+package persistencia.particion;
+
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.repositorio.RepositorioGarantiaPersistente;
+import persistencia.repositorio.RepositorioProductoPersistente;
+
+/**
+ * Unidad de trabajo sobre una {@link ConexionParticionada}. El entity manager
+ * de cada particin se crea, y su transaccin se inicia, la primera vez que la
+ * unidad de trabajo toca esa particin, de modo que una operacin sobre un solo
+ * cdigo usa una sola base de datos.
+ * 
+ * Al terminar se confirman las transacciones de las particiones tocadas una
+ * tras otra; no hay confirmacin en dos fases entre particiones
+ */
+public class SistemaDePersistenciaParticionado {
+
+	private final ConexionParticionada conexion;
+	private final EntityManager[] entityManagers;
+	private final RepositorioProductoPersistente[] repositoriosProducto;
+	private final RepositorioGarantiaPersistente[] repositoriosGarantia;
+
+	private boolean enTransaccion;
+
+	public SistemaDePersistenciaParticionado(ConexionParticionada conexion) {
+		this.conexion = conexion;
+		this.entityManagers = new EntityManager[conexion.getParticiones()];
+		this.repositoriosProducto = new RepositorioProductoPersistente[conexion.getParticiones()];
+		this.repositoriosGarantia = new RepositorioGarantiaPersistente[conexion.getParticiones()];
+	}
+
+	public RepositorioProducto obtenerRepositorioProductos() {
+		return new RepositorioProductoParticionado(this);
+	}
+
+	public RepositorioGarantiaParticionado obtenerRepositorioGarantia() {
+		return new RepositorioGarantiaParticionado(this);
+	}
+
+	public synchronized void iniciar() {
+		enTransaccion = true;
+		for (EntityManager entityManager : entityManagers) {
+			if (entityManager != null && !entityManager.getTransaction().isActive()) {
+				entityManager.getTransaction().begin();
+			}
+		}
+	}
+
+	public synchronized void terminar() {
+		enTransaccion = false;
+		for (EntityManager entityManager : entityManagers) {
+			if (entityManager != null && entityManager.getTransaction().isActive()) {
+				entityManager.getTransaction().commit();
+			}
+		}
+	}
+
+	public synchronized void cerrar() {
+		for (EntityManager entityManager : entityManagers) {
+			if (entityManager != null) {
+				if (entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				entityManager.close();
+			}
+		}
+	}
+
+	/**
+	 * Permite conocer cuntas particiones abri la unidad de trabajo, como
+	 * mtrica de las consultas que recorren todas las particiones
+	 *
+	 * @return particiones con entity manager abierto
+	 */
+	public synchronized int getParticionesAbiertas() {
+		int abiertas = 0;
+		for (EntityManager entityManager : entityManagers) {
+			if (entityManager != null) {
+				abiertas++;
+			}
+		}
+		return abiertas;
+	}
+
+	ConexionParticionada getConexion() {
+		return conexion;
+	}
+
+	synchronized RepositorioProductoPersistente repositorioProducto(int particion) {
+		obtenerEntityManager(particion);
+		return repositoriosProducto[particion];
+	}
+
+	synchronized RepositorioGarantiaPersistente repositorioGarantia(int particion) {
+		obtenerEntityManager(particion);
+		return repositoriosGarantia[particion];
+	}
+
+	/**
+	 * Permite consultar una particin sin sumarla a la unidad de trabajo. Si la
+	 * unidad ya tiene una transaccin en la particin se usa su entity manager,
+	 * que ve las escrituras an sin confirmar; si no, la consulta se hace con un
+	 * entity manager de lectura, sin transaccin, que se cierra al terminar
+	 *
+	 * @param particion nmero de la particin
+	 * @param consulta  consulta sobre el entity manager de la particin
+	 * @return resultado de la consulta
+	 */
+	<T> T leer(int particion, Function<EntityManager, T> consulta) {
+		EntityManager enTransaccionActiva = null;
+		synchronized (this) {
+			EntityManager entityManager = entityManagers[particion];
+			if (entityManager != null && entityManager.getTransaction().isActive()) {
+				enTransaccionActiva = entityManager;
+			}
+		}
+		if (enTransaccionActiva != null) {
+			return consulta.apply(enTransaccionActiva);
+		}
+
+		EntityManager lectura = conexion.createEntityManager(particion);
+		try {
+			return consulta.apply(lectura);
+		} finally {
+			lectura.close();
+		}
+	}
+
+	/**
+	 * Permite leer garantas de una particin sin sumarla a la unidad de
+	 * trabajo, igual que {@link #leer(int, Function)}
+	 *
+	 * @param particion nmero de la particin
+	 * @param consulta  consulta sobre el repositorio de garantas
+	 * @return resultado de la consulta
+	 */
+	<T> T leerGarantias(int particion, Function<RepositorioGarantiaExtendida, T> consulta) {
+		return leer(particion, entityManager -> consulta.apply(
+				new RepositorioGarantiaPersistente(entityManager, new RepositorioProductoPersistente(entityManager))));
+	}
+
+	/**
+	 * Permite leer productos de una particin sin sumarla a la unidad de
+	 * trabajo, igual que {@link #leer(int, Function)}
+	 *
+	 * @param particion nmero de la particin
+	 * @param consulta  consulta sobre el repositorio de productos
+	 * @return resultado de la consulta
+	 */
+	<T> T leerProductos(int particion, Function<RepositorioProducto, T> consulta) {
+		return leer(particion, entityManager -> consulta.apply(new RepositorioProductoPersistente(entityManager)));
+	}
+
+	private synchronized EntityManager obtenerEntityManager(int particion) {
+		EntityManager entityManager = entityManagers[particion];
+		if (entityManager == null) {
+			entityManager = conexion.createEntityManager(particion);
+			entityManagers[particion] = entityManager;
+			repositoriosProducto[particion] = new RepositorioProductoPersistente(entityManager);
+			repositoriosGarantia[particion] = new RepositorioGarantiaPersistente(entityManager,
+					repositoriosProducto[particion]);
+		}
+		if (enTransaccion && !entityManager.getTransaction().isActive()) {
+			entityManager.getTransaction().begin();
+		}
+		return entityManager;
+	}
+}
@@ -0,0 +1,201 @@
+package persistencia.reajuste;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.NativeQuery;
+
+import dominio.Dinero;
+import dominio.Vendedor;
+import dominio.tarifa.MotorTarifas;
+import dominio.tarifa.TablaTarifas;
+
+/**
+ * Reajusta el precio de un grupo de productos con sentencias UPDATE sobre
+ * conjuntos de filas, sin cargar entidades. Los cdigos se procesan en lotes y
+ * cada lote es una transaccin con dos sentencias: la primera aplica el
+ * porcentaje al precio de los productos y la segunda recalcula, en la base de
+ * datos, el precio de sus garantas solicitadas desde la fecha de corte con
+ * los niveles de la tabla de tarifas vigente, igual que
+ * {@link Vendedor#calcularPrecioGarantia(long, int)}. La fecha de fin de esas
+ * garantas no cambia y su marca de modificacin se actualiza.
+ * 
+ * Al confirmar cada lote se invalidan sus cdigos, de modo que las caches que
+ * guardan productos o garantas los vuelvan a leer
+ */
+public class ReajustePrecios {
+
+	public static final int TAMANO_LOTE_POR_DEFECTO = 500;
+
+	private static final String CODIGOS = "codigos";
+	private static final String IDS = "ids";
+	private static final String FACTOR = "factor";
+	private static final String DESDE = "desde";
+	private static final String UMBRAL = "umbral";
+	private static final String PORCENTAJE = "porcentaje";
+	private static final String MODIFICADA = "modificada";
+	private static final int ESCALA_PUNTOS_BASICOS = 4;
+	private static final int ESCALA_CENTAVOS = 2;
+
+	// Las garantas se filtran por ID_PRODUCTO, cuya llave fornea est indexada
+	private static final String IDS_PRODUCTOS = "SELECT id FROM Producto WHERE codigo IN (:codigos)";
+	// ROUND redondea la mitad hacia arriba, como Vendedor.REDONDEO_PRECIO_GARANTIA
+	private static final String REAJUSTAR_PRODUCTOS = "UPDATE Producto SET precio = ROUND(precio * :factor, 2) WHERE id IN (:ids)";
+	private static final String RECALCULAR_GARANTIAS = "UPDATE GarantiaExtendida garantia SET precio = (SELECT ROUND(producto.precio * %s, 2) FROM Producto producto WHERE producto.id = garantia.ID_PRODUCTO), modificada = :modificada WHERE garantia.ID_PRODUCTO IN (:ids) AND garantia.fechaSolicitudGarantia >= :desde";
+
+	private final SessionFactory sessionFactory;
+	private final MotorTarifas motorTarifas;
+	private final Consumer<Collection<String>> invalidacion;
+	private final int tamanoLote;
+
+	public ReajustePrecios(EntityManagerFactory entityManagerFactory, MotorTarifas motorTarifas,
+			Consumer<Collection<String>> invalidacion) {
+		this(entityManagerFactory, motorTarifas, invalidacion, TAMANO_LOTE_POR_DEFECTO);
+	}
+
+	/**
+	 * @param entityManagerFactory {@link EntityManagerFactory} de la base de
+	 *                             datos
+	 * @param motorTarifas         {@link MotorTarifas} motor con la tabla de
+	 *                             tarifas vigente
+	 * @param invalidacion         {@link Consumer} que recibe los cdigos de cada
+	 *                             lote confirmado
+	 * @param tamanoLote           cdigos por transaccin
+	 */
+	public ReajustePrecios(EntityManagerFactory entityManagerFactory, MotorTarifas motorTarifas,
+			Consumer<Collection<String>> invalidacion, int tamanoLote) {
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		this.motorTarifas = motorTarifas;
+		this.invalidacion = invalidacion;
+		this.tamanoLote = tamanoLote;
+	}
+
+	/**
+	 * Permite reajustar el precio de los productos dados y recalcular el de sus
+	 * garantas abiertas
+	 * 
+	 * @param codigos          {@link Collection} cdigos de los productos
+	 * @param puntosBasicos    variacin del precio en puntos bsicos, 500 para
+	 *                         subirlo un 5% y -500 para bajarlo un 5%
+	 * @param solicitadasDesde {@link LocalDate} fecha desde la cual, inclusive,
+	 *                         las garantas solicitadas se recalculan
+	 * @param progreso         {@link Consumer} notificado al confirmar cada lote
+	 * @return {@link ResumenReajuste} resumen final del reajuste
+	 */
+	public ResumenReajuste reajustar(Collection<String> codigos, int puntosBasicos, LocalDate solicitadasDesde,
+			Consumer<ResumenReajuste> progreso) {
+		if (puntosBasicos <= -Dinero.PUNTOS_BASICOS_POR_UNIDAD) {
+			throw new IllegalArgumentException("El reajuste dejara los precios en cero o negativos");
+		}
+
+		Totales totales = new Totales(System.nanoTime());
+		// Se toma una sola vez la tabla para que una recarga no mezcle niveles
+		TablaTarifas tarifas = motorTarifas.obtenerTabla();
+		BigDecimal factor = BigDecimal.valueOf(Dinero.PUNTOS_BASICOS_POR_UNIDAD + puntosBasicos,
+				ESCALA_PUNTOS_BASICOS);
+		String recalcularGarantias = String.format(RECALCULAR_GARANTIAS, porcentajePorNivel(tarifas));
+
+		List<String> pendientes = new ArrayList<>(new LinkedHashSet<>(codigos));
+		try (StatelessSession session = sessionFactory.openStatelessSession()) {
+			for (int desde = 0; desde < pendientes.size(); desde += tamanoLote) {
+				List<String> lote = pendientes.subList(desde, Math.min(desde + tamanoLote, pendientes.size()));
+				reajustarLote(session, lote, factor, recalcularGarantias, tarifas, solicitadasDesde, totales);
+				invalidacion.accept(lote);
+				progreso.accept(totales.resumir());
+			}
+		}
+
+		ResumenReajuste resumen = totales.resumir();
+		progreso.accept(resumen);
+		return resumen;
+	}
+
+	private static void reajustarLote(StatelessSession session, List<String> lote, BigDecimal factor,
+			String recalcularGarantias, TablaTarifas tarifas, LocalDate solicitadasDesde, Totales totales) {
+		Transaction transaccion = session.beginTransaction();
+		try {
+			List<?> ids = session.createNativeQuery(IDS_PRODUCTOS).setParameterList(CODIGOS, lote).getResultList();
+			if (ids.isEmpty()) {
+				transaccion.commit();
+				totales.registrar(0, 0);
+				return;
+			}
+			int productos = session.createNativeQuery(REAJUSTAR_PRODUCTOS).setParameter(FACTOR, factor)
+					.setParameterList(IDS, ids).executeUpdate();
+
+			NativeQuery<?> garantias = session.createNativeQuery(recalcularGarantias).setParameterList(IDS, ids)
+					.setParameter(DESDE, Date.valueOf(solicitadasDesde))
+					.setParameter(MODIFICADA, System.currentTimeMillis());
+			for (int nivel = 0; nivel < tarifas.getCantidadNiveles(); nivel++) {
+				garantias.setParameter(PORCENTAJE + nivel,
+						BigDecimal.valueOf(tarifas.getPuntosBasicos(nivel), ESCALA_PUNTOS_BASICOS));
+				if (nivel > 0) {
+					garantias.setParameter(UMBRAL + nivel,
+							BigDecimal.valueOf(tarifas.getUmbralCentavos(nivel), ESCALA_CENTAVOS));
+				}
+			}
+			int garantiasActualizadas = garantias.executeUpdate();
+			transaccion.commit();
+
+			totales.registrar(productos, garantiasActualizadas);
+		} catch (RuntimeException e) {
+			transaccion.rollback();
+			throw e;
+		}
+	}
+
+	/**
+	 * El nivel es el de mayor umbral que el precio supera, como en
+	 * {@link TablaTarifas#buscarNivel(long)}; el primero aplica tambin a los
+	 * precios que no superan ninguno
+	 */
+	private static String porcentajePorNivel(TablaTarifas tarifas) {
+		StringBuilder caso = new StringBuilder("CASE");
+		for (int nivel = tarifas.getCantidadNiveles() - 1; nivel > 0; nivel--) {
+			caso.append(" WHEN producto.precio > :").append(UMBRAL).append(nivel).append(" THEN :")
+					.append(PORCENTAJE).append(nivel);
+		}
+		return caso.append(" ELSE :").append(PORCENTAJE).append(0).append(" END").toString();
+	}
+
+	/**
+	 * Contadores del reajuste en curso, acumulados por cada transaccin
+	 * confirmada
+	 */
+	private static final class Totales {
+
+		private final long inicio;
+		private long productos;
+		private long garantias;
+		private long transacciones;
+		private long maximoFilasPorTransaccion;
+
+		Totales(long inicio) {
+			this.inicio = inicio;
+		}
+
+		void registrar(int productosActualizados, int garantiasActualizadas) {
+			productos += productosActualizados;
+			garantias += garantiasActualizadas;
+			transacciones++;
+			maximoFilasPorTransaccion = Math.max(maximoFilasPorTransaccion,
+					productosActualizados + garantiasActualizadas);
+		}
+
+		ResumenReajuste resumir() {
+			return new ResumenReajuste(productos, garantias, transacciones, maximoFilasPorTransaccion,
+					System.nanoTime() - inicio);
+		}
+	}
+}
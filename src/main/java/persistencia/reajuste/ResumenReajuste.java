@@ -0,0 +1,74 @@
+package persistencia.reajuste;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resumen inmutable del avance de un reajuste de precios
+ */
+public class ResumenReajuste {
+
+	private final long productos;
+	private final long garantias;
+	private final long transacciones;
+	private final long maximoFilasPorTransaccion;
+	private final long duracionNanos;
+
+	public ResumenReajuste(long productos, long garantias, long transacciones, long maximoFilasPorTransaccion,
+			long duracionNanos) {
+		this.productos = productos;
+		this.garantias = garantias;
+		this.transacciones = transacciones;
+		this.maximoFilasPorTransaccion = maximoFilasPorTransaccion;
+		this.duracionNanos = duracionNanos;
+	}
+
+	public long getProductos() {
+		return productos;
+	}
+
+	public long getGarantias() {
+		return garantias;
+	}
+
+	public long getFilas() {
+		return productos + garantias;
+	}
+
+	public long getTransacciones() {
+		return transacciones;
+	}
+
+	public long getMaximoFilasPorTransaccion() {
+		return maximoFilasPorTransaccion;
+	}
+
+	public long getDuracionNanos() {
+		return duracionNanos;
+	}
+
+	/**
+	 * Permite obtener el tamao medio de las transacciones
+	 * 
+	 * @return {@link Double} filas actualizadas por transaccin
+	 */
+	public double getFilasPorTransaccion() {
+		return transacciones == 0 ? 0 : getFilas() / (double) transacciones;
+	}
+
+	/**
+	 * Permite obtener el rendimiento del reajuste
+	 * 
+	 * @return {@link Double} filas actualizadas por segundo
+	 */
+	public double getFilasPorSegundo() {
+		return duracionNanos == 0 ? 0 : getFilas() * (double) TimeUnit.SECONDS.toNanos(1) / duracionNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"productos=%d garantias=%d transacciones=%d filas/transaccion=%.1f maximo=%d filas/s=%.1f",
+				productos, garantias, transacciones, getFilasPorTransaccion(), maximoFilasPorTransaccion,
+				getFilasPorSegundo());
+	}
+}
@@ -1,54 +1,125 @@
 package persistencia.repositorio;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import dominio.NombreCliente;
 import dominio.Producto;
 import dominio.GarantiaExtendida;
+import dominio.repositorio.RecorridoGarantias;
 import dominio.repositorio.RepositorioProducto;
 import dominio.repositorio.RepositorioGarantiaExtendida;
+import persistencia.builder.GarantiaExtendidaBuilder;
 import persistencia.builder.ProductoBuilder;
+import persistencia.conexion.UnidadDeTrabajo;
 import persistencia.entitad.ProductoEntity;
+import persistencia.entitad.GarantiaBaseEntity;
 import persistencia.entitad.GarantiaExtendidaEntity;
 import persistencia.repositorio.jpa.RepositorioProductoJPA;
 
+/**
+ * Repositorio de garantas sobre JPA. Las consultas van primero a la tabla de
+ * garantas vigentes y, para lo que no encuentran all, a la tabla de
+ * garantas archivadas, de modo que archivar una garanta no cambia lo que el
+ * repositorio responde. Las que solo preguntan si un producto tiene garanta,
+ * que recorre cada venta, miran ambas tablas en una sola consulta
+ */
 public class RepositorioGarantiaPersistente implements RepositorioGarantiaExtendida {
 
 	private static final String CODIGO = "codigo";
+	private static final String CODIGOS = "codigos";
+	private static final String CLAVE_IDEMPOTENCIA = "claveIdempotencia";
+	private static final String PATRON = "patron";
+	private static final String NOMBRE = "nombre";
+	private static final String NOMBRE_DESDE = "nombreDesde";
+	private static final String CODIGO_DESDE = "codigoDesde";
 	private static final String GARANTIA_EXTENDIDA_FIND_BY_CODIGO = "GarantiaExtendida.findByCodigo";
+	private static final String GARANTIA_EXTENDIDA_FIND_BY_CLAVE_IDEMPOTENCIA = "GarantiaExtendida.findByClaveIdempotencia";
+	private static final String GARANTIA_EXTENDIDA_FIND_BY_PREFIJO_CLIENTE_DESDE = "GarantiaExtendida.findByPrefijoClienteDesde";
+	private static final String GARANTIA_EXTENDIDA_FIND_BY_NOMBRE_CLIENTE_DESDE = "GarantiaExtendida.findByNombreClienteDesde";
+	private static final String PRODUCTO_FIND_CON_GARANTIA_BY_CODIGO = "Producto.findConGarantiaByCodigo";
+	private static final String PRODUCTO_FIND_CODIGOS_CON_GARANTIA = "Producto.findCodigosConGarantia";
+	private static final String GARANTIA_ARCHIVADA_FIND_BY_CODIGO = "GarantiaArchivada.findByCodigo";
+	private static final String GARANTIA_ARCHIVADA_FIND_BY_CLAVE_IDEMPOTENCIA = "GarantiaArchivada.findByClaveIdempotencia";
+	private static final String GARANTIA_ARCHIVADA_FIND_BY_PREFIJO_CLIENTE_DESDE = "GarantiaArchivada.findByPrefijoClienteDesde";
+	private static final String GARANTIA_ARCHIVADA_FIND_BY_NOMBRE_CLIENTE_DESDE = "GarantiaArchivada.findByNombreClienteDesde";
+	private static final int MAXIMO_CODIGOS_POR_CONSULTA = 500;
 
 	private EntityManager entityManager;
 
 	private RepositorioProductoJPA repositorioProductoJPA;
 
+	private UnidadDeTrabajo unidadDeTrabajo;
+
 	public RepositorioGarantiaPersistente(EntityManager entityManager, RepositorioProducto repositorioProducto) {
+		this(entityManager, repositorioProducto, new UnidadDeTrabajo(entityManager));
+	}
+
+	/**
+	 * Permite crear el repositorio acotando el contexto de persistencia con la
+	 * unidad de trabajo indicada
+	 *
+	 * @param entityManager       {@link EntityManager} del sistema de persistencia
+	 * @param repositorioProducto repositorio de productos del mismo entity manager
+	 * @param unidadDeTrabajo     {@link UnidadDeTrabajo} compartida con los dems
+	 *                            repositorios del mismo entity manager
+	 */
+	public RepositorioGarantiaPersistente(EntityManager entityManager, RepositorioProducto repositorioProducto,
+			UnidadDeTrabajo unidadDeTrabajo) {
 		this.entityManager = entityManager;
 		this.repositorioProductoJPA = (RepositorioProductoJPA) repositorioProducto;
+		this.unidadDeTrabajo = unidadDeTrabajo;
 	}
 
 	@Override
 	public void agregar(GarantiaExtendida garantia) {
 		GarantiaExtendidaEntity garantiaEntity = buildGarantiaExtendidaEntity(garantia);
 		entityManager.persist(garantiaEntity);
-
+		unidadDeTrabajo.registrarOperacion();
 	}
 
 	@Override
 	public Producto obtenerProductoConGarantiaPorCodigo(String codigo) {
 
-		GarantiaExtendidaEntity garantiaEntity = obtenerGarantiaEntityPorCodigo(codigo);
-		return ProductoBuilder.convertirADominio(garantiaEntity != null ? garantiaEntity.getProducto() : null);
+		List<ProductoEntity> productos = entityManager
+				.createNamedQuery(PRODUCTO_FIND_CON_GARANTIA_BY_CODIGO, ProductoEntity.class)
+				.setParameter(CODIGO, codigo).getResultList();
+		if (productos.isEmpty()) {
+			return null;
+		}
+		Producto producto = ProductoBuilder.convertirADominio(productos.get(0));
+		unidadDeTrabajo.desasociar(productos.get(0));
+		return producto;
+	}
+
+	private GarantiaBaseEntity obtenerGarantiaEntityPorCodigo(String codigo) {
+
+		GarantiaBaseEntity garantiaEntity = obtenerPrimera(GARANTIA_EXTENDIDA_FIND_BY_CODIGO, CODIGO, codigo);
+		return garantiaEntity != null ? garantiaEntity
+				: obtenerPrimera(GARANTIA_ARCHIVADA_FIND_BY_CODIGO, CODIGO, codigo);
 	}
 
 	@SuppressWarnings("rawtypes")
-	private GarantiaExtendidaEntity obtenerGarantiaEntityPorCodigo(String codigo) {
+	private GarantiaBaseEntity obtenerPrimera(String consulta, String parametro, String valor) {
 
-		Query query = entityManager.createNamedQuery(GARANTIA_EXTENDIDA_FIND_BY_CODIGO);
-		query.setParameter(CODIGO, codigo);
+		Query query = entityManager.createNamedQuery(consulta);
+		query.setParameter(parametro, valor);
 
 		List resultList = query.getResultList();
 
-		return !resultList.isEmpty() ? (GarantiaExtendidaEntity) resultList.get(0) : null;
+		return !resultList.isEmpty() ? (GarantiaBaseEntity) resultList.get(0) : null;
+	}
+
+	private void desasociar(GarantiaBaseEntity garantiaEntity) {
+		if (garantiaEntity != null) {
+			unidadDeTrabajo.desasociar(garantiaEntity);
+			unidadDeTrabajo.desasociar(garantiaEntity.getProducto());
+		}
 	}
 
 	private GarantiaExtendidaEntity buildGarantiaExtendidaEntity(GarantiaExtendida garantia) {
@@ -61,7 +132,8 @@ public class RepositorioGarantiaPersistente implements RepositorioGarantiaExtend
 		garantiaEntity.setFechaSolicitudGarantia(garantia.getFechaSolicitudGarantia());
 		garantiaEntity.setFechaFinGarantia(garantia.getFechaFinGarantia());
 		garantiaEntity.setNombreCliente(garantia.getNombreCliente());
-		garantiaEntity.setPrecio(garantia.getPrecioGarantia());
+		garantiaEntity.setPrecioCentavos(garantia.getPrecioGarantiaCentavos());
+		garantiaEntity.setClaveIdempotencia(garantia.getClaveIdempotencia());
 
 		return garantiaEntity;
 	}
@@ -69,11 +141,121 @@ public class RepositorioGarantiaPersistente implements RepositorioGarantiaExtend
 	@Override
 	public GarantiaExtendida obtener(String codigo) {
 
-		GarantiaExtendidaEntity garantiaEntity = obtenerGarantiaEntityPorCodigo(codigo);
+		GarantiaBaseEntity garantiaEntity = obtenerGarantiaEntityPorCodigo(codigo);
+		GarantiaExtendida garantia = GarantiaExtendidaBuilder.convertirADominio(garantiaEntity);
+		desasociar(garantiaEntity);
+		return garantia;
+	}
+
+	@Override
+	public GarantiaExtendida obtenerPorClaveIdempotencia(String claveIdempotencia) {
+
+		GarantiaBaseEntity garantiaEntity = obtenerPrimera(GARANTIA_EXTENDIDA_FIND_BY_CLAVE_IDEMPOTENCIA,
+				CLAVE_IDEMPOTENCIA, claveIdempotencia);
+		if (garantiaEntity == null) {
+			garantiaEntity = obtenerPrimera(GARANTIA_ARCHIVADA_FIND_BY_CLAVE_IDEMPOTENCIA, CLAVE_IDEMPOTENCIA,
+					claveIdempotencia);
+		}
+		if (garantiaEntity == null) {
+			return null;
+		}
+
+		GarantiaExtendida garantia = GarantiaExtendidaBuilder.convertirADominio(garantiaEntity);
+		desasociar(garantiaEntity);
+		return garantia;
+	}
+
+	@Override
+	public Set<String> obtenerCodigosConGarantia(Collection<String> codigos) {
+
+		Set<String> conGarantia = new HashSet<>();
+		List<String> pendientes = new ArrayList<>(codigos);
+
+		for (int inicio = 0; inicio < pendientes.size(); inicio += MAXIMO_CODIGOS_POR_CONSULTA) {
+			List<String> bloque = pendientes.subList(inicio,
+					Math.min(inicio + MAXIMO_CODIGOS_POR_CONSULTA, pendientes.size()));
+			conGarantia.addAll(entityManager.createNamedQuery(PRODUCTO_FIND_CODIGOS_CON_GARANTIA, String.class)
+					.setParameter(CODIGOS, bloque).getResultList());
+		}
+
+		return conGarantia;
+	}
+
+	@Override
+	public List<GarantiaExtendida> buscarPorPrefijoCliente(String prefijo, GarantiaExtendida despuesDe, int limite) {
+
+		List<GarantiaExtendida> vigentes = buscarPorPrefijoCliente(GARANTIA_EXTENDIDA_FIND_BY_PREFIJO_CLIENTE_DESDE,
+				prefijo, despuesDe, limite);
+		List<GarantiaExtendida> archivadas = buscarPorPrefijoCliente(
+				GARANTIA_ARCHIVADA_FIND_BY_PREFIJO_CLIENTE_DESDE, prefijo, despuesDe, limite);
+		return mezclar(vigentes, archivadas, limite);
+	}
+
+	@Override
+	public List<GarantiaExtendida> buscarPorNombreCliente(String nombreCliente, GarantiaExtendida despuesDe,
+			int limite) {
+
+		List<GarantiaExtendida> vigentes = buscarPorNombreCliente(GARANTIA_EXTENDIDA_FIND_BY_NOMBRE_CLIENTE_DESDE,
+				nombreCliente, despuesDe, limite);
+		List<GarantiaExtendida> archivadas = buscarPorNombreCliente(GARANTIA_ARCHIVADA_FIND_BY_NOMBRE_CLIENTE_DESDE,
+				nombreCliente, despuesDe, limite);
+		return mezclar(vigentes, archivadas, limite);
+	}
+
+	private List<GarantiaExtendida> buscarPorPrefijoCliente(String consulta, String prefijo,
+			GarantiaExtendida despuesDe, int limite) {
+
+		String prefijoNormalizado = NombreCliente.normalizar(prefijo);
+		TypedQuery<GarantiaBaseEntity> query = entityManager.createNamedQuery(consulta, GarantiaBaseEntity.class);
+		query.setParameter(PATRON, RepositorioProductoPersistente.escaparLike(prefijoNormalizado) + '%');
+		String nombreDesde = despuesDe != null ? NombreCliente.normalizar(despuesDe.getNombreCliente()) : null;
+		if (nombreDesde == null || nombreDesde.compareTo(prefijoNormalizado) < 0) {
+			query.setParameter(NOMBRE_DESDE, prefijoNormalizado);
+			query.setParameter(CODIGO_DESDE, "");
+		} else {
+			query.setParameter(NOMBRE_DESDE, nombreDesde);
+			query.setParameter(CODIGO_DESDE, despuesDe.getProducto().getCodigo());
+		}
+
+		return convertirPagina(query.setMaxResults(limite).getResultList());
+	}
+
+	private List<GarantiaExtendida> buscarPorNombreCliente(String consulta, String nombreCliente,
+			GarantiaExtendida despuesDe, int limite) {
+
+		String nombre = NombreCliente.normalizar(nombreCliente);
+		TypedQuery<GarantiaBaseEntity> query = entityManager.createNamedQuery(consulta, GarantiaBaseEntity.class);
+		query.setParameter(NOMBRE, nombre);
+		query.setParameter(CODIGO_DESDE, despuesDe != null && nombre.equals(NombreCliente.normalizar(despuesDe
+				.getNombreCliente())) ? despuesDe.getProducto().getCodigo() : "");
+
+		return convertirPagina(query.setMaxResults(limite).getResultList());
+	}
+
+	private List<GarantiaExtendida> convertirPagina(List<GarantiaBaseEntity> entidades) {
+
+		List<GarantiaExtendida> garantias = new ArrayList<>(entidades.size());
+		for (GarantiaBaseEntity garantiaEntity : entidades) {
+			garantias.add(GarantiaExtendidaBuilder.convertirADominio(garantiaEntity));
+			desasociar(garantiaEntity);
+		}
+		return garantias;
+	}
+
+	/**
+	 * Cada tabla devuelve su pgina en orden de cliente; la pgina combinada
+	 * son las primeras de ambas
+	 */
+	private static List<GarantiaExtendida> mezclar(List<GarantiaExtendida> vigentes,
+			List<GarantiaExtendida> archivadas, int limite) {
 
-		return new GarantiaExtendida(ProductoBuilder.convertirADominio(garantiaEntity.getProducto()),
-				garantiaEntity.getFechaSolicitudGarantia(), garantiaEntity.getFechaFinGarantia(),
-				garantiaEntity.getPrecio(), garantiaEntity.getNombreCliente());
+		if (archivadas.isEmpty()) {
+			return vigentes;
+		}
+		List<GarantiaExtendida> garantias = new ArrayList<>(vigentes);
+		garantias.addAll(archivadas);
+		garantias.sort(RecorridoGarantias.POR_CLIENTE);
+		return garantias.size() > limite ? new ArrayList<>(garantias.subList(0, limite)) : garantias;
 	}
 
 }
@@ -1,30 +1,59 @@
 package persistencia.repositorio;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 
 import dominio.Producto;
 import dominio.repositorio.RepositorioProducto;
 import persistencia.builder.ProductoBuilder;
+import persistencia.conexion.UnidadDeTrabajo;
 import persistencia.entitad.ProductoEntity;
 import persistencia.repositorio.jpa.RepositorioProductoJPA;
 
 public class RepositorioProductoPersistente implements RepositorioProducto, RepositorioProductoJPA {
 
 	private static final String CODIGO = "codigo";
+	private static final String PRECIO_DESDE = "precioDesde";
+	private static final String NOMBRE_DESDE = "nombreDesde";
+	private static final String CODIGO_DESDE = "codigoDesde";
+	private static final String PATRON = "patron";
 	private static final String PRODUCTO_FIND_BY_CODIGO = "Producto.findByCodigo";
+	private static final String PRODUCTO_FIND_BY_PRECIO_DESDE = "Producto.findByPrecioDesde";
+	private static final String PRODUCTO_FIND_BY_PREFIJO_NOMBRE_DESDE = "Producto.findByPrefijoNombreDesde";
+	private static final char ESCAPE = '!';
 	
 	private EntityManager entityManager;
 
+	private UnidadDeTrabajo unidadDeTrabajo;
+
 	public RepositorioProductoPersistente(EntityManager entityManager) {
+		this(entityManager, new UnidadDeTrabajo(entityManager));
+	}
+
+	/**
+	 * Permite crear el repositorio acotando el contexto de persistencia con la
+	 * unidad de trabajo indicada
+	 *
+	 * @param entityManager   {@link EntityManager} del sistema de persistencia
+	 * @param unidadDeTrabajo {@link UnidadDeTrabajo} compartida con los dems
+	 *                        repositorios del mismo entity manager
+	 */
+	public RepositorioProductoPersistente(EntityManager entityManager, UnidadDeTrabajo unidadDeTrabajo) {
 		this.entityManager = entityManager;
+		this.unidadDeTrabajo = unidadDeTrabajo;
 	}
 
 	@Override
 	public Producto obtenerPorCodigo(String codigo) {
 		
 		ProductoEntity productoEntity = obtenerProductoEntityPorCodigo(codigo);
-		return ProductoBuilder.convertirADominio(productoEntity);
+		Producto producto = ProductoBuilder.convertirADominio(productoEntity);
+		unidadDeTrabajo.desasociar(productoEntity);
+		return producto;
 	}
 	
 	@Override
@@ -39,8 +68,63 @@ public class RepositorioProductoPersistente implements RepositorioProducto, Repo
 	@Override
 	public void agregar(Producto producto) {
 		entityManager.persist(ProductoBuilder.convertirAEntity(producto));
-	}	
+		unidadDeTrabajo.registrarOperacion();
+	}
 
-	
+	@Override
+	public List<Producto> buscarPorPrecioMayorA(long precioCentavos, Producto despuesDe, int limite) {
+
+		TypedQuery<ProductoEntity> query = entityManager
+				.createNamedQuery(PRODUCTO_FIND_BY_PRECIO_DESDE, ProductoEntity.class);
+		if (despuesDe == null || despuesDe.getPrecioCentavos() <= precioCentavos) {
+			query.setParameter(PRECIO_DESDE, precioCentavos + 1);
+			query.setParameter(CODIGO_DESDE, "");
+		} else {
+			query.setParameter(PRECIO_DESDE, despuesDe.getPrecioCentavos());
+			query.setParameter(CODIGO_DESDE, despuesDe.getCodigo());
+		}
+
+		return convertirPagina(query.setMaxResults(limite).getResultList());
+	}
+
+	@Override
+	public List<Producto> buscarPorPrefijoNombre(String prefijo, Producto despuesDe, int limite) {
+
+		TypedQuery<ProductoEntity> query = entityManager
+				.createNamedQuery(PRODUCTO_FIND_BY_PREFIJO_NOMBRE_DESDE, ProductoEntity.class);
+		query.setParameter(PATRON, escaparLike(prefijo) + '%');
+		if (despuesDe == null || despuesDe.getNombre().compareTo(prefijo) < 0) {
+			query.setParameter(NOMBRE_DESDE, prefijo);
+			query.setParameter(CODIGO_DESDE, "");
+		} else {
+			query.setParameter(NOMBRE_DESDE, despuesDe.getNombre());
+			query.setParameter(CODIGO_DESDE, despuesDe.getCodigo());
+		}
+
+		return convertirPagina(query.setMaxResults(limite).getResultList());
+	}
+
+	private List<Producto> convertirPagina(List<ProductoEntity> entidades) {
+
+		List<Producto> productos = new ArrayList<>(entidades.size());
+		for (ProductoEntity productoEntity : entidades) {
+			productos.add(ProductoBuilder.convertirADominio(productoEntity));
+			unidadDeTrabajo.desasociar(productoEntity);
+		}
+		return productos;
+	}
+
+	static String escaparLike(String texto) {
+
+		StringBuilder escapado = new StringBuilder(texto.length());
+		for (int i = 0; i < texto.length(); i++) {
+			char caracter = texto.charAt(i);
+			if (caracter == ESCAPE || caracter == '%' || caracter == '_') {
+				escapado.append(ESCAPE);
+			}
+			escapado.append(caracter);
+		}
+		return escapado.toString();
+	}
 
 }
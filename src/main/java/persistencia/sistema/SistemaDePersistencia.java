@@ -1,34 +1,289 @@
 package persistencia.sistema;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 
+import dominio.CatalogoProductos;
+import dominio.GarantiaExtendida;
+import dominio.Vendedor;
+import dominio.evento.CanalEventosGarantia;
 import dominio.repositorio.RepositorioProducto;
 import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.tarifa.MotorTarifas;
+import persistencia.archivo.ArchivoGarantias;
 import persistencia.conexion.ConexionJPA;
+import persistencia.conexion.UnidadDeTrabajo;
+import persistencia.evento.RepositorioGarantiaConEventos;
+import persistencia.importacion.ImportadorCatalogo;
+import persistencia.importacion.IngestaVentas;
+import persistencia.lectura.IndiceProductos;
+import persistencia.lectura.ModeloLecturaGarantias;
+import persistencia.lectura.RepositorioGarantiaLectura;
+import persistencia.lectura.RepositorioProductoIndexado;
+import persistencia.reajuste.ReajustePrecios;
 import persistencia.repositorio.RepositorioProductoPersistente;
 import persistencia.repositorio.RepositorioGarantiaPersistente;
 
 public class SistemaDePersistencia {
 
+	private static final int OPERACIONES_POR_UNIDAD = 1000;
+
+	private ConexionJPA conexion;
 	private EntityManager entityManager;
+	private UnidadDeTrabajo unidadDeTrabajo;
+	private ModeloLecturaGarantias modeloLectura;
+	private CompletableFuture<Void> cargaModeloLectura;
+	private RepositorioProductoIndexado repositorioProductosIndexado;
+	private final int operacionesPorUnidad;
 
 	public SistemaDePersistencia() {
-		this.entityManager = new ConexionJPA().createEntityManager();
+		this(false);
+	}
+
+	/**
+	 * Permite crear el sistema de persistencia en modo de arranque rapido. El
+	 * entity manager se crea al primer uso, de modo que el constructor no espera
+	 * a que la conexion este lista
+	 *
+	 * @param arranqueRapido true para construir la conexion en segundo plano
+	 */
+	public SistemaDePersistencia(boolean arranqueRapido) {
+		this(arranqueRapido, OPERACIONES_POR_UNIDAD);
+	}
+
+	/**
+	 * Permite crear el sistema de persistencia indicando cada cuntas
+	 * operaciones de escritura se sincroniza y vaca el contexto de
+	 * persistencia. El contexto tambin se vaca al terminar cada transaccin
+	 *
+	 * @param arranqueRapido       true para construir la conexion en segundo
+	 *                             plano
+	 * @param operacionesPorUnidad operaciones tras las cuales se vaca el
+	 *                             contexto
+	 */
+	public SistemaDePersistencia(boolean arranqueRapido, int operacionesPorUnidad) {
+		this.conexion = new ConexionJPA(arranqueRapido);
+		this.operacionesPorUnidad = operacionesPorUnidad;
+		if (!arranqueRapido) {
+			obtenerEntityManager();
+		}
 	}
 
 	public RepositorioProducto obtenerRepositorioProductos() {
-		return new RepositorioProductoPersistente(entityManager);
+		return new RepositorioProductoPersistente(obtenerEntityManager(), obtenerUnidadDeTrabajo());
 	}
-	
+
+	/**
+	 * Permite obtener el repositorio de productos que atiende las bsquedas por
+	 * precio y por prefijo del nombre desde un ndice en memoria. La primera
+	 * llamada carga el ndice con todo el catlogo; las siguientes devuelven el
+	 * mismo repositorio, que mantiene el ndice al da con los productos
+	 * agregados
+	 *
+	 * @return repositorio con las bsquedas desde el ndice en memoria
+	 */
+	public synchronized RepositorioProductoIndexado obtenerRepositorioProductosIndexado() {
+		if (repositorioProductosIndexado == null) {
+			repositorioProductosIndexado = new RepositorioProductoIndexado(obtenerRepositorioProductos(),
+					obtenerEntityManager(), IndiceProductos.cargar(obtenerEntityManager().getEntityManagerFactory()));
+		}
+		return repositorioProductosIndexado;
+	}
+
 	public RepositorioGarantiaExtendida obtenerRepositorioGarantia() {
-		return new RepositorioGarantiaPersistente(entityManager, this.obtenerRepositorioProductos());
+		return new RepositorioGarantiaPersistente(obtenerEntityManager(), this.obtenerRepositorioProductos(),
+				obtenerUnidadDeTrabajo());
+	}
+
+	/**
+	 * Permite obtener el repositorio de garantas que atiende las lecturas desde
+	 * el modelo en memoria. La primera llamada inicia la carga del modelo en
+	 * segundo plano; hasta que termina, las lecturas se delegan a la base de
+	 * datos. Si la carga fall, la siguiente llamada la reintenta desde la base
+	 * de datos
+	 *
+	 * @return repositorio con lecturas desde el modelo en memoria
+	 */
+	public RepositorioGarantiaLectura obtenerRepositorioGarantiaLectura() {
+		return obtenerRepositorioGarantiaLectura(null);
+	}
+
+	/**
+	 * Permite obtener el repositorio de garantas con lecturas desde el modelo
+	 * en memoria, cargando el modelo desde una instantnea y repitiendo solo los
+	 * cambios posteriores a ella
+	 *
+	 * @param instantanea archivo de la instantnea, null para cargar desde la
+	 *                    base de datos
+	 * @return repositorio con lecturas desde el modelo en memoria
+	 */
+	public RepositorioGarantiaLectura obtenerRepositorioGarantiaLectura(Path instantanea) {
+		return new RepositorioGarantiaLectura(obtenerRepositorioGarantia(), obtenerEntityManager(),
+				obtenerModeloLectura(instantanea));
+	}
+
+	/**
+	 * Permite conocer el estado de la carga del modelo de lectura, para los
+	 * chequeos de salud del servicio. Una carga fallida termina con su error y se
+	 * reintenta al obtener de nuevo el repositorio de lectura
+	 *
+	 * @return carga en curso o terminada, null si el modelo no ha sido creado
+	 */
+	public synchronized CompletableFuture<Void> obtenerCargaModeloLectura() {
+		return cargaModeloLectura;
+	}
+
+	/**
+	 * Permite guardar el modelo de lectura en una instantnea para el prximo
+	 * arranque
+	 *
+	 * @param instantanea archivo de la instantnea
+	 */
+	public void guardarInstantanea(Path instantanea) throws IOException {
+		if (modeloLectura == null) {
+			throw new IllegalStateException("El modelo de lectura no ha sido creado");
+		}
+		modeloLectura.guardarInstantanea(instantanea);
+	}
+
+	/**
+	 * Permite obtener el repositorio de garantas que publica en el canal cada
+	 * garanta confirmada
+	 *
+	 * @param canal canal de eventos de las garantas
+	 * @return repositorio que publica las garantas al confirmar
+	 */
+	public RepositorioGarantiaExtendida obtenerRepositorioGarantiaConEventos(CanalEventosGarantia canal) {
+		return new RepositorioGarantiaConEventos(obtenerRepositorioGarantia(), obtenerEntityManager(), canal);
+	}
+
+	public ImportadorCatalogo obtenerImportadorCatalogo() {
+		return new ImportadorCatalogo(obtenerEntityManager().getEntityManagerFactory());
+	}
+
+	/**
+	 * Permite obtener el reajuste de precios masivo. Cada lote confirmado se
+	 * invalida en el catlogo de productos y se vuelve a leer en el modelo de
+	 * lectura y en el ndice de productos, si ya fueron creados
+	 *
+	 * @param motorTarifas motor con la tabla de tarifas vigente
+	 * @return reajuste de precios sobre esta conexin
+	 */
+	public ReajustePrecios obtenerReajustePrecios(MotorTarifas motorTarifas) {
+		return new ReajustePrecios(obtenerEntityManager().getEntityManagerFactory(), motorTarifas,
+				this::invalidarProductos);
+	}
+
+	/**
+	 * Permite obtener el archivo de garantas vencidas. Las garantas archivadas
+	 * siguen disponibles en los repositorios de garantas y en el modelo de
+	 * lectura
+	 *
+	 * @return archivo de garantas sobre esta conexin
+	 */
+	public ArchivoGarantias obtenerArchivoGarantias() {
+		return new ArchivoGarantias(obtenerEntityManager().getEntityManagerFactory());
+	}
+
+	/**
+	 * Permite obtener la ingesta de archivos de ventas registradas sin conexin.
+	 * Las garantas de cada lote confirmado se aplican en el modelo de lectura,
+	 * si ya fue creado
+	 *
+	 * @param vendedor vendedor con las reglas de validacin y de tarifa
+	 * @return ingesta de ventas sobre esta conexin
+	 */
+	public IngestaVentas obtenerIngestaVentas(Vendedor vendedor) {
+		return new IngestaVentas(obtenerEntityManager().getEntityManagerFactory(), vendedor,
+				this::aplicarGarantias);
+	}
+
+	/**
+	 * Permite saber si la conexion ya esta lista, util para los chequeos de salud
+	 * del servicio
+	 *
+	 * @return true en caso de que la conexion este disponible
+	 */
+	public boolean estaDisponible() {
+		return conexion.estaDisponible();
 	}
 
 	public void iniciar() {
-		entityManager.getTransaction().begin();
+		obtenerEntityManager().getTransaction().begin();
 	}
 
 	public void terminar() {
-		entityManager.getTransaction().commit();
+		obtenerUnidadDeTrabajo().confirmar();
+	}
+
+	/**
+	 * Permite conocer el nmero de entidades administradas por el contexto de
+	 * persistencia, como mtrica de la poltica de unidad de trabajo
+	 *
+	 * @return entidades en el contexto de persistencia
+	 */
+	public int getTamanoContexto() {
+		return obtenerUnidadDeTrabajo().getTamanoContexto();
+	}
+
+	private void invalidarProductos(Collection<String> codigos) {
+		CatalogoProductos.invalidar(codigos);
+		ModeloLecturaGarantias modelo;
+		RepositorioProductoIndexado productosIndexado;
+		synchronized (this) {
+			modelo = modeloLectura;
+			productosIndexado = repositorioProductosIndexado;
+		}
+		if (modelo != null) {
+			modelo.refrescar(obtenerEntityManager().getEntityManagerFactory(), codigos);
+		}
+		if (productosIndexado != null) {
+			productosIndexado.refrescar(codigos);
+		}
+	}
+
+	private void aplicarGarantias(List<GarantiaExtendida> garantias) {
+		ModeloLecturaGarantias modelo;
+		synchronized (this) {
+			modelo = modeloLectura;
+		}
+		if (modelo != null) {
+			for (GarantiaExtendida garantia : garantias) {
+				modelo.aplicar(garantia);
+			}
+		}
+	}
+
+	private synchronized ModeloLecturaGarantias obtenerModeloLectura(Path instantanea) {
+		EntityManagerFactory factory = obtenerEntityManager().getEntityManagerFactory();
+		if (modeloLectura == null) {
+			modeloLectura = new ModeloLecturaGarantias();
+			cargaModeloLectura = instantanea != null ? modeloLectura.cargarDesdeInstantanea(factory, instantanea)
+					: modeloLectura.cargar(factory);
+		} else if (cargaModeloLectura.isCompletedExceptionally()) {
+			// Se reintenta sobre el mismo modelo, que conserva lo ya ledo y lo
+			// aplicado, para que los repositorios ya entregados tambin lo vean
+			cargaModeloLectura = modeloLectura.cargar(factory);
+		}
+		return modeloLectura;
+	}
+
+	private synchronized EntityManager obtenerEntityManager() {
+		if (entityManager == null) {
+			entityManager = conexion.createEntityManager();
+			unidadDeTrabajo = new UnidadDeTrabajo(entityManager, operacionesPorUnidad);
+		}
+		return entityManager;
+	}
+
+	private synchronized UnidadDeTrabajo obtenerUnidadDeTrabajo() {
+		obtenerEntityManager();
+		return unidadDeTrabajo;
 	}
 }
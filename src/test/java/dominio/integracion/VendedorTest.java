@@ -2,16 +2,17 @@ package dominio.integracion;
 
 import static org.junit.Assert.fail;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import dominio.EstadoGarantia;
 import dominio.GarantiaExtendida;
 import dominio.Producto;
 import dominio.Vendedor;
@@ -31,7 +32,7 @@ public class VendedorTest {
 	private RepositorioProducto repositorioProducto;
 	private RepositorioGarantiaExtendida repositorioGarantia;
 
-	private SimpleDateFormat formatter = new SimpleDateFormat("dd/MM/yyyy");
+	private DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
 	@Before
 	public void setUp() {
@@ -152,21 +153,16 @@ public class VendedorTest {
 	 * El sistema registra la garanta para el producto, y se valida que el precio y
 	 * la fecha de finalizacin coincidan con los esperados, y que el producto
 	 * cuente con la nueva garanta
-	 * 
-	 * @throws ParseException En caso de error durante la creacin de las fechas de
-	 *                        prueba
 	 */
 	@Test
-	public void garantiaExtendidaReglaVeintePorcientoDoscientosDias() throws ParseException {
+	public void garantiaExtendidaReglaVeintePorcientoDoscientosDias() {
 		Producto producto = new ProductoTestDataBuilder().conNombre(COMPUTADOR_LENOVO).build();
 		repositorioProducto.agregar(producto);
 		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
 
-		Date fechaInicial = formatter.parse("16/08/2018");
-		Calendar fecha = Calendar.getInstance();
-		fecha.setTime(fechaInicial);
+		LocalDate fechaInicial = LocalDate.parse("16/08/2018", formatter);
 		double precioGarantia = vendedor.calcularPrecioGarantia(producto.getPrecio(), 0.2);
-		Date fechaFin = vendedor.calcularFechaGaratia(fecha, producto.getPrecio());
+		LocalDate fechaFin = vendedor.calcularFechaGarantia(fechaInicial, producto.getPrecioCentavos());
 		GarantiaExtendida garantiaExtendida = new GarantiaExtendida(producto, fechaInicial, fechaFin, precioGarantia,
 				NOMBRE_CLIENTE);
 		repositorioGarantia.agregar(garantiaExtendida);
@@ -195,21 +191,16 @@ public class VendedorTest {
 	 * El sistema registra la garanta para el producto, y se valida que el precio y
 	 * la fecha de finalizacin coincidan con los esperados, y que el producto
 	 * cuente con la nueva garanta
-	 * 
-	 * @throws ParseException En caso de error durante la creacin de las fechas de
-	 *                        prueba
 	 */
 	@Test
-	public void garantiaExtendidaReglaVeintePorcDoscientosDiasDomingo() throws ParseException {
+	public void garantiaExtendidaReglaVeintePorcDoscientosDiasDomingo() {
 		Producto producto = new ProductoTestDataBuilder().conNombre(COMPUTADOR_LENOVO).build();
 		repositorioProducto.agregar(producto);
 		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
 
-		Date fechaInicial = formatter.parse("17/08/2018");
-		Calendar fecha = Calendar.getInstance();
-		fecha.setTime(fechaInicial);
+		LocalDate fechaInicial = LocalDate.parse("17/08/2018", formatter);
 		double precioGarantia = vendedor.calcularPrecioGarantia(producto.getPrecio(), 0.2);
-		Date fechaFin = vendedor.calcularFechaGaratia(fecha, producto.getPrecio());
+		LocalDate fechaFin = vendedor.calcularFechaGarantia(fechaInicial, producto.getPrecioCentavos());
 		GarantiaExtendida garantiaExtendida = new GarantiaExtendida(producto, fechaInicial, fechaFin, precioGarantia,
 				NOMBRE_CLIENTE);
 		repositorioGarantia.agregar(garantiaExtendida);
@@ -237,21 +228,16 @@ public class VendedorTest {
 	 * El sistema registra la garanta para el producto, y se valida que el precio y
 	 * la fecha de finalizacin coincidan con los esperados, y que el producto
 	 * cuente con la nueva garanta
-	 * 
-	 * @throws ParseException En caso de error durante la creacin de las fechas de
-	 *                        prueba
 	 */
 	@Test
-	public void garantiaExtendidaReglaDiezPorcientoCienDias() throws ParseException {
+	public void garantiaExtendidaReglaDiezPorcientoCienDias() {
 		Producto producto = new ProductoTestDataBuilder().conPrecio(450000.0).conNombre(COMPUTADOR_LENOVO).build();
 		repositorioProducto.agregar(producto);
 		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
 
-		Date fechaInicial = formatter.parse("17/08/2018");
-		Calendar fecha = Calendar.getInstance();
-		fecha.setTime(fechaInicial);
+		LocalDate fechaInicial = LocalDate.parse("17/08/2018", formatter);
 		double precioGarantia = vendedor.calcularPrecioGarantia(producto.getPrecio(), 0.1);
-		Date fechaFin = vendedor.calcularFechaGaratia(fecha, producto.getPrecio());
+		LocalDate fechaFin = vendedor.calcularFechaGarantia(fechaInicial, producto.getPrecioCentavos());
 		System.out.println(fechaFin.toString());
 		System.out.println(precioGarantia);
 		GarantiaExtendida garantiaExtendida = new GarantiaExtendida(producto, fechaInicial, fechaFin, precioGarantia,
@@ -273,4 +259,27 @@ public class VendedorTest {
 		Assert.assertTrue(garantia.getNombreCliente().equals(NOMBRE_CLIENTE));
 	}
 
+	/**
+	 * Mtodo que permite verificar el estado de la garanta de varios productos
+	 * consultados a la vez, con una sola consulta a la base de datos
+	 */
+	@Test
+	public void consultarEstadoGarantiasTest() {
+		Producto conGarantia = new ProductoTestDataBuilder().conNombre(COMPUTADOR_LENOVO).build();
+		Producto disponible = new ProductoTestDataBuilder().conNombre(COMPUTADOR_LENOVO).conCodigo("F01TSA0151")
+				.build();
+		repositorioProducto.agregar(conGarantia);
+		repositorioProducto.agregar(disponible);
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+		vendedor.generarGarantia(conGarantia.getCodigo(), NOMBRE_CLIENTE);
+
+		Map<String, EstadoGarantia> estados = vendedor.consultarEstadoGarantias(
+				Arrays.asList(disponible.getCodigo(), conGarantia.getCodigo(), "a123ebI213", ""));
+
+		Assert.assertEquals(Arrays.asList(disponible.getCodigo(), conGarantia.getCodigo(), "a123ebI213"),
+				Arrays.asList(estados.keySet().toArray()));
+		Assert.assertEquals(EstadoGarantia.DISPONIBLE, estados.get(disponible.getCodigo()));
+		Assert.assertEquals(EstadoGarantia.TIENE_GARANTIA, estados.get(conGarantia.getCodigo()));
+		Assert.assertEquals(EstadoGarantia.NO_APLICA, estados.get("a123ebI213"));
+	}
 }
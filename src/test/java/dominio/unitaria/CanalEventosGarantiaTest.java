@@ -0,0 +1,143 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.evento.CanalEventosGarantia;
+import dominio.evento.ConsumidorEventos;
+import dominio.evento.EstrategiaEspera;
+import dominio.evento.PoliticaDesborde;
+import dominio.evento.Suscripcion;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class CanalEventosGarantiaTest {
+
+	private static final long ESPERA_MS = 5000;
+
+	/**
+	 * Mtodo que permite verificar que cada consumidor recibe todas las
+	 * garantas en orden, y que el ltimo evento disponible cierra el lote
+	 */
+	@Test
+	public void entregaEnOrdenPorLotesTest() throws InterruptedException {
+		CanalEventosGarantia canal = new CanalEventosGarantia(1024, PoliticaDesborde.DESCARTAR_NUEVO);
+		List<Long> secuencias = new CopyOnWriteArrayList<>();
+		List<Long> finesDeLote = new CopyOnWriteArrayList<>();
+		Suscripcion suscripcion = canal.suscribir("orden", (garantia, secuencia, finDeLote) -> {
+			secuencias.add(secuencia);
+			if (finDeLote) {
+				finesDeLote.add(secuencia);
+			}
+		}, EstrategiaEspera.BLOQUEAR);
+
+		for (int i = 0; i < 500; i++) {
+			canal.publicar(garantia());
+		}
+
+		esperarRetrasoCero(suscripcion);
+		assertEquals(500, secuencias.size());
+		for (int i = 0; i < 500; i++) {
+			assertEquals(i, secuencias.get(i).longValue());
+		}
+		assertEquals(499L, finesDeLote.get(finesDeLote.size() - 1).longValue());
+		assertEquals(0, canal.getDescartados());
+		suscripcion.cancelar(ESPERA_MS);
+	}
+
+	/**
+	 * Mtodo que permite verificar que con un consumidor detenido el canal
+	 * descarta los eventos nuevos sin esperar
+	 */
+	@Test
+	public void descartarNuevoConConsumidorLentoTest() throws InterruptedException {
+		CanalEventosGarantia canal = new CanalEventosGarantia(4, PoliticaDesborde.DESCARTAR_NUEVO);
+		ConsumidorDetenido consumidor = new ConsumidorDetenido();
+		Suscripcion suscripcion = canal.suscribir("lento", consumidor, EstrategiaEspera.DORMIR);
+
+		canal.publicar(garantia());
+		assertTrue(consumidor.recibido.await(ESPERA_MS, TimeUnit.MILLISECONDS));
+		for (int i = 0; i < 9; i++) {
+			canal.publicar(garantia());
+		}
+
+		assertEquals(6, canal.getDescartados());
+		assertEquals(4, canal.getPublicados());
+		assertEquals(4, suscripcion.getRetraso());
+
+		consumidor.liberar.countDown();
+		esperarRetrasoCero(suscripcion);
+		assertEquals(4, consumidor.recibidos);
+		assertEquals(0, suscripcion.getPerdidos());
+		suscripcion.cancelar(ESPERA_MS);
+	}
+
+	/**
+	 * Mtodo que permite verificar que al sobrescribir los eventos antiguos el
+	 * consumidor atrasado salta al ms antiguo disponible y cuenta los perdidos
+	 */
+	@Test
+	public void sobrescribirAntiguoConConsumidorLentoTest() throws InterruptedException {
+		CanalEventosGarantia canal = new CanalEventosGarantia(4, PoliticaDesborde.SOBRESCRIBIR_ANTIGUO);
+		ConsumidorDetenido consumidor = new ConsumidorDetenido();
+		Suscripcion suscripcion = canal.suscribir("lento", consumidor, EstrategiaEspera.CEDER);
+
+		canal.publicar(garantia());
+		assertTrue(consumidor.recibido.await(ESPERA_MS, TimeUnit.MILLISECONDS));
+		for (int i = 0; i < 9; i++) {
+			canal.publicar(garantia());
+		}
+		consumidor.liberar.countDown();
+
+		esperarRetrasoCero(suscripcion);
+		assertEquals(0, canal.getDescartados());
+		assertEquals(10, canal.getPublicados());
+		assertEquals(5, consumidor.recibidos);
+		assertEquals(5, suscripcion.getPerdidos());
+		suscripcion.cancelar(ESPERA_MS);
+	}
+
+	private static void esperarRetrasoCero(Suscripcion suscripcion) throws InterruptedException {
+		long limite = System.currentTimeMillis() + ESPERA_MS;
+		while (suscripcion.getRetraso() > 0 && System.currentTimeMillis() < limite) {
+			Thread.sleep(1);
+		}
+		assertEquals(0, suscripcion.getRetraso());
+	}
+
+	private static GarantiaExtendida garantia() {
+		Producto producto = new ProductoTestDataBuilder().build();
+		return new GarantiaExtendida(producto, LocalDate.of(2018, 8, 16), LocalDate.of(2019, 4, 6), 156000,
+				"Cliente");
+	}
+
+	/**
+	 * Consumidor que se detiene en el primer evento hasta que se libera
+	 */
+	private static class ConsumidorDetenido implements ConsumidorEventos {
+
+		private final CountDownLatch recibido = new CountDownLatch(1);
+		private final CountDownLatch liberar = new CountDownLatch(1);
+		private volatile int recibidos;
+
+		@Override
+		public void alRecibir(GarantiaExtendida garantia, long secuencia, boolean finDeLote) {
+			recibidos++;
+			recibido.countDown();
+			try {
+				liberar.await(ESPERA_MS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.CatalogoProductos;
+import dominio.Producto;
+
+public class CatalogoProductosTest {
+
+	private static final String CODIGO = "S01H1AT51";
+	private static final String NOMBRE_PRODUCTO = "Impresora";
+	private static final long PRECIO_CENTAVOS = 55000000;
+
+	@Before
+	public void setUp() {
+		CatalogoProductos.limpiar();
+	}
+
+	@Test
+	public void mismoCodigoCompartidoTest() {
+
+		// arrange
+		Producto primero = CatalogoProductos.obtener(CODIGO, NOMBRE_PRODUCTO, PRECIO_CENTAVOS);
+
+		// act
+		Producto segundo = CatalogoProductos.obtener(new String(CODIGO), new String(NOMBRE_PRODUCTO),
+				PRECIO_CENTAVOS);
+
+		// assert
+		assertSame(primero, segundo);
+		assertEquals(1, CatalogoProductos.tamano());
+	}
+
+	@Test
+	public void cambioDePrecioReemplazaProductoTest() {
+
+		// arrange
+		Producto anterior = CatalogoProductos.obtener(CODIGO, NOMBRE_PRODUCTO, PRECIO_CENTAVOS);
+
+		// act
+		Producto actual = CatalogoProductos.obtener(CODIGO, new String(NOMBRE_PRODUCTO), PRECIO_CENTAVOS + 100);
+
+		// assert
+		assertNotSame(anterior, actual);
+		assertEquals(PRECIO_CENTAVOS + 100, actual.getPrecioCentavos());
+		assertSame(anterior.getNombre(), actual.getNombre());
+		assertSame(actual, CatalogoProductos.obtener(CODIGO, NOMBRE_PRODUCTO, PRECIO_CENTAVOS + 100));
+	}
+}
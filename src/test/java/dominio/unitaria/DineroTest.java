@@ -0,0 +1,53 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.RoundingMode;
+
+import org.junit.Test;
+
+import dominio.Dinero;
+
+public class DineroTest {
+
+	/**
+	 * Mtodo que permite verificar que el porcentaje se calcula sin errores de
+	 * redondeo de punto flotante
+	 */
+	@Test
+	public void porcentajeExactoTest() {
+		assertEquals(15600000L, Dinero.porcentaje(Dinero.aCentavos(780000), 2000, RoundingMode.HALF_UP));
+		assertEquals(3L, Dinero.porcentaje(Dinero.aCentavos("0.30"), 1000, RoundingMode.HALF_UP));
+	}
+
+	/**
+	 * Mtodo que permite verificar que cada modo de redondeo se comporta igual
+	 * que en {@link java.math.BigDecimal}
+	 */
+	@Test
+	public void redondeoExplicitoTest() {
+		assertEquals(3L, Dinero.dividir(25, 10, RoundingMode.HALF_UP));
+		assertEquals(2L, Dinero.dividir(25, 10, RoundingMode.HALF_EVEN));
+		assertEquals(4L, Dinero.dividir(35, 10, RoundingMode.HALF_EVEN));
+		assertEquals(2L, Dinero.dividir(25, 10, RoundingMode.HALF_DOWN));
+		assertEquals(-3L, Dinero.dividir(-25, 10, RoundingMode.HALF_UP));
+		assertEquals(-3L, Dinero.dividir(-21, 10, RoundingMode.FLOOR));
+		assertEquals(-2L, Dinero.dividir(-21, 10, RoundingMode.CEILING));
+		assertEquals(3L, Dinero.dividir(21, 10, RoundingMode.UP));
+	}
+
+	/**
+	 * Mtodo que permite verificar la conversin de texto a centavos
+	 */
+	@Test
+	public void convertirTextoACentavosTest() {
+		assertEquals(123456L, Dinero.aCentavos("1234.56"));
+		assertEquals(123457L, Dinero.aCentavos("1234.565"));
+		assertEquals(78000000L, Dinero.aCentavos("780000"));
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void divisionInexactaSinRedondeoTest() {
+		Dinero.dividir(25, 10, RoundingMode.UNNECESSARY);
+	}
+}
@@ -0,0 +1,171 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Clock;
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import dominio.tarifa.CacheFechasFin;
+import dominio.tarifa.MotorTarifas;
+import dominio.tarifa.ReglaDias;
+import dominio.tarifa.TablaTarifas;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class MotorTarifasTest {
+
+	private static final String TRES_NIVELES = "# umbral,porcentaje,dias,regla\n" + "1000000,25,300,SIN_LUNES\n"
+			+ "0,10,100,CALENDARIO\n" + "500000,20,200,SIN_LUNES\n";
+
+	/**
+	 * Mtodo que permite verificar que se elige el nivel con el mayor umbral que
+	 * el precio supera, sin importar el orden del archivo
+	 */
+	@Test
+	public void buscarNivelPorUmbralTest() throws IOException {
+		TablaTarifas tabla = TablaTarifas.leer(new StringReader(TRES_NIVELES));
+
+		assertEquals(1000, tabla.getPuntosBasicos(tabla.buscarNivel(0L)));
+		assertEquals(1000, tabla.getPuntosBasicos(tabla.buscarNivel(50000000L)));
+		assertEquals(2000, tabla.getPuntosBasicos(tabla.buscarNivel(50000001L)));
+		assertEquals(2000, tabla.getPuntosBasicos(tabla.buscarNivel(100000000L)));
+		assertEquals(2500, tabla.getPuntosBasicos(tabla.buscarNivel(100000001L)));
+		assertEquals(ReglaDias.SIN_LUNES, tabla.getRegla(tabla.buscarNivel(100000001L)));
+		assertEquals(300, tabla.getDias(tabla.buscarNivel(100000001L)));
+	}
+
+	/**
+	 * Mtodo que permite verificar que la tabla por defecto conserva las reglas
+	 * originales del vendedor
+	 */
+	@Test
+	public void tablaPorDefectoTest() {
+		TablaTarifas tabla = TablaTarifas.porDefecto();
+
+		int nivelBase = tabla.buscarNivel(Vendedor.PRECIO_BASE_GARANTIA_CENTAVOS);
+		int nivelSuperior = tabla.buscarNivel(Vendedor.PRECIO_BASE_GARANTIA_CENTAVOS + 1);
+
+		assertEquals(Vendedor.DIEZ_PORCIENTO_PUNTOS_BASICOS, tabla.getPuntosBasicos(nivelBase));
+		assertEquals(Vendedor.DIAS_GARANTIA_DIEZ_PORCIENTO, tabla.getDias(nivelBase));
+		assertEquals(Vendedor.VEINTE_PORCIENTO_PUNTOS_BASICOS, tabla.getPuntosBasicos(nivelSuperior));
+		assertEquals(ReglaDias.SIN_LUNES, tabla.getRegla(nivelSuperior));
+	}
+
+	/**
+	 * Mtodo que permite verificar que la tabla inicial del motor se carga del
+	 * archivo de tarifas del classpath y conserva las reglas originales
+	 */
+	@Test
+	public void tablaInicialDesdeClasspathTest() {
+		TablaTarifas porDefecto = TablaTarifas.porDefecto();
+		TablaTarifas inicial = new MotorTarifas().obtenerTabla();
+
+		assertNotNull(MotorTarifas.class.getResource(MotorTarifas.RECURSO_TARIFAS));
+		assertEquals(porDefecto.getCantidadNiveles(), inicial.getCantidadNiveles());
+		for (int nivel = 0; nivel < porDefecto.getCantidadNiveles(); nivel++) {
+			assertEquals(porDefecto.getUmbralCentavos(nivel), inicial.getUmbralCentavos(nivel));
+			assertEquals(porDefecto.getPuntosBasicos(nivel), inicial.getPuntosBasicos(nivel));
+			assertEquals(porDefecto.getDias(nivel), inicial.getDias(nivel));
+			assertEquals(porDefecto.getRegla(nivel), inicial.getRegla(nivel));
+		}
+	}
+
+	/**
+	 * Mtodo que permite verificar que el archivo de tarifas del classpath se
+	 * lee una sola vez y que los vendedores por defecto comparten un motor
+	 */
+	@Test
+	public void tablaInicialCompartidaTest() {
+		assertSame(new MotorTarifas().obtenerTabla(), new MotorTarifas().obtenerTabla());
+		assertSame(MotorTarifas.compartido(), MotorTarifas.compartido());
+	}
+
+	/**
+	 * Mtodo que permite verificar que el vendedor aplica la tabla publicada en
+	 * el motor sin necesidad de crearlo de nuevo
+	 */
+	@Test
+	public void vendedorUsaTablaPublicadaTest() throws IOException {
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+		Producto producto = new ProductoTestDataBuilder().conPrecio(1200000).build();
+		when(repositorioProducto.obtenerPorCodigo(producto.getCodigo())).thenReturn(producto);
+
+		MotorTarifas motor = new MotorTarifas();
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia, Clock.systemUTC(),
+				motor);
+		LocalDate inicio = LocalDate.of(2018, 8, 17);
+
+		assertEquals(LocalDate.of(2019, 4, 9), vendedor.calcularFechaGarantia(inicio, producto.getPrecioCentavos()));
+
+		motor.publicar(TablaTarifas.leer(new StringReader(TRES_NIVELES)));
+
+		assertEquals(ReglaDias.SIN_LUNES.calcularDiaFin(inicio.toEpochDay(), 300),
+				vendedor.calcularDiaFinGarantia(inicio.toEpochDay(), producto.getPrecioCentavos()));
+	}
+
+	/**
+	 * Mtodo que permite verificar que una tabla invlida no reemplaza la tabla
+	 * vigente
+	 */
+	@Test
+	public void tablaInvalidaNoSePublicaTest() throws IOException {
+		MotorTarifas motor = new MotorTarifas();
+		TablaTarifas vigente = motor.obtenerTabla();
+		try {
+			motor.publicar(TablaTarifas.leer(new StringReader("0,10,100\n")));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertSame(vigente, motor.obtenerTabla());
+		}
+	}
+
+	/**
+	 * Mtodo que permite verificar que se rechazan los niveles con das no
+	 * positivos o con umbral o porcentaje negativos, que daran fechas de fin
+	 * anteriores a la solicitud o precios negativos
+	 */
+	@Test
+	public void nivelesFueraDeRangoTest() throws IOException {
+		String[] invalidos = { "0,10,0,CALENDARIO\n", "0,10,-5,CALENDARIO\n", "0,-10,100,CALENDARIO\n",
+				"-1,10,100,CALENDARIO\n" };
+		for (String invalido : invalidos) {
+			try {
+				TablaTarifas.leer(new StringReader(invalido));
+				fail(invalido);
+			} catch (IllegalArgumentException e) {
+				assertNotNull(e.getMessage());
+			}
+		}
+		assertEquals(0, TablaTarifas.leer(new StringReader("0,0,1,CALENDARIO\n")).getPuntosBasicos(0));
+	}
+
+	/**
+	 * Mtodo que permite verificar que la cache de das devuelve lo mismo que
+	 * el clculo directo, aun cuando las entradas se reemplazan
+	 */
+	@Test
+	public void cacheFechasFinTest() {
+		CacheFechasFin cache = new CacheFechasFin(4);
+		long inicio = LocalDate.of(2018, 8, 1).toEpochDay();
+		for (int vuelta = 0; vuelta < 2; vuelta++) {
+			for (long dia = inicio; dia < inicio + 60; dia++) {
+				assertEquals(ReglaDias.SIN_LUNES.calcularDiaFin(dia, 200),
+						cache.obtenerDiaFin(dia, ReglaDias.SIN_LUNES, 200));
+				assertEquals(dia + 100, cache.obtenerDiaFin(dia, ReglaDias.CALENDARIO, 100));
+			}
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import dominio.NombreCliente;
+
+public class NombreClienteTest {
+
+	/**
+	 * Mtodo que permite verificar que la clave de bsqueda no distingue
+	 * maysculas, tildes ni espacios repetidos
+	 */
+	@Test
+	public void normalizarTest() {
+		assertEquals("martinez juan", NombreCliente.normalizar("Martnez Juan"));
+		assertEquals("martinez juan", NombreCliente.normalizar("  MARTNEZ \t juan "));
+		assertEquals("munoz maria", NombreCliente.normalizar("Muoz Mara"));
+		assertEquals("", NombreCliente.normalizar("   "));
+		assertNull(NombreCliente.normalizar(null));
+	}
+}
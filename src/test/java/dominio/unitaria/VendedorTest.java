@@ -1,18 +1,38 @@
 package dominio.unitaria;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import dominio.CotizacionGarantia;
+import dominio.EstadoGarantia;
+import dominio.GarantiaExtendida;
 import dominio.Producto;
+import dominio.ResultadoGarantia;
 import dominio.Vendedor;
 import dominio.repositorio.RepositorioGarantiaExtendida;
 import dominio.repositorio.RepositorioProducto;
@@ -177,4 +197,121 @@ public class VendedorTest {
 
 		assertTrue(resultadoValidacion);
 	}
+
+	/**
+	 * Mtodo que permite verificar que la fecha de solicitud se toma del reloj
+	 * del vendedor, en su zona horaria, y que la fecha final se calcula a partir
+	 * de ella
+	 */
+	@Test
+	public void registrarGarantiaConRelojTest() {
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+
+		Producto producto = new ProductoTestDataBuilder().build();
+		when(repositorioProducto.obtenerPorCodigo(producto.getCodigo())).thenReturn(producto);
+
+		ZoneId bogota = ZoneId.of("America/Bogota");
+		Clock reloj = Clock.fixed(ZonedDateTime.of(2018, 8, 16, 23, 30, 0, 0, bogota).toInstant(), bogota);
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia, reloj);
+
+		vendedor.registrarGarantiaExtendida(producto.getCodigo(), "Cliente");
+
+		ArgumentCaptor<GarantiaExtendida> garantia = ArgumentCaptor.forClass(GarantiaExtendida.class);
+		verify(repositorioGarantia).agregar(garantia.capture());
+		assertEquals(LocalDate.of(2018, 8, 16), garantia.getValue().getFechaSolicitudGarantia());
+		assertEquals(LocalDate.of(2019, 4, 6), garantia.getValue().getFechaFinGarantia());
+	}
+
+	/**
+	 * Mtodo que permite verificar que la cotizacin aplica las reglas de la
+	 * venta sin registrar la garanta
+	 */
+	@Test
+	public void cotizarGarantiaNoRegistraTest() {
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+
+		Producto producto = new ProductoTestDataBuilder().build();
+		when(repositorioProducto.obtenerPorCodigo(producto.getCodigo())).thenReturn(producto);
+
+		ZoneId bogota = ZoneId.of("America/Bogota");
+		Clock reloj = Clock.fixed(ZonedDateTime.of(2018, 8, 17, 10, 0, 0, 0, bogota).toInstant(), bogota);
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia, reloj);
+
+		CotizacionGarantia cotizacion = vendedor.cotizarGarantia(producto.getCodigo());
+
+		verify(repositorioGarantia, never()).agregar(any(GarantiaExtendida.class));
+		assertEquals(15600000L, cotizacion.getPrecioGarantiaCentavos());
+		assertEquals(LocalDate.of(2019, 4, 9), cotizacion.getFechaFinGarantia());
+	}
+
+	/**
+	 * Mtodo que permite verificar que la cotizacin de una venta sin conexin
+	 * usa la fecha de la venta y no consulta los repositorios
+	 */
+	@Test
+	public void cotizarGarantiaEnFechaTest() {
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+
+		Producto producto = new ProductoTestDataBuilder().build();
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+
+		CotizacionGarantia cotizacion = vendedor.cotizarGarantia(producto, LocalDate.of(2018, 8, 17));
+
+		verify(repositorioProducto, never()).obtenerPorCodigo(producto.getCodigo());
+		assertEquals(LocalDate.of(2018, 8, 17), cotizacion.getFechaSolicitudGarantia());
+		assertEquals(15600000L, cotizacion.getPrecioGarantiaCentavos());
+		assertEquals(LocalDate.of(2019, 4, 9), cotizacion.getFechaFinGarantia());
+	}
+
+	/**
+	 * Mtodo que permite verificar que los rechazos de negocio se reportan como
+	 * resultado, sin lanzar excepciones ni registrar la garanta
+	 */
+	@Test
+	public void intentarGenerarGarantiaRechazadaTest() {
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+
+		Producto producto = new ProductoTestDataBuilder().build();
+		when(repositorioGarantia.obtenerProductoConGarantiaPorCodigo(producto.getCodigo())).thenReturn(producto);
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+
+		ResultadoGarantia conGarantia = vendedor.intentarGenerarGarantia(producto.getCodigo(), "Cliente", null);
+		ResultadoGarantia sinDatos = vendedor.intentarGenerarGarantia(producto.getCodigo(), "", null);
+		ResultadoGarantia sinGarantia = vendedor.intentarGenerarGarantia("A213e98i", "Cliente", null);
+
+		assertFalse(conGarantia.esGenerada());
+		assertEquals(ResultadoGarantia.Codigo.EL_PRODUCTO_TIENE_GARANTIA, conGarantia.getCodigo());
+		assertEquals(ResultadoGarantia.Codigo.DATOS_OBLIGATORIOS, sinDatos.getCodigo());
+		assertEquals(ResultadoGarantia.Codigo.PRODUCTO_SIN_GARANTIA, sinGarantia.getCodigo());
+		assertSame(conGarantia, vendedor.intentarGenerarGarantia(producto.getCodigo(), "Cliente", null));
+		verify(repositorioGarantia, never()).agregar(any(GarantiaExtendida.class));
+	}
+
+	/**
+	 * Mtodo que permite verificar que el estado de la garanta de varios
+	 * productos se resuelve con una sola consulta al repositorio
+	 */
+	@Test
+	public void consultarEstadoGarantiasUnaConsultaTest() {
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+
+		when(repositorioGarantia.obtenerCodigosConGarantia(anyCollectionOf(String.class)))
+				.thenReturn(Collections.singleton("F01TSA0150"));
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+
+		Map<String, EstadoGarantia> estados = vendedor
+				.consultarEstadoGarantias(Arrays.asList("F01TSA0150", "F01TSA0151", "A213e98i", null));
+
+		assertEquals(3, estados.size());
+		assertEquals(EstadoGarantia.TIENE_GARANTIA, estados.get("F01TSA0150"));
+		assertEquals(EstadoGarantia.DISPONIBLE, estados.get("F01TSA0151"));
+		assertEquals(EstadoGarantia.NO_APLICA, estados.get("A213e98i"));
+		verify(repositorioGarantia, times(1)).obtenerCodigosConGarantia(anyCollectionOf(String.class));
+		verify(repositorioGarantia, never()).obtenerProductoConGarantiaPorCodigo(anyString());
+	}
 }
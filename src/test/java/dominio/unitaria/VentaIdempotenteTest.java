@@ -0,0 +1,222 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.ResultadoGarantia;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import dominio.idempotencia.VentaIdempotente;
+import dominio.idempotencia.VentanaIdempotencia;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class VentaIdempotenteTest {
+
+	private static final String CLAVE = "POS-1-0001";
+	private static final String NOMBRE_CLIENTE = "Cliente";
+	private static final int SOLICITUDES_SIMULTANEAS = 8;
+
+	/**
+	 * Mtodo que permite verificar que un reintento devuelve la garanta
+	 * original sin volver a consultar los repositorios
+	 */
+	@Test
+	public void reintentoNoConsultaRepositoriosTest() {
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+		Producto producto = new ProductoTestDataBuilder().build();
+		when(repositorioProducto.obtenerPorCodigo(producto.getCodigo())).thenReturn(producto);
+
+		VentaIdempotente venta = new VentaIdempotente(new Vendedor(repositorioProducto, repositorioGarantia),
+				repositorioGarantia, new VentanaIdempotencia<>(16, Duration.ofMinutes(5)));
+
+		GarantiaExtendida original = venta.generarGarantia(CLAVE, producto.getCodigo(), NOMBRE_CLIENTE);
+		GarantiaExtendida reintento = venta.generarGarantia(CLAVE, producto.getCodigo(), NOMBRE_CLIENTE);
+
+		assertSame(original, reintento);
+		assertEquals(CLAVE, original.getClaveIdempotencia());
+		verify(repositorioGarantia, times(1)).agregar(any(GarantiaExtendida.class));
+		verify(repositorioGarantia, times(1)).obtenerProductoConGarantiaPorCodigo(producto.getCodigo());
+		verify(repositorioProducto, times(1)).obtenerPorCodigo(producto.getCodigo());
+	}
+
+	/**
+	 * Mtodo que permite verificar que una solicitud sin clave de idempotencia
+	 * se rechaza con su propio cdigo y mensaje, y no como datos obligatorios
+	 * del producto y el cliente
+	 */
+	@Test
+	public void solicitudSinClaveTest() {
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+		VentaIdempotente venta = new VentaIdempotente(new Vendedor(repositorioProducto, repositorioGarantia),
+				repositorioGarantia, new VentanaIdempotencia<>(16, Duration.ofMinutes(5)));
+
+		assertEquals(ResultadoGarantia.Codigo.CLAVE_IDEMPOTENCIA_OBLIGATORIA,
+				venta.intentarGenerarGarantia("", "A01", NOMBRE_CLIENTE).getCodigo());
+		try {
+			venta.generarGarantia(null, "A01", NOMBRE_CLIENTE);
+			fail();
+		} catch (GarantiaExtendidaException e) {
+			assertEquals(Vendedor.CLAVE_IDEMPOTENCIA_OBLIGATORIA, e.getMessage());
+		}
+	}
+
+	/**
+	 * Mtodo que permite verificar que un reintento de una solicitud rechazada
+	 * devuelve el mismo rechazo
+	 */
+	@Test
+	public void reintentoDeRechazoTest() {
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+		VentaIdempotente venta = new VentaIdempotente(new Vendedor(repositorioProducto, repositorioGarantia),
+				repositorioGarantia, new VentanaIdempotencia<>(16, Duration.ofMinutes(5)));
+
+		for (int intento = 0; intento < 2; intento++) {
+			try {
+				venta.generarGarantia(CLAVE, "a123ebI213", NOMBRE_CLIENTE);
+				fail();
+			} catch (GarantiaExtendidaException e) {
+				assertEquals(Vendedor.PRODUCTO_SIN_GARANTIA, e.getMessage());
+			}
+		}
+		verify(repositorioGarantia, times(1)).obtenerPorClaveIdempotencia(CLAVE);
+	}
+
+	/**
+	 * Mtodo que permite verificar que si la clave ya no est en la ventana se
+	 * devuelve la garanta guardada con esa clave
+	 */
+	@Test
+	public void claveGuardadaDespuesDeReiniciarTest() {
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+		GarantiaExtendida guardada = new GarantiaExtendida(new ProductoTestDataBuilder().build());
+		when(repositorioGarantia.obtenerPorClaveIdempotencia(CLAVE)).thenReturn(guardada);
+
+		VentaIdempotente venta = new VentaIdempotente(new Vendedor(repositorioProducto, repositorioGarantia),
+				repositorioGarantia, new VentanaIdempotencia<>(16, Duration.ofMinutes(5)));
+
+		assertSame(guardada, venta.generarGarantia(CLAVE, "F01TSA0150", NOMBRE_CLIENTE));
+		verify(repositorioGarantia, times(0)).agregar(any(GarantiaExtendida.class));
+	}
+
+	/**
+	 * Mtodo que permite verificar que las solicitudes simultneas con la misma
+	 * clave esperan a la primera y reciben su garanta, sin registrar
+	 * duplicados
+	 */
+	@Test
+	public void solicitudesSimultaneasMismaClaveTest() throws InterruptedException {
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+		Producto producto = new ProductoTestDataBuilder().build();
+		when(repositorioProducto.obtenerPorCodigo(producto.getCodigo())).thenReturn(producto);
+		CountDownLatch atendiendo = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		when(repositorioGarantia.obtenerPorClaveIdempotencia(CLAVE)).thenAnswer(invocacion -> {
+			atendiendo.countDown();
+			liberar.await();
+			return null;
+		});
+
+		VentaIdempotente venta = new VentaIdempotente(new Vendedor(repositorioProducto, repositorioGarantia),
+				repositorioGarantia, new VentanaIdempotencia<>(16, Duration.ofMinutes(5)));
+		GarantiaExtendida[] garantias = new GarantiaExtendida[SOLICITUDES_SIMULTANEAS];
+		Thread[] hilos = new Thread[SOLICITUDES_SIMULTANEAS];
+		for (int i = 0; i < hilos.length; i++) {
+			int indice = i;
+			hilos[i] = new Thread(
+					() -> garantias[indice] = venta.generarGarantia(CLAVE, producto.getCodigo(), NOMBRE_CLIENTE));
+		}
+
+		// La primera solicitud queda atendiendo mientras llegan las dems
+		hilos[0].start();
+		atendiendo.await();
+		for (int i = 1; i < hilos.length; i++) {
+			hilos[i].start();
+		}
+		for (int i = 1; i < hilos.length; i++) {
+			while (hilos[i].getState() != Thread.State.WAITING && hilos[i].isAlive()) {
+				Thread.sleep(1);
+			}
+		}
+		liberar.countDown();
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+
+		for (GarantiaExtendida garantia : garantias) {
+			assertSame(garantias[0], garantia);
+		}
+		verify(repositorioGarantia, times(1)).obtenerPorClaveIdempotencia(CLAVE);
+		verify(repositorioGarantia, times(1)).agregar(any(GarantiaExtendida.class));
+	}
+
+	/**
+	 * Mtodo que permite verificar que la ventana no supera su capacidad y olvida
+	 * las claves vencidas
+	 */
+	@Test
+	public void ventanaAcotadaTest() {
+		RelojManual reloj = new RelojManual();
+		VentanaIdempotencia<String> ventana = new VentanaIdempotencia<>(2, Duration.ofSeconds(10), reloj);
+
+		ventana.registrar("a", "A");
+		ventana.registrar("b", "B");
+		ventana.obtener("a");
+		ventana.registrar("c", "C");
+
+		assertEquals(2, ventana.getTamano());
+		assertNull(ventana.obtener("b"));
+		assertEquals("A", ventana.obtener("a"));
+
+		reloj.avanzar(Duration.ofSeconds(11));
+		assertNull(ventana.obtener("a"));
+	}
+
+	private static class RelojManual extends Clock {
+
+		private Instant ahora = Instant.parse("2018-08-16T10:00:00Z");
+
+		private void avanzar(Duration duracion) {
+			ahora = ahora.plus(duracion);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zona) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return ahora;
+		}
+	}
+}
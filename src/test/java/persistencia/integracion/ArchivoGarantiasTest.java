@@ -0,0 +1,153 @@
+package persistencia.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.archivo.ArchivoGarantias;
+import persistencia.archivo.ResumenArchivo;
+import persistencia.lectura.RepositorioGarantiaLectura;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class ArchivoGarantiasTest {
+
+	private static final ZoneId ZONA = ZoneId.of("America/Bogota");
+	private static final LocalDate FECHA_VENCIDA = LocalDate.of(2025, 1, 15);
+	private static final LocalDate FECHA_VIGENTE = LocalDate.of(2026, 7, 1);
+	private static final LocalDate FECHA_CORTE = LocalDate.of(2026, 8, 1);
+
+	private SistemaDePersistencia sistemaPersistencia;
+	private RepositorioProducto repositorioProducto;
+	private RepositorioGarantiaExtendida repositorioGarantia;
+
+	@Before
+	public void setUp() {
+		sistemaPersistencia = new SistemaDePersistencia();
+		repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+
+		sistemaPersistencia.iniciar();
+		venderGarantia(FECHA_VENCIDA, "A01", "Cliente Uno", "K01");
+		venderGarantia(FECHA_VIGENTE, "A02", "Cliente Dos", "K02");
+		sistemaPersistencia.terminar();
+	}
+
+	/**
+	 * Mtodo que permite verificar que el archivo mueve solo las garantas
+	 * vencidas y que los repositorios siguen encontrndolas por cdigo, por
+	 * clave de idempotencia, por cliente y desde el modelo de lectura
+	 */
+	@Test
+	public void archivarTest() {
+
+		// arrange
+		ArchivoGarantias archivo = sistemaPersistencia.obtenerArchivoGarantias();
+		GarantiaExtendida antesDeArchivar = repositorioGarantia.obtener("A01");
+
+		// act
+		ResumenArchivo resumen = archivo.archivar(FECHA_CORTE, avance -> {
+		});
+		ResumenArchivo repeticion = archivo.archivar(FECHA_CORTE, avance -> {
+		});
+
+		// assert
+		assertEquals(1, resumen.getGarantias());
+		assertEquals(1, resumen.getTransacciones());
+		assertEquals(0, repeticion.getGarantias());
+		assertEquals(0, repeticion.getTransacciones());
+
+		GarantiaExtendida archivada = repositorioGarantia.obtener("A01");
+		assertNotNull(archivada);
+		assertEquals(antesDeArchivar.getFechaFinGarantia(), archivada.getFechaFinGarantia());
+		assertEquals(antesDeArchivar.getPrecioGarantiaCentavos(), archivada.getPrecioGarantiaCentavos());
+		assertEquals("A01", repositorioGarantia.obtenerPorClaveIdempotencia("K01").getProducto().getCodigo());
+		assertEquals(new HashSet<>(Arrays.asList("A01", "A02")),
+				repositorioGarantia.obtenerCodigosConGarantia(Arrays.asList("A01", "A02", "A03")));
+		assertEquals("A01", repositorioGarantia.obtenerProductoConGarantiaPorCodigo("A01").getCodigo());
+		assertEquals("A02", repositorioGarantia.obtenerProductoConGarantiaPorCodigo("A02").getCodigo());
+		assertEquals(Arrays.asList("A02", "A01"),
+				codigos(repositorioGarantia.buscarPorPrefijoCliente("cliente", null, 5)));
+		assertEquals(Arrays.asList("A01"),
+				codigos(repositorioGarantia.buscarPorNombreCliente("cliente uno", null, 5)));
+
+		RepositorioGarantiaLectura repositorioLectura = sistemaPersistencia.obtenerRepositorioGarantiaLectura();
+		assertTrue(repositorioLectura.esperarMarcaAgua(0, 10000));
+		assertEquals("Cliente Uno", repositorioLectura.obtener("A01").getNombreCliente());
+	}
+
+	/**
+	 * Mtodo que permite verificar que, cuando las garantas vencidas llenan
+	 * justo el ltimo lote, el archivo no abre otra transaccin para buscar un
+	 * lote vaco
+	 */
+	@Test
+	public void archivarLoteCompletoTest() {
+
+		// arrange
+		EntityManagerFactory factory = Persistence.createEntityManagerFactory("tienda",
+				Collections.singletonMap("hibernate.hbm2ddl.auto", "validate"));
+		List<ResumenArchivo> avances = new ArrayList<>();
+
+		try {
+			// act
+			ResumenArchivo resumen = new ArchivoGarantias(factory, 1).archivar(FECHA_CORTE, avances::add);
+
+			// assert
+			assertEquals(1, resumen.getGarantias());
+			assertEquals(1, resumen.getTransacciones());
+			assertEquals(1, avances.size());
+		} finally {
+			factory.close();
+		}
+	}
+
+	/**
+	 * Mtodo que permite verificar que un producto con la garanta archivada no
+	 * puede recibir otra
+	 */
+	@Test(expected = GarantiaExtendidaException.class)
+	public void ventaConGarantiaArchivadaTest() {
+
+		// arrange
+		sistemaPersistencia.obtenerArchivoGarantias().archivar(FECHA_CORTE, avance -> {
+		});
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+
+		// act
+		vendedor.generarGarantia("A01", "Cliente Tres");
+	}
+
+	private void venderGarantia(LocalDate fechaSolicitud, String codigo, String nombreCliente,
+			String claveIdempotencia) {
+		Clock reloj = Clock.fixed(fechaSolicitud.atStartOfDay(ZONA).toInstant(), ZONA);
+		repositorioProducto.agregar(new ProductoTestDataBuilder().conCodigo(codigo).build());
+		new Vendedor(repositorioProducto, repositorioGarantia, reloj).generarGarantia(codigo, nombreCliente,
+				claveIdempotencia);
+	}
+
+	private static List<String> codigos(List<GarantiaExtendida> garantias) {
+		return garantias.stream().map(garantia -> garantia.getProducto().getCodigo()).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,67 @@
+package persistencia.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.sistema.SistemaDePersistencia;
+
+public class ArranqueRapidoTest {
+
+	private static final long ESPERA_MAXIMA_MS = 30000;
+
+	private SistemaDePersistencia esquemaCreado;
+
+	@Before
+	public void setUp() {
+		esquemaCreado = new SistemaDePersistencia();
+	}
+
+	/**
+	 * Mtodo que permite verificar que en modo de arranque rpido la conexin
+	 * valida el esquema existente en segundo plano y, una vez disponible,
+	 * atiende ventas
+	 */
+	@Test
+	public void arranqueRapidoAtiendeVentasTest() throws InterruptedException {
+
+		// arrange
+		SistemaDePersistencia sistemaPersistencia = new SistemaDePersistencia(true);
+
+		// act
+		long limite = System.currentTimeMillis() + ESPERA_MAXIMA_MS;
+		while (!sistemaPersistencia.estaDisponible() && System.currentTimeMillis() < limite) {
+			Thread.sleep(10);
+		}
+		RepositorioProducto repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		RepositorioGarantiaExtendida repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+		sistemaPersistencia.iniciar();
+		repositorioProducto.agregar(new Producto("A01RAP01", "Producto", 780000));
+		new Vendedor(repositorioProducto, repositorioGarantia).generarGarantia("A01RAP01", "Cliente");
+		sistemaPersistencia.terminar();
+
+		// assert
+		assertTrue(sistemaPersistencia.estaDisponible());
+		assertEquals("Cliente", repositorioGarantia.obtener("A01RAP01").getNombreCliente());
+	}
+
+	/**
+	 * Mtodo que permite verificar que cada sistema reporta la disponibilidad de
+	 * su propia conexin y no la de la ltima creada
+	 */
+	@Test
+	public void disponibilidadPorConexionTest() {
+
+		// act
+		new SistemaDePersistencia(true);
+
+		// assert
+		assertTrue(esquemaCreado.estaDisponible());
+	}
+}
@@ -0,0 +1,130 @@
+package persistencia.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.Vendedor;
+import dominio.repositorio.RecorridoGarantias;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.lectura.RepositorioGarantiaLectura;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class BusquedaClientesTest {
+
+	private static final int TAMANO_PAGINA = 2;
+
+	private SistemaDePersistencia sistemaPersistencia;
+	private RepositorioProducto repositorioProducto;
+	private RepositorioGarantiaExtendida repositorioGarantia;
+
+	@Before
+	public void setUp() {
+		sistemaPersistencia = new SistemaDePersistencia();
+		repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+
+		sistemaPersistencia.iniciar();
+		venderGarantia(new Vendedor(repositorioProducto, repositorioGarantia), "C01", "Martnez Juan");
+		venderGarantia(new Vendedor(repositorioProducto, repositorioGarantia), "C02", "  MARTINEZ   juan ");
+		venderGarantia(new Vendedor(repositorioProducto, repositorioGarantia), "C03", "Martn Lpez");
+		venderGarantia(new Vendedor(repositorioProducto, repositorioGarantia), "C04", "Ana Ramrez");
+		sistemaPersistencia.terminar();
+	}
+
+	/**
+	 * Mtodo que permite verificar que la bsqueda por prefijo del cliente no
+	 * distingue maysculas ni tildes y recorre todas las pginas en orden de
+	 * nombre normalizado y cdigo, desde la base de datos y desde el modelo de
+	 * lectura
+	 */
+	@Test
+	public void buscarPorPrefijoClienteTest() {
+
+		// arrange
+		RepositorioGarantiaLectura repositorioLectura = sistemaPersistencia.obtenerRepositorioGarantiaLectura();
+		assertTrue(repositorioLectura.esperarMarcaAgua(0, 10000));
+
+		// act
+		List<String> desdeBaseDeDatos = codigos(
+				RecorridoGarantias.porPrefijoCliente(repositorioGarantia, "MARTN", TAMANO_PAGINA));
+		List<String> desdeModelo = codigos(
+				RecorridoGarantias.porPrefijoCliente(repositorioLectura, "martin", TAMANO_PAGINA));
+
+		// assert
+		assertEquals(Arrays.asList("C03", "C01", "C02"), desdeBaseDeDatos);
+		assertEquals(desdeBaseDeDatos, desdeModelo);
+	}
+
+	/**
+	 * Mtodo que permite verificar que la bsqueda por nombre del cliente
+	 * encuentra solo las garantas con el nombre completo, escrito de cualquier
+	 * forma
+	 */
+	@Test
+	public void buscarPorNombreClienteTest() {
+
+		// arrange
+		RepositorioGarantiaLectura repositorioLectura = sistemaPersistencia.obtenerRepositorioGarantiaLectura();
+		assertTrue(repositorioLectura.esperarMarcaAgua(0, 10000));
+
+		// act
+		List<String> desdeBaseDeDatos = codigos(
+				RecorridoGarantias.porNombreCliente(repositorioGarantia, "martinez juan", 1));
+		List<String> desdeModelo = codigos(
+				RecorridoGarantias.porNombreCliente(repositorioLectura, "Martnez  Juan", 1));
+		List<String> soloApellido = codigos(
+				RecorridoGarantias.porNombreCliente(repositorioGarantia, "Martnez", TAMANO_PAGINA));
+
+		// assert
+		assertEquals(Arrays.asList("C01", "C02"), desdeBaseDeDatos);
+		assertEquals(desdeBaseDeDatos, desdeModelo);
+		assertTrue(soloApellido.isEmpty());
+	}
+
+	/**
+	 * Mtodo que permite verificar que las sugerencias mientras se escribe
+	 * muestran cada cliente una vez e incluyen las garantas confirmadas despus
+	 * de cargar el modelo de lectura
+	 */
+	@Test
+	public void sugerirClientesIncluyeConfirmadasTest() {
+
+		// arrange
+		RepositorioGarantiaLectura repositorioLectura = sistemaPersistencia.obtenerRepositorioGarantiaLectura();
+		assertTrue(repositorioLectura.esperarMarcaAgua(0, 10000));
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioLectura);
+
+		// act
+		sistemaPersistencia.iniciar();
+		venderGarantia(vendedor, "C05", "Martha Ruiz");
+		List<String> antesDeConfirmar = codigos(
+				RecorridoGarantias.porPrefijoCliente(repositorioLectura, "marth", TAMANO_PAGINA));
+		sistemaPersistencia.terminar();
+
+		// assert
+		assertEquals(Arrays.asList("C05"), antesDeConfirmar);
+		assertEquals(Arrays.asList("Martha Ruiz", "Martn Lpez", "Martnez Juan"),
+				repositorioLectura.sugerirClientes("Mart", 5));
+		assertEquals(Arrays.asList("Martha Ruiz", "Martn Lpez"), repositorioLectura.sugerirClientes("mart", 2));
+	}
+
+	private void venderGarantia(Vendedor vendedor, String codigo, String nombreCliente) {
+		repositorioProducto.agregar(new ProductoTestDataBuilder().conCodigo(codigo).build());
+		vendedor.generarGarantia(codigo, nombreCliente);
+	}
+
+	private static List<String> codigos(Stream<GarantiaExtendida> garantias) {
+		return garantias.map(garantia -> garantia.getProducto().getCodigo()).collect(Collectors.toList());
+	}
+}
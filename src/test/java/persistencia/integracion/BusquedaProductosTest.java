@@ -0,0 +1,170 @@
+package persistencia.integracion;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.repositorio.RecorridoProductos;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.lectura.IndiceProductos;
+import persistencia.lectura.RepositorioProductoIndexado;
+import persistencia.sistema.SistemaDePersistencia;
+
+public class BusquedaProductosTest {
+
+	private static final int TAMANO_PAGINA = 2;
+
+	private SistemaDePersistencia sistemaPersistencia;
+	private RepositorioProducto repositorioProducto;
+
+	@Before
+	public void setUp() {
+		sistemaPersistencia = new SistemaDePersistencia();
+		repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+
+		sistemaPersistencia.iniciar();
+		repositorioProducto.agregar(new Producto("B01", "Lavadora", 1200000));
+		repositorioProducto.agregar(new Producto("B02", "Lavaplatos", 500000));
+		repositorioProducto.agregar(new Producto("B03", "Lampara", 80000));
+		repositorioProducto.agregar(new Producto("B04", "La%oferta", 600000));
+		repositorioProducto.agregar(new Producto("B05", "Lavadora", 600000));
+		repositorioProducto.agregar(new Producto("B06", "Televisor", 500000.01));
+		sistemaPersistencia.terminar();
+	}
+
+	/**
+	 * Mtodo que permite verificar que la bsqueda por precio recorre todas las
+	 * pginas en orden de precio y cdigo, desde la base de datos y desde el
+	 * ndice en memoria
+	 */
+	@Test
+	public void buscarPorPrecioMayorAlBaseTest() {
+
+		// arrange
+		List<String> esperados = Arrays.asList("B06", "B04", "B05", "B01");
+		Vendedor vendedor = new Vendedor(repositorioProducto, sistemaPersistencia.obtenerRepositorioGarantia());
+		RepositorioProductoIndexado repositorioIndexado = sistemaPersistencia.obtenerRepositorioProductosIndexado();
+
+		// act
+		List<String> desdeBaseDeDatos = codigos(vendedor.productosSobrePrecioBase(TAMANO_PAGINA));
+		List<String> desdeIndice = codigos(RecorridoProductos.porPrecioMayorA(repositorioIndexado,
+				Vendedor.PRECIO_BASE_GARANTIA_CENTAVOS, TAMANO_PAGINA));
+
+		// assert
+		assertEquals(esperados, desdeBaseDeDatos);
+		assertEquals(esperados, desdeIndice);
+	}
+
+	/**
+	 * Mtodo que permite verificar que la bsqueda por prefijo del nombre trata
+	 * los comodines del prefijo como texto
+	 */
+	@Test
+	public void buscarPorPrefijoNombreTest() {
+
+		// arrange
+		RepositorioProductoIndexado repositorioIndexado = sistemaPersistencia.obtenerRepositorioProductosIndexado();
+
+		// act
+		List<String> lavaBaseDeDatos = codigos(
+				RecorridoProductos.porPrefijoNombre(repositorioProducto, "Lava", TAMANO_PAGINA));
+		List<String> lavaIndice = codigos(
+				RecorridoProductos.porPrefijoNombre(repositorioIndexado, "Lava", TAMANO_PAGINA));
+		List<String> comodinBaseDeDatos = codigos(
+				RecorridoProductos.porPrefijoNombre(repositorioProducto, "La%", TAMANO_PAGINA));
+		List<String> comodinIndice = codigos(
+				RecorridoProductos.porPrefijoNombre(repositorioIndexado, "La%", TAMANO_PAGINA));
+
+		// assert
+		assertEquals(Arrays.asList("B01", "B05", "B02"), lavaBaseDeDatos);
+		assertEquals(lavaBaseDeDatos, lavaIndice);
+		assertEquals(Arrays.asList("B04"), comodinBaseDeDatos);
+		assertEquals(comodinBaseDeDatos, comodinIndice);
+	}
+
+	/**
+	 * Mtodo que permite verificar que el ndice en memoria incluye los
+	 * productos agregados una vez que la transaccin se confirma
+	 */
+	@Test
+	public void indiceIncluyeProductosConfirmadosTest() {
+
+		// arrange
+		RepositorioProductoIndexado repositorioIndexado = sistemaPersistencia.obtenerRepositorioProductosIndexado();
+
+		// act
+		sistemaPersistencia.iniciar();
+		repositorioIndexado.agregar(new Producto("B07", "Lavadora", 700000));
+		int antesDeConfirmar = repositorioIndexado.buscarPorPrefijoNombre("Lavadora", null, 10).size();
+		sistemaPersistencia.terminar();
+
+		// assert
+		assertEquals(2, antesDeConfirmar);
+		assertEquals(Arrays.asList("B01", "B05", "B07"),
+				codigos(RecorridoProductos.porPrefijoNombre(repositorioIndexado, "Lavadora", TAMANO_PAGINA)));
+	}
+
+	/**
+	 * Mtodo que permite verificar que al incorporar productos el ndice nuevo
+	 * mezcla los nuevos en orden de precio y de nombre y reemplaza los cdigos
+	 * ya indexados
+	 */
+	@Test
+	public void indiceConMezclaProductosTest() {
+
+		// arrange
+		IndiceProductos indice = IndiceProductos.construir(Arrays.asList(new Producto("B01", "Lavadora", 1200000),
+				new Producto("B02", "Lavaplatos", 500000), new Producto("B03", "Lampara", 80000)));
+
+		// act
+		IndiceProductos nuevo = indice.con(
+				Arrays.asList(new Producto("B02", "Aspiradora", 900000), new Producto("B08", "Lavadora", 100000)));
+
+		// assert
+		assertEquals(3, indice.tamano());
+		assertEquals(4, nuevo.tamano());
+		assertEquals(Arrays.asList("B03", "B08", "B02", "B01"),
+				codigos(nuevo.buscarPorPrecioMayorA(0, null, 10).stream()));
+		assertEquals(Arrays.asList("B01", "B08"), codigos(nuevo.buscarPorPrefijoNombre("Lava", null, 10).stream()));
+		assertEquals(Arrays.asList("B02"), codigos(nuevo.buscarPorPrefijoNombre("Asp", null, 10).stream()));
+	}
+
+	/**
+	 * Mtodo que permite verificar que las bsquedas incluyen todos los
+	 * productos confirmados mientras el ndice se reconstruye con un lote
+	 * completo de recientes
+	 */
+	@Test
+	public void indiceReconstruidoIncluyeTodosTest() {
+
+		// arrange
+		RepositorioProductoIndexado repositorioIndexado = sistemaPersistencia.obtenerRepositorioProductosIndexado();
+		int agregados = 1100;
+
+		// act
+		sistemaPersistencia.iniciar();
+		for (int i = 0; i < agregados; i++) {
+			repositorioIndexado.agregar(new Producto(String.format("I%04d", i), String.format("Item %04d", i), 1000));
+		}
+		sistemaPersistencia.terminar();
+
+		// assert
+		List<String> items = codigos(RecorridoProductos.porPrefijoNombre(repositorioIndexado, "Item", 100));
+		assertEquals(agregados, items.size());
+		assertEquals("I0000", items.get(0));
+		assertEquals(String.format("I%04d", agregados - 1), items.get(agregados - 1));
+		assertEquals(6 + agregados, repositorioIndexado.getTamanoIndice());
+	}
+
+	private static List<String> codigos(Stream<Producto> productos) {
+		return productos.map(Producto::getCodigo).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,65 @@
+package persistencia.integracion;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import persistencia.entitad.GeneradorSecuenciaAgrupada;
+import persistencia.sistema.SistemaDePersistencia;
+
+public class GeneradorSecuenciaAgrupadaTest {
+
+	private static final String TIENDA = "tienda";
+
+	@Before
+	public void setUp() {
+		new SistemaDePersistencia();
+	}
+
+	/**
+	 * Mtodo que permite verificar que un tamao de asignacin igual al
+	 * incremento de las secuencias existentes es aceptado
+	 */
+	@Test
+	public void verificarSecuenciasIgualesTest() {
+		EntityManagerFactory factory = crearFabrica(propiedadesValidacion());
+		try {
+			GeneradorSecuenciaAgrupada.verificarSecuencias(factory);
+		} finally {
+			factory.close();
+		}
+	}
+
+	/**
+	 * Mtodo que permite verificar que un tamao de asignacin distinto del
+	 * incremento de la secuencia existente se rechaza, porque el optimizador
+	 * entregara ids superpuestos
+	 */
+	@Test(expected = PersistenceException.class)
+	public void verificarSecuenciasDistintasTest() {
+		Map<String, String> propiedades = propiedadesValidacion();
+		propiedades.put("tienda.id.producto_seq.tamano_asignacion", "10");
+		EntityManagerFactory factory = crearFabrica(propiedades);
+		try {
+			GeneradorSecuenciaAgrupada.verificarSecuencias(factory);
+		} finally {
+			factory.close();
+		}
+	}
+
+	private Map<String, String> propiedadesValidacion() {
+		Map<String, String> propiedades = new HashMap<>();
+		propiedades.put("hibernate.hbm2ddl.auto", "validate");
+		return propiedades;
+	}
+
+	private EntityManagerFactory crearFabrica(Map<String, String> propiedades) {
+		return Persistence.createEntityManagerFactory(TIENDA, propiedades);
+	}
+}
@@ -0,0 +1,125 @@
+package persistencia.integracion;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dominio.Producto;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.importacion.FormatoCatalogo;
+import persistencia.importacion.ImportadorCatalogo;
+import persistencia.importacion.ResumenImportacion;
+import persistencia.sistema.SistemaDePersistencia;
+
+public class ImportadorCatalogoTest {
+
+	@Rule
+	public TemporaryFolder carpeta = new TemporaryFolder();
+
+	private SistemaDePersistencia sistemaPersistencia;
+	private RepositorioProducto repositorioProducto;
+	private ImportadorCatalogo importador;
+
+	@Before
+	public void setUp() {
+		sistemaPersistencia = new SistemaDePersistencia();
+		repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		importador = sistemaPersistencia.obtenerImportadorCatalogo();
+		sistemaPersistencia.iniciar();
+	}
+
+	@After
+	public void tearDown() {
+		sistemaPersistencia.terminar();
+	}
+
+	/**
+	 * Mtodo que permite verificar que la importacin de un archivo CSV inserta
+	 * los productos nuevos y actualiza los existentes por su cdigo
+	 */
+	@Test
+	public void importarCsvActualizaPorCodigoTest() throws IOException {
+
+		// arrange
+		Path archivo = escribir("catalogo.csv", "codigo,nombre,precio", "F01TSA0150,Computador Lenovo,780000",
+				"S01H1AT51,\"Impresora, laser\",450000");
+		Path actualizacion = escribir("actualizacion.csv", "F01TSA0150,Computador Lenovo,820000",
+				"T02XYZ,Monitor,300000");
+
+		// act
+		ResumenImportacion primera = importador.importar(archivo, FormatoCatalogo.CSV, resumen -> {
+		});
+		ResumenImportacion segunda = importador.importar(actualizacion, FormatoCatalogo.CSV, resumen -> {
+		});
+
+		// assert
+		assertEquals(2, primera.getInsertados());
+		assertEquals(1, segunda.getInsertados());
+		assertEquals(1, segunda.getActualizados());
+
+		Producto producto = repositorioProducto.obtenerPorCodigo("F01TSA0150");
+		assertEquals(820000, producto.getPrecio(), 0);
+		assertEquals("Impresora, laser", repositorioProducto.obtenerPorCodigo("S01H1AT51").getNombre());
+	}
+
+	/**
+	 * Mtodo que permite verificar la importacin de un archivo NDJSON
+	 */
+	@Test
+	public void importarNdjsonTest() throws IOException {
+
+		// arrange
+		Path archivo = escribir("catalogo.ndjson", "{\"codigo\":\"F01TSA0150\",\"nombre\":\"Computador Lenovo\",\"precio\":780000}",
+				"", "{ \"precio\": 450000.5, \"nombre\": \"Impresora \\\"HP\\\"\", \"codigo\": \"S01H1AT51\" }");
+
+		// act
+		ResumenImportacion resumen = importador.importar(archivo, FormatoCatalogo.NDJSON, avance -> {
+		});
+
+		// assert
+		assertEquals(2, resumen.getInsertados());
+		Producto producto = repositorioProducto.obtenerPorCodigo("S01H1AT51");
+		assertEquals("Impresora \"HP\"", producto.getNombre());
+		assertEquals(450000.5, producto.getPrecio(), 0);
+	}
+
+	/**
+	 * Mtodo que permite verificar que un archivo que termina en un lote
+	 * completo notifica el avance una sola vez por lote
+	 */
+	@Test
+	public void importarLoteCompletoNotificaUnaVezTest() throws IOException {
+
+		// arrange
+		List<String> lineas = new ArrayList<>();
+		for (int i = 0; i < ImportadorCatalogo.TAMANO_LOTE_POR_DEFECTO; i++) {
+			lineas.add("L" + i + ",Producto " + i + ",1000");
+		}
+		Path archivo = Files.write(carpeta.getRoot().toPath().resolve("lote.csv"), lineas, StandardCharsets.UTF_8);
+		List<ResumenImportacion> avances = new ArrayList<>();
+
+		// act
+		ResumenImportacion resumen = importador.importar(archivo, FormatoCatalogo.CSV, avances::add);
+
+		// assert
+		assertEquals(1, avances.size());
+		assertEquals(ImportadorCatalogo.TAMANO_LOTE_POR_DEFECTO, resumen.getInsertados());
+		assertEquals(resumen.getProcesados(), avances.get(0).getProcesados());
+	}
+
+	private Path escribir(String nombre, String... lineas) throws IOException {
+		return Files.write(carpeta.getRoot().toPath().resolve(nombre), Arrays.asList(lineas), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,243 @@
+package persistencia.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dominio.CotizacionGarantia;
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.importacion.IngestaVentas;
+import persistencia.importacion.ResumenIngesta;
+import persistencia.lectura.RepositorioGarantiaLectura;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class IngestaVentasTest {
+
+	private static final LocalDate FECHA_VENTA = LocalDate.of(2026, 7, 1);
+
+	@Rule
+	public TemporaryFolder carpeta = new TemporaryFolder();
+
+	private SistemaDePersistencia sistemaPersistencia;
+	private RepositorioProducto repositorioProducto;
+	private RepositorioGarantiaExtendida repositorioGarantia;
+	private Vendedor vendedor;
+
+	@Before
+	public void setUp() {
+		sistemaPersistencia = new SistemaDePersistencia();
+		repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+		vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+
+		sistemaPersistencia.iniciar();
+		repositorioProducto.agregar(new ProductoTestDataBuilder().conCodigo("V01").conPrecio(600000).build());
+		repositorioProducto.agregar(new ProductoTestDataBuilder().conCodigo("V02").conPrecio(400000).build());
+		repositorioProducto.agregar(new ProductoTestDataBuilder().conCodigo("V04").conPrecio(400000).build());
+		vendedor.generarGarantia("V04", "Eva");
+		sistemaPersistencia.terminar();
+	}
+
+	/**
+	 * Mtodo que permite verificar que la ingesta registra las ventas vlidas
+	 * con la fecha de la venta, escribe cada rechazo con su motivo, cuenta como
+	 * repetidas las claves ya usadas y aplica las garantas en el modelo de
+	 * lectura
+	 */
+	@Test
+	public void ingerirTest() throws IOException {
+
+		// arrange
+		RepositorioGarantiaLectura repositorioLectura = sistemaPersistencia.obtenerRepositorioGarantiaLectura();
+		assertTrue(repositorioLectura.esperarMarcaAgua(0, 10000));
+		long marcaInicial = repositorioLectura.getMarcaAgua();
+		Path archivo = escribirVentas();
+		Path rechazados = carpeta.getRoot().toPath().resolve("rechazados.tsv");
+		List<ResumenIngesta> avances = new ArrayList<>();
+
+		// act
+		ResumenIngesta resumen = sistemaPersistencia.obtenerIngestaVentas(vendedor).ingerir(archivo, rechazados,
+				avances::add);
+
+		// assert
+		assertEquals(9, resumen.getLeidas());
+		assertEquals(2, resumen.getGeneradas());
+		assertEquals(1, resumen.getRepetidas());
+		assertEquals(6, resumen.getRechazadas());
+		assertEquals(5, resumen.getEtapas().size());
+		assertEquals(9, resumen.getEtapas().get(1).getRegistros());
+		assertEquals(2, resumen.getEtapas().get(4).getRegistros());
+		assertEquals(1, avances.size());
+		assertEquals(resumen.getGeneradas(), avances.get(0).getGeneradas());
+		assertEquals(resumen.getRechazadas(), avances.get(0).getRechazadas());
+
+		Map<String, String> motivos = leerRechazos(rechazados);
+		assertEquals(6, motivos.size());
+		assertEquals("DATOS_OBLIGATORIOS", motivos.get("2"));
+		assertEquals("PRODUCTO_SIN_GARANTIA", motivos.get("3"));
+		assertEquals(IngestaVentas.PRODUCTO_INEXISTENTE, motivos.get("4"));
+		assertEquals("EL_PRODUCTO_TIENE_GARANTIA", motivos.get("5"));
+		assertEquals(IngestaVentas.LINEA_INVALIDA, motivos.get("7"));
+		assertEquals("EL_PRODUCTO_TIENE_GARANTIA", motivos.get("10"));
+
+		GarantiaExtendida garantia = repositorioGarantia.obtenerPorClaveIdempotencia("C1");
+		assertEquals("V01", garantia.getProducto().getCodigo());
+		assertEquals("Ana", garantia.getNombreCliente());
+		assertEquals(FECHA_VENTA, garantia.getFechaSolicitudGarantia());
+		assertEquals(vendedor.calcularFechaGarantia(FECHA_VENTA, 60000000L), garantia.getFechaFinGarantia());
+		assertEquals(12000000L, garantia.getPrecioGarantiaCentavos());
+		assertEquals(4000000L, repositorioGarantia.obtener("V02").getPrecioGarantiaCentavos());
+
+		assertEquals(marcaInicial + 2, repositorioLectura.getMarcaAgua());
+		assertEquals("Sofia", repositorioLectura.obtener("V02").getNombreCliente());
+	}
+
+	/**
+	 * Mtodo que permite verificar que ingerir de nuevo el mismo archivo no
+	 * genera garantas: las ventas con clave se cuentan como repetidas y las
+	 * dems se rechazan porque el producto ya tiene garanta
+	 */
+	@Test
+	public void reingerirMismoArchivoTest() throws IOException {
+
+		// arrange
+		IngestaVentas ingesta = sistemaPersistencia.obtenerIngestaVentas(vendedor);
+		Path archivo = escribirVentas();
+		Path rechazados = carpeta.getRoot().toPath().resolve("rechazados.tsv");
+		ingesta.ingerir(archivo, rechazados, avance -> {
+		});
+
+		// act
+		ResumenIngesta resumen = ingesta.ingerir(archivo, rechazados, avance -> {
+		});
+
+		// assert
+		assertEquals(0, resumen.getGeneradas());
+		assertEquals(2, resumen.getRepetidas());
+		assertEquals(7, resumen.getRechazadas());
+		assertEquals("EL_PRODUCTO_TIENE_GARANTIA", leerRechazos(rechazados).get("9"));
+		assertEquals("Ana", repositorioGarantia.obtener("V01").getNombreCliente());
+	}
+
+	/**
+	 * Mtodo que permite verificar que con bloques de una venta, colas de un
+	 * bloque y ms hilos de validacin que espacio en las colas la ingesta
+	 * termina con el mismo resultado, aunque los bloques lleguen desordenados a
+	 * la resolucin
+	 */
+	@Test
+	public void ingerirBloquesUnitariosTest() throws IOException {
+
+		// arrange
+		Map<String, String> propiedades = new HashMap<>();
+		propiedades.put("hibernate.hbm2ddl.auto", "validate");
+		EntityManagerFactory factory = Persistence.createEntityManagerFactory("tienda", propiedades);
+		Path archivo = escribirVentas();
+		Path rechazados = carpeta.getRoot().toPath().resolve("rechazados.tsv");
+
+		// act
+		ResumenIngesta resumen;
+		try {
+			resumen = new IngestaVentas(factory, vendedor, garantias -> {
+			}, 1, 1, 4).ingerir(archivo, rechazados, avance -> {
+			});
+		} finally {
+			factory.close();
+		}
+
+		// assert
+		assertEquals(9, resumen.getLeidas());
+		assertEquals(2, resumen.getGeneradas());
+		assertEquals(1, resumen.getRepetidas());
+		assertEquals(6, resumen.getRechazadas());
+		assertEquals("EL_PRODUCTO_TIENE_GARANTIA", leerRechazos(rechazados).get("5"));
+		assertEquals("Ana", repositorioGarantia.obtener("V01").getNombreCliente());
+	}
+
+	/**
+	 * Mtodo que permite verificar que una venta en lnea confirmada despus de
+	 * la resolucin y antes de la persistencia no duplica la garanta: la venta
+	 * del archivo se rechaza y el resto del bloque se registra
+	 */
+	@Test
+	public void ventaEnLineaDuranteIngestaTest() throws IOException {
+
+		// arrange
+		Vendedor vendedorEnLinea = new Vendedor(repositorioProducto, repositorioGarantia);
+		Vendedor vendedorIngesta = new Vendedor(repositorioProducto, repositorioGarantia) {
+			@Override
+			public CotizacionGarantia cotizarGarantia(Producto producto, LocalDate fechaSolicitud) {
+				if ("V01".equals(producto.getCodigo()) && !vendedorEnLinea.tieneGarantia("V01")) {
+					sistemaPersistencia.iniciar();
+					vendedorEnLinea.generarGarantia("V01", "Luis");
+					sistemaPersistencia.terminar();
+				}
+				return super.cotizarGarantia(producto, fechaSolicitud);
+			}
+		};
+		Path archivo = escribirVentas();
+		Path rechazados = carpeta.getRoot().toPath().resolve("rechazados.tsv");
+
+		// act
+		ResumenIngesta resumen = sistemaPersistencia.obtenerIngestaVentas(vendedorIngesta).ingerir(archivo,
+				rechazados, avance -> {
+				});
+
+		// assert
+		assertEquals(1, resumen.getGeneradas());
+		assertEquals(1, resumen.getRepetidas());
+		assertEquals(7, resumen.getRechazadas());
+		assertEquals("EL_PRODUCTO_TIENE_GARANTIA", leerRechazos(rechazados).get("1"));
+		assertEquals("Luis", repositorioGarantia.obtener("V01").getNombreCliente());
+		assertNull(repositorioGarantia.obtenerPorClaveIdempotencia("C1"));
+		assertEquals("Sofia", repositorioGarantia.obtener("V02").getNombreCliente());
+	}
+
+	private Path escribirVentas() throws IOException {
+		return Files.write(carpeta.getRoot().toPath().resolve("ventas.ndjson"), Arrays.asList(
+				"{\"codigo\":\"V01\",\"nombreCliente\":\"Ana\",\"claveIdempotencia\":\"C1\",\"fecha\":\"2026-07-01\"}",
+				"{\"codigo\":\"V02\",\"nombreCliente\":\"\",\"claveIdempotencia\":\"C2\"}",
+				"{\"codigo\":\"AEIV\",\"nombreCliente\":\"Luis\",\"claveIdempotencia\":\"C3\"}",
+				"{\"codigo\":\"V99\",\"nombreCliente\":\"Luis\",\"claveIdempotencia\":\"C4\"}",
+				"{\"codigo\":\"V01\",\"nombreCliente\":\"Pedro\",\"claveIdempotencia\":\"C5\"}",
+				"{\"codigo\":\"V03\",\"nombreCliente\":\"Marta\",\"claveIdempotencia\":\"C1\"}",
+				"no es json",
+				"",
+				"{\"codigo\":\"V02\",\"nombreCliente\":\"Sofia\",\"fecha\":\"2026-07-02\"}",
+				"{\"codigo\":\"V04\",\"nombreCliente\":\"Eva\",\"claveIdempotencia\":\"C10\"}"),
+				StandardCharsets.UTF_8);
+	}
+
+	private Map<String, String> leerRechazos(Path rechazados) throws IOException {
+		Map<String, String> motivos = new HashMap<>();
+		for (String linea : Files.readAllLines(rechazados, StandardCharsets.UTF_8)) {
+			String[] campos = linea.split("\t", 3);
+			motivos.put(campos[0], campos[1]);
+		}
+		return motivos;
+	}
+}
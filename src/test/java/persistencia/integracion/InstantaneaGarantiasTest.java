@@ -0,0 +1,177 @@
+package persistencia.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioProducto;
+import dominio.tarifa.MotorTarifas;
+import persistencia.lectura.InstantaneaGarantias;
+import persistencia.lectura.ModeloLecturaGarantias;
+import persistencia.reajuste.ReajustePrecios;
+import persistencia.repositorio.RepositorioGarantiaPersistente;
+import persistencia.repositorio.RepositorioProductoPersistente;
+
+public class InstantaneaGarantiasTest {
+
+	@Rule
+	public TemporaryFolder carpeta = new TemporaryFolder();
+
+	private EntityManagerFactory entityManagerFactory;
+	private EntityManager entityManager;
+	private Vendedor vendedor;
+	private RepositorioProducto repositorioProducto;
+
+	@Before
+	public void setUp() {
+		entityManagerFactory = Persistence.createEntityManagerFactory("tienda",
+				Collections.singletonMap("hibernate.show_sql", "false"));
+		entityManager = entityManagerFactory.createEntityManager();
+		repositorioProducto = new RepositorioProductoPersistente(entityManager);
+		vendedor = new Vendedor(repositorioProducto, new RepositorioGarantiaPersistente(entityManager, repositorioProducto));
+	}
+
+	@After
+	public void tearDown() {
+		entityManager.close();
+		entityManagerFactory.close();
+	}
+
+	/**
+	 * Mtodo que permite verificar que el arranque desde la instantnea carga
+	 * las garantas guardadas con todos sus datos y repite las confirmadas
+	 * despus de escribirla
+	 */
+	@Test
+	public void arranqueDesdeInstantaneaTest() throws IOException {
+
+		// arrange
+		venderGarantias(0, 5);
+		ModeloLecturaGarantias modelo = new ModeloLecturaGarantias();
+		modelo.cargar(entityManagerFactory).join();
+		Path instantanea = carpeta.getRoot().toPath().resolve("garantias.snap");
+		modelo.guardarInstantanea(instantanea);
+		venderGarantias(5, 7);
+
+		// act
+		ModeloLecturaGarantias reiniciado = new ModeloLecturaGarantias();
+		reiniciado.cargarDesdeInstantanea(entityManagerFactory, instantanea).join();
+
+		// assert
+		assertTrue(reiniciado.estaCargado());
+		for (int i = 0; i < 7; i++) {
+			GarantiaExtendida garantia = reiniciado.obtener(codigo(i));
+			assertEquals(codigo(i), garantia.getProducto().getCodigo());
+			assertEquals("Producto " + i, garantia.getProducto().getNombre());
+			assertEquals(78000000L, garantia.getProducto().getPrecioCentavos());
+			assertEquals(15600000L, garantia.getPrecioGarantiaCentavos());
+			assertEquals("Cliente " + i, garantia.getNombreCliente());
+		}
+		assertEquals(codigo(2), reiniciado.obtenerPorClaveIdempotencia("clave-2").getProducto().getCodigo());
+		assertNull(reiniciado.obtener(codigo(1)).getClaveIdempotencia());
+		assertEquals(modelo.obtener(codigo(0)).getFechaFinGarantia(),
+				reiniciado.obtener(codigo(0)).getFechaFinGarantia());
+	}
+
+	/**
+	 * Mtodo que permite verificar que al arrancar desde la instantnea se
+	 * reemplazan las garantas reajustadas despus de escribirla y se repiten
+	 * las escritas antes de ella pero confirmadas despus
+	 */
+	@Test
+	public void arranqueRepiteCambiosPosterioresTest() throws IOException {
+
+		// arrange
+		venderGarantias(0, 3);
+		ModeloLecturaGarantias modelo = new ModeloLecturaGarantias();
+		modelo.cargar(entityManagerFactory).join();
+		Path instantanea = carpeta.getRoot().toPath().resolve("garantias.snap");
+
+		entityManager.getTransaction().begin();
+		repositorioProducto.agregar(new Producto(codigo(3), "Producto 3", 780000));
+		vendedor.generarGarantia(codigo(3), "Cliente 3");
+		entityManager.flush();
+		modelo.guardarInstantanea(instantanea);
+		entityManager.getTransaction().commit();
+
+		new ReajustePrecios(entityManagerFactory, new MotorTarifas(), codigos -> {
+		}).reajustar(Collections.singletonList(codigo(0)), 1000, LocalDate.of(2000, 1, 1), resumen -> {
+		});
+
+		// act
+		ModeloLecturaGarantias reiniciado = new ModeloLecturaGarantias();
+		reiniciado.cargarDesdeInstantanea(entityManagerFactory, instantanea).join();
+
+		// assert
+		assertNull(modelo.obtener(codigo(3)));
+		assertEquals("Cliente 3", reiniciado.obtener(codigo(3)).getNombreCliente());
+		assertEquals(15600000L, modelo.obtener(codigo(0)).getPrecioGarantiaCentavos());
+		assertEquals(17160000L, reiniciado.obtener(codigo(0)).getPrecioGarantiaCentavos());
+		assertEquals(15600000L, reiniciado.obtener(codigo(1)).getPrecioGarantiaCentavos());
+	}
+
+	/**
+	 * Mtodo que permite verificar que una instantnea daada se rechaza y el
+	 * modelo se carga completo desde la base de datos
+	 */
+	@Test
+	public void instantaneaDanadaCargaCompletaTest() throws IOException {
+
+		// arrange
+		venderGarantias(0, 3);
+		ModeloLecturaGarantias modelo = new ModeloLecturaGarantias();
+		modelo.cargar(entityManagerFactory).join();
+		Path instantanea = carpeta.getRoot().toPath().resolve("garantias.snap");
+		modelo.guardarInstantanea(instantanea);
+		byte[] contenido = Files.readAllBytes(instantanea);
+		contenido[contenido.length / 2] ^= 0x5A;
+		Files.write(instantanea, contenido);
+
+		// act
+		ModeloLecturaGarantias reiniciado = new ModeloLecturaGarantias();
+		reiniciado.cargarDesdeInstantanea(entityManagerFactory, instantanea).join();
+
+		// assert
+		try {
+			InstantaneaGarantias.leer(instantanea, garantia -> fail());
+			fail();
+		} catch (IOException e) {
+			assertEquals("El CRC de la instantnea no coincide", e.getMessage());
+		}
+		assertTrue(reiniciado.estaCargado());
+		assertEquals(codigo(2), reiniciado.obtener(codigo(2)).getProducto().getCodigo());
+	}
+
+	private void venderGarantias(int desde, int hasta) {
+		entityManager.getTransaction().begin();
+		for (int i = desde; i < hasta; i++) {
+			repositorioProducto.agregar(new Producto(codigo(i), "Producto " + i, 780000));
+			vendedor.generarGarantia(codigo(i), "Cliente " + i, i % 2 == 0 ? "clave-" + i : null);
+		}
+		entityManager.getTransaction().commit();
+	}
+
+	private static String codigo(int i) {
+		return String.format("F%05dS", i);
+	}
+}
@@ -0,0 +1,210 @@
+package persistencia.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.particion.AnilloConsistente;
+import persistencia.particion.ConexionParticionada;
+import persistencia.particion.RepositorioGarantiaParticionado;
+import persistencia.particion.SistemaDePersistenciaParticionado;
+
+public class PersistenciaParticionadaTest {
+
+	private static final int PARTICIONES = 3;
+	private static final int PRODUCTOS = 30;
+	private static final String NOMBRE_CLIENTE = "Ricardo Ayala";
+
+	private ConexionParticionada conexion;
+	private SistemaDePersistenciaParticionado sistemaPersistencia;
+
+	@Before
+	public void setUp() {
+		conexion = new ConexionParticionada(PARTICIONES);
+		sistemaPersistencia = new SistemaDePersistenciaParticionado(conexion);
+	}
+
+	@After
+	public void tearDown() {
+		sistemaPersistencia.cerrar();
+		conexion.cerrar();
+	}
+
+	/**
+	 * Mtodo que permite verificar que cada garanta queda, junto con su
+	 * producto, solo en la particin de su cdigo, y que las consultas entre
+	 * particiones combinan los resultados de todas
+	 */
+	@Test
+	public void garantiasEnLaParticionDelCodigoTest() {
+
+		// arrange
+		RepositorioProducto repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		RepositorioGarantiaParticionado repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+
+		// act
+		sistemaPersistencia.iniciar();
+		for (int i = 0; i < PRODUCTOS; i++) {
+			repositorioProducto.agregar(new Producto(codigo(i), "Producto " + i, 780000));
+			vendedor.generarGarantia(codigo(i), NOMBRE_CLIENTE);
+		}
+		sistemaPersistencia.terminar();
+
+		// assert
+		int[] esperadas = new int[PARTICIONES];
+		for (int i = 0; i < PRODUCTOS; i++) {
+			esperadas[conexion.particion(codigo(i))]++;
+		}
+		for (int particion = 0; particion < PARTICIONES; particion++) {
+			assertEquals(esperadas[particion], contarGarantias(particion));
+			assertTrue(esperadas[particion] > 0);
+		}
+
+		assertEquals(PRODUCTOS, repositorioGarantia.contarGarantias());
+		List<GarantiaExtendida> exportadas = repositorioGarantia.exportarGarantias();
+		assertEquals(PRODUCTOS, exportadas.size());
+		assertEquals(codigo(0), exportadas.get(0).getProducto().getCodigo());
+		assertEquals(codigo(PRODUCTOS - 1), exportadas.get(PRODUCTOS - 1).getProducto().getCodigo());
+		assertNotNull(repositorioGarantia.obtener(codigo(7)));
+		assertEquals(3, repositorioGarantia
+				.obtenerCodigosConGarantia(Arrays.asList(codigo(1), codigo(2), codigo(3), "SIN0001")).size());
+	}
+
+	/**
+	 * Mtodo que permite verificar que la bsqueda por clave de idempotencia
+	 * recorre las particiones sin sumarlas a la unidad de trabajo, y que en la
+	 * particin ya abierta ve la garanta an sin confirmar
+	 */
+	@Test
+	public void claveIdempotenciaSinAbrirParticionesTest() {
+
+		// arrange
+		RepositorioProducto repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		RepositorioGarantiaParticionado repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+		sistemaPersistencia.iniciar();
+		repositorioProducto.agregar(new Producto(codigo(0), "Producto 0", 780000));
+		vendedor.intentarGenerarGarantia(codigo(0), NOMBRE_CLIENTE, "CLAVE-0");
+		sistemaPersistencia.terminar();
+
+		SistemaDePersistenciaParticionado otroSistema = new SistemaDePersistenciaParticionado(conexion);
+		RepositorioProducto otroRepositorioProducto = otroSistema.obtenerRepositorioProductos();
+		RepositorioGarantiaParticionado otroRepositorioGarantia = otroSistema.obtenerRepositorioGarantia();
+
+		try {
+			// act
+			otroSistema.iniciar();
+			GarantiaExtendida confirmada = otroRepositorioGarantia.obtenerPorClaveIdempotencia("CLAVE-0");
+			int abiertasTrasBuscar = otroSistema.getParticionesAbiertas();
+			otroRepositorioProducto.agregar(new Producto(codigo(1), "Producto 1", 780000));
+			new Vendedor(otroRepositorioProducto, otroRepositorioGarantia).intentarGenerarGarantia(codigo(1),
+					NOMBRE_CLIENTE, "CLAVE-1");
+			GarantiaExtendida sinConfirmar = otroRepositorioGarantia.obtenerPorClaveIdempotencia("CLAVE-1");
+
+			// assert
+			assertEquals(codigo(0), confirmada.getProducto().getCodigo());
+			assertEquals(0, abiertasTrasBuscar);
+			assertEquals(codigo(1), sinConfirmar.getProducto().getCodigo());
+			assertEquals(1, otroSistema.getParticionesAbiertas());
+		} finally {
+			otroSistema.cerrar();
+		}
+	}
+
+	/**
+	 * Mtodo que permite verificar que contar y exportar las garantas y buscar
+	 * productos dentro de una unidad de trabajo no suma las particiones a ella
+	 */
+	@Test
+	public void agregadosSinAbrirParticionesTest() {
+
+		// arrange
+		RepositorioProducto repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		Vendedor vendedor = new Vendedor(repositorioProducto, sistemaPersistencia.obtenerRepositorioGarantia());
+		sistemaPersistencia.iniciar();
+		for (int i = 0; i < PRODUCTOS; i++) {
+			repositorioProducto.agregar(new Producto(codigo(i), "Producto " + i, 780000));
+			vendedor.generarGarantia(codigo(i), NOMBRE_CLIENTE);
+		}
+		sistemaPersistencia.terminar();
+
+		SistemaDePersistenciaParticionado otroSistema = new SistemaDePersistenciaParticionado(conexion);
+		RepositorioProducto otroRepositorioProducto = otroSistema.obtenerRepositorioProductos();
+		RepositorioGarantiaParticionado otroRepositorioGarantia = otroSistema.obtenerRepositorioGarantia();
+
+		try {
+			// act
+			otroSistema.iniciar();
+			List<Producto> porPrecio = otroRepositorioProducto.buscarPorPrecioMayorA(0, null, 5);
+			List<Producto> porNombre = otroRepositorioProducto.buscarPorPrefijoNombre("Producto", null, 5);
+			long contadas = otroRepositorioGarantia.contarGarantias();
+			List<GarantiaExtendida> exportadas = otroRepositorioGarantia.exportarGarantias();
+
+			// assert
+			assertEquals(5, porPrecio.size());
+			assertEquals(5, porNombre.size());
+			assertEquals(PRODUCTOS, contadas);
+			assertEquals(PRODUCTOS, exportadas.size());
+			assertEquals(0, otroSistema.getParticionesAbiertas());
+		} finally {
+			otroSistema.cerrar();
+		}
+	}
+
+	/**
+	 * Mtodo que permite verificar que al agregar una particin al anillo solo
+	 * cambia de particin una fraccin cercana a la que le corresponde
+	 */
+	@Test
+	public void anilloMueveSoloUnaFraccionTest() {
+
+		// arrange
+		AnilloConsistente tres = new AnilloConsistente(3);
+		AnilloConsistente cuatro = new AnilloConsistente(4);
+		int codigos = 10000;
+		int movidos = 0;
+		int[] porParticion = new int[4];
+
+		// act
+		for (int i = 0; i < codigos; i++) {
+			int particion = cuatro.particion(codigo(i));
+			porParticion[particion]++;
+			if (tres.particion(codigo(i)) != particion) {
+				movidos++;
+			}
+		}
+
+		// assert
+		assertTrue("movidos " + movidos, movidos < codigos * 0.35);
+		for (int cantidad : porParticion) {
+			assertTrue("por particion " + cantidad, cantidad > codigos / 4 * 0.7);
+		}
+	}
+
+	private long contarGarantias(int particion) {
+		EntityManager entityManager = conexion.createEntityManager(particion);
+		try {
+			return entityManager.createNamedQuery("GarantiaExtendida.contar", Long.class).getSingleResult();
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	private static String codigo(int i) {
+		return String.format("F%05dS", i);
+	}
+}
@@ -0,0 +1,122 @@
+package persistencia.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.Dinero;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import dominio.tarifa.MotorTarifas;
+import persistencia.lectura.RepositorioGarantiaLectura;
+import persistencia.lectura.RepositorioProductoIndexado;
+import persistencia.reajuste.ReajustePrecios;
+import persistencia.reajuste.ResumenReajuste;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class ReajustePreciosTest {
+
+	private static final ZoneId ZONA = ZoneId.of("America/Bogota");
+	private static final LocalDate FECHA_ANTERIOR = LocalDate.of(2026, 1, 15);
+	private static final LocalDate FECHA_CORTE = LocalDate.of(2026, 6, 1);
+	private static final LocalDate FECHA_ABIERTA = LocalDate.of(2026, 7, 1);
+	private static final int TREINTA_PORCIENTO = 3000;
+
+	private SistemaDePersistencia sistemaPersistencia;
+	private RepositorioProducto repositorioProducto;
+	private RepositorioGarantiaExtendida repositorioGarantia;
+	private MotorTarifas motorTarifas;
+
+	@Before
+	public void setUp() {
+		sistemaPersistencia = new SistemaDePersistencia();
+		repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+		motorTarifas = new MotorTarifas();
+
+		sistemaPersistencia.iniciar();
+		venderGarantia(FECHA_ABIERTA, "R01", 600000);
+		venderGarantia(FECHA_ABIERTA, "R02", 400000);
+		venderGarantia(FECHA_ANTERIOR, "R03", 600000);
+		repositorioProducto.agregar(new ProductoTestDataBuilder().conCodigo("R04").conPrecio(100000).build());
+		sistemaPersistencia.terminar();
+	}
+
+	/**
+	 * Mtodo que permite verificar que el reajuste cambia el precio de los
+	 * productos, recalcula con el nivel que corresponde al precio nuevo las
+	 * garantas solicitadas desde la fecha de corte, deja igual las anteriores y
+	 * refresca las lecturas en memoria
+	 */
+	@Test
+	public void reajustarTest() {
+
+		// arrange
+		RepositorioGarantiaLectura repositorioLectura = sistemaPersistencia.obtenerRepositorioGarantiaLectura();
+		assertTrue(repositorioLectura.esperarMarcaAgua(0, 10000));
+		RepositorioProductoIndexado productosIndexado = sistemaPersistencia.obtenerRepositorioProductosIndexado();
+		ReajustePrecios reajuste = sistemaPersistencia.obtenerReajustePrecios(motorTarifas);
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+		List<ResumenReajuste> avances = new ArrayList<>();
+
+		// act
+		ResumenReajuste resumen = reajuste.reajustar(Arrays.asList("R01", "R02", "R03", "R04", "R01"),
+				TREINTA_PORCIENTO, FECHA_CORTE, avances::add);
+
+		// assert
+		assertEquals(78000000L, repositorioProducto.obtenerPorCodigo("R01").getPrecioCentavos());
+		assertEquals(52000000L, repositorioProducto.obtenerPorCodigo("R02").getPrecioCentavos());
+		assertEquals(vendedor.calcularPrecioGarantia(78000000L, Vendedor.VEINTE_PORCIENTO_PUNTOS_BASICOS),
+				repositorioGarantia.obtener("R01").getPrecioGarantiaCentavos());
+		assertEquals(vendedor.calcularPrecioGarantia(52000000L, Vendedor.VEINTE_PORCIENTO_PUNTOS_BASICOS),
+				repositorioGarantia.obtener("R02").getPrecioGarantiaCentavos());
+		assertEquals(vendedor.calcularPrecioGarantia(60000000L, Vendedor.VEINTE_PORCIENTO_PUNTOS_BASICOS),
+				repositorioGarantia.obtener("R03").getPrecioGarantiaCentavos());
+		assertEquals(repositorioGarantia.obtener("R02").getPrecioGarantiaCentavos(),
+				repositorioLectura.obtener("R02").getPrecioGarantiaCentavos());
+		assertEquals(Arrays.asList("R02", "R01", "R03"),
+				productosIndexado.buscarPorPrecioMayorA(50000000L, null, 5).stream().map(Producto::getCodigo)
+						.collect(Collectors.toList()));
+
+		assertEquals(4, resumen.getProductos());
+		assertEquals(2, resumen.getGarantias());
+		assertEquals(1, resumen.getTransacciones());
+		assertEquals(6, resumen.getMaximoFilasPorTransaccion());
+		assertEquals(resumen.getProductos(), avances.get(avances.size() - 1).getProductos());
+	}
+
+	/**
+	 * Mtodo que permite verificar que no se acepta un reajuste que deje los
+	 * precios en cero o negativos
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void reajusteSinPrecioTest() {
+
+		// arrange
+		ReajustePrecios reajuste = sistemaPersistencia.obtenerReajustePrecios(motorTarifas);
+
+		// act
+		reajuste.reajustar(Arrays.asList("R01"), -Dinero.PUNTOS_BASICOS_POR_UNIDAD, FECHA_CORTE, avance -> {
+		});
+	}
+
+	private void venderGarantia(LocalDate fechaSolicitud, String codigo, double precio) {
+		Clock reloj = Clock.fixed(fechaSolicitud.atStartOfDay(ZONA).toInstant(), ZONA);
+		repositorioProducto.agregar(new ProductoTestDataBuilder().conCodigo(codigo).conPrecio(precio).build());
+		new Vendedor(repositorioProducto, repositorioGarantia, reloj, motorTarifas).generarGarantia(codigo,
+				"Cliente " + codigo);
+	}
+}
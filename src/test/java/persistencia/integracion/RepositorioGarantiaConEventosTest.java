@@ -0,0 +1,72 @@
+package persistencia.integracion;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.evento.CanalEventosGarantia;
+import dominio.evento.EstrategiaEspera;
+import dominio.evento.Suscripcion;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class RepositorioGarantiaConEventosTest {
+
+	private SistemaDePersistencia sistemaPersistencia;
+	private CanalEventosGarantia canal;
+	private Suscripcion suscripcion;
+	private List<String> recibidos = new CopyOnWriteArrayList<>();
+
+	@Before
+	public void setUp() {
+		sistemaPersistencia = new SistemaDePersistencia();
+		canal = new CanalEventosGarantia();
+		suscripcion = canal.suscribir("prueba",
+				(garantia, secuencia, finDeLote) -> recibidos.add(garantia.getProducto().getCodigo()),
+				EstrategiaEspera.BLOQUEAR);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		suscripcion.cancelar(1000);
+	}
+
+	/**
+	 * Mtodo que permite verificar que la garanta se publica en el canal solo
+	 * cuando la transaccin de la venta se confirma
+	 */
+	@Test
+	public void publicaAlConfirmarTest() throws InterruptedException {
+
+		// arrange
+		RepositorioProducto repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		Vendedor vendedor = new Vendedor(repositorioProducto,
+				sistemaPersistencia.obtenerRepositorioGarantiaConEventos(canal));
+		Producto producto = new ProductoTestDataBuilder().build();
+
+		// act
+		sistemaPersistencia.iniciar();
+		repositorioProducto.agregar(producto);
+		vendedor.generarGarantia(producto.getCodigo(), "Cliente");
+		long publicadosAntesDeConfirmar = canal.getPublicados();
+		sistemaPersistencia.terminar();
+
+		long limite = System.currentTimeMillis() + 5000;
+		while (recibidos.isEmpty() && System.currentTimeMillis() < limite) {
+			Thread.sleep(1);
+		}
+
+		// assert
+		assertEquals(0, publicadosAntesDeConfirmar);
+		assertEquals(1, canal.getPublicados());
+		assertEquals(producto.getCodigo(), recibidos.get(0));
+	}
+}
@@ -0,0 +1,135 @@
+package persistencia.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.lectura.RepositorioGarantiaLectura;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class RepositorioGarantiaLecturaTest {
+
+	private static final String NOMBRE_CLIENTE = "Ricardo Ayala";
+	private static final String URL_BASE_DATOS = "jdbc:h2:mem:test";
+
+	private SistemaDePersistencia sistemaPersistencia;
+	private RepositorioProducto repositorioProducto;
+
+	@Before
+	public void setUp() {
+		sistemaPersistencia = new SistemaDePersistencia();
+		repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+	}
+
+	/**
+	 * Mtodo que permite verificar que el modelo de lectura se carga con las
+	 * garantas que ya existen en la base de datos
+	 */
+	@Test
+	public void cargaInicialTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().build();
+		sistemaPersistencia.iniciar();
+		repositorioProducto.agregar(producto);
+		new Vendedor(repositorioProducto, sistemaPersistencia.obtenerRepositorioGarantia())
+				.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE);
+		sistemaPersistencia.terminar();
+
+		// act
+		RepositorioGarantiaLectura repositorioLectura = sistemaPersistencia.obtenerRepositorioGarantiaLectura();
+
+		// assert
+		assertTrue(repositorioLectura.esperarMarcaAgua(0, 10000));
+		assertNotNull(repositorioLectura.obtener(producto.getCodigo()));
+		assertEquals(NOMBRE_CLIENTE, repositorioLectura.obtener(producto.getCodigo()).getNombreCliente());
+		assertEquals(0, repositorioLectura.getMarcaAgua());
+	}
+
+	/**
+	 * Mtodo que permite verificar que quien escribe lee su escritura antes de
+	 * confirmarla, y que el modelo la aplica una sola vez al confirmar
+	 */
+	@Test
+	public void escrituraSeAplicaAlConfirmarTest() {
+
+		// arrange
+		RepositorioGarantiaLectura repositorioLectura = sistemaPersistencia.obtenerRepositorioGarantiaLectura();
+		assertTrue(repositorioLectura.esperarMarcaAgua(0, 10000));
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioLectura);
+		Producto producto = new ProductoTestDataBuilder().build();
+		Producto otroProducto = new ProductoTestDataBuilder().conCodigo("F01TSA0151").build();
+
+		// act
+		sistemaPersistencia.iniciar();
+		repositorioProducto.agregar(producto);
+		vendedor.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE);
+		boolean tieneGarantiaAntesDeConfirmar = vendedor.tieneGarantia(producto.getCodigo());
+		long marcaAntesDeConfirmar = repositorioLectura.getMarcaAgua();
+		sistemaPersistencia.terminar();
+
+		sistemaPersistencia.iniciar();
+		repositorioProducto.agregar(otroProducto);
+		vendedor.generarGarantia(otroProducto.getCodigo(), NOMBRE_CLIENTE);
+		sistemaPersistencia.terminar();
+
+		// assert
+		assertTrue(tieneGarantiaAntesDeConfirmar);
+		assertEquals(0, marcaAntesDeConfirmar);
+		assertEquals(2, repositorioLectura.getMarcaAgua());
+		assertEquals(2, repositorioLectura.getUltimaEscritura());
+		assertTrue(vendedor.tieneGarantia(otroProducto.getCodigo()));
+	}
+
+	/**
+	 * Mtodo que permite verificar que una carga fallida del modelo de lectura
+	 * queda expuesta con su error y se reintenta al pedir de nuevo el
+	 * repositorio
+	 */
+	@Test
+	public void cargaFallidaSeReintentaTest() throws SQLException {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().build();
+		sistemaPersistencia.iniciar();
+		repositorioProducto.agregar(producto);
+		new Vendedor(repositorioProducto, sistemaPersistencia.obtenerRepositorioGarantia())
+				.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE);
+		sistemaPersistencia.terminar();
+
+		// act
+		boolean cargaFallida = false;
+		try (Connection conexion = DriverManager.getConnection(URL_BASE_DATOS)) {
+			conexion.createStatement().execute("ALTER TABLE GarantiaArchivada RENAME TO GarantiaArchivadaRetirada");
+			try {
+				sistemaPersistencia.obtenerRepositorioGarantiaLectura();
+				sistemaPersistencia.obtenerCargaModeloLectura().join();
+			} catch (CompletionException e) {
+				cargaFallida = true;
+			} finally {
+				conexion.createStatement()
+						.execute("ALTER TABLE GarantiaArchivadaRetirada RENAME TO GarantiaArchivada");
+			}
+		}
+		RepositorioGarantiaLectura repositorioLectura = sistemaPersistencia.obtenerRepositorioGarantiaLectura();
+
+		// assert
+		assertTrue(cargaFallida);
+		assertTrue(repositorioLectura.esperarMarcaAgua(0, 10000));
+		assertFalse(sistemaPersistencia.obtenerCargaModeloLectura().isCompletedExceptionally());
+		assertEquals(NOMBRE_CLIENTE, repositorioLectura.obtener(producto.getCodigo()).getNombreCliente());
+	}
+}
@@ -0,0 +1,85 @@
+package persistencia.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.sistema.SistemaDePersistencia;
+
+public class UnidadDeTrabajoTest {
+
+	private static final String NOMBRE_CLIENTE = "Ricardo Ayala";
+	private static final int OPERACIONES_POR_UNIDAD = 10;
+	private static final int VENTAS = 60;
+
+	private SistemaDePersistencia sistemaPersistencia;
+	private RepositorioProducto repositorioProducto;
+	private RepositorioGarantiaExtendida repositorioGarantia;
+
+	@Before
+	public void setUp() {
+		sistemaPersistencia = new SistemaDePersistencia(false, OPERACIONES_POR_UNIDAD);
+		repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+	}
+
+	/**
+	 * Mtodo que permite verificar que el contexto de persistencia no crece con
+	 * las ventas de una misma transaccin y que todas quedan guardadas
+	 */
+	@Test
+	public void contextoAcotadoDuranteLaTransaccionTest() {
+
+		// arrange
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia);
+		int tamanoMaximo = 0;
+
+		// act
+		sistemaPersistencia.iniciar();
+		for (int i = 0; i < VENTAS; i++) {
+			String codigo = String.format("U%05dT", i);
+			repositorioProducto.agregar(new Producto(codigo, "Producto " + i, 780000));
+			vendedor.generarGarantia(codigo, NOMBRE_CLIENTE);
+			tamanoMaximo = Math.max(tamanoMaximo, sistemaPersistencia.getTamanoContexto());
+		}
+		sistemaPersistencia.terminar();
+
+		// assert
+		assertTrue("Tamano maximo del contexto: " + tamanoMaximo, tamanoMaximo <= 2 * OPERACIONES_POR_UNIDAD);
+		assertEquals(0, sistemaPersistencia.getTamanoContexto());
+		for (int i = 0; i < VENTAS; i++) {
+			assertNotNull(repositorioGarantia.obtener(String.format("U%05dT", i)));
+		}
+	}
+
+	/**
+	 * Mtodo que permite verificar que las lecturas no dejan entidades
+	 * administradas en el contexto
+	 */
+	@Test
+	public void lecturasDesasociadasTest() {
+
+		// arrange
+		sistemaPersistencia.iniciar();
+		repositorioProducto.agregar(new Producto("U99999T", "Producto", 780000));
+		new Vendedor(repositorioProducto, repositorioGarantia).generarGarantia("U99999T", NOMBRE_CLIENTE);
+		sistemaPersistencia.terminar();
+
+		// act
+		sistemaPersistencia.iniciar();
+		repositorioProducto.obtenerPorCodigo("U99999T");
+		repositorioGarantia.obtener("U99999T");
+		repositorioGarantia.obtenerProductoConGarantiaPorCodigo("U99999T");
+
+		// assert
+		assertEquals(0, sistemaPersistencia.getTamanoContexto());
+		sistemaPersistencia.terminar();
+	}
+}
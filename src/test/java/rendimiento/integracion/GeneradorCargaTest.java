@@ -0,0 +1,47 @@
+package rendimiento.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import rendimiento.carga.ConfiguracionCarga;
+import rendimiento.carga.GeneradorCarga;
+
+public class GeneradorCargaTest {
+
+	private static final Pattern OPERACIONES = Pattern.compile("\"operaciones\": (\\d+),");
+
+	/**
+	 * Mtodo que permite verificar que con tasa 0 la carga se ejecuta sin lmite
+	 * de tasa y completa operaciones sin errores
+	 */
+	@Test
+	public void tasaCeroSinLimiteTest() throws InterruptedException {
+
+		// arrange
+		ConfiguracionCarga configuracion = ConfiguracionCarga
+				.leer(new String[] { "productos=20", "hilos=1", "tasa=0", "calentamiento=0", "duracion=1" });
+
+		// act
+		String reporte = new GeneradorCarga(configuracion).ejecutar();
+
+		// assert
+		assertEquals(0, configuracion.getTasa());
+		Matcher operaciones = OPERACIONES.matcher(reporte);
+		assertTrue(operaciones.find());
+		assertTrue(Long.parseLong(operaciones.group(1)) > 0);
+		assertTrue(reporte.contains("\"errores\": 0,"));
+	}
+
+	/**
+	 * Mtodo que permite verificar que una tasa negativa se rechaza
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void tasaNegativaTest() {
+		ConfiguracionCarga.leer(new String[] { "tasa=-1" });
+	}
+}